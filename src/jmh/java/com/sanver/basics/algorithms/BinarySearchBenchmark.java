@@ -0,0 +1,108 @@
+package com.sanver.basics.algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the average time of a lookup of a random key with {@link Arrays#binarySearch(int[], int)}, {@link BinarySearch} and {@link EytzingerLayout}, one at a time and in batches.
+ * The sizes are 16 KB, 256 KB, 4 MB and 256 MB of ints, i.e. in the L1 cache, the L2 cache, the L3 cache and the memory of most machines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BinarySearchBenchmark {
+    static final int KEY_COUNT = 4_096;
+
+    @Param({"4096", "65536", "1048576", "67108864"})
+    public int size;
+
+    private final BinarySearch binarySearch = new BinarySearch();
+    private int[] array;
+    private EytzingerLayout layout;
+    private int[] keys;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        array = random.ints(size).sorted().toArray();
+        layout = new EytzingerLayout(array);
+        keys = random.ints(KEY_COUNT).toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public int arraysBinarySearch() {
+        int sum = 0;
+
+        for (int key : keys) {
+            sum += Arrays.binarySearch(array, key);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public int searchFirst() {
+        int sum = 0;
+
+        for (int key : keys) {
+            sum += binarySearch.searchFirst(array, key);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public int lowerBound() {
+        int sum = 0;
+
+        for (int key : keys) {
+            sum += binarySearch.lowerBound(array, key);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public int[] searchAll() {
+        return binarySearch.searchAll(array, keys);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public int eytzingerSearch() {
+        int sum = 0;
+
+        for (int key : keys) {
+            sum += layout.search(key);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public int[] eytzingerSearchAll() {
+        return layout.searchAll(keys);
+    }
+}
@@ -0,0 +1,65 @@
+package com.sanver.basics.algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DijkstrasAlgorithm#findShortestPath(int[][], int, int)} with {@link CsrDijkstra#findShortestPath(CsrGraph, int, int)} on the same random sparse graph,
+ * searching from node 0 to a random node for each invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DijkstraBenchmark {
+    @Param({"1000", "5000"})
+    public int nodeCount;
+
+    @Param({"4", "16"})
+    public int edgesPerNode;
+
+    private int[][] matrix;
+    private CsrGraph graph;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        matrix = new int[nodeCount][nodeCount];
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int k = 0; k < edgesPerNode; k++) {
+                int j = random.nextInt(nodeCount);
+                if (i != j) {
+                    matrix[i][j] = random.nextInt(1, 100);
+                }
+            }
+        }
+
+        graph = CsrGraph.fromMatrix(matrix);
+    }
+
+    @Benchmark
+    public DijkstrasAlgorithm.PathDetails matrixDijkstra() {
+        return DijkstrasAlgorithm.findShortestPath(matrix, 0, random.nextInt(nodeCount));
+    }
+
+    @Benchmark
+    public DijkstrasAlgorithm.PathDetails csrDijkstra() {
+        return CsrDijkstra.findShortestPath(graph, 0, random.nextInt(nodeCount));
+    }
+}
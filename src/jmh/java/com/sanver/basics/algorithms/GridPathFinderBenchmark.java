@@ -0,0 +1,65 @@
+package com.sanver.basics.algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DijkstrasAlgorithmExample2#findMinPath(int[][], int, int)} with {@link GridPathFinder#findMinPath(int, int)} and {@link GridPathFinder#findMinPathBidirectional(int, int)}
+ * on the same random grid from (0, 0) to the opposite corner. The minimum cell value changes how much A* gains from its heuristic.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class GridPathFinderBenchmark {
+    @Param({"500", "2000"})
+    public int n;
+
+    @Param({"1", "5"})
+    public int minimumCellValue;
+
+    private int[][] matrix;
+    private GridPathFinder finder;
+
+    @Setup
+    public void setup() {
+        var costs = new Random(42).ints(n * n, minimumCellValue, 10).toArray();
+        matrix = new int[n][];
+
+        for (int x = 0; x < n; x++) {
+            matrix[x] = Arrays.copyOfRange(costs, x * n, (x + 1) * n);
+        }
+
+        finder = new GridPathFinder(n, n, costs);
+    }
+
+    @Benchmark
+    public Object dijkstrasAlgorithmExample2() {
+        return DijkstrasAlgorithmExample2.findMinPath(matrix, n - 1, n - 1);
+    }
+
+    @Benchmark
+    public Object aStar() {
+        return finder.findMinPath(n - 1, n - 1);
+    }
+
+    @Benchmark
+    public Object bidirectional() {
+        return finder.findMinPathBidirectional(n - 1, n - 1);
+    }
+}
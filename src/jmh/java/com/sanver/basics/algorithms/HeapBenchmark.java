@@ -0,0 +1,99 @@
+package com.sanver.basics.algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link IntHeapSort} with {@link HeapSort} and {@link Arrays#sort(int[])}, and adding and polling all the values of {@link IntMinHeap} with {@code PriorityQueue<Integer>} as used in
+ * {@link com.sanver.basics.collections.PriorityQueueSample}. The array to sort is copied before every invocation outside the measured region.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HeapBenchmark {
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"2", "4", "8"})
+    public int arity;
+
+    private int[] originalArray;
+    private int[] array;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        originalArray = new Random(42).ints(size).toArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        array = originalArray.clone();
+    }
+
+    @Benchmark
+    public int[] intHeapSort() {
+        IntHeapSort.sort(array, arity);
+        return array;
+    }
+
+    @Benchmark
+    public int[] heapSort() {
+        HeapSort.heapSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public void priorityQueue(Blackhole blackhole) {
+        var priorityQueue = new PriorityQueue<Integer>(size);
+        for (int value : array) {
+            priorityQueue.offer(value);
+        }
+        while (!priorityQueue.isEmpty()) {
+            blackhole.consume(priorityQueue.poll());
+        }
+    }
+
+    @Benchmark
+    public void intMinHeapAdd(Blackhole blackhole) {
+        var minHeap = new IntMinHeap(size, arity);
+        for (int value : array) {
+            minHeap.add(value);
+        }
+        while (!minHeap.isEmpty()) {
+            blackhole.consume(minHeap.poll());
+        }
+    }
+
+    @Benchmark
+    public void intMinHeapHeapify(Blackhole blackhole) {
+        var minHeap = IntMinHeap.heapify(array, arity);
+        while (!minHeap.isEmpty()) {
+            blackhole.consume(minHeap.poll());
+        }
+    }
+}
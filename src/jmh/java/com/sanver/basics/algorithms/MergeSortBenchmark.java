@@ -0,0 +1,81 @@
+package com.sanver.basics.algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares {@link MergeSort#parallelMergeSort(int[])} with {@link Arrays#parallelSort(int[])}, the sequential {@link Arrays#sort(int[])} and the original {@link MergeSort#mergeSort(int[])}.
+ * The array to sort is copied before every invocation outside the measured region.
+ * Run with {@code -prof gc} to compare the allocated bytes per sort.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MergeSortBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"random", "sorted", "fewDistinct"})
+    public String distribution;
+
+    private int[] originalArray;
+    private int[] array;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        var random = new Random(42);
+        originalArray = switch (distribution) {
+            case "random" -> random.ints(size).toArray();
+            case "sorted" -> IntStream.range(0, size).toArray();
+            case "fewDistinct" -> random.ints(size, 0, 16).toArray();
+            default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        };
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        array = originalArray.clone();
+    }
+
+    @Benchmark
+    public int[] parallelMergeSort() {
+        MergeSort.parallelMergeSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort() {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] mergeSort() {
+        MergeSort.mergeSort(array);
+        return array;
+    }
+}
@@ -0,0 +1,109 @@
+package com.sanver.basics.algorithms;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a batch of {@value #QUERY_COUNT} local queries on a large graph, with {@link CsrDijkstra} allocating its arrays for each query,
+ * and with {@link ShortestPathEngine} reusing them sequentially and in parallel. The queries are between nearby nodes, so a query visits a small part of the graph.
+ * It also compares a search per target with {@link ShortestPathEngine#findDistances(int, int[])}, which settles all the targets near one source in one search.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ShortestPathEngineBenchmark {
+    static final int QUERY_COUNT = 256;
+
+    @Param({"100000", "1000000"})
+    public int nodeCount;
+
+    private CsrGraph graph;
+    private ShortestPathEngine engine;
+    private int[] sources;
+    private int[] targets;
+    private int[] nearbyTargets;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        var builder = new CsrGraph.Builder().setNodeCount(nodeCount);
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int k = 0; k < 2; k++) {
+                builder.addUndirectedEdge(i, Math.floorMod(i + random.nextInt(-50, 50), nodeCount), random.nextInt(1, 100));
+            }
+        }
+
+        graph = builder.build();
+        engine = new ShortestPathEngine(graph);
+        sources = random.ints(QUERY_COUNT, 0, nodeCount).toArray();
+        targets = Arrays.stream(sources).map(source -> Math.floorMod(source + random.nextInt(-2_000, 2_000), nodeCount)).toArray();
+        nearbyTargets = random.ints(QUERY_COUNT, -2_000, 2_000).map(offset -> Math.floorMod(sources[0] + offset, nodeCount)).toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int csrDijkstra() {
+        int sum = 0;
+
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            var path = CsrDijkstra.findShortestPath(graph, sources[i], targets[i]);
+            sum += path == null ? 0 : path.distance();
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int engineSequential() {
+        int sum = 0;
+
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            sum += engine.findDistance(sources[i], targets[i]);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int[] engineParallel() {
+        return engine.findDistancesInParallel(sources, targets);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int searchPerTarget() {
+        int sum = 0;
+
+        for (int target : nearbyTargets) {
+            sum += engine.findDistance(sources[0], target);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERY_COUNT)
+    public int[] oneToManySearch() {
+        return engine.findDistances(sources[0], nearbyTargets);
+    }
+}
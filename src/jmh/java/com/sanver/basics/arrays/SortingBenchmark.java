@@ -0,0 +1,101 @@
+package com.sanver.basics.arrays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH port of {@link SortingPerformance}.
+ * The array to sort is copied before every invocation outside the measured region. A shallow copy is enough, since sorting only reorders the inner arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SortingBenchmark {
+    private static final Comparator<long[]> COMPARING = Comparator.comparing(a -> a[0]);
+    private static final Comparator<Long> NATURAL_ORDER = Comparator.naturalOrder();
+    private static final Comparator<long[]> COMPARING_LONG = Comparator.comparingLong(x -> x[0]);
+    private static final Comparator<long[]> CUSTOM_COMPARER = (x, y) -> {
+        long a = x[0];
+        long b = y[0];
+
+        if (a < b) {
+            return -1;
+        }
+        if (a > b) {
+            return 1;
+        }
+        return 0;
+    };
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private long[][] originalArray;
+    private long[][] array;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        originalArray = new long[size][];
+        for (int i = 0; i < size; i++) {
+            originalArray[i] = new long[]{(long) (Integer.MAX_VALUE * Math.sin(i)), 0};
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        array = Arrays.copyOf(originalArray, originalArray.length);
+    }
+
+    @Benchmark
+    public long[][] comparing() {
+        Arrays.sort(array, COMPARING);
+        return array;
+    }
+
+    @Benchmark
+    public long[][] naturalOrderCompare() {
+        Arrays.sort(array, (x, y) -> NATURAL_ORDER.compare(x[0], y[0]));
+        return array;
+    }
+
+    @Benchmark
+    public long[][] longCompare() {
+        Arrays.sort(array, (x, y) -> Long.compare(x[0], y[0]));
+        return array;
+    }
+
+    @Benchmark
+    public long[][] comparingLong() {
+        Arrays.sort(array, COMPARING_LONG);
+        return array;
+    }
+
+    @Benchmark
+    public long[][] customComparer() {
+        Arrays.sort(array, CUSTOM_COMPARER);
+        return array;
+    }
+
+    @Benchmark
+    public long[][] longCompareParallelSort() {
+        Arrays.parallelSort(array, (x, y) -> Long.compare(x[0], y[0]));
+        return array;
+    }
+}
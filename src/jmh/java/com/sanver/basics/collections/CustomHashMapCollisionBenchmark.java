@@ -0,0 +1,97 @@
+package com.sanver.basics.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates a hash collision attack on {@link CustomHashMap}: all keys have the same {@code hashCode()}, so they end up in a single bucket.
+ * With {@code Comparable} keys the bucket is a tree and a lookup is O(log n).
+ * The non comparable keys can't be ordered inside the tree, so their lookups are O(n), which is how every lookup behaved before buckets were treeified.
+ * Compare the scores across the {@code size} values: the comparable key lookups should grow logarithmically and the non comparable ones linearly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CustomHashMapCollisionBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private CustomHashMap<CollidingKey, Integer> comparableKeyMap;
+    private CustomHashMap<NonComparableCollidingKey, Integer> nonComparableKeyMap;
+    private HashMap<CollidingKey, Integer> hashMap;
+    private CollidingKey[] comparableKeys;
+    private NonComparableCollidingKey[] nonComparableKeys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        comparableKeyMap = new CustomHashMap<>();
+        nonComparableKeyMap = new CustomHashMap<>();
+        hashMap = new HashMap<>();
+        comparableKeys = new CollidingKey[size];
+        nonComparableKeys = new NonComparableCollidingKey[size];
+
+        for (int i = 0; i < size; i++) {
+            comparableKeys[i] = new CollidingKey(i);
+            nonComparableKeys[i] = new NonComparableCollidingKey(i);
+            comparableKeyMap.put(comparableKeys[i], i);
+            nonComparableKeyMap.put(nonComparableKeys[i], i);
+            hashMap.put(comparableKeys[i], i);
+        }
+    }
+
+    @Benchmark
+    public Integer comparableKeys() {
+        return comparableKeyMap.get(comparableKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer nonComparableKeys() {
+        return nonComparableKeyMap.get(nonComparableKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer hashMapComparableKeys() {
+        return hashMap.get(comparableKeys[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == size ? 0 : index + 1;
+        return index;
+    }
+
+    record CollidingKey(int id) implements Comparable<CollidingKey> {
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public int compareTo(CollidingKey other) {
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    record NonComparableCollidingKey(int id) {
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
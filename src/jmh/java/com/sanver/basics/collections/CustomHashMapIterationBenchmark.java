@@ -0,0 +1,73 @@
+package com.sanver.basics.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures iterating over the {@link CustomHashMap} views sequentially and with a parallel stream, with {@link HashMap} as the reference.
+ * Run with {@code -prof gc} to see that iterating the views doesn't allocate per entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CustomHashMapIterationBenchmark {
+    @Param({"100000", "10000000"})
+    public int size;
+
+    private CustomHashMap<Integer, Integer> customHashMap;
+    private HashMap<Integer, Integer> hashMap;
+
+    @Setup
+    public void setup() {
+        customHashMap = new CustomHashMap<>();
+        hashMap = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            customHashMap.put(i, i);
+            hashMap.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public long customHashMapEntrySet() {
+        long sum = 0;
+        for (var entry : customHashMap.entrySet()) {
+            sum += entry.getValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long customHashMapEntrySetParallelStream() {
+        return customHashMap.entrySet().parallelStream().mapToLong(entry -> entry.getValue()).sum();
+    }
+
+    @Benchmark
+    public long hashMapEntrySet() {
+        long sum = 0;
+        for (var entry : hashMap.entrySet()) {
+            sum += entry.getValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long hashMapEntrySetParallelStream() {
+        return hashMap.entrySet().parallelStream().mapToLong(entry -> entry.getValue()).sum();
+    }
+}
@@ -0,0 +1,64 @@
+package com.sanver.basics.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the latency of single {@link CustomHashMap#put} calls with and without incremental resize.
+ * Keys are put until the map has {@code size} entries, then the map is replaced with an empty one, so every iteration goes through all the resizes up to {@code size}.
+ * The sample time mode reports the p0.99, p0.999, p0.9999 and max percentiles, which is where the resize spikes show up.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class CustomHashMapPutLatencyBenchmark {
+    @Param({"false", "true"})
+    public boolean incrementalResize;
+
+    @Param({"1000000", "4000000"})
+    public int size;
+
+    private Integer[] keys;
+    private CustomHashMap<Integer, Integer> map;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i * 31;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        map = new CustomHashMap<>(incrementalResize);
+        next = 0;
+    }
+
+    @Benchmark
+    public Integer put() {
+        if (next == size) {
+            map = new CustomHashMap<>(incrementalResize);
+            next = 0;
+        }
+
+        var key = keys[next++];
+        return map.put(key, key);
+    }
+}
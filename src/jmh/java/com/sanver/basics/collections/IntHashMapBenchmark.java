@@ -0,0 +1,134 @@
+package com.sanver.basics.collections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link IntObjectHashMap} and {@link IntIntHashMap} with {@link CustomHashMap} and {@link HashMap} for int keys.
+ * The put benchmarks fill an empty map with {@code size} random keys, so they include the cost of every resize.
+ * The get benchmarks look up all keys of a populated map.
+ * <p>
+ * Run with {@code -prof gc} to also get {@code gc.alloc.rate.norm}, the bytes allocated per filled map. Divided by {@code size} it gives the allocated bytes per entry.
+ * {@link IntHashMapFootprint} prints the retained bytes per entry.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class IntHashMapBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private int[] keys;
+    private IntObjectHashMap<Integer> intObjectHashMap;
+    private IntIntHashMap intIntHashMap;
+    private CustomHashMap<Integer, Integer> customHashMap;
+    private HashMap<Integer, Integer> hashMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = new Random(42).ints(size).toArray();
+        intObjectHashMap = fillIntObjectHashMap();
+        intIntHashMap = fillIntIntHashMap();
+        customHashMap = fillCustomHashMap();
+        hashMap = fillHashMap();
+    }
+
+    @Benchmark
+    public IntObjectHashMap<Integer> putIntObjectHashMap() {
+        return fillIntObjectHashMap();
+    }
+
+    @Benchmark
+    public IntIntHashMap putIntIntHashMap() {
+        return fillIntIntHashMap();
+    }
+
+    @Benchmark
+    public CustomHashMap<Integer, Integer> putCustomHashMap() {
+        return fillCustomHashMap();
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> putHashMap() {
+        return fillHashMap();
+    }
+
+    @Benchmark
+    public void getIntObjectHashMap(Blackhole blackhole) {
+        for (var key : keys) {
+            blackhole.consume(intObjectHashMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void getIntIntHashMap(Blackhole blackhole) {
+        for (var key : keys) {
+            blackhole.consume(intIntHashMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void getCustomHashMap(Blackhole blackhole) {
+        for (var key : keys) {
+            blackhole.consume(customHashMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void getHashMap(Blackhole blackhole) {
+        for (var key : keys) {
+            blackhole.consume(hashMap.get(key));
+        }
+    }
+
+    private IntObjectHashMap<Integer> fillIntObjectHashMap() {
+        var map = new IntObjectHashMap<Integer>();
+        for (var key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    private IntIntHashMap fillIntIntHashMap() {
+        var map = new IntIntHashMap();
+        for (var key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    private CustomHashMap<Integer, Integer> fillCustomHashMap() {
+        var map = new CustomHashMap<Integer, Integer>();
+        for (var key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    private HashMap<Integer, Integer> fillHashMap() {
+        var map = new HashMap<Integer, Integer>();
+        for (var key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+}
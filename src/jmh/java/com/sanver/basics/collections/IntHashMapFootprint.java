@@ -0,0 +1,63 @@
+package com.sanver.basics.collections;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Prints the retained heap bytes per entry of the int keyed maps compared in {@link IntHashMapBenchmark}.
+ * The numbers are estimates based on the used heap after a full gc, so run it with a fixed heap, e.g. {@code -Xms4g -Xmx4g}.
+ * Keys and values are the same {@code int}, so the boxed maps pay for one {@code Integer} per entry on top of their nodes.
+ */
+public class IntHashMapFootprint {
+    private static final int SIZE = 1_000_000;
+
+    public static void main(String[] args) {
+        var keys = new Random(42).ints(SIZE).distinct().toArray();
+        System.out.printf("Retained bytes per entry for %,d entries%n", keys.length);
+        print("IntIntHashMap", keys, k -> {
+            var map = new IntIntHashMap();
+            for (var key : k) {
+                map.put(key, key);
+            }
+            return map;
+        });
+        print("IntObjectHashMap", keys, k -> {
+            var map = new IntObjectHashMap<Integer>();
+            for (var key : k) {
+                map.put(key, key);
+            }
+            return map;
+        });
+        print("CustomHashMap", keys, k -> {
+            var map = new CustomHashMap<Integer, Integer>();
+            for (var key : k) {
+                map.put(key, key);
+            }
+            return map;
+        });
+        print("HashMap", keys, k -> {
+            var map = new HashMap<Integer, Integer>();
+            for (var key : k) {
+                map.put(key, key);
+            }
+            return map;
+        });
+    }
+
+    private static void print(String name, int[] keys, Function<int[], Object> filler) {
+        var before = usedMemory();
+        var map = filler.apply(keys);
+        var after = usedMemory();
+        System.out.printf("%-17s %6.1f%n", name, (after - before) / (double) keys.length);
+        System.out.print(map.hashCode() == 0 ? " " : ""); // Keeps the map reachable until it is measured
+    }
+
+    private static long usedMemory() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
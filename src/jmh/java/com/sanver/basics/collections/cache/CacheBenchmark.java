@@ -0,0 +1,139 @@
+package com.sanver.basics.collections.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Compares the throughput of {@link BoundedCache} with a synchronized, access ordered {@link LinkedHashMap} like {@link com.sanver.basics.collections.LinkedHashMapForCaching},
+ * read by 8 threads with Zipf distributed keys. A miss puts the key, so the benchmark also includes the evictions.
+ * Run with {@code -t} to change the number of the threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+    private static final int KEY_COUNT = 1 << 16;
+    private static final int MASK = KEY_COUNT - 1;
+
+    @Param({"BoundedCacheLru", "BoundedCacheWindowTinyLfu", "synchronizedLinkedHashMap"})
+    public String cacheType;
+
+    @Param({"10000"})
+    public int maximumSize;
+
+    private Cache<Integer, Integer> cache;
+    private Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache = switch (cacheType) {
+            case "BoundedCacheLru" -> new BoundedCache.Builder<Integer, Integer>().setMaximumSize(maximumSize).setEvictionPolicy(EvictionPolicy.LRU).build();
+            case "BoundedCacheWindowTinyLfu" -> new BoundedCache.Builder<Integer, Integer>().setMaximumSize(maximumSize).build();
+            case "synchronizedLinkedHashMap" -> new SynchronizedLinkedHashMapCache<>(maximumSize);
+            default -> throw new IllegalArgumentException("Unknown cache type: " + cacheType);
+        };
+
+        // Boxed once, so that the benchmark doesn't measure the boxing of large keys
+        var zipf = CacheHitRateComparison.zipfKeys(KEY_COUNT, maximumSize * 10, 0.9, 42);
+        keys = new Integer[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = zipf[i];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger seed = new AtomicInteger();
+        int index = seed.getAndAdd(KEY_COUNT / 8);
+    }
+
+    @Benchmark
+    public Integer get(ThreadState state) {
+        var key = keys[state.index++ & MASK];
+        var value = cache.get(key);
+
+        if (value == null) {
+            cache.put(key, key);
+            return key;
+        }
+
+        return value;
+    }
+
+    /**
+     * The {@link Cache} API over an access ordered LinkedHashMap, where every read locks the whole map since it moves the entry to the end of the linked list.
+     */
+    static class SynchronizedLinkedHashMapCache<K, V> implements Cache<K, V> {
+        private final Map<K, V> map;
+
+        SynchronizedLinkedHashMapCache(int maximumSize) {
+            map = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > maximumSize;
+                }
+            });
+        }
+
+        @Override
+        public V get(K key) {
+            return map.get(key);
+        }
+
+        @Override
+        public V get(K key, Function<? super K, ? extends V> loader) {
+            return map.computeIfAbsent(key, loader);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public void invalidate(K key) {
+            map.remove(key);
+        }
+
+        @Override
+        public void invalidateAll() {
+            map.clear();
+        }
+
+        @Override
+        public long estimatedSize() {
+            return map.size();
+        }
+
+        @Override
+        public CacheStats stats() {
+            return new CacheStats(0, 0, 0, 0, 0, 0, 0);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.sanver.basics.concurrentcollections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * JMH port of {@link ConcurrentMapsPerformanceComparison}.
+ * Each invocation writes (or reads) {@code size} keys split into {@code threads} equal blocks, which mirrors the block layout of the original comparison.
+ * The map types are measured one after another in separate forks instead of competing for the same cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConcurrentMapsBenchmark {
+    @Param({"ConcurrentHashMap", "ConcurrentCustomHashMap", "ConcurrentSkipListMap", "Hashtable", "synchronizedMap"})
+    public String mapType;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    private ExecutorService pool;
+    private Map<Integer, String> populatedMap;
+    private Map<Integer, String> emptyMap;
+    private String[] values;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        pool = Executors.newFixedThreadPool(threads);
+        values = IntStream.range(0, threads).mapToObj(String::valueOf).toArray(String[]::new);
+        populatedMap = createMap(mapType);
+        fill(populatedMap);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        emptyMap = createMap(mapType);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<Integer, String> put() {
+        fill(emptyMap);
+        return emptyMap;
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        var block = size / threads;
+        var futures = IntStream.range(0, threads)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < block; j++) {
+                        blackhole.consume(populatedMap.get(i * block + j));
+                    }
+                }, pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private void fill(Map<Integer, String> map) {
+        var block = size / threads;
+        var futures = IntStream.range(0, threads)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < block; j++) {
+                        map.put(i * block + j, values[i]);
+                    }
+                }, pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+    }
+
+    static Map<Integer, String> createMap(String mapType) {
+        return switch (mapType) {
+            case "ConcurrentHashMap" -> new ConcurrentHashMap<>();
+            case "ConcurrentCustomHashMap" -> new ConcurrentCustomHashMap<>();
+            case "ConcurrentSkipListMap" -> new ConcurrentSkipListMap<>();
+            case "Hashtable" -> new Hashtable<>();
+            case "synchronizedMap" -> Collections.synchronizedMap(new HashMap<>());
+            default -> throw new IllegalArgumentException("Unknown map type: " + mapType);
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package com.sanver.basics.concurrentcollections;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * JMH port of {@link SyncPerformance}.
+ * Every invocation adds {@code increment} items per thread to a fresh collection, so the list growth cost is the same for every contender.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SyncBenchmark {
+    @Param({"100000", "1000000"})
+    public int increment;
+
+    @Param({"1", "2", "6"})
+    public int threads;
+
+    private ExecutorService pool;
+    private List<Integer> arrayList;
+    private List<Integer> synchronizedList;
+    private Collection<Integer> synchronizedCollection;
+    private Vector<Integer> vector;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        pool = Executors.newFixedThreadPool(threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        arrayList = new ArrayList<>();
+        synchronizedList = Collections.synchronizedList(new ArrayList<>());
+        synchronizedCollection = Collections.synchronizedCollection(new ArrayList<>());
+        vector = new Vector<>();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Single threaded baseline. Unsynchronized adds from several threads lose items or throw, so the same number of items is added on the calling thread.
+     */
+    @Benchmark
+    public Collection<Integer> unsynchronizedArrayList() {
+        var total = threads * increment;
+        for (int i = 0; i < total; i++) {
+            arrayList.add(i);
+        }
+        return arrayList;
+    }
+
+    @Benchmark
+    public Collection<Integer> synchronizedBlock() {
+        var list = arrayList;
+        run(i -> {
+            synchronized (list) {
+                list.add(i);
+            }
+        });
+        return list;
+    }
+
+    @Benchmark
+    public Collection<Integer> collectionsSynchronizedList() {
+        run(synchronizedList::add);
+        return synchronizedList;
+    }
+
+    @Benchmark
+    public Collection<Integer> collectionsSynchronizedCollection() {
+        run(synchronizedCollection::add);
+        return synchronizedCollection;
+    }
+
+    @Benchmark
+    public Collection<Integer> vector() {
+        run(vector::add);
+        return vector;
+    }
+
+    private void run(IntConsumer add) {
+        var futures = IntStream.range(0, threads)
+                .mapToObj(x -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < increment; i++) {
+                        add.accept(i + x * increment);
+                    }
+                }, pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+    }
+}
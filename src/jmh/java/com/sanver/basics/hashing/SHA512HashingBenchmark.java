@@ -0,0 +1,65 @@
+package com.sanver.basics.hashing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures how the throughput of hashing a batch of {@value #MESSAGE_COUNT} messages scales with the number of threads, with the synchronized {@link SHA512HashingWithSalt#hash(String)}
+ * and with {@link SHA512HashingService}, both run on a {@link ForkJoinPool} of the given size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SHA512HashingBenchmark {
+    static final int MESSAGE_COUNT = 10_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private SHA512HashingService service;
+    private List<String> messages;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool(threads);
+        service = new SHA512HashingService(new SHA512HashingService.SaltSource(), pool);
+        messages = IntStream.range(0, MESSAGE_COUNT).mapToObj(i -> "message " + i).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_COUNT)
+    public List<String> synchronizedHash() {
+        return pool.submit(() -> messages.parallelStream().map(SHA512HashingWithSalt::hash).toList()).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_COUNT)
+    public List<String> hashAll() {
+        return service.hashAll(messages);
+    }
+}
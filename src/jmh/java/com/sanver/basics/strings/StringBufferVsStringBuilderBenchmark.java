@@ -0,0 +1,57 @@
+package com.sanver.basics.strings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH port of {@link StringBufferVsStringBuilderPerformanceTest}.
+ * One operation is a single append followed by a delete.
+ * Unlike the original loop, the whole message is deleted, so the buffers don't grow by one character per operation during long measurement iterations.
+ * The buffers are per thread, so the {@code StringBuffer} locks are uncontended, which is the usual situation in real code.
+ * Run with {@code -t <n>} to see how the numbers change with more threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(1)
+@State(Scope.Thread)
+public class StringBufferVsStringBuilderBenchmark {
+    private static final String MESSAGE = "Selamunaleykum";
+    private static final int MESSAGE_LENGTH = MESSAGE.length();
+
+    private StringBuffer buffer;
+    private StringBuilder builder;
+
+    @Setup
+    public void setup() {
+        buffer = new StringBuffer();
+        builder = new StringBuilder();
+    }
+
+    @Benchmark
+    public StringBuffer stringBuffer() {
+        buffer.append(MESSAGE);
+        buffer.delete(0, MESSAGE_LENGTH);
+        return buffer;
+    }
+
+    @Benchmark
+    public StringBuilder stringBuilder() {
+        builder.append(MESSAGE);
+        builder.delete(0, MESSAGE_LENGTH);
+        return builder;
+    }
+}
@@ -1,6 +1,10 @@
 package com.sanver.basics.algorithms;
 
+import java.util.Arrays;
+
 public class BinarySearch {
+    static final int LANES = 8;
+
     public int search(int[] array, int key) {
         return search(array, 0, array.length, key);
     }
@@ -76,4 +80,70 @@ public class BinarySearch {
 
         return ~low;
     }
+
+    /**
+     * Returns the index of the first element that is not less than the key, or toIndex if there is none, without a branch that depends on the comparison.
+     * <p>
+     * The loops above take a different branch depending on each comparison, which is a coin flip for random keys, so the CPU mispredicts half of them and throws away the work it did speculatively.
+     * Here the range is halved a fixed number of times for a given length, and the comparison only selects the next base, which the JIT can compile to a conditional move.
+     * The loop also doesn't stop early on a match, so it does log2(n) iterations every time, but they don't stall.
+     * </p>
+     */
+    public int lowerBound(int[] array, int key) {
+        return lowerBound(array, 0, array.length, key);
+    }
+
+    public int lowerBound(int[] array, int fromIndex, int toIndex, int key) {
+        int base = fromIndex, length = toIndex - fromIndex;
+
+        if (length == 0) {
+            return fromIndex;
+        }
+
+        while (length > 1) {
+            int half = length >>> 1;
+            base = array[base + half] < key ? base + half : base;
+            length -= half;
+        }
+
+        return array[base] < key ? base + 1 : base;
+    }
+
+    /**
+     * Searches all the keys with the same result as {@link #searchFirst(int[], int)} for each, i.e. the index of the first match or ~insertionPoint.
+     * <p>
+     * The keys are searched {@value #LANES} at a time with {@link #lowerBound(int[], int)}, advancing each search one step before the next step of any search.
+     * A single search has to wait for each element it reads before it knows which element to read next, so on an array larger than the cache it mostly waits for memory.
+     * The steps of different searches don't depend on each other, so the CPU can wait for the elements of all {@value #LANES} at the same time.
+     * </p>
+     */
+    public int[] searchAll(int[] array, int[] keys) {
+        int length = array.length;
+        var result = new int[keys.length];
+        var bases = new int[LANES];
+
+        for (int start = 0; start < keys.length; start += LANES) {
+            int lanes = Math.min(LANES, keys.length - start);
+            Arrays.fill(bases, 0);
+
+            for (int remaining = length; remaining > 1; ) {
+                int half = remaining >>> 1;
+
+                for (int lane = 0; lane < lanes; lane++) {
+                    int base = bases[lane];
+                    bases[lane] = array[base + half] < keys[start + lane] ? base + half : base;
+                }
+
+                remaining -= half;
+            }
+
+            for (int lane = 0; lane < lanes; lane++) {
+                int key = keys[start + lane];
+                int index = length > 0 && array[bases[lane]] < key ? bases[lane] + 1 : bases[lane];
+                result[start + lane] = index < length && array[index] == key ? index : ~index;
+            }
+        }
+
+        return result;
+    }
 }
@@ -0,0 +1,139 @@
+package com.sanver.basics.algorithms;
+
+import com.sanver.basics.algorithms.DijkstrasAlgorithm.PathDetails;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static com.sanver.basics.utils.PerformanceComparer.measure;
+
+/**
+ * Dijkstra's algorithm over a {@link CsrGraph} with an {@link IndexedIntMinHeap}.
+ * <ul>
+ *     <li>Settling a node reads only its edges instead of a whole matrix row, so a search is O((V + E) log V) instead of the O(V^2) of {@link DijkstrasAlgorithm}.</li>
+ *     <li>A node whose distance decreases is moved up in the heap instead of being offered again as a new {@code Node}, so the search allocates nothing but its arrays
+ *     and the heap holds at most V nodes.</li>
+ *     <li>Since the weights are not negative, a node that has been polled cannot get a shorter distance, so there is no need for an isVisited array.</li>
+ * </ul>
+ * The distances are ints, so the length of a shortest path has to fit in an int.
+ */
+public class CsrDijkstra {
+    public static void main(String[] args) {
+        var random = new Random(42);
+        int nodeCount = 5_000;
+        int[][] matrix = new int[nodeCount][nodeCount];
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int k = 0; k < 4; k++) { // A sparse graph with about 8 edges per node
+                int j = random.nextInt(nodeCount);
+                if (i != j) {
+                    matrix[i][j] = matrix[j][i] = random.nextInt(1, 100);
+                }
+            }
+        }
+
+        var graph = CsrGraph.fromMatrix(matrix);
+        System.out.printf("Graph with %,d nodes and %,d edges%n", graph.nodeCount(), graph.edgeCount());
+        System.out.println("Each search runs once without warmup, so this is only a rough demo. See DijkstraBenchmark in src/jmh/java for the numbers.");
+        var matrixResult = new PathDetails[1];
+        var csrResult = new PathDetails[1];
+        measure(() -> matrixResult[0] = DijkstrasAlgorithm.findShortestPath(matrix, 0, nodeCount - 1), "Matrix Dijkstra");
+        measure(() -> csrResult[0] = findShortestPath(graph, 0, nodeCount - 1), "CSR Dijkstra");
+        System.out.printf("Matrix distance: %,d, CSR distance: %,d%n", matrixResult[0].distance(), csrResult[0].distance());
+
+        int largeNodeCount = 1_000_000;
+        var builder = new CsrGraph.Builder().setNodeCount(largeNodeCount);
+
+        for (int i = 0; i < largeNodeCount * 4; i++) {
+            builder.addUndirectedEdge(random.nextInt(largeNodeCount), random.nextInt(largeNodeCount), random.nextInt(1, 100));
+        }
+
+        var largeGraph = builder.build();
+        System.out.printf("%nGraph with %,d nodes and %,d edges, which would need a %,d MB matrix%n", largeGraph.nodeCount(), largeGraph.edgeCount(), (long) largeNodeCount * largeNodeCount * 4 >> 20);
+        measure(() -> csrResult[0] = findShortestPath(largeGraph, 0, largeNodeCount - 1), "CSR Dijkstra");
+        System.out.printf("Distance: %,d with %,d nodes on the path%n", csrResult[0].distance(), csrResult[0].path().size());
+    }
+
+    /**
+     * @return The distance and the nodes of a shortest path from begin to end, or null if the nodes are out of range or there is no path.
+     */
+    public static PathDetails findShortestPath(CsrGraph graph, int begin, int end) {
+        int nodeCount;
+
+        if (graph == null || begin < 0 || begin >= (nodeCount = graph.nodeCount()) || end < 0 || end >= nodeCount) {
+            return null;
+        }
+
+        if (begin == end) {
+            return new PathDetails(0, List.of(end));
+        }
+
+        int[] distances = new int[nodeCount];
+        int[] previousNode = new int[nodeCount];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        Arrays.fill(previousNode, -1);
+        search(graph, begin, end, distances, previousNode, new IndexedIntMinHeap(nodeCount));
+
+        if (previousNode[end] == -1) {
+            return null;
+        }
+
+        return new PathDetails(distances[end], buildPath(previousNode, end));
+    }
+
+    /**
+     * @return The distances of all the nodes from the source, with {@link Integer#MAX_VALUE} for the nodes that cannot be reached.
+     */
+    public static int[] findDistances(CsrGraph graph, int source) {
+        int[] distances = new int[graph.nodeCount()];
+        int[] previousNode = new int[graph.nodeCount()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        search(graph, source, -1, distances, previousNode, new IndexedIntMinHeap(graph.nodeCount()));
+        return distances;
+    }
+
+    /**
+     * Settles the nodes in the order of their distance from begin until end is settled or, if end is -1, all reachable nodes are settled.
+     * The distances must be {@link Integer#MAX_VALUE} and the heap must be empty when called.
+     */
+    static void search(CsrGraph graph, int begin, int end, int[] distances, int[] previousNode, IndexedIntMinHeap heap) {
+        distances[begin] = 0;
+        heap.offerOrDecrease(begin, 0);
+
+        while (!heap.isEmpty()) {
+            int distance = heap.peekPriority();
+            int node = heap.pollKey();
+
+            if (node == end) {
+                break;
+            }
+
+            for (int edge = graph.firstEdge(node), endEdge = graph.endEdge(node); edge < endEdge; edge++) {
+                int target = graph.target(edge);
+                int newDistance = distance + graph.weight(edge);
+
+                if (newDistance < distances[target]) {
+                    distances[target] = newDistance;
+                    previousNode[target] = node;
+                    heap.offerOrDecrease(target, newDistance);
+                }
+            }
+        }
+
+        heap.clear();
+    }
+
+    static List<Integer> buildPath(int[] previousNode, int end) {
+        var path = new ArrayList<Integer>();
+
+        for (int current = end; current != -1; current = previousNode[current]) {
+            path.add(current);
+        }
+
+        Collections.reverse(path);
+        return path;
+    }
+}
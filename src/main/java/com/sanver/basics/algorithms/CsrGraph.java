@@ -0,0 +1,193 @@
+package com.sanver.basics.algorithms;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A directed weighted graph in compressed sparse row (CSR) form. The edges leaving node {@code i} are at the indexes {@code offsets[i]} to {@code offsets[i + 1] - 1}
+ * of {@code targets} and {@code weights}.
+ * <p>
+ * Compared to the adjacency matrix used by {@link DijkstrasAlgorithm}, it takes O(V + E) memory instead of O(V^2), so a graph with a million nodes and a few edges per node fits in tens of megabytes
+ * instead of terabytes, and visiting the neighbours of a node reads only its edges, which are next to each other in memory.
+ * The graph is immutable after it is built, so it can be shared by threads.
+ * </p>
+ */
+public final class CsrGraph {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    private CsrGraph(int[] offsets, int[] targets, int[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * @param matrix matrix[i][j] is the weight of the edge from i to j, and 0 means there is no edge, as in {@link DijkstrasAlgorithm#findShortestPath(int[][], int, int)}.
+     */
+    public static CsrGraph fromMatrix(int[][] matrix) {
+        var builder = new Builder().setNodeCount(matrix.length);
+
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[i].length; j++) {
+                if (matrix[i][j] > 0) {
+                    builder.addEdge(i, j, matrix[i][j]);
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Reads an edge list with a "source target weight" line for each edge, separated by whitespace. Blank lines and lines starting with # are skipped.
+     *
+     * @param undirected Whether each line is an edge in both directions.
+     * @throws IllegalArgumentException If a line is not in the expected format.
+     */
+    public static CsrGraph readEdgeList(Path path, boolean undirected) throws IOException {
+        var builder = new Builder();
+
+        try (var lines = Files.lines(path)) {
+            lines.map(String::strip)
+                    .filter(line -> !line.isEmpty() && line.charAt(0) != '#')
+                    .forEach(line -> {
+                        var parts = line.split("\\s+");
+
+                        if (parts.length != 3) {
+                            throw new IllegalArgumentException("Expected \"source target weight\" but found: " + line);
+                        }
+
+                        int source = Integer.parseInt(parts[0]);
+                        int target = Integer.parseInt(parts[1]);
+                        int weight = Integer.parseInt(parts[2]);
+
+                        if (undirected) {
+                            builder.addUndirectedEdge(source, target, weight);
+                        } else {
+                            builder.addEdge(source, target, weight);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return builder.build();
+    }
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * @return The index of the first edge of the node in {@link #target(int)} and {@link #weight(int)}.
+     */
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * @return The index after the last edge of the node.
+     */
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public int weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Collects the edges in growing arrays and sorts them by source with a counting sort in {@link #build()}. The edges of a node keep the order they were added in.
+     */
+    public static class Builder {
+        private int nodeCount;
+        private int edgeCount;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int[] weights = new int[16];
+
+        /**
+         * Sets the minimum number of nodes, so that the graph can have nodes without edges after the largest node with an edge. The default is the largest node plus one.
+         */
+        public Builder setNodeCount(int nodeCount) {
+            if (nodeCount < 0) {
+                throw new IllegalArgumentException("Node count cannot be negative: " + nodeCount);
+            }
+
+            this.nodeCount = Math.max(this.nodeCount, nodeCount);
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException If a node is negative or the weight is negative, since Dijkstra's algorithm does not work with negative weights.
+         */
+        public Builder addEdge(int source, int target, int weight) {
+            if (source < 0 || target < 0) {
+                throw new IllegalArgumentException(String.format("Nodes cannot be negative: %d -> %d", source, target));
+            }
+
+            if (weight < 0) {
+                throw new IllegalArgumentException(String.format("Weight cannot be negative: %d -> %d with weight %d", source, target, weight));
+            }
+
+            if (edgeCount == sources.length) {
+                int capacity = edgeCount + (edgeCount >> 1);
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            weights[edgeCount++] = weight;
+            nodeCount = Math.max(nodeCount, Math.max(source, target) + 1);
+            return this;
+        }
+
+        public Builder addUndirectedEdge(int first, int second, int weight) {
+            addEdge(first, second, weight);
+            return addEdge(second, first, weight);
+        }
+
+        public CsrGraph build() {
+            var offsets = new int[nodeCount + 1];
+
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[sources[i] + 1]++;
+            }
+
+            for (int i = 0; i < nodeCount; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            var next = Arrays.copyOf(offsets, nodeCount); // The index to write the next edge of each node to
+            var sortedTargets = new int[edgeCount];
+            var sortedWeights = new int[edgeCount];
+
+            for (int i = 0; i < edgeCount; i++) {
+                int index = next[sources[i]]++;
+                sortedTargets[index] = targets[i];
+                sortedWeights[index] = weights[i];
+            }
+
+            return new CsrGraph(offsets, sortedTargets, sortedWeights);
+        }
+    }
+}
@@ -60,7 +60,7 @@ public class DijkstrasAlgorithm {
             for (int j = 0; j < length; j++) {
                 var toJDistance = matrix[index][j];
 
-                if (!isVisited[j] && toJDistance > 0 && distances[j] > toJDistance) { // toJDistance > 0 is put to avoid non-existing routes since 0 means there is no edge to j.
+                if (!isVisited[j] && toJDistance > 0 && distances[j] > distance + toJDistance) { // toJDistance > 0 is put to avoid non-existing routes since 0 means there is no edge to j.
                     distances[j] = distance + toJDistance;
                     previousNode[j] = index;
                     queue.offer(new Node(j, distance + toJDistance));
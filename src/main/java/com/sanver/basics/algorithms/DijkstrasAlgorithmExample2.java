@@ -206,6 +206,14 @@ public class DijkstrasAlgorithmExample2 {
             this.distance = distance;
         }
 
+        String path() {
+            return path;
+        }
+
+        int distance() {
+            return distance;
+        }
+
         @Override
         public String toString() {
             return "path = " + path + ", distance = " + distance;
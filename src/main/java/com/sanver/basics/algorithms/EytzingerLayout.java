@@ -0,0 +1,134 @@
+package com.sanver.basics.algorithms;
+
+/**
+ * A copy of a sorted int array in Eytzinger (BFS) order for searching many times: the middle element is at index 1, and the children of the element at index k are at 2k and 2k + 1,
+ * like the binary heap in {@link HeapSort}.
+ * <p>
+ * A binary search on a sorted array reads elements far apart from each other until the last few steps, so each step reads a different cache line.
+ * Here the first levels of the tree, which every search reads, are at the beginning of the array and stay in the cache, and the 16 descendants of an element four levels down
+ * are next to each other at 16k to 16k + 15, in a single cache line or two. So the hardware prefetcher, or a CPU running several searches at once as in {@link #searchAll(int[])},
+ * fetches the next levels with fewer cache misses. Java has no prefetch instruction, so unlike the C versions of this layout, the search cannot ask for the line four levels down explicitly.
+ * </p>
+ * <p>
+ * The tree is padded to 2^d - 1 elements with {@link Integer#MAX_VALUE}, so every search does exactly d steps without a branch, and the searches of a batch stay in lockstep.
+ * Together with the sorted index of each element, it takes up to four times the memory of the sorted array.
+ * </p>
+ */
+public class EytzingerLayout {
+    private final int length;
+    private final int depth;
+    private final int[] tree; // 1-based, so that the children of k are at 2k and 2k + 1
+    private final int[] indexes; // The index of each element of the tree in the sorted array, or length for the padding
+
+    /**
+     * @param sorted An array sorted in ascending order, which is copied.
+     * @throws IllegalArgumentException If the array is not sorted.
+     */
+    public EytzingerLayout(int[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] > sorted[i]) {
+                throw new IllegalArgumentException(String.format("The array is not sorted at index %d.", i));
+            }
+        }
+
+        length = sorted.length;
+        depth = 32 - Integer.numberOfLeadingZeros(length); // The smallest d with 2^d - 1 >= length
+        tree = new int[1 << depth];
+        indexes = new int[1 << depth];
+        indexes[0] = length; // Where the searches for a key greater than all the elements end
+        build(sorted, 0, 1);
+    }
+
+    /**
+     * Fills the subtree rooted at k with an in-order traversal, which visits the elements of a binary search tree in ascending order.
+     *
+     * @return The index of the next element of the sorted array.
+     */
+    private int build(int[] sorted, int index, int k) {
+        if (k < tree.length) {
+            index = build(sorted, index, 2 * k);
+            tree[k] = index < length ? sorted[index] : Integer.MAX_VALUE;
+            indexes[k] = Math.min(index, length);
+            index = build(sorted, index + 1, 2 * k + 1);
+        }
+
+        return index;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return The index in the sorted array of the first element that is not less than the key, or the length of the array if there is none.
+     */
+    public int lowerBound(int key) {
+        int k = 1;
+
+        for (int level = 0; level < depth; level++) {
+            k = 2 * k + (tree[k] < key ? 1 : 0);
+        }
+
+        return indexes[ancestor(k)];
+    }
+
+    /**
+     * @return The same as {@link BinarySearch#searchFirst(int[], int)} on the sorted array, i.e. the index of the first match or ~insertionPoint.
+     */
+    public int search(int key) {
+        int k = 1;
+
+        for (int level = 0; level < depth; level++) {
+            k = 2 * k + (tree[k] < key ? 1 : 0);
+        }
+
+        return result(ancestor(k), key);
+    }
+
+    /**
+     * Searches all the keys {@value BinarySearch#LANES} at a time, advancing each search one level before the next level of any search, as in {@link BinarySearch#searchAll(int[], int[])}.
+     *
+     * @return The result of {@link #search(int)} for each key.
+     */
+    public int[] searchAll(int[] keys) {
+        var result = new int[keys.length];
+        var nodes = new int[BinarySearch.LANES];
+
+        for (int start = 0; start < keys.length; start += nodes.length) {
+            int lanes = Math.min(nodes.length, keys.length - start);
+
+            for (int lane = 0; lane < lanes; lane++) {
+                nodes[lane] = 1;
+            }
+
+            for (int level = 0; level < depth; level++) {
+                for (int lane = 0; lane < lanes; lane++) {
+                    int k = nodes[lane];
+                    nodes[lane] = 2 * k + (tree[k] < keys[start + lane] ? 1 : 0);
+                }
+            }
+
+            for (int lane = 0; lane < lanes; lane++) {
+                result[start + lane] = result(ancestor(nodes[lane]), keys[start + lane]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The search went right at every element less than the key and left at the others, so the lower bound is the last element it went left at.
+     * Removing the trailing ones of k, which are the right turns after it, and the zero before them gives its index. If it never went left, k becomes 0.
+     */
+    private static int ancestor(int k) {
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    private int result(int k, int key) {
+        if (indexes[k] == length) {
+            return ~length;
+        }
+
+        return tree[k] == key ? indexes[k] : ~indexes[k];
+    }
+}
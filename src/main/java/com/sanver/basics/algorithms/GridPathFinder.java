@@ -0,0 +1,305 @@
+package com.sanver.basics.algorithms;
+
+import com.sanver.basics.algorithms.DijkstrasAlgorithmExample2.Result;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.sanver.basics.utils.PerformanceComparer.measure;
+
+/**
+ * Finds the path with the minimum distance from (0, 0) to a cell of a grid, with the same rules and output as {@link DijkstrasAlgorithmExample2#findMinPath(int[][], int, int)}:
+ * moving to an adjacent cell costs the value of that cell, and the path is the moves d, r, u and l separated by commas.
+ * <ul>
+ *     <li>The grid and the search state are in flat row-major arrays, i.e. cell (x, y) is at index x * columns + y, instead of an array per row, and the directions are bytes instead of chars.
+ *     So a 10,000 x 10,000 grid needs one array per field instead of 10,000, and the neighbours of a cell in the same row are next to it in memory.</li>
+ *     <li>The frontier is an {@link IndexedIntMinHeap}, so no {@code Node} is allocated for each move and each cell is in the heap at most once.</li>
+ *     <li>{@link #findMinPath(int, int)} is A*, which orders the cells by their distance plus the Manhattan distance to the end times the minimum cell value.
+ *     This never overestimates the remaining distance, so the path is still a shortest one, but the cells away from the end are settled later or never.
+ *     The higher the minimum cell value compared to the average one, the fewer cells are settled.</li>
+ *     <li>{@link #findMinPathBidirectional(int, int)} runs Dijkstra from both ends and stops when the two searches meet, which settles about half the cells of a single search on a grid.</li>
+ * </ul>
+ */
+public class GridPathFinder {
+    private static final byte DOWN = 'd';
+    private static final byte RIGHT = 'r';
+    private static final byte UP = 'u';
+    private static final byte LEFT = 'l';
+    private static final byte[] MOVES = {DOWN, RIGHT, UP, LEFT};
+    private final int rows;
+    private final int columns;
+    private final int[] costs;
+    private final int minimumCost;
+
+    /**
+     * @param costs The values of the cells in row-major order, which is not copied.
+     */
+    public GridPathFinder(int rows, int columns, int[] costs) {
+        if (rows < 1 || columns < 1 || (long) rows * columns != costs.length) {
+            throw new IllegalArgumentException(String.format("%d values cannot be a %d x %d grid.", costs.length, rows, columns));
+        }
+
+        int minimum = Integer.MAX_VALUE;
+
+        for (int cost : costs) {
+            if (cost < 0) {
+                throw new IllegalArgumentException("Cell values cannot be negative: " + cost);
+            }
+            minimum = Math.min(minimum, cost);
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.costs = costs;
+        this.minimumCost = minimum;
+    }
+
+    public static GridPathFinder fromMatrix(int[][] matrix) {
+        int rows = matrix.length;
+        int columns = rows == 0 ? 0 : matrix[0].length;
+        var costs = new int[rows * columns];
+
+        for (int x = 0; x < rows; x++) {
+            System.arraycopy(matrix[x], 0, costs, x * columns, columns);
+        }
+
+        return new GridPathFinder(rows, columns, costs);
+    }
+
+    public static void main(String[] args) {
+        int n = 2_000;
+        var random = new Random(42);
+        var costs = random.ints(n * n, 1, 10).toArray();
+        int[][] matrix = new int[n][];
+
+        for (int x = 0; x < n; x++) {
+            matrix[x] = Arrays.copyOfRange(costs, x * n, (x + 1) * n);
+        }
+
+        var finder = new GridPathFinder(n, n, costs);
+        var results = new Result[3];
+        System.out.printf("Finding the path from (0, 0) to (%d, %d) of a %,d x %,d grid%n", n - 1, n - 1, n, n);
+        System.out.println("Each search runs once without warmup, so this is only a rough demo. See GridPathFinderBenchmark in src/jmh/java for the numbers.");
+        measure(() -> results[0] = DijkstrasAlgorithmExample2.findMinPath(matrix, n - 1, n - 1), "DijkstrasAlgorithmExample2");
+        measure(() -> results[1] = finder.findMinPath(n - 1, n - 1), "A*");
+        measure(() -> results[2] = finder.findMinPathBidirectional(n - 1, n - 1), "Bidirectional");
+        System.out.printf("Distances: %,d, %,d, %,d%n", results[0].distance(), results[1].distance(), results[2].distance());
+
+        var cheapest = random.ints(n * n, 5, 10).toArray(); // A higher minimum makes the heuristic closer to the real remaining distance
+        var cheapestMatrix = new int[n][];
+
+        for (int x = 0; x < n; x++) {
+            cheapestMatrix[x] = Arrays.copyOfRange(cheapest, x * n, (x + 1) * n);
+        }
+
+        var cheapestFinder = new GridPathFinder(n, n, cheapest);
+        System.out.printf("%nSame grid size with cell values from 5 to 9%n");
+        measure(() -> results[0] = DijkstrasAlgorithmExample2.findMinPath(cheapestMatrix, n - 1, n - 1), "DijkstrasAlgorithmExample2");
+        measure(() -> results[1] = cheapestFinder.findMinPath(n - 1, n - 1), "A*");
+        System.out.printf("Distances: %,d, %,d%n", results[0].distance(), results[1].distance());
+    }
+
+    /**
+     * Finds the path with A*. See the class documentation.
+     */
+    public Result findMinPath(int xEnd, int yEnd) {
+        int end = cell(xEnd, yEnd);
+        int cellCount = costs.length;
+        var distances = new int[cellCount];
+        var directions = new byte[cellCount];
+        var heap = new IndexedIntMinHeap(cellCount);
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        distances[0] = 0;
+        heap.offerOrDecrease(0, heuristic(0, xEnd, yEnd));
+
+        while (!heap.isEmpty()) {
+            int cell = heap.pollKey();
+
+            if (cell == end) {
+                break;
+            }
+
+            int x = cell / columns;
+            int y = cell - x * columns;
+            int distance = distances[cell];
+
+            if (x + 1 < rows) {
+                relax(cell + columns, distance, DOWN, distances, directions, heap, xEnd, yEnd);
+            }
+
+            if (y + 1 < columns) {
+                relax(cell + 1, distance, RIGHT, distances, directions, heap, xEnd, yEnd);
+            }
+
+            if (x > 0) {
+                relax(cell - columns, distance, UP, distances, directions, heap, xEnd, yEnd);
+            }
+
+            if (y > 0) {
+                relax(cell - 1, distance, LEFT, distances, directions, heap, xEnd, yEnd);
+            }
+        }
+
+        var path = new StringBuilder();
+        appendPathTo(path, directions, end);
+        return new Result(path.toString(), distances[end]);
+    }
+
+    private void relax(int next, int distance, byte direction, int[] distances, byte[] directions, IndexedIntMinHeap heap, int xEnd, int yEnd) {
+        int newDistance = distance + costs[next];
+
+        if (newDistance < distances[next]) {
+            distances[next] = newDistance;
+            directions[next] = direction;
+            heap.offerOrDecrease(next, newDistance + heuristic(next, xEnd, yEnd));
+        }
+    }
+
+    /**
+     * @return The Manhattan distance of the cell to the end times the minimum cell value, which is not more than the distance of any path from the cell to the end.
+     */
+    private int heuristic(int cell, int xEnd, int yEnd) {
+        int x = cell / columns;
+        int y = cell - x * columns;
+        return minimumCost * (Math.abs(xEnd - x) + Math.abs(yEnd - y));
+    }
+
+    /**
+     * Finds the path with bidirectional Dijkstra. The forward search finds the distance from (0, 0) to each cell, and the backward search finds the distance from each cell to the end.
+     * Whenever a cell has been reached by both, the sum of its distances is a candidate, and the search stops when the smallest distances of the two frontiers add up to at least the best candidate,
+     * since any path not found yet would be longer than that.
+     */
+    public Result findMinPathBidirectional(int xEnd, int yEnd) {
+        int end = cell(xEnd, yEnd);
+
+        if (end == 0) {
+            return new Result("", 0);
+        }
+
+        int cellCount = costs.length;
+        var forwardDistances = new int[cellCount];
+        var backwardDistances = new int[cellCount];
+        var forwardDirections = new byte[cellCount]; // The move into the cell on the path from (0, 0)
+        var backwardDirections = new byte[cellCount]; // The move out of the cell on the path to the end
+        var forwardHeap = new IndexedIntMinHeap(cellCount);
+        var backwardHeap = new IndexedIntMinHeap(cellCount);
+        Arrays.fill(forwardDistances, Integer.MAX_VALUE);
+        Arrays.fill(backwardDistances, Integer.MAX_VALUE);
+        forwardDistances[0] = 0;
+        backwardDistances[end] = 0;
+        forwardHeap.offerOrDecrease(0, 0);
+        backwardHeap.offerOrDecrease(end, 0);
+        long best = Long.MAX_VALUE;
+        int meeting = -1;
+
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()
+                && (long) forwardHeap.peekPriority() + backwardHeap.peekPriority() < best) {
+            boolean forward = forwardHeap.size() <= backwardHeap.size(); // Expand the smaller frontier
+            var heap = forward ? forwardHeap : backwardHeap;
+            var distances = forward ? forwardDistances : backwardDistances;
+            var otherDistances = forward ? backwardDistances : forwardDistances;
+            var directions = forward ? forwardDirections : backwardDirections;
+            int cell = heap.pollKey();
+            int x = cell / columns;
+            int y = cell - x * columns;
+            int distance = distances[cell];
+
+            for (byte move : MOVES) {
+                int next = neighbour(cell, x, y, move);
+
+                if (next < 0) {
+                    continue;
+                }
+
+                int newDistance = distance + (forward ? costs[next] : costs[cell]); // Moving backwards from cell to next is moving forwards from next to cell, which costs the value of cell
+
+                if (newDistance < distances[next]) {
+                    distances[next] = newDistance;
+                    directions[next] = forward ? move : opposite(move);
+                    heap.offerOrDecrease(next, newDistance);
+
+                    if (otherDistances[next] != Integer.MAX_VALUE && (long) newDistance + otherDistances[next] < best) {
+                        best = (long) newDistance + otherDistances[next];
+                        meeting = next;
+                    }
+                }
+            }
+        }
+
+        var path = new StringBuilder();
+        appendPathTo(path, forwardDirections, meeting);
+
+        for (int cell = meeting; cell != end; ) {
+            byte direction = backwardDirections[cell];
+            appendMove(path, direction);
+            cell = move(cell, direction);
+        }
+
+        return new Result(path.toString(), (int) best);
+    }
+
+    /**
+     * Appends the moves from (0, 0) to the cell, by backtracking from the cell and reversing the moves, like {@link DijkstrasAlgorithmExample2#buildPath(char[][], int, int)}.
+     */
+    private void appendPathTo(StringBuilder path, byte[] directions, int end) {
+        var reversed = new StringBuilder();
+
+        for (int cell = end; cell != 0; ) {
+            byte direction = directions[cell];
+            reversed.append((char) direction);
+            cell = move(cell, opposite(direction));
+        }
+
+        for (int i = reversed.length() - 1; i >= 0; i--) {
+            appendMove(path, (byte) reversed.charAt(i));
+        }
+    }
+
+    private static void appendMove(StringBuilder path, byte direction) {
+        if (!path.isEmpty()) {
+            path.append(", ");
+        }
+
+        path.append((char) direction);
+    }
+
+    /**
+     * @return The cell after the move from the cell at (x, y), or -1 if the move leaves the grid.
+     */
+    private int neighbour(int cell, int x, int y, byte direction) {
+        return switch (direction) {
+            case DOWN -> x + 1 < rows ? cell + columns : -1;
+            case RIGHT -> y + 1 < columns ? cell + 1 : -1;
+            case UP -> x > 0 ? cell - columns : -1;
+            default -> y > 0 ? cell - 1 : -1;
+        };
+    }
+
+    private int move(int cell, byte direction) {
+        return switch (direction) {
+            case DOWN -> cell + columns;
+            case RIGHT -> cell + 1;
+            case UP -> cell - columns;
+            case LEFT -> cell - 1;
+            default -> throw new IllegalStateException(String.format("Undefined direction %c at %d,%d.", (char) direction, cell / columns, cell % columns));
+        };
+    }
+
+    private static byte opposite(byte direction) {
+        return switch (direction) {
+            case DOWN -> UP;
+            case RIGHT -> LEFT;
+            case UP -> DOWN;
+            case LEFT -> RIGHT;
+            default -> direction;
+        };
+    }
+
+    private int cell(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= columns) {
+            throw new IllegalArgumentException(String.format("(%d, %d) is not in the %d x %d grid.", x, y, rows, columns));
+        }
+
+        return x * columns + y;
+    }
+}
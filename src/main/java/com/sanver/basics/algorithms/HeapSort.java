@@ -116,9 +116,11 @@ public class HeapSort {
      * Sorts the array by treating it as a complete binary tree representation, using heapify from the bottom of the internal nodes (nodes that have at least one child) to make it a max-heap binary heap and then removing the root by swapping it with the last element of the array and heapify the root to make it a max-heap again.
      * Since the root will be the max element of the max-heap, each time we remove the root and swap it with the last item of the remaining array, we essentially sort the array in-place by moving the largest elements one by one to the end of the array.
      *
+     * See {@link IntHeapSort} for a faster version on a 4-ary heap, which also sorts ranges of an array.
+     *
      * @param array Array that will be heap sorted.
      */
-    private static void heapSort(int[] array) {
+    public static void heapSort(int[] array) {
         if (array == null) {
             return;
         }
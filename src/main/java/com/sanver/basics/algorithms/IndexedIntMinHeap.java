@@ -0,0 +1,191 @@
+package com.sanver.basics.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min-heap of the keys 0 to capacity - 1 with an int priority each, which can decrease the priority of a key already in the heap.
+ * <p>
+ * Unlike {@code PriorityQueue}, which has to be offered a new entry every time a priority decreases and skip the stale entries when they are polled,
+ * every key is in the heap at most once, so the heap never grows beyond the number of keys, and once it has grown to the size of the largest search frontier, nothing is allocated.
+ * The position of each key in the heap is kept in an array, so finding a key to decrease its priority is O(1) and moving it up is O(log n).
+ * The priorities are kept next to the keys in heap order, so sifting does not jump to the priority of each key.
+ * </p>
+ * Only the positions take O(capacity) memory. The keys and priorities grow with the heap, which stays much smaller than the capacity in searches like A* that only keep a frontier in it.
+ * {@link #clear()} only visits the keys left in the heap, so a heap can be reused for many searches without an O(capacity) reset.
+ * This class is not thread-safe.
+ */
+public class IndexedIntMinHeap {
+    private final int arity;
+    private final int[] positions; // The index of each key in keys, or -1 if the key is not in the heap
+    private int[] keys;
+    private int[] priorities;
+    private int size;
+
+    public IndexedIntMinHeap(int capacity) {
+        this(capacity, IntHeapSort.DEFAULT_ARITY);
+    }
+
+    public IndexedIntMinHeap(int capacity, int arity) {
+        IntHeapSort.checkArity(arity);
+
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+
+        this.arity = arity;
+        keys = new int[Math.min(capacity, 16)];
+        priorities = new int[keys.length];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int capacity() {
+        return positions.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int key) {
+        return positions[key] >= 0;
+    }
+
+    /**
+     * Adds the key with the given priority, or decreases its priority if it is already in the heap with a greater priority.
+     *
+     * @return Whether the key was added or its priority was decreased.
+     */
+    public boolean offerOrDecrease(int key, int priority) {
+        int position = positions[key];
+
+        if (position < 0) {
+            if (size == keys.length) {
+                int capacity = Math.min(size + (size >> 1) + 1, positions.length);
+                keys = Arrays.copyOf(keys, capacity);
+                priorities = Arrays.copyOf(priorities, capacity);
+            }
+
+            siftUp(size++, key, priority);
+            return true;
+        }
+
+        if (priority >= priorities[position]) {
+            return false;
+        }
+
+        siftUp(position, key, priority);
+        return true;
+    }
+
+    /**
+     * @return The key with the smallest priority without removing it.
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    public int peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return keys[0];
+    }
+
+    /**
+     * @return The smallest priority in the heap.
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    public int peekPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return priorities[0];
+    }
+
+    /**
+     * Removes and returns the key with the smallest priority. Read its priority with {@link #peekPriority()} before polling if it is needed.
+     *
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    public int pollKey() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        int key = keys[0];
+        positions[key] = -1;
+
+        if (--size > 0) {
+            siftDown(0, keys[size], priorities[size]);
+        }
+
+        return key;
+    }
+
+    /**
+     * Removes all the keys in O(size).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[keys[i]] = -1;
+        }
+
+        size = 0;
+    }
+
+    private void siftUp(int index, int key, int priority) {
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+
+            if (priorities[parent] <= priority) {
+                break;
+            }
+
+            move(parent, index);
+            index = parent;
+        }
+
+        set(index, key, priority);
+    }
+
+    private void siftDown(int index, int key, int priority) {
+        int firstChild;
+
+        while ((firstChild = index * arity + 1) < size) {
+            int lastChild = Math.min(firstChild + arity, size);
+            int minChild = firstChild;
+
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (priorities[child] < priorities[minChild]) {
+                    minChild = child;
+                }
+            }
+
+            if (priority <= priorities[minChild]) {
+                break;
+            }
+
+            move(minChild, index);
+            index = minChild;
+        }
+
+        set(index, key, priority);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        priorities[to] = priorities[from];
+        positions[keys[to]] = to;
+    }
+
+    private void set(int index, int key, int priority) {
+        keys[index] = key;
+        priorities[index] = priority;
+        positions[key] = index;
+    }
+}
@@ -0,0 +1,180 @@
+package com.sanver.basics.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of {@code int} values on a d-ary min-heap stored in a {@code int[]}, so unlike {@code PriorityQueue<Integer>}, adding and polling don't box the values
+ * and the values are stored next to each other instead of as references to objects spread over the heap.
+ * The arity is 4 by default for the reasons explained in {@link IntHeapSort}. Duplicates are allowed.
+ * <p>
+ * {@link #heapify(int[])} and {@link #addAll(int[])} build the heap bottom-up in O(n) instead of adding the values one by one in O(n log n).
+ * </p>
+ * This class is not thread-safe.
+ */
+public class IntMinHeap {
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private final int arity;
+    private int[] heap;
+    private int size;
+
+    public IntMinHeap() {
+        this(DEFAULT_INITIAL_CAPACITY, IntHeapSort.DEFAULT_ARITY);
+    }
+
+    public IntMinHeap(int initialCapacity) {
+        this(initialCapacity, IntHeapSort.DEFAULT_ARITY);
+    }
+
+    public IntMinHeap(int initialCapacity, int arity) {
+        IntHeapSort.checkArity(arity);
+
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative: " + initialCapacity);
+        }
+
+        this.arity = arity;
+        this.heap = new int[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * @return A heap with a copy of the values, built in O(n).
+     */
+    public static IntMinHeap heapify(int[] values) {
+        return heapify(values, IntHeapSort.DEFAULT_ARITY);
+    }
+
+    public static IntMinHeap heapify(int[] values, int arity) {
+        var minHeap = new IntMinHeap(values.length, arity);
+        minHeap.addAll(values);
+        return minHeap;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int value) {
+        if (size == heap.length) {
+            grow(size + 1);
+        }
+
+        siftUp(size++, value);
+    }
+
+    /**
+     * Adds all the values. If there are at least as many new values as the current ones, the whole heap is rebuilt bottom-up, which is cheaper than sifting each value up.
+     */
+    public void addAll(int[] values) {
+        if (size + values.length > heap.length) {
+            grow(size + values.length);
+        }
+
+        if (values.length < size) {
+            for (var value : values) {
+                siftUp(size++, value);
+            }
+            return;
+        }
+
+        System.arraycopy(values, 0, heap, size, values.length);
+        size += values.length;
+
+        for (int i = (size - 2) / arity; i >= 0; i--) {
+            siftDown(i, heap[i]);
+        }
+    }
+
+    /**
+     * @return The smallest value without removing it.
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the smallest value.
+     *
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        int min = heap[0];
+        int last = heap[--size];
+
+        if (size > 0) {
+            siftDown(0, last);
+        }
+
+        return min;
+    }
+
+    /**
+     * @return The values in heap order, which is not sorted.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    private void siftUp(int index, int value) {
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            int parentValue = heap[parent];
+
+            if (parentValue <= value) {
+                break;
+            }
+
+            heap[index] = parentValue;
+            index = parent;
+        }
+
+        heap[index] = value;
+    }
+
+    private void siftDown(int index, int value) {
+        int firstChild;
+
+        while ((firstChild = index * arity + 1) < size) {
+            int lastChild = Math.min(firstChild + arity, size);
+            int minChild = firstChild;
+            int minValue = heap[firstChild];
+
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (heap[child] < minValue) {
+                    minValue = heap[child];
+                    minChild = child;
+                }
+            }
+
+            if (value <= minValue) {
+                break;
+            }
+
+            heap[index] = minValue;
+            index = minChild;
+        }
+
+        heap[index] = value;
+    }
+
+    private void grow(int minimumCapacity) {
+        heap = Arrays.copyOf(heap, Math.max(minimumCapacity, heap.length + (heap.length >> 1)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.sanver.basics.algorithms;
+
+/**
+ * Heap sort for {@code long} arrays on a d-ary max-heap, i.e. each node has {@code arity} children instead of 2 like in {@link HeapSort}.
+ * <p>
+ * The children of a node are next to each other in the array, so with 4 children they usually share a cache line, and the heap is half as deep as a binary heap.
+ * A sift-down compares more children at each level but touches fewer cache lines, which makes a 4-ary heap faster than a binary heap on large arrays.
+ * The sift-down also moves the parents up into a hole instead of swapping, so each level costs one write instead of three.
+ * </p>
+ * See {@link LongMinHeap} for a priority queue built the same way.
+ */
+public final class LongHeapSort {
+    public static final int DEFAULT_ARITY = 4;
+
+    private LongHeapSort() {
+    }
+
+    public static void sort(long[] array) {
+        sort(array, 0, array.length, DEFAULT_ARITY);
+    }
+
+    public static void sort(long[] array, int arity) {
+        sort(array, 0, array.length, arity);
+    }
+
+    /**
+     * Sorts the range [start, end) of the array in ascending order.
+     *
+     * @param arity The number of children of each heap node, at least 2.
+     */
+    public static void sort(long[] array, int start, int end, int arity) {
+        checkArity(arity);
+        int length = end - start;
+
+        if (length < 2) {
+            return;
+        }
+
+        for (int i = (length - 2) / arity; i >= 0; i--) { // The parent of the last element is the last node with children
+            siftDown(array, start, i, length, arity);
+        }
+
+        for (int heapSize = length - 1; heapSize > 0; heapSize--) {
+            long max = array[start];
+            array[start] = array[start + heapSize];
+            array[start + heapSize] = max;
+            siftDown(array, start, 0, heapSize, arity);
+        }
+    }
+
+    /**
+     * Moves the element at the given index of the heap down until it is not less than any of its children.
+     *
+     * @param offset The index of the root of the heap in the array.
+     * @param length The number of elements in the heap.
+     */
+    static void siftDown(long[] array, int offset, int index, int length, int arity) {
+        long value = array[offset + index];
+        int firstChild;
+
+        while ((firstChild = index * arity + 1) < length) {
+            int lastChild = Math.min(firstChild + arity, length);
+            int maxChild = firstChild;
+            long maxValue = array[offset + firstChild];
+
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (array[offset + child] > maxValue) {
+                    maxValue = array[offset + child];
+                    maxChild = child;
+                }
+            }
+
+            if (value >= maxValue) {
+                break;
+            }
+
+            array[offset + index] = maxValue;
+            index = maxChild;
+        }
+
+        array[offset + index] = value;
+    }
+
+    static void checkArity(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2: " + arity);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.sanver.basics.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of {@code long} values on a d-ary min-heap stored in a {@code long[]}, so unlike {@code PriorityQueue<Long>}, adding and polling don't box the values
+ * and the values are stored next to each other instead of as references to objects spread over the heap.
+ * The arity is 4 by default for the reasons explained in {@link LongHeapSort}. Duplicates are allowed.
+ * <p>
+ * {@link #heapify(long[])} and {@link #addAll(long[])} build the heap bottom-up in O(n) instead of adding the values one by one in O(n log n).
+ * </p>
+ * This class is not thread-safe.
+ */
+public class LongMinHeap {
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private final int arity;
+    private long[] heap;
+    private int size;
+
+    public LongMinHeap() {
+        this(DEFAULT_INITIAL_CAPACITY, LongHeapSort.DEFAULT_ARITY);
+    }
+
+    public LongMinHeap(int initialCapacity) {
+        this(initialCapacity, LongHeapSort.DEFAULT_ARITY);
+    }
+
+    public LongMinHeap(int initialCapacity, int arity) {
+        LongHeapSort.checkArity(arity);
+
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative: " + initialCapacity);
+        }
+
+        this.arity = arity;
+        this.heap = new long[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * @return A heap with a copy of the values, built in O(n).
+     */
+    public static LongMinHeap heapify(long[] values) {
+        return heapify(values, LongHeapSort.DEFAULT_ARITY);
+    }
+
+    public static LongMinHeap heapify(long[] values, int arity) {
+        var minHeap = new LongMinHeap(values.length, arity);
+        minHeap.addAll(values);
+        return minHeap;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(long value) {
+        if (size == heap.length) {
+            grow(size + 1);
+        }
+
+        siftUp(size++, value);
+    }
+
+    /**
+     * Adds all the values. If there are at least as many new values as the current ones, the whole heap is rebuilt bottom-up, which is cheaper than sifting each value up.
+     */
+    public void addAll(long[] values) {
+        if (size + values.length > heap.length) {
+            grow(size + values.length);
+        }
+
+        if (values.length < size) {
+            for (var value : values) {
+                siftUp(size++, value);
+            }
+            return;
+        }
+
+        System.arraycopy(values, 0, heap, size, values.length);
+        size += values.length;
+
+        for (int i = (size - 2) / arity; i >= 0; i--) {
+            siftDown(i, heap[i]);
+        }
+    }
+
+    /**
+     * @return The smallest value without removing it.
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the smallest value.
+     *
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    public long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        long min = heap[0];
+        long last = heap[--size];
+
+        if (size > 0) {
+            siftDown(0, last);
+        }
+
+        return min;
+    }
+
+    /**
+     * @return The values in heap order, which is not sorted.
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    private void siftUp(int index, long value) {
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            long parentValue = heap[parent];
+
+            if (parentValue <= value) {
+                break;
+            }
+
+            heap[index] = parentValue;
+            index = parent;
+        }
+
+        heap[index] = value;
+    }
+
+    private void siftDown(int index, long value) {
+        int firstChild;
+
+        while ((firstChild = index * arity + 1) < size) {
+            int lastChild = Math.min(firstChild + arity, size);
+            int minChild = firstChild;
+            long minValue = heap[firstChild];
+
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (heap[child] < minValue) {
+                    minValue = heap[child];
+                    minChild = child;
+                }
+            }
+
+            if (value <= minValue) {
+                break;
+            }
+
+            heap[index] = minValue;
+            index = minChild;
+        }
+
+        heap[index] = value;
+    }
+
+    private void grow(int minimumCapacity) {
+        heap = Arrays.copyOf(heap, Math.max(minimumCapacity, heap.length + (heap.length >> 1)));
+    }
+}
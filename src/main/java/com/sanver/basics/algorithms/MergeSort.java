@@ -2,22 +2,523 @@ package com.sanver.basics.algorithms;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveAction;
 
+import static com.sanver.basics.utils.PerformanceComparer.measure;
+
 public class MergeSort {
+    static final int INSERTION_SORT_THRESHOLD = 32;
+    static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
     public static void main(String[] args) {
         int[] array = {7, 2, 1, 6, 8, 5, 3, 4};
         System.out.println("Initial array: " + Arrays.toString(array));
         mergeSort(array);
         System.out.println("Sorted array : " + Arrays.toString(array));
+
+        var random = new Random();
+        var large = random.ints(10_000_000).toArray();
+        var copy = large.clone();
+        System.out.printf("%nSorting %,d random ints%n", large.length);
+        System.out.println("Each sort runs once without warmup, so this is only a rough demo. See MergeSortBenchmark in src/jmh/java for the numbers.");
+        measure(() -> parallelMergeSort(large), "parallelMergeSort");
+        measure(() -> Arrays.parallelSort(copy), "Arrays.parallelSort");
+        System.out.println("Same result: " + Arrays.equals(large, copy));
     }
 
+    /**
+     * Sorts the array with a merge sort which forks a task for every split down to single elements and allocates new arrays for both halves in every merge.
+     * It is simple to follow, but the fork/join overhead and the allocations make it slow. See {@link #parallelMergeSort(int[])} for an efficient version.
+     *
+     * @param array Array that will be sorted.
+     */
     public static void mergeSort(int[] array) {
         ForkJoinPool.commonPool().invoke(new Sort(array, 0, array.length - 1));
     }
 
+    /**
+     * Sorts the array in ascending order with a parallel merge sort, which allocates a single buffer of the same length and no other arrays.
+     * <ul>
+     *     <li>The array is copied into the buffer once. Each level of the recursion then merges the halves from one of the arrays into the other (ping-pong merging), instead of copying them back.</li>
+     *     <li>Ranges of up to {@value #INSERTION_SORT_THRESHOLD} elements are sorted with insertion sort, which is faster than merging for small ranges.</li>
+     *     <li>Ranges of up to {@value #SEQUENTIAL_THRESHOLD} elements are sorted without forking, so the fork/join overhead stays small compared to the work of a task.</li>
+     *     <li>Two large sorted halves are merged in parallel. The middle element of the larger half is found in the other half with a binary search,
+     *     which splits the merge into two independent merges on each side of it.</li>
+     * </ul>
+     *
+     * @param array Array that will be sorted.
+     */
+    public static void parallelMergeSort(int[] array) {
+        if (array.length < 2) {
+            return;
+        }
+
+        var buffer = array.clone();
+
+        if (array.length <= SEQUENTIAL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() == 1) {
+            sort(buffer, array, 0, array.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new IntSortTask(buffer, array, 0, array.length));
+        }
+    }
+
+    /**
+     * Sorts the range [start, end) of the source into the same range of the destination. Both arrays must have the same elements in that range when it is called.
+     * The halves are sorted into the source, which is then used as the scratch space to merge them into the destination.
+     */
+    private static void sort(int[] source, int[] destination, int start, int end) {
+        if (end - start <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(destination, start, end);
+            return;
+        }
+
+        int middle = (start + end) >>> 1;
+        sort(destination, source, start, middle);
+        sort(destination, source, middle, end);
+        merge(source, start, middle, middle, end, destination, start);
+    }
+
+    private static void insertionSort(int[] array, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            int value = array[i];
+            int j = i - 1;
+
+            while (j >= start && less(value, array[j])) {
+                array[j + 1] = array[j];
+                j--;
+            }
+
+            array[j + 1] = value;
+        }
+    }
+
+    /**
+     * Merges the sorted ranges [leftStart, leftEnd) and [rightStart, rightEnd) of the source into the destination starting at the given index.
+     */
+    private static void merge(int[] source, int leftStart, int leftEnd, int rightStart, int rightEnd, int[] destination, int destinationStart) {
+        int i = leftStart, j = rightStart, k = destinationStart;
+
+        if (i < leftEnd && j < rightEnd && !less(source[j], source[leftEnd - 1])) { // The ranges are already in order, e.g. for sorted input
+            System.arraycopy(source, leftStart, destination, k, leftEnd - leftStart);
+            System.arraycopy(source, rightStart, destination, k + leftEnd - leftStart, rightEnd - rightStart);
+            return;
+        }
+
+        while (i < leftEnd && j < rightEnd) {
+            destination[k++] = less(source[j], source[i]) ? source[j++] : source[i++];
+        }
+
+        System.arraycopy(source, i, destination, k, leftEnd - i);
+        System.arraycopy(source, j, destination, k + leftEnd - i, rightEnd - j);
+    }
+
+    /**
+     * @return The index of the first element in the sorted range [start, end) which is not less than the key, or end if there is none.
+     */
+    private static int lowerBound(int[] array, int start, int end, int key) {
+        while (start < end) {
+            int middle = (start + end) >>> 1;
+
+            if (less(array[middle], key)) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+
+        return start;
+    }
+
+    private static boolean less(int a, int b) {
+        return a < b;
+    }
+
+    static class IntSortTask extends RecursiveAction {
+        private final int[] source;
+        private final int[] destination;
+        private final int start;
+        private final int end;
+
+        IntSortTask(int[] source, int[] destination, int start, int end) {
+            this.source = source;
+            this.destination = destination;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                sort(source, destination, start, end);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new IntSortTask(destination, source, start, middle), new IntSortTask(destination, source, middle, end));
+            new IntMergeTask(source, start, middle, middle, end, destination, start).compute();
+        }
+    }
+
+    static class IntMergeTask extends RecursiveAction {
+        private final int[] source;
+        private final int leftStart, leftEnd, rightStart, rightEnd;
+        private final int[] destination;
+        private final int destinationStart;
+
+        IntMergeTask(int[] source, int leftStart, int leftEnd, int rightStart, int rightEnd, int[] destination, int destinationStart) {
+            this.source = source;
+            this.leftStart = leftStart;
+            this.leftEnd = leftEnd;
+            this.rightStart = rightStart;
+            this.rightEnd = rightEnd;
+            this.destination = destination;
+            this.destinationStart = destinationStart;
+        }
+
+        /**
+         * Puts the middle element of the larger range to its final place and merges the elements before and after it in parallel.
+         */
+        @Override
+        protected void compute() {
+            int leftLength = leftEnd - leftStart;
+            int rightLength = rightEnd - rightStart;
+
+            if (leftLength + rightLength <= SEQUENTIAL_THRESHOLD) {
+                merge(source, leftStart, leftEnd, rightStart, rightEnd, destination, destinationStart);
+                return;
+            }
+
+            int leftSplit, rightSplit, pivotIndex;
+            boolean pivotFromLeft = leftLength >= rightLength;
+
+            if (pivotFromLeft) {
+                leftSplit = (leftStart + leftEnd) >>> 1;
+                pivotIndex = leftSplit;
+                rightSplit = lowerBound(source, rightStart, rightEnd, source[leftSplit]);
+            } else {
+                rightSplit = (rightStart + rightEnd) >>> 1;
+                pivotIndex = rightSplit;
+                leftSplit = lowerBound(source, leftStart, leftEnd, source[rightSplit]);
+            }
+
+            int pivotDestination = destinationStart + (leftSplit - leftStart) + (rightSplit - rightStart);
+            destination[pivotDestination] = source[pivotIndex];
+            invokeAll(
+                    new IntMergeTask(source, leftStart, leftSplit, rightStart, rightSplit, destination, destinationStart),
+                    new IntMergeTask(source, pivotFromLeft ? leftSplit + 1 : leftSplit, leftEnd, pivotFromLeft ? rightSplit : rightSplit + 1, rightEnd, destination, pivotDestination + 1));
+        }
+    }
+
+    /**
+     * Sorts the array in ascending order with the same parallel merge sort as {@link #parallelMergeSort(int[])}.
+     *
+     * @param array Array that will be sorted.
+     */
+    public static void parallelMergeSort(long[] array) {
+        if (array.length < 2) {
+            return;
+        }
+
+        var buffer = array.clone();
+
+        if (array.length <= SEQUENTIAL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() == 1) {
+            sort(buffer, array, 0, array.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new LongSortTask(buffer, array, 0, array.length));
+        }
+    }
+
+    private static void sort(long[] source, long[] destination, int start, int end) {
+        if (end - start <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(destination, start, end);
+            return;
+        }
+
+        int middle = (start + end) >>> 1;
+        sort(destination, source, start, middle);
+        sort(destination, source, middle, end);
+        merge(source, start, middle, middle, end, destination, start);
+    }
+
+    private static void insertionSort(long[] array, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            long value = array[i];
+            int j = i - 1;
+
+            while (j >= start && less(value, array[j])) {
+                array[j + 1] = array[j];
+                j--;
+            }
+
+            array[j + 1] = value;
+        }
+    }
+
+    private static void merge(long[] source, int leftStart, int leftEnd, int rightStart, int rightEnd, long[] destination, int destinationStart) {
+        int i = leftStart, j = rightStart, k = destinationStart;
+
+        if (i < leftEnd && j < rightEnd && !less(source[j], source[leftEnd - 1])) { // The ranges are already in order, e.g. for sorted input
+            System.arraycopy(source, leftStart, destination, k, leftEnd - leftStart);
+            System.arraycopy(source, rightStart, destination, k + leftEnd - leftStart, rightEnd - rightStart);
+            return;
+        }
+
+        while (i < leftEnd && j < rightEnd) {
+            destination[k++] = less(source[j], source[i]) ? source[j++] : source[i++];
+        }
+
+        System.arraycopy(source, i, destination, k, leftEnd - i);
+        System.arraycopy(source, j, destination, k + leftEnd - i, rightEnd - j);
+    }
+
+    private static int lowerBound(long[] array, int start, int end, long key) {
+        while (start < end) {
+            int middle = (start + end) >>> 1;
+
+            if (less(array[middle], key)) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+
+        return start;
+    }
+
+    private static boolean less(long a, long b) {
+        return a < b;
+    }
+
+    static class LongSortTask extends RecursiveAction {
+        private final long[] source;
+        private final long[] destination;
+        private final int start;
+        private final int end;
+
+        LongSortTask(long[] source, long[] destination, int start, int end) {
+            this.source = source;
+            this.destination = destination;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                sort(source, destination, start, end);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new LongSortTask(destination, source, start, middle), new LongSortTask(destination, source, middle, end));
+            new LongMergeTask(source, start, middle, middle, end, destination, start).compute();
+        }
+    }
+
+    static class LongMergeTask extends RecursiveAction {
+        private final long[] source;
+        private final int leftStart, leftEnd, rightStart, rightEnd;
+        private final long[] destination;
+        private final int destinationStart;
+
+        LongMergeTask(long[] source, int leftStart, int leftEnd, int rightStart, int rightEnd, long[] destination, int destinationStart) {
+            this.source = source;
+            this.leftStart = leftStart;
+            this.leftEnd = leftEnd;
+            this.rightStart = rightStart;
+            this.rightEnd = rightEnd;
+            this.destination = destination;
+            this.destinationStart = destinationStart;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftEnd - leftStart;
+            int rightLength = rightEnd - rightStart;
+
+            if (leftLength + rightLength <= SEQUENTIAL_THRESHOLD) {
+                merge(source, leftStart, leftEnd, rightStart, rightEnd, destination, destinationStart);
+                return;
+            }
+
+            int leftSplit, rightSplit, pivotIndex;
+            boolean pivotFromLeft = leftLength >= rightLength;
+
+            if (pivotFromLeft) {
+                leftSplit = (leftStart + leftEnd) >>> 1;
+                pivotIndex = leftSplit;
+                rightSplit = lowerBound(source, rightStart, rightEnd, source[leftSplit]);
+            } else {
+                rightSplit = (rightStart + rightEnd) >>> 1;
+                pivotIndex = rightSplit;
+                leftSplit = lowerBound(source, leftStart, leftEnd, source[rightSplit]);
+            }
+
+            int pivotDestination = destinationStart + (leftSplit - leftStart) + (rightSplit - rightStart);
+            destination[pivotDestination] = source[pivotIndex];
+            invokeAll(
+                    new LongMergeTask(source, leftStart, leftSplit, rightStart, rightSplit, destination, destinationStart),
+                    new LongMergeTask(source, pivotFromLeft ? leftSplit + 1 : leftSplit, leftEnd, pivotFromLeft ? rightSplit : rightSplit + 1, rightEnd, destination, pivotDestination + 1));
+        }
+    }
+
+    /**
+     * Sorts the array in ascending order with the same parallel merge sort as {@link #parallelMergeSort(int[])}.
+     * The elements are compared with {@link Double#compare(double, double)}, so like {@link Arrays#sort(double[])}, -0.0 is placed before 0.0 and NaN after all the other values.
+     *
+     * @param array Array that will be sorted.
+     */
+    public static void parallelMergeSort(double[] array) {
+        if (array.length < 2) {
+            return;
+        }
+
+        var buffer = array.clone();
+
+        if (array.length <= SEQUENTIAL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() == 1) {
+            sort(buffer, array, 0, array.length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new DoubleSortTask(buffer, array, 0, array.length));
+        }
+    }
+
+    private static void sort(double[] source, double[] destination, int start, int end) {
+        if (end - start <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(destination, start, end);
+            return;
+        }
+
+        int middle = (start + end) >>> 1;
+        sort(destination, source, start, middle);
+        sort(destination, source, middle, end);
+        merge(source, start, middle, middle, end, destination, start);
+    }
+
+    private static void insertionSort(double[] array, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            double value = array[i];
+            int j = i - 1;
+
+            while (j >= start && less(value, array[j])) {
+                array[j + 1] = array[j];
+                j--;
+            }
+
+            array[j + 1] = value;
+        }
+    }
+
+    private static void merge(double[] source, int leftStart, int leftEnd, int rightStart, int rightEnd, double[] destination, int destinationStart) {
+        int i = leftStart, j = rightStart, k = destinationStart;
+
+        if (i < leftEnd && j < rightEnd && !less(source[j], source[leftEnd - 1])) { // The ranges are already in order, e.g. for sorted input
+            System.arraycopy(source, leftStart, destination, k, leftEnd - leftStart);
+            System.arraycopy(source, rightStart, destination, k + leftEnd - leftStart, rightEnd - rightStart);
+            return;
+        }
+
+        while (i < leftEnd && j < rightEnd) {
+            destination[k++] = less(source[j], source[i]) ? source[j++] : source[i++];
+        }
+
+        System.arraycopy(source, i, destination, k, leftEnd - i);
+        System.arraycopy(source, j, destination, k + leftEnd - i, rightEnd - j);
+    }
+
+    private static int lowerBound(double[] array, int start, int end, double key) {
+        while (start < end) {
+            int middle = (start + end) >>> 1;
+
+            if (less(array[middle], key)) {
+                start = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+
+        return start;
+    }
+
+    private static boolean less(double a, double b) {
+        return Double.compare(a, b) < 0;
+    }
+
+    static class DoubleSortTask extends RecursiveAction {
+        private final double[] source;
+        private final double[] destination;
+        private final int start;
+        private final int end;
+
+        DoubleSortTask(double[] source, double[] destination, int start, int end) {
+            this.source = source;
+            this.destination = destination;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                sort(source, destination, start, end);
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new DoubleSortTask(destination, source, start, middle), new DoubleSortTask(destination, source, middle, end));
+            new DoubleMergeTask(source, start, middle, middle, end, destination, start).compute();
+        }
+    }
+
+    static class DoubleMergeTask extends RecursiveAction {
+        private final double[] source;
+        private final int leftStart, leftEnd, rightStart, rightEnd;
+        private final double[] destination;
+        private final int destinationStart;
+
+        DoubleMergeTask(double[] source, int leftStart, int leftEnd, int rightStart, int rightEnd, double[] destination, int destinationStart) {
+            this.source = source;
+            this.leftStart = leftStart;
+            this.leftEnd = leftEnd;
+            this.rightStart = rightStart;
+            this.rightEnd = rightEnd;
+            this.destination = destination;
+            this.destinationStart = destinationStart;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftEnd - leftStart;
+            int rightLength = rightEnd - rightStart;
+
+            if (leftLength + rightLength <= SEQUENTIAL_THRESHOLD) {
+                merge(source, leftStart, leftEnd, rightStart, rightEnd, destination, destinationStart);
+                return;
+            }
+
+            int leftSplit, rightSplit, pivotIndex;
+            boolean pivotFromLeft = leftLength >= rightLength;
+
+            if (pivotFromLeft) {
+                leftSplit = (leftStart + leftEnd) >>> 1;
+                pivotIndex = leftSplit;
+                rightSplit = lowerBound(source, rightStart, rightEnd, source[leftSplit]);
+            } else {
+                rightSplit = (rightStart + rightEnd) >>> 1;
+                pivotIndex = rightSplit;
+                leftSplit = lowerBound(source, leftStart, leftEnd, source[rightSplit]);
+            }
+
+            int pivotDestination = destinationStart + (leftSplit - leftStart) + (rightSplit - rightStart);
+            destination[pivotDestination] = source[pivotIndex];
+            invokeAll(
+                    new DoubleMergeTask(source, leftStart, leftSplit, rightStart, rightSplit, destination, destinationStart),
+                    new DoubleMergeTask(source, pivotFromLeft ? leftSplit + 1 : leftSplit, leftEnd, pivotFromLeft ? rightSplit : rightSplit + 1, rightEnd, destination, pivotDestination + 1));
+        }
+    }
+
     static class Sort extends RecursiveAction {
         private final int[] array;
         private final int start;
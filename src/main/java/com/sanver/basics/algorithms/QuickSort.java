@@ -1,16 +1,49 @@
 package com.sanver.basics.algorithms;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+import static com.sanver.basics.utils.PerformanceComparer.measure;
 
 public class QuickSort {
+    static final int INSERTION_SORT_THRESHOLD = 32;
+    static final int NINTHER_THRESHOLD = 128;
+    static final int PARALLEL_THRESHOLD = 1 << 13;
 
     public static void main(String[] args) {
         int[] array = {7, 2, 1, 6, 8, 5, 3, 4};
         System.out.println("Initial array: " + Arrays.toString(array));
         quickSort(array, 0, array.length - 1);
         System.out.println("Sorted array : " + Arrays.toString(array));
+
+        var sorted = IntStream.range(0, 100_000).toArray();
+        System.out.printf("%nSorting %,d already sorted ints%n", sorted.length);
+        System.out.println("Each sort runs once without warmup, so this is only a rough demo. See QuickSortBenchmark in src/jmh/java for the numbers.");
+        measure(() -> introSort(sorted), "introSort");
+        measure(() -> parallelIntroSort(sorted), "parallelIntroSort");
+
+        // The last element is always the largest, so every partition removes only the pivot: n - 1 nested calls and n^2 / 2 comparisons.
+        // The thread gets its own stack so that the depth doesn't depend on -Xss.
+        var small = IntStream.range(0, 10_000).toArray();
+        System.out.printf("%nquickSort of %,d already sorted ints recurses %,d calls deep%n", small.length, small.length - 1);
+        var worstCase = Thread.ofPlatform().stackSize(64 << 20).start(() -> measure(() -> quickSort(small, 0, small.length - 1), "quickSort"));
+
+        try {
+            worstCase.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        measure(() -> introSort(small), "introSort");
     }
 
+    /**
+     * Sorts the range [low, high] of the array with Lomuto partitioning, using the last element as the pivot.
+     * It is O(n^2) for sorted input or input with many equal elements, and since it recurses on both sides, the recursion can be as deep as the array is long.
+     * See {@link #introSort(int[])} for a version without these problems.
+     */
     public static void quickSort(int[] array, int low, int high) {
         if (low < high) {
             int pivotIndex = partition(array, low, high);
@@ -39,4 +72,153 @@ public class QuickSort {
 
         return i;
     }
+
+    /**
+     * Sorts the array with introsort, which is O(n log n) in the worst case and whose recursion is at most O(log n) deep.
+     * <ul>
+     *     <li>The pivot is the median of the first, middle and last elements, or for ranges longer than {@value #NINTHER_THRESHOLD}, the median of three such medians (Tukey's ninther).
+     *     So sorted and reverse sorted input are split in the middle.</li>
+     *     <li>The range is partitioned into three parts: less than, equal to and greater than the pivot. The elements equal to the pivot are never looked at again,
+     *     so input with many duplicates gets faster instead of O(n^2).</li>
+     *     <li>Only the smaller part is sorted recursively, and the larger part is sorted in the loop, so the recursion depth is at most log2(n).</li>
+     *     <li>If the number of partitions exceeds 2 * log2(n), which only happens for input crafted against the pivot selection, the range is sorted with {@link IntHeapSort}.</li>
+     *     <li>Ranges of up to {@value #INSERTION_SORT_THRESHOLD} elements are sorted with insertion sort.</li>
+     * </ul>
+     *
+     * @param array Array that will be sorted.
+     */
+    public static void introSort(int[] array) {
+        introSort(array, 0, array.length, depthLimit(array.length));
+    }
+
+    /**
+     * Sorts the array with {@link #introSort(int[])}, partitioning the ranges longer than {@value #PARALLEL_THRESHOLD} elements and sorting both parts in parallel on the common fork/join pool.
+     *
+     * @param array Array that will be sorted.
+     */
+    public static void parallelIntroSort(int[] array) {
+        if (array.length <= PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() == 1) {
+            introSort(array);
+        } else {
+            ForkJoinPool.commonPool().invoke(new IntroSortTask(array, 0, array.length, depthLimit(array.length)));
+        }
+    }
+
+    static int depthLimit(int length) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(length, 1)));
+    }
+
+    /**
+     * Sorts the range [low, high) of the array. The range is sorted with {@link IntHeapSort} once depthLimit partitions have been made.
+     */
+    static void introSort(int[] array, int low, int high, int depthLimit) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                IntHeapSort.sort(array, low, high, IntHeapSort.DEFAULT_ARITY);
+                return;
+            }
+
+            long bounds = partition3Way(array, low, high, pivot(array, low, high));
+            int lessEnd = (int) (bounds >>> 32);
+            int greaterStart = (int) bounds;
+
+            if (lessEnd - low < high - greaterStart) {
+                introSort(array, low, lessEnd, depthLimit);
+                low = greaterStart;
+            } else {
+                introSort(array, greaterStart, high, depthLimit);
+                high = lessEnd;
+            }
+        }
+
+        insertionSort(array, low, high);
+    }
+
+    /**
+     * @return The median of three or the ninther of the range [low, high).
+     */
+    static int pivot(int[] array, int low, int high) {
+        int last = high - 1;
+        int middle = (low + last) >>> 1;
+
+        if (high - low <= NINTHER_THRESHOLD) {
+            return median(array[low], array[middle], array[last]);
+        }
+
+        int step = (high - low) / 8;
+        return median(
+                median(array[low], array[low + step], array[low + 2 * step]),
+                median(array[middle - step], array[middle], array[middle + step]),
+                median(array[last - 2 * step], array[last - step], array[last]));
+    }
+
+    private static int median(int a, int b, int c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Partitions the range [low, high) with Dijkstra's three-way partitioning, so that the elements less than the pivot are followed by the ones equal to it and then the ones greater than it.
+     *
+     * @return The end of the elements less than the pivot in the upper 32 bits and the start of the elements greater than the pivot in the lower 32 bits, so that no object is allocated to return two ints.
+     */
+    static long partition3Way(int[] array, int low, int high, int pivot) {
+        int less = low, i = low, greater = high - 1;
+
+        while (i <= greater) {
+            int value = array[i];
+
+            if (value < pivot) {
+                array[i++] = array[less];
+                array[less++] = value;
+            } else if (value > pivot) {
+                array[i] = array[greater];
+                array[greater--] = value;
+            } else {
+                i++;
+            }
+        }
+
+        return ((long) less << 32) | (greater + 1);
+    }
+
+    private static void insertionSort(int[] array, int low, int high) {
+        for (int i = low + 1; i < high; i++) {
+            int value = array[i];
+            int j = i - 1;
+
+            while (j >= low && array[j] > value) {
+                array[j + 1] = array[j];
+                j--;
+            }
+
+            array[j + 1] = value;
+        }
+    }
+
+    static class IntroSortTask extends RecursiveAction {
+        private final int[] array;
+        private final int low;
+        private final int high;
+        private final int depthLimit;
+
+        IntroSortTask(int[] array, int low, int high, int depthLimit) {
+            this.array = array;
+            this.low = low;
+            this.high = high;
+            this.depthLimit = depthLimit;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low <= PARALLEL_THRESHOLD || depthLimit == 0) {
+                introSort(array, low, high, depthLimit);
+                return;
+            }
+
+            long bounds = partition3Way(array, low, high, pivot(array, low, high));
+            int lessEnd = (int) (bounds >>> 32);
+            int greaterStart = (int) bounds;
+            invokeAll(new IntroSortTask(array, low, lessEnd, depthLimit - 1), new IntroSortTask(array, greaterStart, high, depthLimit - 1));
+        }
+    }
 }
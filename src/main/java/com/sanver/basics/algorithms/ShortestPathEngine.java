@@ -0,0 +1,308 @@
+package com.sanver.basics.algorithms;
+
+import com.sanver.basics.algorithms.DijkstrasAlgorithm.PathDetails;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.sanver.basics.utils.PerformanceComparer.measure;
+
+/**
+ * Runs many shortest path queries over the same {@link CsrGraph} without allocating or resetting O(V) arrays for each query, as {@link CsrDijkstra} and {@link DijkstrasAlgorithm} do.
+ * <ul>
+ *     <li>Each thread has its own distances, previous nodes and {@link IndexedIntMinHeap} in a {@link ThreadLocal}, so they are allocated once per thread and queries on different threads don't share any state.
+ *     The threads of a {@link ForkJoinPool} live long, so the arrays are reused by all the queries run on the pool.</li>
+ *     <li>Every query increments a generation number, and the distance of a node is only valid if its stamp equals the current generation.
+ *     So a query only touches the nodes it visits, and a query that visits a few hundred nodes of a million node graph doesn't pay for writing a million distances.</li>
+ *     <li>{@link #findDistances(int, int[])} settles all the targets in one search from the source, instead of a search per target.</li>
+ *     <li>{@link #findDistancesInParallel(int[], int[])} splits a batch of queries into tasks on the pool.</li>
+ * </ul>
+ * The graph is not modified, so an engine can be used by any number of threads.
+ */
+public class ShortestPathEngine {
+    static final int BATCH_THRESHOLD = 8;
+    private final CsrGraph graph;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Scratch> scratch;
+
+    public ShortestPathEngine(CsrGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public ShortestPathEngine(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        scratch = ThreadLocal.withInitial(() -> new Scratch(graph.nodeCount()));
+    }
+
+    public static void main(String[] args) {
+        int nodeCount = 1_000_000;
+        int queryCount = 2_000;
+        var random = new Random(42);
+        var builder = new CsrGraph.Builder().setNodeCount(nodeCount);
+
+        for (int i = 0; i < nodeCount; i++) { // Roads mostly connect nearby nodes, so most queries settle a small part of the graph
+            for (int k = 0; k < 2; k++) {
+                builder.addUndirectedEdge(i, Math.floorMod(i + random.nextInt(-50, 50), nodeCount), random.nextInt(1, 100));
+            }
+        }
+
+        var graph = builder.build();
+        var engine = new ShortestPathEngine(graph);
+        var sources = random.ints(queryCount, 0, nodeCount).toArray();
+        var targets = Arrays.stream(sources).map(source -> Math.floorMod(source + random.nextInt(-2_000, 2_000), nodeCount)).toArray();
+        System.out.printf("Running %,d queries on a graph with %,d nodes and %,d edges on %d threads%n", queryCount, nodeCount, graph.edgeCount(), ForkJoinPool.getCommonPoolParallelism());
+        System.out.println("Each batch runs once without warmup, so this is only a rough demo. See ShortestPathEngineBenchmark in src/jmh/java for the numbers.");
+
+        var csrDistances = new int[queryCount];
+        measureQueries(() -> {
+            for (int i = 0; i < queryCount; i++) {
+                var path = CsrDijkstra.findShortestPath(graph, sources[i], targets[i]);
+                csrDistances[i] = path == null ? Integer.MAX_VALUE : path.distance();
+            }
+        }, "CsrDijkstra, allocating per query", queryCount);
+
+        var engineDistances = new int[queryCount];
+        measureQueries(() -> {
+            for (int i = 0; i < queryCount; i++) {
+                engineDistances[i] = engine.findDistance(sources[i], targets[i]);
+            }
+        }, "ShortestPathEngine, sequential", queryCount);
+
+        var parallelDistances = new int[1][];
+        measureQueries(() -> parallelDistances[0] = engine.findDistancesInParallel(sources, targets), "ShortestPathEngine, parallel", queryCount);
+        System.out.println("Same distances: " + (Arrays.equals(csrDistances, engineDistances) && Arrays.equals(engineDistances, parallelDistances[0])));
+
+        var manyTargets = Arrays.copyOf(targets, 100);
+        measureQueries(() -> {
+            for (int target : manyTargets) {
+                engine.findDistance(sources[0], target);
+            }
+        }, "One search per target", manyTargets.length);
+        measureQueries(() -> engine.findDistances(sources[0], manyTargets), "One-to-many search", manyTargets.length);
+    }
+
+    private static void measureQueries(Runnable queries, String name, int queryCount) {
+        long start = System.nanoTime();
+        measure(queries, name);
+        System.out.printf("%,.0f queries/s%n", queryCount * 1e9 / (System.nanoTime() - start));
+    }
+
+    public CsrGraph graph() {
+        return graph;
+    }
+
+    /**
+     * @return The distance and the nodes of a shortest path from begin to end, or null if there is no path.
+     */
+    public PathDetails findShortestPath(int begin, int end) {
+        checkNode(begin);
+        checkNode(end);
+        var scratch = this.scratch.get();
+        int generation = search(scratch, begin, end, null);
+
+        if (scratch.stamps[end] != generation) {
+            return null;
+        }
+
+        var path = new ArrayList<Integer>();
+
+        for (int current = end; current != -1; current = scratch.previousNode[current]) {
+            path.add(current);
+        }
+
+        Collections.reverse(path);
+        return new PathDetails(scratch.distances[end], path);
+    }
+
+    /**
+     * @return The length of a shortest path from begin to end, or {@link Integer#MAX_VALUE} if there is no path.
+     */
+    public int findDistance(int begin, int end) {
+        checkNode(begin);
+        checkNode(end);
+        var scratch = this.scratch.get();
+        int generation = search(scratch, begin, end, null);
+        return scratch.stamps[end] == generation ? scratch.distances[end] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Finds the distances from the source to all the targets with a single search that stops once all the targets are settled.
+     *
+     * @return The distance of each target at the same index, or {@link Integer#MAX_VALUE} for the targets that cannot be reached.
+     */
+    public int[] findDistances(int source, int[] targets) {
+        checkNode(source);
+
+        for (int target : targets) {
+            checkNode(target);
+        }
+
+        if (targets.length == 0) {
+            return new int[0];
+        }
+
+        var scratch = this.scratch.get();
+        int generation = search(scratch, source, -1, targets);
+        var result = new int[targets.length];
+
+        for (int i = 0; i < targets.length; i++) {
+            result[i] = scratch.stamps[targets[i]] == generation ? scratch.distances[targets[i]] : Integer.MAX_VALUE;
+        }
+
+        return result;
+    }
+
+    /**
+     * Runs the queries from sources[i] to targets[i] in parallel on the pool of the engine, in tasks of up to {@value #BATCH_THRESHOLD} queries.
+     *
+     * @return The distance of each query at the same index, or {@link Integer#MAX_VALUE} if there is no path.
+     */
+    public int[] findDistancesInParallel(int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException(String.format("There are %d sources but %d targets.", sources.length, targets.length));
+        }
+
+        var result = new int[sources.length];
+        pool.invoke(new QueryBatchTask(sources, targets, result, 0, sources.length));
+        return result;
+    }
+
+    /**
+     * Settles the nodes in the order of their distance from begin until end or all the targets are settled, or all reachable nodes if there are no targets.
+     *
+     * @param targets The targets, or null to only use end, so that a single query doesn't allocate an array.
+     * @return The generation of the search. The distance and previous node of a node are only valid if its stamp equals it.
+     */
+    private int search(Scratch scratch, int begin, int end, int[] targets) {
+        int generation = scratch.nextGeneration();
+        int[] distances = scratch.distances;
+        int[] previousNode = scratch.previousNode;
+        int[] stamps = scratch.stamps;
+        int[] targetStamps = scratch.targetStamps;
+        var heap = scratch.heap;
+        int remainingTargets = 0;
+
+        if (targets == null) {
+            targetStamps[end] = generation;
+            remainingTargets = 1;
+        } else {
+            for (int target : targets) {
+                if (targetStamps[target] != generation) { // Count the duplicate targets once
+                    targetStamps[target] = generation;
+                    remainingTargets++;
+                }
+            }
+        }
+
+        stamps[begin] = generation;
+        distances[begin] = 0;
+        previousNode[begin] = -1;
+        heap.offerOrDecrease(begin, 0);
+
+        while (!heap.isEmpty()) {
+            int distance = heap.peekPriority();
+            int node = heap.pollKey();
+
+            if (targetStamps[node] == generation && --remainingTargets == 0) {
+                break;
+            }
+
+            for (int edge = graph.firstEdge(node), endEdge = graph.endEdge(node); edge < endEdge; edge++) {
+                int target = graph.target(edge);
+                int newDistance = distance + graph.weight(edge);
+
+                if (stamps[target] != generation || newDistance < distances[target]) {
+                    stamps[target] = generation;
+                    distances[target] = newDistance;
+                    previousNode[target] = node;
+                    heap.offerOrDecrease(target, newDistance);
+                }
+            }
+        }
+
+        heap.clear();
+        return generation;
+    }
+
+    private boolean isNode(int node) {
+        return node >= 0 && node < graph.nodeCount();
+    }
+
+    private void checkNode(int node) {
+        if (!isNode(node)) {
+            throw new IllegalArgumentException(String.format("Node %d is not in the graph with %d nodes.", node, graph.nodeCount()));
+        }
+    }
+
+    Scratch scratch() {
+        return scratch.get();
+    }
+
+    /**
+     * The arrays of a thread, which are only valid for the nodes stamped with the current generation.
+     */
+    static class Scratch {
+        final int[] distances;
+        final int[] previousNode;
+        final int[] stamps;
+        final int[] targetStamps;
+        final IndexedIntMinHeap heap;
+        int generation;
+
+        Scratch(int nodeCount) {
+            distances = new int[nodeCount];
+            previousNode = new int[nodeCount];
+            stamps = new int[nodeCount];
+            targetStamps = new int[nodeCount];
+            heap = new IndexedIntMinHeap(nodeCount);
+        }
+
+        /**
+         * @return The next generation. The stamps are only cleared when the generation wraps around, which is once every 4 billion queries.
+         */
+        int nextGeneration() {
+            if (++generation == 0) {
+                Arrays.fill(stamps, 0);
+                Arrays.fill(targetStamps, 0);
+                generation = 1;
+            }
+
+            return generation;
+        }
+    }
+
+    class QueryBatchTask extends RecursiveAction {
+        private final int[] sources;
+        private final int[] targets;
+        private final int[] result;
+        private final int start;
+        private final int end;
+
+        QueryBatchTask(int[] sources, int[] targets, int[] result, int start, int end) {
+            this.sources = sources;
+            this.targets = targets;
+            this.result = result;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= BATCH_THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    result[i] = findDistance(sources[i], targets[i]);
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new QueryBatchTask(sources, targets, result, start, middle), new QueryBatchTask(sources, targets, result, middle, end));
+        }
+    }
+}
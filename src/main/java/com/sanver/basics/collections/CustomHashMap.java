@@ -1,15 +1,47 @@
 package com.sanver.basics.collections;
 
-import java.util.HashSet;
+import java.lang.reflect.ParameterizedType;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * This class is to represent a simplified HashMap implement. HashMap stores elements with same hashcode in a linked list (Node<K,V>s where the next field points to next element.
  * After the linked list size exceeds a certain number, i.e. TREEIFY_THRESHOLD = 8, the linked list is converted into a binary tree.
- * This implementation doesn't do that for simplicity and also resize is simplified.
+ * This implementation does that as well, but uses an AVL tree instead of the red-black tree of HashMap and also resize is simplified.
  * There is a test class CustomHashMapTest in the test package that tests if this hash map methods work properly
+ * For int keys, {@link IntObjectHashMap} and {@link IntIntHashMap} store the entries in flat arrays with linear probing instead of allocating a node per entry.
+ * <p>
+ * The nodes of a tree bucket are ordered by hash, then by class name and then by {@code compareTo} if the keys are of the same {@code Comparable} class.
+ * So even if a badly distributed or hostile {@code hashCode()} puts many keys into the same bucket, lookups stay O(log n) for {@code Comparable} keys.
+ * Keys which are neither distinguished by hash nor by {@code compareTo} have to be searched in both subtrees, which is also what HashMap does.
+ * The nodes of a tree bucket are still linked with the next field and the first node of that list keeps a reference to the tree root, so the code iterating over the buckets doesn't need to know about trees.
+ * Tree rotations never reorder that list, which keeps the iterators of the views valid when an entry is removed through them.
+ * A tree bucket is converted back to a linked list when it shrinks to {@link #UNTREEIFY_THRESHOLD} nodes because of removes or a resize split.
+ * Unlike HashMap, there is no minimum capacity for treeifying, so a long bucket never triggers a resize and the capacity only depends on the size.
+ * </p>
+ * <p>
+ * By default, resize moves all the nodes to the new table in one call, which makes the put that crosses the threshold much slower than the others for large maps.
+ * If the map is created with {@code incrementalResize} set to true, resize only allocates the new table and the old and the new table coexist for a while, similar to the dict rehashing of Redis.
+ * Each put, get and remove then moves {@link #INCREMENTAL_RESIZE_STEP} buckets of the old table to the new one until the old table is empty.
+ * The old table bucket of the key being accessed is also moved first, so that put, get and remove only need to look into the new table.
+ * </p>
+ * <p>
+ * {@link #keySet()}, {@link #values()} and {@link #entrySet()} are views backed by the table, like the ones of HashMap, so they don't copy the entries.
+ * Removing from a view or through its iterator removes the entry from the map. Their iterators are fail-fast, i.e. they throw a {@code ConcurrentModificationException}
+ * if the map is structurally modified in any other way during the iteration. Their spliterators split the table into bucket ranges, so parallel streams over the views scale with the number of cores.
+ * An incremental resize in progress is completed when an iterator or a spliterator is created, so the nodes don't move between tables during the iteration.
+ * </p>
  *
  * @param <K> Key
  * @param <V> Value
@@ -18,8 +50,41 @@ public class CustomHashMap<K, V> {
     public static final int DEFAULT_INITIAL_CAPACITY = 16;
     public static final double DEFAULT_LOAD_FACTOR = 0.75;
     public static final int MAXIMUM_CAPACITY = 1 << 30;
+    /**
+     * A linked list bucket is converted into a tree when a put makes it longer than this.
+     */
+    public static final int TREEIFY_THRESHOLD = 8;
+    /**
+     * A tree bucket is converted back into a linked list when it has this many nodes or fewer.
+     */
+    public static final int UNTREEIFY_THRESHOLD = 6;
+    /**
+     * The number of old table buckets moved to the new table by each put, get and remove during an incremental resize.
+     * Since the threshold doubles with each resize, moving more than one bucket per operation makes sure the old table is emptied before the next resize is needed.
+     */
+    public static final int INCREMENTAL_RESIZE_STEP = 4;
+    private static final ClassValue<Boolean> COMPARABLE_TO_ITSELF = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return checkComparableToItself(type);
+        }
+    };
+    final boolean incrementalResize;
     Node<K, V>[] table;
-    int size, threshold;
+    Node<K, V>[] oldTable; // Only set while an incremental resize is in progress
+    int size, threshold, transferIndex; // transferIndex is the index of the next old table bucket to be moved to the new table
+    int modCount; // The number of structural modifications, i.e. adding or removing entries. Used by the iterators of the views to fail fast.
+
+    public CustomHashMap() {
+        this(false);
+    }
+
+    /**
+     * @param incrementalResize If true, the nodes are moved to the new table a few buckets at a time by the following operations instead of in one go when the map is resized.
+     */
+    public CustomHashMap(boolean incrementalResize) {
+        this.incrementalResize = incrementalResize;
+    }
 
     static int hash(Object key) {
         int h;
@@ -38,18 +103,25 @@ public class CustomHashMap<K, V> {
                 threshold = Integer.MAX_VALUE;
                 return;
             }
+
+            if (oldTable != null) { // The previous incremental resize should be completed before starting a new one
+                completeTransfer();
+            }
+
             @SuppressWarnings({"unchecked"})
             var newTable = (Node<K, V>[]) new Node[table.length << 1];
-            var oldTable = table;
+            oldTable = table;
             table = newTable;
-            size = 0;
+            transferIndex = 0;
             threshold <<= 1;
 
             if (threshold > MAXIMUM_CAPACITY) {
                 threshold = Integer.MAX_VALUE;
             }
 
-            moveToNewTable(oldTable);
+            if (!incrementalResize) {
+                completeTransfer();
+            }
         }
     }
 
@@ -61,44 +133,118 @@ public class CustomHashMap<K, V> {
         return table == null ? 0 : table.length;
     }
 
-    void moveToNewTable(Node<K, V>[] oldTable) {
-        if (table == null) {
+    /**
+     * @return True if an incremental resize is in progress, i.e. some nodes are still in the old table.
+     */
+    public boolean isResizing() {
+        return oldTable != null;
+    }
+
+    /**
+     * Moves the nodes of the given old table bucket to the new table.
+     * The nodes are relinked instead of being put again, so no new nodes are allocated for linked list buckets and the size doesn't change.
+     * Since the old bucket of a key is always moved before the key is put into the new table, the two new buckets the nodes go to are empty.
+     */
+    void transferBucket(int index) {
+        var node = oldTable[index];
+        oldTable[index] = null;
+
+        if (node instanceof TreeNode<K, V> treeNode) {
+            splitTree(treeNode, index);
             return;
         }
 
-        int oldLength = oldTable.length;
-        Node<K, V> oldNode;
+        int mask = table.length - 1;
+        Node<K, V> next;
 
-        for (int i = 0; i < oldLength; i++) {
-            oldNode = oldTable[i];
-            oldTable[i] = null;
+        for (; node != null; node = next) {
+            next = node.next;
+            int newIndex = node.hash & mask;
+            node.next = table[newIndex];
+            table[newIndex] = node;
+        }
+    }
 
-            while (oldNode != null) {
-                put(oldNode.key, oldNode.value);
-                oldNode = oldNode.next;
-            }
+    /**
+     * Moves the next {@link #INCREMENTAL_RESIZE_STEP} buckets of the old table to the new table if an incremental resize is in progress.
+     */
+    void transferStep() {
+        if (oldTable == null) {
+            return;
+        }
+
+        int end = Math.min(transferIndex + INCREMENTAL_RESIZE_STEP, oldTable.length);
+
+        while (transferIndex < end) {
+            transferBucket(transferIndex++);
+        }
+
+        if (transferIndex == oldTable.length) {
+            oldTable = null;
+        }
+    }
+
+    void completeTransfer() {
+        if (oldTable == null) {
+            return;
+        }
+
+        while (transferIndex < oldTable.length) {
+            transferBucket(transferIndex++);
+        }
+
+        oldTable = null;
+    }
+
+    /**
+     * Moves the old table bucket of the hash to the new table if it hasn't been moved yet, so that the key can be looked up in the new table only.
+     */
+    private void transferBucketOf(int hash) {
+        if (oldTable == null) {
+            return;
+        }
+
+        int index = hash & (oldTable.length - 1);
+
+        if (index >= transferIndex && oldTable[index] != null) {
+            transferBucket(index);
         }
     }
 
     public V put(K key, V value) {
         Node<K, V> currentNode;
-        V oldValue = null;
         int hash, capacity;
         if (table == null || (capacity = table.length) == 0) {
             resize();
             capacity = table.length;
+        } else {
+            transferStep();
         }
-        int index = (hash = hash(key)) & (capacity - 1);
+
+        hash = hash(key);
+        transferBucketOf(hash);
+        int index = hash & (capacity - 1);
 
         if (table[index] == null) {
             table[index] = new Node<>(key, value, hash, null);
+        } else if (table[index] instanceof TreeNode<K, V> first) {
+            if ((currentNode = findTreeNode(first.root, hash, key)) != null) {
+                V oldValue = currentNode.value;
+                currentNode.value = value;
+                return oldValue;
+            }
+
+            var treeNode = new TreeNode<>(key, value, hash, null);
+            linkAfterFirst(first, treeNode);
+            first.root = insertTreeNode(first.root, treeNode);
         } else {
             currentNode = table[index];
+            int bucketSize = 1;
             while (true) {
                 if (currentNode.hash == hash && Objects.equals(key, currentNode.key)) {
-                    oldValue = currentNode.value;
+                    V oldValue = currentNode.value;
                     currentNode.value = value;
-                    break;
+                    return oldValue;
                 }
                 if (currentNode.next == null) {
                     currentNode.next = new Node<>(key, value, hash, null);
@@ -106,14 +252,21 @@ public class CustomHashMap<K, V> {
                 }
 
                 currentNode = currentNode.next;
+                bucketSize++;
+            }
+
+            if (bucketSize >= TREEIFY_THRESHOLD) {
+                treeify(index);
             }
         }
 
+        modCount++;
+
         if (++size > threshold) {
             resize();
         }
 
-        return oldValue;
+        return null;
     }
 
     public V get(K key) {
@@ -122,23 +275,54 @@ public class CustomHashMap<K, V> {
     }
 
     public V remove(K key) {
+        var removed = removeEntry(key);
+        return removed != null ? removed.value : null;
+    }
+
+    public void clear() {
+        if (table == null) {
+            return;
+        }
+
+        Arrays.fill(table, null);
+        oldTable = null;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Removes the entry with the given key and returns it, or returns null if the key doesn't exist. Used by remove and the views.
+     */
+    Node<K, V> removeEntry(Object key) {
         if (table == null || table.length == 0) {
             return null;
         }
 
+        transferStep();
         var hash = hash(key);
+        transferBucketOf(hash);
         var index = hash & (table.length - 1);
+        var removed = table[index] instanceof TreeNode<K, V> first ? removeTreeNode(first, index, hash, key) : removeNode(index, hash, key);
+
+        if (removed == null) {
+            return null;
+        }
+
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    private Node<K, V> removeNode(int index, int hash, Object key) {
         var currentNode = table[index];
 
         if (currentNode == null) {
             return null;
         }
 
-        V result = null;
-
         if (currentNode.hash == hash && Objects.equals(currentNode.key, key)) {
             table[index] = currentNode.next;
-            return currentNode.value;
+            return currentNode;
         }
 
         var previousNode = currentNode;
@@ -147,82 +331,703 @@ public class CustomHashMap<K, V> {
         for (; currentNode != null; currentNode = currentNode.next, previousNode = previousNode.next) {
             if (currentNode.hash == hash && Objects.equals(currentNode.key, key)) {
                 previousNode.next = currentNode.next;
-                result = currentNode.value;
-                break;
+                return currentNode;
             }
         }
 
-        return result;
+        return null;
     }
 
-    private Node<K, V> findNode(K key) {
-        Node<K, V> currentNode, result = null;
-        int hash, index;
-
+    Node<K, V> findNode(Object key) {
         if (table == null || table.length == 0) {
             return null;
         }
 
-        hash = hash(key);
-        index = hash & (table.length - 1);
-        currentNode = table[index];
+        transferStep();
+        int hash = hash(key);
+        transferBucketOf(hash);
+        var currentNode = table[hash & (table.length - 1)];
+
+        if (currentNode instanceof TreeNode<K, V> first) {
+            return findTreeNode(first.root, hash, key);
+        }
 
         for (; currentNode != null; currentNode = currentNode.next) {
             if (currentNode.hash == hash && Objects.equals(key, currentNode.key)) {
-                result = currentNode;
-                break;
+                return currentNode;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Converts the linked list bucket at the given index into a tree bucket. The nodes are replaced with tree nodes, since plain nodes don't have the tree links.
+     */
+    private void treeify(int index) {
+        TreeNode<K, V> root = null, last = null;
+
+        for (var node = table[index]; node != null; node = node.next) {
+            var treeNode = new TreeNode<>(node.key, node.value, node.hash, null);
+
+            if (last == null) {
+                table[index] = treeNode;
+            } else {
+                last.next = treeNode;
+                treeNode.prev = last;
+            }
+
+            last = treeNode;
+            root = insertTreeNode(root, treeNode);
+        }
+
+        ((TreeNode<K, V>) table[index]).root = root;
+    }
+
+    /**
+     * Converts the given list of tree nodes into a linked list of plain nodes and returns its head.
+     */
+    private Node<K, V> untreeify(Node<K, V> first) {
+        Node<K, V> head = null, last = null;
+
+        for (var node = first; node != null; node = node.next) {
+            var plainNode = new Node<>(node.key, node.value, node.hash, null);
+
+            if (last == null) {
+                head = plainNode;
+            } else {
+                last.next = plainNode;
+            }
+
+            last = plainNode;
+        }
+
+        return head;
+    }
+
+    /**
+     * Splits the nodes of an old table tree bucket into the two new table buckets they belong to after the resize.
+     * Each part is either rebuilt as a tree with the same tree nodes or converted into a linked list if it has {@link #UNTREEIFY_THRESHOLD} nodes or fewer.
+     */
+    private void splitTree(TreeNode<K, V> first, int oldIndex) {
+        int oldCapacity = oldTable.length;
+        TreeNode<K, V> lowHead = null, lowTail = null, highHead = null, highTail = null;
+        int lowCount = 0, highCount = 0;
+        TreeNode<K, V> next;
+
+        for (var node = first; node != null; node = next) {
+            next = (TreeNode<K, V>) node.next;
+            node.next = node.prev = node.left = node.right = node.root = null;
+            node.height = 1;
+
+            if ((node.hash & oldCapacity) == 0) {
+                if (lowTail == null) {
+                    lowHead = node;
+                } else {
+                    lowTail.next = node;
+                    node.prev = lowTail;
+                }
+                lowTail = node;
+                lowCount++;
+            } else {
+                if (highTail == null) {
+                    highHead = node;
+                } else {
+                    highTail.next = node;
+                    node.prev = highTail;
+                }
+                highTail = node;
+                highCount++;
+            }
+        }
+
+        rebuildBucket(oldIndex, lowHead, lowCount);
+        rebuildBucket(oldIndex + oldCapacity, highHead, highCount);
+    }
+
+    private void rebuildBucket(int index, TreeNode<K, V> first, int count) {
+        if (first == null) {
+            return;
+        }
+
+        if (count <= UNTREEIFY_THRESHOLD) {
+            table[index] = untreeify(first);
+            return;
+        }
+
+        TreeNode<K, V> root = null;
+
+        for (var node = first; node != null; node = (TreeNode<K, V>) node.next) {
+            root = insertTreeNode(root, node);
+        }
+
+        first.root = root;
+        table[index] = first;
+    }
+
+    /**
+     * Links the new tree node into the bucket list right after the first node, so that the first node and its tree root reference stay the same.
+     */
+    private void linkAfterFirst(TreeNode<K, V> first, TreeNode<K, V> treeNode) {
+        var next = (TreeNode<K, V>) first.next;
+        treeNode.next = next;
+        treeNode.prev = first;
+        first.next = treeNode;
+
+        if (next != null) {
+            next.prev = treeNode;
+        }
+    }
+
+    private Node<K, V> removeTreeNode(TreeNode<K, V> first, int index, int hash, Object key) {
+        var root = first.root;
+        var target = findTreeNode(root, hash, key);
+
+        if (target == null) {
+            return null;
+        }
+
+        var previous = target.prev;
+        var next = (TreeNode<K, V>) target.next;
+
+        if (previous == null) {
+            table[index] = next;
+        } else {
+            previous.next = next;
+        }
+
+        if (next != null) {
+            next.prev = previous;
+        }
+
+        root = deleteTreeNode(root, target);
+        target.root = null;
+
+        if (root != null) {
+            first = (TreeNode<K, V>) table[index];
+            first.root = root;
+
+            if (root.height <= 3 && countNodes(first) <= UNTREEIFY_THRESHOLD) { // An AVL tree with height 3 has at most 7 nodes, so only small trees are counted
+                table[index] = untreeify(first);
+            }
+        }
+
+        return target;
+    }
+
+    private static int countNodes(Node<?, ?> node) {
+        int count = 0;
+
+        for (; node != null; node = node.next) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Searches the tree for the key. If the key can't be ordered against a node, i.e. it has the same hash and the same class and is not {@code Comparable} or compares as equal,
+     * both subtrees of that node are searched.
+     */
+    static <K, V> TreeNode<K, V> findTreeNode(TreeNode<K, V> node, int hash, Object key) {
+        while (node != null) {
+            if (hash < node.hash) {
+                node = node.left;
+            } else if (hash > node.hash) {
+                node = node.right;
+            } else if (Objects.equals(key, node.key)) {
+                return node;
+            } else {
+                int direction = compareKeys(key, node.key);
+
+                if (direction < 0) {
+                    node = node.left;
+                } else if (direction > 0) {
+                    node = node.right;
+                } else {
+                    var result = findTreeNode(node.right, hash, key);
+
+                    if (result != null) {
+                        return result;
+                    }
+
+                    node = node.left;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Inserts the tree node into the subtree and returns the new root of the subtree after rebalancing.
+     * Nodes which can't be ordered against each other are put to the right, findTreeNode searches both sides for them anyway.
+     */
+    static <K, V> TreeNode<K, V> insertTreeNode(TreeNode<K, V> root, TreeNode<K, V> treeNode) {
+        if (root == null) {
+            return treeNode;
+        }
+
+        if (compareNodes(treeNode, root) < 0) {
+            root.left = insertTreeNode(root.left, treeNode);
+        } else {
+            root.right = insertTreeNode(root.right, treeNode);
+        }
+
+        return balance(root);
+    }
+
+    /**
+     * Deletes the target node from the subtree and returns the new root of the subtree after rebalancing.
+     * If the target can't be ordered against a node, the right subtree is searched for it to decide which side it is on.
+     */
+    static <K, V> TreeNode<K, V> deleteTreeNode(TreeNode<K, V> root, TreeNode<K, V> target) {
+        if (root == target) {
+            var left = root.left;
+            var right = root.right;
+            root.left = root.right = null;
+
+            if (left == null) {
+                return right;
+            }
+
+            if (right == null) {
+                return left;
+            }
+
+            var successor = right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+
+            successor.right = deleteMin(right);
+            successor.left = left;
+            return balance(successor);
+        }
+
+        int direction = compareNodes(target, root);
+
+        if (direction == 0) {
+            direction = findTreeNode(root.right, target.hash, target.key) == target ? 1 : -1;
+        }
+
+        if (direction < 0) {
+            root.left = deleteTreeNode(root.left, target);
+        } else {
+            root.right = deleteTreeNode(root.right, target);
+        }
+
+        return balance(root);
+    }
+
+    private static <K, V> TreeNode<K, V> deleteMin(TreeNode<K, V> root) {
+        if (root.left == null) {
+            return root.right;
+        }
+
+        root.left = deleteMin(root.left);
+        return balance(root);
+    }
+
+    private static int compareNodes(TreeNode<?, ?> first, TreeNode<?, ?> second) {
+        return first.hash != second.hash ? Integer.compare(first.hash, second.hash) : compareKeys(first.key, second.key);
+    }
+
+    /**
+     * Orders keys with the same hash by class name and then by {@code compareTo} if both keys are of the same {@code Comparable} class.
+     *
+     * @return A negative or positive number if the keys can be ordered, otherwise 0.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareKeys(Object first, Object second) {
+        if (first == null || second == null) {
+            return first == second ? 0 : first == null ? -1 : 1;
+        }
+
+        Class<?> firstClass = first.getClass(), secondClass = second.getClass();
+
+        if (firstClass != secondClass) {
+            int result = firstClass.getName().compareTo(secondClass.getName());
+            return result != 0 ? result : Integer.compare(System.identityHashCode(firstClass), System.identityHashCode(secondClass));
+        }
+
+        return isComparableToItself(firstClass) ? ((Comparable) first).compareTo(second) : 0;
+    }
+
+    /**
+     * Returns true if the class is of the form "class C implements Comparable&lt;C&gt;", the same check HashMap does before using {@code compareTo} on the keys.
+     * The result is cached per class, since the check uses reflection.
+     */
+    static boolean isComparableToItself(Class<?> type) {
+        return type == String.class || COMPARABLE_TO_ITSELF.get(type);
+    }
+
+    private static boolean checkComparableToItself(Class<?> type) {
+        if (!Comparable.class.isAssignableFrom(type)) {
+            return false;
+        }
+
+        for (var genericInterface : type.getGenericInterfaces()) {
+            if (genericInterface instanceof ParameterizedType parameterizedType
+                    && parameterizedType.getRawType() == Comparable.class
+                    && parameterizedType.getActualTypeArguments()[0] == type) {
+                return true;
             }
         }
 
-        return result;
+        return false;
+    }
+
+    private static int height(TreeNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <K, V> TreeNode<K, V> balance(TreeNode<K, V> node) {
+        int balance = height(node.left) - height(node.right);
+
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        return node;
+    }
+
+    private static <K, V> TreeNode<K, V> rotateRight(TreeNode<K, V> node) {
+        var left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        left.height = Math.max(height(left.left), height(left.right)) + 1;
+        return left;
+    }
+
+    private static <K, V> TreeNode<K, V> rotateLeft(TreeNode<K, V> node) {
+        var right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        right.height = Math.max(height(right.left), height(right.right)) + 1;
+        return right;
     }
 
     /**
-     * This is a simplified implementation of keySet in HashMap.
-     * This only returns the keys of the hash map as an immutable set.
-     * In HashMap implementation there is an inner class KeySet with custom method remove, which actually changes the underlying array of the map as well.
-     * Also it will reflect the current key set all the time.
+     * Returns a view of the keys of the map. The view reflects the changes of the map and removing a key from the view removes the entry from the map.
+     * Adding to the view is not supported.
      *
-     * @return Returns the current key set as an immutable set.
+     * @return The key set view of the map.
      */
     public Set<K> keySet() {
-        if (table == null) {
-            return Set.of();
+        return new KeySet();
+    }
+
+    /**
+     * Returns a view of the values of the map. The view reflects the changes of the map and removing a value from the view removes its first entry from the map.
+     * Adding to the view is not supported.
+     *
+     * @return The values view of the map.
+     */
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    /**
+     * Returns a view of the entries of the map. The view reflects the changes of the map and removing an entry from the view removes it from the map.
+     * Setting the value of an entry changes the value in the map. Adding to the view is not supported.
+     *
+     * @return The entry set view of the map.
+     */
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    final class KeySet extends AbstractSet<K> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return findNode(o) != null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return removeEntry(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            CustomHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new TableIterator<>(node -> node.key);
+        }
+
+        @Override
+        public Spliterator<K> spliterator() {
+            return new TableSpliterator<>(node -> node.key, Spliterator.DISTINCT);
+        }
+    }
+
+    final class Values extends AbstractCollection<V> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CustomHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new TableIterator<>(node -> node.value);
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new TableSpliterator<>(node -> node.value, 0);
+        }
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry<?, ?> entry)) {
+                return false;
+            }
+
+            var node = findNode(entry.getKey());
+            return node != null && node.equals(entry);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return contains(o) && removeEntry(((Map.Entry<?, ?>) o).getKey()) != null;
+        }
+
+        @Override
+        public void clear() {
+            CustomHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new TableIterator<>(node -> node);
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            return new TableSpliterator<>(node -> node, Spliterator.DISTINCT);
         }
+    }
+
+    /**
+     * Walks the buckets of the table in index order and the nodes of each bucket through the next links.
+     * The next node is found in advance, so that hasNext doesn't need to search and the current node can be removed.
+     */
+    final class TableIterator<T> implements Iterator<T> {
+        private final Function<Node<K, V>, T> extractor;
+        private Node<K, V> next, current;
+        private int index, currentIndex, expectedModCount;
+
+        TableIterator(Function<Node<K, V>, T> extractor) {
+            this.extractor = extractor;
+            completeTransfer();
+            expectedModCount = modCount;
 
-        var keySet = new HashSet<K>();
+            if (table != null && size > 0) {
+                advanceToNextBucket();
+            }
+        }
 
-        for (var node : table) {
-            for (; node != null; node = node.next) {
-                keySet.add(node.key);
+        private void advanceToNextBucket() {
+            var nodes = table;
+            while (index < nodes.length && (next = nodes[index]) == null) {
+                index++;
             }
         }
 
-        return Set.of((K[]) keySet.toArray(Object[]::new));
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            current = next;
+            currentIndex = index;
+
+            if ((next = current.next) == null) {
+                index++;
+                advanceToNextBucket();
+            }
+
+            return extractor.apply(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            var wasTree = table[currentIndex] instanceof TreeNode;
+            removeEntry(current.key);
+            current = null;
+            expectedModCount = modCount;
+
+            // If the remove converted the tree bucket back into a linked list, the next node has been replaced with a plain node with the same key
+            if (wasTree && next != null && index == currentIndex && !(table[currentIndex] instanceof TreeNode)) {
+                var nextKey = next.key;
+                next = table[currentIndex];
+                while (next.key != nextKey) {
+                    next = next.next;
+                }
+            }
+        }
     }
 
     /**
-     * This is a simplified implementation of entrySet in HashMap.
-     * This only returns the entries as an immutable set and does not support adding and removing of elements from that set.
-     * In HashMap implementation there is an inner class EntrySet with custom methods add and remove, which actually change the HashMap as well.
-     * Also, it will reflect the current entry set all the time.
-     *
-     * @return Returns the current entry set as an immutable set.
+     * Splits the table into bucket ranges, so that a parallel stream can process the ranges on different threads.
+     * Like the spliterators of HashMap, the size of a split part is estimated as half of the size of the part it is split from.
      */
-    public Set<Node<K, V>> entrySet() {
-        if (table == null) {
-            return Set.of();
+    final class TableSpliterator<T> implements Spliterator<T> {
+        private final Function<Node<K, V>, T> extractor;
+        private final int additionalCharacteristics;
+        private Node<K, V> current; // The next node to be returned in the current bucket
+        private int index, fence, estimatedSize, expectedModCount;
+
+        TableSpliterator(Function<Node<K, V>, T> extractor, int additionalCharacteristics) {
+            this(extractor, additionalCharacteristics, 0, -1, 0, 0);
+        }
+
+        private TableSpliterator(Function<Node<K, V>, T> extractor, int additionalCharacteristics, int index, int fence, int estimatedSize, int expectedModCount) {
+            this.extractor = extractor;
+            this.additionalCharacteristics = additionalCharacteristics;
+            this.index = index;
+            this.fence = fence;
+            this.estimatedSize = estimatedSize;
+            this.expectedModCount = expectedModCount;
+        }
+
+        /**
+         * Binds the spliterator to the table when it is first used, i.e. the top level spliterator reflects the changes made between creating the stream and running it.
+         */
+        private int getFence() {
+            if (fence < 0) {
+                completeTransfer();
+                estimatedSize = size;
+                expectedModCount = modCount;
+                fence = table == null ? 0 : table.length;
+            }
+
+            return fence;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int high = getFence(), low = index, middle = (low + high) >>> 1;
+
+            if (low >= middle || current != null) {
+                return null;
+            }
+
+            index = middle;
+            return new TableSpliterator<>(extractor, additionalCharacteristics, low, middle, estimatedSize >>>= 1, expectedModCount);
         }
 
-        var entrySet = new HashSet<Node<K, V>>();
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int high = getFence();
+            var nodes = table;
+
+            while (current != null || index < high) {
+                if (current == null) {
+                    current = nodes[index++];
+                } else {
+                    var node = current;
+                    current = current.next;
+                    action.accept(extractor.apply(node));
 
-        for (var node : table) {
-            for (; node != null; node = node.next) {
-                entrySet.add(node);
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+
+                    return true;
+                }
             }
+
+            return false;
         }
 
-        return Set.of((Node<K, V>[]) entrySet.toArray(Node[]::new));
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int high = getFence();
+            var nodes = table;
+            var node = current;
+            current = null;
+
+            if (nodes != null) {
+                while (node != null || index < high) {
+                    if (node == null) {
+                        node = nodes[index++];
+                    } else {
+                        action.accept(extractor.apply(node));
+                        node = node.next;
+                    }
+                }
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            getFence();
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return (fence < 0 || estimatedSize == size ? Spliterator.SIZED : 0) | additionalCharacteristics;
+        }
     }
 
     static class Node<K, V> implements Map.Entry<K, V> {
@@ -250,7 +1055,37 @@ public class CustomHashMap<K, V> {
 
         @Override
         public V setValue(V value) {
-            return this.value = value;
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || o instanceof Map.Entry<?, ?> entry && Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * A node of a tree bucket. Besides the tree links, it keeps a link to the previous node of the bucket list, so that it can be unlinked from the list in constant time.
+     * The root field is only set on the first node of the bucket list.
+     */
+    static class TreeNode<K, V> extends Node<K, V> {
+        TreeNode<K, V> left, right, prev, root;
+        int height = 1;
+
+        TreeNode(K key, V value, int hash, Node<K, V> next) {
+            super(key, value, hash, next);
         }
     }
 }
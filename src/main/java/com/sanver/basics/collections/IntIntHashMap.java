@@ -0,0 +1,294 @@
+package com.sanver.basics.collections;
+
+import java.util.Arrays;
+
+/**
+ * The int valued counterpart of {@link IntObjectHashMap}. Keys and values are stored in two flat {@code int[]} arrays, so neither the keys nor the values are boxed.
+ * Collisions are resolved with linear probing, i.e. if the slot for a key is taken, the next slot is tried until a free slot is found.
+ * Since the keys are primitive, 0 is used to mark a free slot and the entry with the key 0 is stored in an extra slot at the end of the arrays.
+ * <p>
+ * Removing an entry doesn't leave a tombstone behind. Instead, the entries after the removed slot that belong before it are shifted back (backward-shift deletion),
+ * so lookups never have to skip deleted slots and the probe sequences stay as short as they were before the remove.
+ * </p>
+ * <p>
+ * The capacity and the resize thresholds are the same as {@link CustomHashMap}, so both pass the same size and capacity tests.
+ * Resizing only allocates the two new arrays and moves the entries directly into them.
+ * Since a value can't be null, the methods which return null in {@link IntObjectHashMap} for a missing key return {@link #noEntryValue()} instead.
+ * There is a test class IntIntHashMapTest in the test package that tests if this hash map methods work properly.
+ * </p>
+ */
+public class IntIntHashMap {
+    public static final int DEFAULT_INITIAL_CAPACITY = 16;
+    public static final double DEFAULT_LOAD_FACTOR = 0.75;
+    public static final int MAXIMUM_CAPACITY = 1 << 30;
+    final int noEntryValue;
+    int[] keys;
+    int[] values;
+    boolean containsZeroKey;
+    int size, threshold, mask;
+
+    public IntIntHashMap() {
+        this(0);
+    }
+
+    /**
+     * @param noEntryValue The value returned by get, put and remove when the key doesn't exist in the map.
+     */
+    public IntIntHashMap(int noEntryValue) {
+        this.noEntryValue = noEntryValue;
+    }
+
+    static int mix(int key) {
+        return IntObjectHashMap.mix(key);
+    }
+
+    public int noEntryValue() {
+        return noEntryValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys == null ? 0 : keys.length - 1;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int put(int key, int value) {
+        if (keys == null) {
+            resize();
+        }
+
+        if (key == 0) {
+            var oldValue = containsZeroKey ? values[mask + 1] : noEntryValue;
+            values[mask + 1] = value;
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                afterInsert();
+            }
+            return oldValue;
+        }
+
+        int index = mix(key) & mask;
+        int current;
+
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                var oldValue = values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        afterInsert();
+        return noEntryValue;
+    }
+
+    public int get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? noEntryValue : values[index];
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int remove(int key) {
+        int index = indexOf(key);
+
+        if (index < 0) {
+            return noEntryValue;
+        }
+
+        var oldValue = values[index];
+        size--;
+
+        if (key == 0) {
+            containsZeroKey = false;
+        } else {
+            shiftKeys(index);
+        }
+
+        return oldValue;
+    }
+
+    public void clear() {
+        if (keys == null) {
+            return;
+        }
+
+        Arrays.fill(keys, 0);
+        containsZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * @return The keys of the map in table order as a new array.
+     */
+    public int[] keys() {
+        var result = new int[size];
+        int i = 0;
+
+        if (containsZeroKey) {
+            result[i++] = 0;
+        }
+
+        if (keys != null) {
+            for (int j = 0; j <= mask; j++) {
+                if (keys[j] != 0) {
+                    result[i++] = keys[j];
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Calls the action for each entry of the map without boxing the keys and values or creating entry objects.
+     *
+     * @param action The action to be called with the key and the value of each entry.
+     */
+    public void forEach(IntIntConsumer action) {
+        if (keys == null) {
+            return;
+        }
+
+        if (containsZeroKey) {
+            action.accept(0, values[mask + 1]);
+        }
+
+        for (int i = 0; i <= mask; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot index of the key or -1 if the key doesn't exist in the map. The key 0 is always stored in the slot after the last table slot.
+     */
+    int indexOf(int key) {
+        if (keys == null) {
+            return -1;
+        }
+
+        if (key == 0) {
+            return containsZeroKey ? mask + 1 : -1;
+        }
+
+        int index = mix(key) & mask;
+        int current;
+
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Fills the slot at the given position by moving back the first following entry that can legally be placed there, and repeats this for the slot that entry left.
+     * An entry can be moved back if its home slot is not cyclically between the free slot and its current slot, otherwise a lookup for it would stop at the free slot.
+     *
+     * @param position The index of the slot which has just been emptied.
+     */
+    private void shiftKeys(int position) {
+        int last, home, current;
+
+        while (true) {
+            last = position;
+            position = (position + 1) & mask;
+
+            while (true) {
+                if ((current = keys[position]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+
+                home = mix(current) & mask;
+
+                if (last <= position ? last >= home || home > position : last >= home && home > position) {
+                    break;
+                }
+
+                position = (position + 1) & mask;
+            }
+
+            keys[last] = current;
+            values[last] = values[position];
+        }
+    }
+
+    private void afterInsert() {
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    void resize() {
+        if (keys == null) {
+            allocate(DEFAULT_INITIAL_CAPACITY);
+            threshold = (int) (DEFAULT_INITIAL_CAPACITY * DEFAULT_LOAD_FACTOR);
+            return;
+        }
+
+        int oldCapacity = mask + 1;
+
+        if (oldCapacity >= MAXIMUM_CAPACITY) {
+            if (size >= oldCapacity) {
+                throw new IllegalStateException("Map is full");
+            }
+            threshold = oldCapacity - 1; // Always keep at least one free slot, so that probing terminates
+            return;
+        }
+
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(oldCapacity << 1);
+        threshold <<= 1;
+
+        int key, index;
+
+        for (int i = 0; i < oldCapacity; i++) {
+            if ((key = oldKeys[i]) == 0) {
+                continue;
+            }
+
+            index = mix(key) & mask;
+            while (keys[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+
+        values[mask + 1] = oldValues[oldCapacity];
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity + 1];
+        values = new int[capacity + 1];
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
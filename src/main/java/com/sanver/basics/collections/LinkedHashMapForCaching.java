@@ -34,6 +34,10 @@ import java.util.Map;
  * if the map is in access-order mode and the {@code removeEldestEntry} method is overridden.
  * </p>
  *
+ * <p> Since every get modifies the linked list in access-order mode, such a cache cannot be shared by multiple threads without locking every read.
+ * See {@link com.sanver.basics.collections.cache.BoundedCache} for a cache which can.
+ * </p>
+ *
  */
 public class LinkedHashMapForCaching {
     public static void main(String[] args) {
@@ -0,0 +1,758 @@
+package com.sanver.basics.collections.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A size or weight bounded {@link Cache}, built the same way as the Caffeine library.
+ * <ul>
+ *     <li>The entries are stored in a {@link ConcurrentHashMap}, so lookups and writes scale with the number of threads.</li>
+ *     <li>The eviction policy keeps its entries in linked lists which are only modified while holding the eviction lock.
+ *     Instead of taking that lock, a read is recorded in a lossy {@link ReadBuffer} and a write is added to a write buffer.
+ *     Whichever thread gets the lock with a tryLock applies the buffered reads and writes to the policy in one batch, so reads never wait for the lock.</li>
+ *     <li>The entries are evicted with an {@link EvictionPolicy}, either LRU, or Window TinyLFU which keeps the frequently used entries even after a scan.</li>
+ *     <li>Entries can expire a fixed time after they are written or last read. Lookups never return an expired entry,
+ *     and the expired entries are removed during the maintenance with a {@link TimerWheel} instead of a sweep over all entries.</li>
+ *     <li>With refresh after write, a read through {@link #get(Object, Function)} of an entry older than the refresh time returns the current value
+ *     and reloads it asynchronously, so the keys in use are reloaded before they expire and never wait for a load.</li>
+ *     <li>Concurrent loads of the same key are coalesced: the threads missing the key wait for the one loading it, and a key is refreshed by a single load at a time.</li>
+ *     <li>The hit, miss, load and eviction counts are kept in {@link LongAdder}s.</li>
+ * </ul>
+ * Null keys and values are not allowed. Build instances with {@link Builder}.
+ * There is a test class BoundedCacheTest in the test package that tests if this cache works properly.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class BoundedCache<K, V> implements Cache<K, V> {
+    static final int NONE = -1, WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+    static final double WINDOW_PERCENTAGE = 0.01;
+    static final double PROTECTED_PERCENTAGE = 0.8;
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+    private final ConcurrentLinkedQueue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final EvictionPolicy policy;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final FrequencySketch sketch;
+    // The lists and the weighted sizes below are guarded by the eviction lock. The LRU policy only uses the probation list.
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedDeque = new AccessOrderDeque<>();
+    private long weightedSize;
+    private long windowWeightedSize;
+    private long protectedWeightedSize;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final long expireAfterWriteNanos; // 0 if entries don't expire after write
+    private final long expireAfterAccessNanos; // 0 if entries don't expire after access
+    private final long refreshAfterWriteNanos; // 0 if entries are not refreshed
+    private final LongSupplier ticker;
+    private final Executor executor;
+    private final TimerWheel<K, V> timerWheel; // Null if entries don't expire
+    private final ConcurrentHashMap<K, CompletableFuture<V>> refreshes = new ConcurrentHashMap<>();
+
+    BoundedCache(Builder<K, V> builder) {
+        policy = builder.evictionPolicy;
+        weigher = builder.weigher;
+        maximum = builder.maximum;
+        expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+        ticker = builder.ticker;
+        executor = builder.executor;
+        timerWheel = expires() ? new TimerWheel<>(ticker.getAsLong()) : null;
+        windowMaximum = policy == EvictionPolicy.LRU ? 0 : Math.max(1, (long) (maximum * WINDOW_PERCENTAGE));
+        protectedMaximum = (long) ((maximum - windowMaximum) * PROTECTED_PERCENTAGE);
+        sketch = policy == EvictionPolicy.LRU ? null : new FrequencySketch(builder.weigher == Builder.SINGLETON_WEIGHER && maximum != Long.MAX_VALUE ? maximum : 16);
+    }
+
+    @Override
+    public V get(K key) {
+        var now = now();
+        var node = data.get(key);
+
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+
+        if (hasExpired(node, now)) {
+            missCount.increment();
+            tryToDrainBuffers(); // So that the expired entry is removed without waiting for the next write
+            return null;
+        }
+
+        hitCount.increment();
+        afterRead(node, now);
+        return node.value;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        var now = now();
+        var node = data.get(key);
+
+        if (node != null && !hasExpired(node, now)) {
+            hitCount.increment();
+            afterRead(node, now);
+
+            if (refreshAfterWriteNanos > 0 && now - node.writeTime >= refreshAfterWriteNanos) {
+                refresh(node, loader);
+            }
+
+            return node.value;
+        }
+
+        missCount.increment();
+        @SuppressWarnings("unchecked")
+        Node<K, V>[] expired = (Node<K, V>[]) new Node<?, ?>[1];
+        var created = new boolean[1];
+        // compute locks the bin of the key while loading, so the threads missing the same key wait for the first one's value instead of loading it again
+        node = data.compute(key, (k, current) -> {
+            if (current != null) {
+                if (!hasExpired(current, now())) {
+                    return current; // Loaded by another thread while this one was waiting
+                }
+
+                expired[0] = current;
+            }
+
+            var value = load(k, loader);
+
+            if (value == null) {
+                return null;
+            }
+
+            created[0] = true;
+            return new Node<>(k, value, weigh(k, value), now());
+        });
+
+        var expiredNode = expired[0];
+
+        if (expiredNode != null) {
+            expiredNode.alive = false;
+            evictionCount.increment();
+            evictionWeight.add(expiredNode.weight);
+        }
+
+        if (node != null && !created[0]) {
+            afterRead(node, now);
+            return node.value;
+        }
+
+        var addedNode = node;
+
+        if (expiredNode != null || addedNode != null) {
+            afterWrite(() -> {
+                if (expiredNode != null) {
+                    onRemove(expiredNode);
+                }
+
+                if (addedNode != null) {
+                    onAdd(addedNode);
+                }
+            });
+        }
+
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Reloads the value of the node asynchronously on the executor, unless it is already being reloaded.
+     * The new value replaces the node only if the node is still cached, so a refresh doesn't overwrite a put or resurrect an invalidated key.
+     */
+    private void refresh(Node<K, V> node, Function<? super K, ? extends V> loader) {
+        var started = new boolean[1];
+        var future = refreshes.computeIfAbsent(node.key, key -> {
+            started[0] = true;
+            return CompletableFuture.supplyAsync(() -> load(key, loader), executor);
+        });
+
+        if (!started[0]) {
+            return;
+        }
+
+        future.whenComplete((value, exception) -> {
+            if (value != null) {
+                var refreshed = new Node<>(node.key, value, weigh(node.key, value), now());
+
+                if (data.replace(node.key, node, refreshed)) {
+                    node.alive = false;
+                    afterWrite(() -> {
+                        onRemove(node);
+                        onAdd(refreshed);
+                    });
+                }
+            }
+
+            refreshes.remove(node.key, future);
+        });
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        var start = System.nanoTime();
+        V value;
+
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            throw e;
+        } finally {
+            totalLoadTime.add(System.nanoTime() - start);
+        }
+
+        if (value == null) {
+            loadFailureCount.increment();
+        } else {
+            loadSuccessCount.increment();
+        }
+
+        return value;
+    }
+
+    /**
+     * Puts the value. If the key was cached, its node is replaced with a new one rather than modified,
+     * so the policy sees the update as the removal of the old node and the addition of the new one, whatever order the threads add them to the write buffer.
+     */
+    @Override
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        var node = new Node<>(key, value, weigh(key, value), now());
+        var prior = data.put(key, node);
+
+        if (prior == null) {
+            afterWrite(() -> onAdd(node));
+        } else {
+            prior.alive = false;
+            afterWrite(() -> {
+                onRemove(prior);
+                onAdd(node);
+            });
+        }
+    }
+
+    @Override
+    public void invalidate(K key) {
+        var node = data.remove(key);
+
+        if (node != null) {
+            node.alive = false;
+            afterWrite(() -> onRemove(node));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (var key : data.keySet()) {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public long estimatedSize() {
+        return data.mappingCount();
+    }
+
+    /**
+     * @return The total weight of the entries known to the eviction policy.
+     */
+    long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(), loadFailureCount.sum(), totalLoadTime.sum(), evictionCount.sum(), evictionWeight.sum());
+    }
+
+    @Override
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.applyAsInt(key, value);
+
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative: " + weight);
+        }
+
+        return weight;
+    }
+
+    private boolean expires() {
+        return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    /**
+     * @return The current time from the ticker, or 0 if the entries neither expire nor get refreshed, to avoid the cost of reading the clock.
+     */
+    private long now() {
+        return expires() || refreshAfterWriteNanos > 0 ? ticker.getAsLong() : 0;
+    }
+
+    private boolean hasExpired(Node<K, V> node, long now) {
+        return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+    }
+
+    private long expirationTime(Node<K, V> node) {
+        if (expireAfterWriteNanos == 0) {
+            return node.accessTime + expireAfterAccessNanos;
+        }
+
+        if (expireAfterAccessNanos == 0) {
+            return node.writeTime + expireAfterWriteNanos;
+        }
+
+        return Math.min(node.writeTime + expireAfterWriteNanos, node.accessTime + expireAfterAccessNanos);
+    }
+
+    private void afterRead(Node<K, V> node, long now) {
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = now;
+        }
+
+        if (readBuffer.offer(node) == ReadBuffer.FULL) {
+            tryToDrainBuffers();
+            readBuffer.offer(node);
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        tryToDrainBuffers();
+    }
+
+    /**
+     * Drains the buffers if no other thread is doing it. The thread holding the lock checks the write buffer again after releasing it,
+     * since a write added while it was draining may have failed to get the lock and would otherwise wait for the next write.
+     */
+    private void tryToDrainBuffers() {
+        do {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    private void maintenance() {
+        readBuffer.drainTo(this::onAccess);
+
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+
+        if (timerWheel != null) {
+            timerWheel.advance(ticker.getAsLong(), this::expireOrReschedule);
+        }
+
+        evictEntries();
+    }
+
+    /**
+     * Called by the timer wheel for the nodes in the buckets it has moved past.
+     * The expiration time is checked again, since the node may have been read after it was scheduled, e.g. if its read was recorded after the wheel was advanced.
+     */
+    private void expireOrReschedule(Node<K, V> node) {
+        if (!hasExpired(node, timerWheel.currentTime())) {
+            node.expirationTime = expirationTime(node);
+            timerWheel.schedule(node);
+            return;
+        }
+
+        if (data.remove(node.key, node)) {
+            node.alive = false;
+            evictionCount.increment();
+            evictionWeight.add(node.policyWeight);
+        }
+
+        onRemove(node);
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.queue == NONE) {
+            return; // Either the write adding it has not been applied yet or it has been removed
+        }
+
+        if (sketch != null) {
+            sketch.increment(node.key);
+        }
+
+        if (expireAfterAccessNanos > 0) {
+            node.expirationTime = expirationTime(node);
+            timerWheel.reschedule(node);
+        }
+
+        switch (node.queue) {
+            case WINDOW -> window.moveToBack(node);
+            case PROBATION -> {
+                if (policy == EvictionPolicy.LRU) {
+                    probation.moveToBack(node);
+                } else {
+                    promote(node);
+                }
+            }
+            case PROTECTED -> protectedDeque.moveToBack(node);
+        }
+    }
+
+    /**
+     * Moves an entry used again while on probation to the protected segment, and demotes the least recently used protected entries to probation if the segment overflows.
+     */
+    private void promote(Node<K, V> node) {
+        probation.remove(node);
+        protectedDeque.addLast(node);
+        node.queue = PROTECTED;
+        protectedWeightedSize += node.policyWeight;
+
+        while (protectedWeightedSize > protectedMaximum) {
+            var demoted = protectedDeque.pollFirst();
+
+            if (demoted == null) {
+                break;
+            }
+
+            protectedWeightedSize -= demoted.policyWeight;
+            probation.addLast(demoted);
+            demoted.queue = PROBATION;
+        }
+    }
+
+    private void onAdd(Node<K, V> node) {
+        if (!node.alive) {
+            return; // It was replaced or invalidated before this write was applied
+        }
+
+        node.policyWeight = node.weight;
+        weightedSize += node.weight;
+
+        if (timerWheel != null) {
+            node.expirationTime = expirationTime(node);
+            timerWheel.schedule(node);
+        }
+
+        if (policy == EvictionPolicy.LRU) {
+            probation.addLast(node);
+            node.queue = PROBATION;
+            return;
+        }
+
+        sketch.increment(node.key);
+        window.addLast(node);
+        node.queue = WINDOW;
+        windowWeightedSize += node.weight;
+    }
+
+    private void onRemove(Node<K, V> node) {
+        if (timerWheel != null) {
+            timerWheel.deschedule(node);
+        }
+
+        switch (node.queue) {
+            case WINDOW -> {
+                window.remove(node);
+                windowWeightedSize -= node.policyWeight;
+            }
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> {
+                protectedDeque.remove(node);
+                protectedWeightedSize -= node.policyWeight;
+            }
+            default -> {
+                return;
+            }
+        }
+
+        weightedSize -= node.policyWeight;
+        node.queue = NONE;
+    }
+
+    private void evictEntries() {
+        if (policy == EvictionPolicy.LRU) {
+            while (weightedSize > maximum) {
+                evict(probation.peekFirst());
+            }
+            return;
+        }
+
+        if (sketch != null) {
+            sketch.ensureCapacity(data.mappingCount());
+        }
+
+        var candidate = moveWindowOverflowToProbation();
+
+        while (weightedSize > maximum) {
+            var victim = probation.peekFirst();
+
+            if (victim == null) {
+                victim = protectedDeque.peekFirst() != null ? protectedDeque.peekFirst() : window.peekFirst();
+                evict(victim);
+            } else if (candidate == null) {
+                evict(victim);
+            } else if (victim == candidate) {
+                candidate = candidate.next; // Only the new candidates are left on probation, so they are evicted in order
+                evict(victim);
+            } else {
+                var next = candidate.next;
+
+                if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    evict(victim);
+                } else {
+                    evict(candidate);
+                    candidate = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the least recently used window entries to the end of probation until the window fits its maximum.
+     *
+     * @return The first moved entry, which is the first candidate to be compared with the probation entries, or null if no entry is moved.
+     */
+    private Node<K, V> moveWindowOverflowToProbation() {
+        Node<K, V> first = null;
+
+        while (windowWeightedSize > windowMaximum) {
+            var node = window.pollFirst();
+
+            if (node == null) {
+                break;
+            }
+
+            windowWeightedSize -= node.policyWeight;
+            probation.addLast(node);
+            node.queue = PROBATION;
+
+            if (first == null) {
+                first = node;
+            }
+        }
+
+        return first;
+    }
+
+    private void evict(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            node.alive = false;
+            evictionCount.increment();
+            evictionWeight.add(node.policyWeight);
+        }
+
+        onRemove(node); // If it was replaced or invalidated in the meantime, the write removing it only needs to find it unlinked
+    }
+
+    static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        final long writeTime;
+        volatile long accessTime;
+        volatile boolean alive = true;
+        // The fields below are guarded by the eviction lock
+        int policyWeight;
+        int queue = NONE;
+        Node<K, V> previous, next;
+        long expirationTime;
+        Node<K, V> timerPrevious, timerNext;
+
+        Node(K key, V value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    /**
+     * A doubly linked list which links the nodes themselves, so moving a node to the back doesn't allocate or search.
+     */
+    static final class AccessOrderDeque<K, V> {
+        private Node<K, V> first, last;
+
+        Node<K, V> peekFirst() {
+            return first;
+        }
+
+        Node<K, V> pollFirst() {
+            var node = first;
+
+            if (node != null) {
+                remove(node);
+            }
+
+            return node;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.previous = last;
+            node.next = null;
+
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+
+            last = node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+
+            node.previous = node.next = null;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    public static class Builder<K, V> {
+        static final ToIntBiFunction<Object, Object> SINGLETON_WEIGHER = (key, value) -> 1;
+        private long maximum = Long.MAX_VALUE;
+        private ToIntBiFunction<? super K, ? super V> weigher = SINGLETON_WEIGHER;
+        private EvictionPolicy evictionPolicy = EvictionPolicy.WINDOW_TINY_LFU;
+        private long expireAfterWriteNanos;
+        private long expireAfterAccessNanos;
+        private long refreshAfterWriteNanos;
+        private LongSupplier ticker = System::nanoTime;
+        private Executor executor = ForkJoinPool.commonPool();
+
+        public Builder<K, V> setMaximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("Maximum size cannot be negative: " + maximumSize);
+            }
+
+            this.maximum = maximumSize;
+            this.weigher = SINGLETON_WEIGHER;
+            return this;
+        }
+
+        /**
+         * Bounds the cache by the total weight of its entries instead of their number.
+         *
+         * @param weigher Returns the weight of an entry. It is called once when the entry is put and must not return a negative value.
+         */
+        public Builder<K, V> setMaximumWeight(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("Maximum weight cannot be negative: " + maximumWeight);
+            }
+
+            this.maximum = maximumWeight;
+            this.weigher = Objects.requireNonNull(weigher);
+            return this;
+        }
+
+        public Builder<K, V> setEvictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = Objects.requireNonNull(evictionPolicy);
+            return this;
+        }
+
+        /**
+         * Expires the entries the given duration after they are put or loaded.
+         */
+        public Builder<K, V> setExpireAfterWrite(Duration duration) {
+            this.expireAfterWriteNanos = toPositiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Expires the entries the given duration after they are put, loaded or last read.
+         */
+        public Builder<K, V> setExpireAfterAccess(Duration duration) {
+            this.expireAfterAccessNanos = toPositiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Reloads an entry asynchronously when it is read through {@link #get(Object, Function)} the given duration after it was put or loaded.
+         * Use a shorter duration than the expiration, so that the entries in use are reloaded before they expire.
+         */
+        public Builder<K, V> setRefreshAfterWrite(Duration duration) {
+            this.refreshAfterWriteNanos = toPositiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the time source in nanoseconds, {@link System#nanoTime()} by default. Tests can use a fake ticker to expire entries without waiting.
+         */
+        public Builder<K, V> setTicker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        /**
+         * Sets the executor the refreshes run on, {@link ForkJoinPool#commonPool()} by default.
+         */
+        public Builder<K, V> setExecutor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        private static long toPositiveNanos(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive: " + duration);
+            }
+
+            return duration.toNanos();
+        }
+
+        public BoundedCache<K, V> build() {
+            return new BoundedCache<>(this);
+        }
+    }
+}
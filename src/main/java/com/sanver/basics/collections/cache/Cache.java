@@ -0,0 +1,49 @@
+package com.sanver.basics.collections.cache;
+
+import java.util.function.Function;
+
+/**
+ * A thread-safe, bounded key value cache.
+ * Unlike a {@link java.util.LinkedHashMap} used as an LRU cache (see {@link com.sanver.basics.collections.LinkedHashMapForCaching}),
+ * reads don't modify a shared linked list, so the cache can be used by many threads at the same time. See {@link BoundedCache} for how this is done.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public interface Cache<K, V> {
+    /**
+     * @return The value of the key, or null if the key is not cached.
+     */
+    V get(K key);
+
+    /**
+     * Returns the value of the key, loading and caching it with the loader if it is not cached.
+     * If several threads miss the same key at the same time, the loader is called only once and the other threads wait for its value.
+     * The loader must not modify this cache.
+     *
+     * @return The cached or loaded value, or null if the loader returned null, in which case nothing is cached.
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    void put(K key, V value);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    /**
+     * @return The number of the cached entries. It may include the entries which are waiting to be evicted.
+     */
+    long estimatedSize();
+
+    /**
+     * @return A snapshot of the statistics of this cache.
+     */
+    CacheStats stats();
+
+    /**
+     * Applies the pending reads and writes to the eviction policy and evicts the entries over the maximum.
+     * This is done by the cache itself as needed, so calling it is only required to see the exact state, e.g. in tests.
+     */
+    void cleanUp();
+}
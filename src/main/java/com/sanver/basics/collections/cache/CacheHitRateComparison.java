@@ -0,0 +1,92 @@
+package com.sanver.basics.collections.cache;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.sanver.basics.utils.PerformanceComparer.measure;
+
+/**
+ * Compares the hit rates of the {@link EvictionPolicy#LRU} and {@link EvictionPolicy#WINDOW_TINY_LFU} policies of {@link BoundedCache}
+ * on a Zipf distributed workload, where a few keys are used very often, and on the same workload interrupted by scans over keys used only once.
+ * It also measures how long it takes for all processors to read the cache concurrently.
+ * See CacheBenchmark in src/jmh/java for the throughput compared with a synchronized LinkedHashMap.
+ */
+public class CacheHitRateComparison {
+    public static void main(String[] args) {
+        var maximumSize = 1_000;
+        var zipf = zipfKeys(2_000_000, 100_000, 0.9, 42);
+        var zipfWithScans = withScans(zipf, 50_000, 5_000);
+
+        for (var policy : EvictionPolicy.values()) {
+            System.out.printf("%n%s with maximum size %,d%n", policy, maximumSize);
+            System.out.printf("Zipf:            %s%n", replay(policy, maximumSize, zipf));
+            System.out.printf("Zipf with scans: %s%n", replay(policy, maximumSize, zipfWithScans));
+        }
+
+        for (var policy : EvictionPolicy.values()) {
+            var cache = new BoundedCache.Builder<Integer, Integer>().setMaximumSize(maximumSize).setEvictionPolicy(policy).build();
+            var parallelism = Runtime.getRuntime().availableProcessors();
+            System.out.printf("%nReading %s cache by %d threads%n", policy, parallelism);
+            measure(() -> IntStream.range(0, parallelism).parallel().forEach(i -> {
+                for (int j = i; j < zipf.length; j += parallelism) {
+                    cache.get(zipf[j], key -> key);
+                }
+            }));
+            System.out.println(cache.stats());
+        }
+    }
+
+    private static CacheStats replay(EvictionPolicy policy, int maximumSize, int[] keys) {
+        var cache = new BoundedCache.Builder<Integer, Integer>().setMaximumSize(maximumSize).setEvictionPolicy(policy).build();
+
+        for (var key : keys) {
+            cache.get(key, k -> k);
+        }
+
+        return cache.stats();
+    }
+
+    /**
+     * Generates keys from 0 to keySpace - 1, where the probability of the key k is proportional to 1 / (k + 1)^exponent.
+     */
+    public static int[] zipfKeys(int count, int keySpace, double exponent, long seed) {
+        var cumulative = new double[keySpace];
+        var sum = 0.0;
+
+        for (int k = 0; k < keySpace; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+
+        var random = new Random(seed);
+        var keys = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            var index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            keys[i] = index >= 0 ? index : Math.min(-index - 1, keySpace - 1);
+        }
+
+        return keys;
+    }
+
+    /**
+     * Inserts a scan of scanLength keys which are not used anywhere else after every period keys.
+     */
+    private static int[] withScans(int[] keys, int period, int scanLength) {
+        var result = IntStream.builder();
+        var scanKey = Integer.MAX_VALUE;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (i % period == 0) {
+                for (int j = 0; j < scanLength; j++) {
+                    result.add(scanKey--);
+                }
+            }
+
+            result.add(keys[i]);
+        }
+
+        return result.build().toArray();
+    }
+}
@@ -0,0 +1,45 @@
+package com.sanver.basics.collections.cache;
+
+/**
+ * A snapshot of the statistics of a {@link Cache}.
+ *
+ * @param hitCount         The number of the lookups which found a cached value.
+ * @param missCount        The number of the lookups which didn't find a cached value, whether or not a value was loaded afterward.
+ * @param loadSuccessCount The number of the loads which returned a value.
+ * @param loadFailureCount The number of the loads which threw an exception or returned null.
+ * @param totalLoadTime    The total time spent loading values in nanoseconds.
+ * @param evictionCount    The number of the entries evicted due to the size or weight limit or expiration.
+ * @param evictionWeight   The total weight of the evicted entries.
+ */
+public record CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime, long evictionCount, long evictionWeight) {
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return The ratio of the lookups which found a cached value, or 1 if there were no lookups.
+     */
+    public double hitRate() {
+        var requestCount = requestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    public double missRate() {
+        var requestCount = requestCount();
+        return requestCount == 0 ? 0.0 : (double) missCount / requestCount;
+    }
+
+    /**
+     * @return The average time spent loading a value in nanoseconds.
+     */
+    public double averageLoadPenalty() {
+        var loadCount = loadSuccessCount + loadFailureCount;
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats[hitRate=%.2f%%, hits=%,d, misses=%,d, loadSuccess=%,d, loadFailure=%,d, averageLoadPenalty=%,.0fns, evictions=%,d, evictionWeight=%,d]"
+                .formatted(hitRate() * 100, hitCount, missCount, loadSuccessCount, loadFailureCount, averageLoadPenalty(), evictionCount, evictionWeight);
+    }
+}
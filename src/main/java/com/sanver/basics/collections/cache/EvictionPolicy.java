@@ -0,0 +1,19 @@
+package com.sanver.basics.collections.cache;
+
+/**
+ * The policy {@link BoundedCache} uses to choose the entries to evict when it is over its maximum size or weight.
+ */
+public enum EvictionPolicy {
+    /**
+     * Evicts the least recently used entry, like an access ordered {@link java.util.LinkedHashMap}.
+     * A single scan over more keys than the cache can hold evicts all the frequently used entries.
+     */
+    LRU,
+    /**
+     * Window TinyLFU. A new entry is first put into a small LRU window (1% of the maximum).
+     * An entry leaving the window is admitted to the main space only if it has been used more often than the entry it would replace,
+     * which is estimated by a {@link FrequencySketch}. The main space is a segmented LRU: an entry used again while on probation is moved to the protected segment (80% of the main space).
+     * This keeps the hit rate high for both recency and frequency biased workloads and resists scans.
+     */
+    WINDOW_TINY_LFU
+}
@@ -0,0 +1,48 @@
+package com.sanver.basics.collections.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.sanver.basics.utils.Utils.sleep;
+
+/**
+ * Shows the expiration, the refresh ahead and the load coalescing of {@link BoundedCache} with a slow loader,
+ * like the ones reading data from a URL in {@link com.sanver.basics.network.ReadingDataFromURL}.
+ */
+public class ExpiringCacheSample {
+    private static final AtomicInteger loadCount = new AtomicInteger();
+
+    public static void main(String[] args) {
+        var cache = new BoundedCache.Builder<String, String>()
+                .setMaximumSize(100)
+                .setRefreshAfterWrite(Duration.ofSeconds(1))
+                .setExpireAfterWrite(Duration.ofSeconds(3))
+                .build();
+        var url = "http://www.google.com";
+
+        System.out.println("10 threads miss the same key at the same time, but it is loaded only once.");
+        IntStream.range(0, 10).parallel().forEach(i -> cache.get(url, ExpiringCacheSample::slowLoad));
+        System.out.printf("Load count: %d%n", loadCount.get());
+
+        System.out.printf("%nReading the key every 500ms. It is refreshed in the background after a second, so the reads never wait for a load.%n");
+        for (int i = 0; i < 8; i++) {
+            var start = System.nanoTime();
+            var value = cache.get(url, ExpiringCacheSample::slowLoad);
+            System.out.printf("Read %s in %.3f ms%n", value, (System.nanoTime() - start) / 1e6);
+            sleep(500);
+        }
+
+        System.out.printf("%nNot reading the key for 3 seconds. It expires, so the next read waits for the load.%n");
+        sleep(3_000);
+        var start = System.nanoTime();
+        var value = cache.get(url, ExpiringCacheSample::slowLoad);
+        System.out.printf("Read %s in %.3f ms%n", value, (System.nanoTime() - start) / 1e6);
+        System.out.println(cache.stats());
+    }
+
+    private static String slowLoad(String url) {
+        sleep(300);
+        return "content of %s #%d".formatted(url, loadCount.incrementAndGet());
+    }
+}
@@ -0,0 +1,95 @@
+package com.sanver.basics.collections.cache;
+
+/**
+ * A Count-Min sketch which estimates how many times a key has been used recently, using 4 bits per counter and no per key objects.
+ * Each key increments one counter in each of 4 rows, and its frequency is the minimum of those counters, so collisions can only overestimate it.
+ * The counters are packed 16 to a long to save memory, but each row picks its long with its own seed, so a key may touch up to 4 longs and cache lines.
+ * Caffeine instead picks one 64 byte block per key and takes all 4 counters from it, which keeps a key in a single cache line.
+ * <p>
+ * Once the number of the increments reaches 10 times the capacity, all the counters are halved, so that keys which were popular long ago fade out.
+ * This class is not thread-safe. {@link BoundedCache} only uses it while holding its eviction lock.
+ * </p>
+ */
+final class FrequencySketch {
+    static final int MAXIMUM_FREQUENCY = 15;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private long[] table;
+    private int sampleSize;
+    private int additions;
+
+    FrequencySketch(long expectedSize) {
+        ensureCapacity(expectedSize);
+    }
+
+    /**
+     * Grows the sketch if it is too small for the given number of keys. The frequencies collected so far are lost when it grows.
+     */
+    void ensureCapacity(long expectedSize) {
+        int capacity = (int) Math.min(Math.max(expectedSize, 16), 1 << 24);
+
+        if (table != null && table.length >= capacity) {
+            return;
+        }
+
+        table = new long[Integer.highestOneBit(capacity - 1) << 1];
+        sampleSize = 10 * capacity;
+        additions = 0;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAXIMUM_FREQUENCY;
+
+        for (int i = 0; i < 4; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+
+            if (((table[index] >>> offset) & 0xfL) != MAXIMUM_FREQUENCY) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves all the counters. Shifting a long right by one moves the lowest bit of each counter into the counter below, which is cleared by the mask.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+
+        additions >>>= 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 17);
+    }
+}
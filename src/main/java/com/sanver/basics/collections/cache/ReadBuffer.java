@@ -0,0 +1,89 @@
+package com.sanver.basics.collections.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lossy, striped buffer to record reads without locking. Each thread offers to one of the stripes chosen by its thread id, so the threads rarely contend.
+ * A stripe is a bounded ring buffer with many producers and a single consumer, the thread draining it while holding the eviction lock.
+ * If a stripe is full or another thread won the race for the same slot, the read is not recorded. Losing some reads only makes the access order slightly less accurate,
+ * which is a better trade than making the readers wait.
+ */
+final class ReadBuffer<E> {
+    static final int SUCCESS = 0;
+    static final int FAILED = 1;
+    static final int FULL = 2;
+    static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+    private final Stripe<E>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer() {
+        int count = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 2) - 1) << 1;
+        stripes = (Stripe<E>[]) new Stripe<?>[count];
+
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * @return {@link #SUCCESS} if the element is recorded, {@link #FULL} if the stripe of the current thread is full and should be drained, otherwise {@link #FAILED}.
+     */
+    int offer(E element) {
+        long threadId = Thread.currentThread().threadId();
+        int h = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)].offer(element);
+    }
+
+    /**
+     * Passes the recorded elements to the consumer and removes them. Only one thread may call this at a time.
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (var stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static final class Stripe<E> {
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong readCounter = new AtomicLong();
+        private final AtomicLong writeCounter = new AtomicLong();
+
+        int offer(E element) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+
+            if (tail - head >= STRIPE_SIZE) {
+                return FULL;
+            }
+
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) tail & STRIPE_MASK, element);
+                return SUCCESS;
+            }
+
+            return FAILED;
+        }
+
+        void drainTo(Consumer<E> consumer) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+
+            for (; head < tail; head++) {
+                int index = (int) head & STRIPE_MASK;
+                var element = buffer.get(index);
+
+                if (element == null) {
+                    break; // The slot is claimed but the writer has not stored the element yet
+                }
+
+                buffer.lazySet(index, null);
+                consumer.accept(element);
+            }
+
+            readCounter.lazySet(head);
+        }
+    }
+}
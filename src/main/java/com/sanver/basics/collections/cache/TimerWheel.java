@@ -0,0 +1,132 @@
+package com.sanver.basics.collections.cache;
+
+import com.sanver.basics.collections.cache.BoundedCache.Node;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel which schedules the expiration of the {@link BoundedCache} entries in O(1), so expired entries are found without sweeping the whole cache.
+ * <p>
+ * Each wheel is an array of buckets, and each bucket is a circular doubly linked list of nodes. The buckets of the first wheel are about a second wide (2^30 ns) and the wheel covers about a minute.
+ * The buckets of the next wheels are a minute, an hour, a day and a few days wide. A node is put into the bucket of the finest wheel that covers its expiration time,
+ * so scheduling is a shift and a mask. When the time moves past a bucket, its nodes are either expired or moved down to a finer wheel.
+ * </p>
+ * This class is not thread-safe. {@link BoundedCache} only uses it while holding its eviction lock.
+ */
+final class TimerWheel<K, V> {
+    static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    static final long[] SPANS = {
+            1L << 30, // 1.07s
+            1L << 36, // 1.14m
+            1L << 42, // 1.22h
+            1L << 46, // 19.5h
+            1L << 48, // 3.26d
+            1L << 48, // 3.26d
+    };
+    static final int[] SHIFT = {30, 36, 42, 46, 48};
+    private final Node<K, V>[][] wheel;
+    private long nanos;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long currentTime) {
+        nanos = currentTime;
+        wheel = (Node<K, V>[][]) new Node<?, ?>[BUCKETS.length][];
+
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = (Node<K, V>[]) new Node<?, ?>[BUCKETS[i]];
+
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                var sentinel = new Node<K, V>(null, null, 0, 0);
+                sentinel.timerPrevious = sentinel.timerNext = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * @return The time the wheel has been advanced to.
+     */
+    long currentTime() {
+        return nanos;
+    }
+
+    /**
+     * Moves the time to the given time and passes the nodes of every bucket the time has moved past to the consumer, which must either expire or schedule them again.
+     * A signed shift is used to find the ticks, so that the ticks keep increasing when {@link System#nanoTime()} goes from negative to positive.
+     */
+    void advance(long currentTime, Consumer<Node<K, V>> onDue) {
+        long previousTime = nanos;
+        nanos = currentTime;
+
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTime >> SHIFT[i];
+            long currentTicks = currentTime >> SHIFT[i];
+
+            if (currentTicks - previousTicks <= 0) {
+                break; // If a wheel hasn't turned, the coarser wheels haven't either
+            }
+
+            expire(i, previousTicks, currentTicks - previousTicks, onDue);
+        }
+    }
+
+    private void expire(int index, long previousTicks, long delta, Consumer<Node<K, V>> onDue) {
+        var timerWheel = wheel[index];
+        int mask = timerWheel.length - 1;
+        int steps = (int) Math.min(1 + delta, timerWheel.length);
+        int start = (int) (previousTicks & mask);
+
+        for (int i = start; i < start + steps; i++) {
+            var sentinel = timerWheel[i & mask];
+            var node = sentinel.timerNext;
+            sentinel.timerPrevious = sentinel.timerNext = sentinel; // Detach the whole list, since the consumer may schedule the nodes again
+
+            while (node != sentinel) {
+                var next = node.timerNext;
+                node.timerPrevious = node.timerNext = null;
+                onDue.accept(node);
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Adds the node to the bucket of its {@link Node#expirationTime}. A node which is already due is added to the current bucket, so that it is expired on the next tick.
+     */
+    void schedule(Node<K, V> node) {
+        var sentinel = findBucket(Math.max(node.expirationTime - nanos, 0) + nanos);
+        node.timerNext = sentinel;
+        node.timerPrevious = sentinel.timerPrevious;
+        sentinel.timerPrevious.timerNext = node;
+        sentinel.timerPrevious = node;
+    }
+
+    void reschedule(Node<K, V> node) {
+        deschedule(node);
+        schedule(node);
+    }
+
+    void deschedule(Node<K, V> node) {
+        if (node.timerNext == null) {
+            return;
+        }
+
+        node.timerNext.timerPrevious = node.timerPrevious;
+        node.timerPrevious.timerNext = node.timerNext;
+        node.timerPrevious = node.timerNext = null;
+    }
+
+    private Node<K, V> findBucket(long time) {
+        long duration = time - nanos;
+        int last = wheel.length - 1;
+
+        for (int i = 0; i < last; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >> SHIFT[i];
+                return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+            }
+        }
+
+        return wheel[last][0];
+    }
+}
@@ -0,0 +1,590 @@
+package com.sanver.basics.concurrentcollections;
+
+import com.sanver.basics.collections.CustomHashMap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is to represent a simplified, thread-safe version of {@link CustomHashMap}, built the same way as {@link java.util.concurrent.ConcurrentHashMap}.
+ * <ul>
+ *     <li>get never locks. The table slots are read with volatile semantics and the node values and next links are volatile.</li>
+ *     <li>put into an empty bucket is a single compare-and-set of the table slot.</li>
+ *     <li>put into and remove from a non-empty bucket lock only the first node of that bucket, so threads working on different buckets don't block each other.</li>
+ *     <li>The size is counted with a {@link LongAdder}, so that threads adding entries don't all contend on the same counter.</li>
+ *     <li>Resize is cooperative. The thread that crosses the threshold allocates the new table, and every thread that runs into a moved bucket
+ *     or wants to start another resize joins the transfer by claiming a range of buckets of the old table.
+ *     A moved bucket is replaced with a {@link ForwardingNode}, which sends get and put to the new table.</li>
+ * </ul>
+ * Unlike ConcurrentHashMap and {@link CustomHashMap}, long buckets are not converted into trees and null keys and values are not allowed.
+ * The iterators of the views are weakly consistent, i.e. they never throw a {@code ConcurrentModificationException} and may or may not reflect changes made during the iteration.
+ * There is a test class ConcurrentCustomHashMapTest in the test package that tests if this hash map methods work properly.
+ *
+ * @param <K> Key
+ * @param <V> Value
+ */
+public class ConcurrentCustomHashMap<K, V> extends AbstractMap<K, V> {
+    public static final int DEFAULT_INITIAL_CAPACITY = 16;
+    public static final double DEFAULT_LOAD_FACTOR = 0.75;
+    public static final int MAXIMUM_CAPACITY = 1 << 30;
+    static final int MOVED = -1; // The hash of forwarding nodes. Normal hashes are always non-negative.
+    static final int HASH_BITS = 0x7fffffff;
+    /**
+     * The minimum number of buckets a thread claims at a time during a resize, so that the threads don't contend on transferIndex too much.
+     */
+    static final int MIN_TRANSFER_STRIDE = 16;
+    static final int NCPU = Runtime.getRuntime().availableProcessors();
+    private static final VarHandle TABLE_ELEMENT = MethodHandles.arrayElementVarHandle(Node[].class);
+    private static final VarHandle SIZE_CTL;
+    private static final VarHandle TRANSFER_INDEX;
+    private static final VarHandle RESIZERS;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            SIZE_CTL = lookup.findVarHandle(ConcurrentCustomHashMap.class, "sizeCtl", int.class);
+            TRANSFER_INDEX = lookup.findVarHandle(ConcurrentCustomHashMap.class, "transferIndex", int.class);
+            RESIZERS = lookup.findVarHandle(ConcurrentCustomHashMap.class, "resizers", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final LongAdder counter = new LongAdder();
+    volatile Node<K, V>[] table;
+    private volatile Node<K, V>[] nextTable; // Only set while a resize is in progress
+    /**
+     * 0 before the table is created, -1 while it is being created, -2 while it is being resized, otherwise the size at which the next resize starts.
+     */
+    private volatile int sizeCtl;
+    private volatile int transferIndex; // The next bucket range of the old table to be claimed is the one below this index
+    private volatile int resizers; // The number of threads taking part in the current resize
+
+    static int spread(int h) {
+        return (h ^ (h >>> 16)) & HASH_BITS;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> Node<K, V> tabAt(Node<K, V>[] tab, int i) {
+        return (Node<K, V>) TABLE_ELEMENT.getAcquire(tab, i);
+    }
+
+    static <K, V> boolean casTabAt(Node<K, V>[] tab, int i, Node<K, V> expected, Node<K, V> node) {
+        return TABLE_ELEMENT.compareAndSet(tab, i, expected, node);
+    }
+
+    static <K, V> void setTabAt(Node<K, V>[] tab, int i, Node<K, V> node) {
+        TABLE_ELEMENT.setRelease(tab, i, node);
+    }
+
+    @Override
+    public int size() {
+        long sum = counter.sum();
+        return sum < 0 ? 0 : sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return counter.sum() <= 0;
+    }
+
+    public int capacity() {
+        var tab = table;
+        return tab == null ? 0 : tab.length;
+    }
+
+    @Override
+    public V get(Object key) {
+        var node = findNode(key);
+        return node != null ? node.value : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findNode(key) != null;
+    }
+
+    private Node<K, V> findNode(Object key) {
+        int hash = spread(key.hashCode());
+        var tab = table;
+
+        while (tab != null) {
+            var node = tabAt(tab, (tab.length - 1) & hash);
+
+            if (node == null) {
+                return null;
+            }
+
+            if (node instanceof ForwardingNode<K, V> forwardingNode) {
+                tab = forwardingNode.nextTable;
+                continue;
+            }
+
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && (node.key == key || key.equals(node.key))) {
+                    return node;
+                }
+            }
+
+            return null;
+        }
+
+        return null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return putValue(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return putValue(key, value, true);
+    }
+
+    private V putValue(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int hash = spread(key.hashCode());
+        var tab = table;
+
+        while (true) {
+            Node<K, V> first;
+            int index;
+
+            if (tab == null) {
+                tab = initTable();
+            } else if ((first = tabAt(tab, index = (tab.length - 1) & hash)) == null) {
+                if (casTabAt(tab, index, null, new Node<>(hash, key, value, null))) {
+                    break;
+                }
+            } else if (first instanceof ForwardingNode<K, V> forwardingNode) {
+                helpTransfer(forwardingNode.nextTable);
+                tab = forwardingNode.nextTable;
+            } else {
+                V oldValue = null;
+                boolean added = false;
+
+                synchronized (first) {
+                    if (tabAt(tab, index) == first) { // Otherwise the bucket was changed before the lock was taken, so try again
+                        for (var node = first; ; node = node.next) {
+                            if (node.hash == hash && (node.key == key || key.equals(node.key))) {
+                                oldValue = node.value;
+                                if (!onlyIfAbsent) {
+                                    node.value = value;
+                                }
+                                break;
+                            }
+
+                            if (node.next == null) {
+                                node.next = new Node<>(hash, key, value, null);
+                                added = true;
+                                break;
+                            }
+                        }
+                    }
+                }
+
+                if (oldValue != null) {
+                    return oldValue;
+                }
+
+                if (added) {
+                    break;
+                }
+            }
+        }
+
+        addCount(1);
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int hash = spread(key.hashCode());
+        var tab = table;
+
+        while (tab != null) {
+            int index = (tab.length - 1) & hash;
+            var first = tabAt(tab, index);
+
+            if (first == null) {
+                return null;
+            }
+
+            if (first instanceof ForwardingNode<K, V> forwardingNode) {
+                helpTransfer(forwardingNode.nextTable);
+                tab = forwardingNode.nextTable;
+                continue;
+            }
+
+            boolean validated = false;
+            V oldValue = null;
+
+            synchronized (first) {
+                if (tabAt(tab, index) == first) {
+                    validated = true;
+
+                    for (Node<K, V> node = first, previous = null; node != null; previous = node, node = node.next) {
+                        if (node.hash == hash && (node.key == key || key.equals(node.key))) {
+                            oldValue = node.value;
+
+                            if (previous == null) {
+                                setTabAt(tab, index, node.next);
+                            } else {
+                                previous.next = node.next;
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (validated) {
+                if (oldValue != null) {
+                    addCount(-1);
+                }
+                return oldValue;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        for (var key : keySet()) {
+            remove(key);
+        }
+    }
+
+    private Node<K, V>[] initTable() {
+        Node<K, V>[] tab;
+
+        while ((tab = table) == null) {
+            int sc = sizeCtl;
+
+            if (sc < 0) {
+                Thread.yield(); // Another thread is creating the table
+            } else if (SIZE_CTL.compareAndSet(this, sc, -1)) {
+                try {
+                    if ((tab = table) == null) {
+                        @SuppressWarnings("unchecked")
+                        var newTable = (Node<K, V>[]) new Node<?, ?>[DEFAULT_INITIAL_CAPACITY];
+                        table = tab = newTable;
+                        sc = (int) (DEFAULT_INITIAL_CAPACITY * DEFAULT_LOAD_FACTOR);
+                    }
+                } finally {
+                    sizeCtl = sc;
+                }
+                break;
+            }
+        }
+
+        return tab;
+    }
+
+    /**
+     * Adds to the size and starts or joins a resize if the size has exceeded the threshold, like {@link CustomHashMap}.
+     */
+    private void addCount(long delta) {
+        counter.add(delta);
+
+        if (delta <= 0) {
+            return;
+        }
+
+        long size = counter.sum();
+        int sc;
+        Node<K, V>[] tab;
+
+        while (size > (sc = sizeCtl) && (tab = table) != null && tab.length < MAXIMUM_CAPACITY) {
+            if (sc < 0) {
+                var nt = nextTable;
+
+                if (nt != null) {
+                    helpTransfer(nt);
+                }
+                break;
+            }
+
+            if (SIZE_CTL.compareAndSet(this, sc, -2)) {
+                @SuppressWarnings("unchecked")
+                var nt = (Node<K, V>[]) new Node<?, ?>[tab.length << 1];
+                transferIndex = tab.length;
+                resizers = 1;
+                nextTable = nt;
+                transfer(tab, nt);
+                leaveResize();
+            }
+
+            size = counter.sum();
+        }
+    }
+
+    /**
+     * Joins the resize that moves the nodes to the given table, if that resize is still in progress.
+     */
+    private void helpTransfer(Node<K, V>[] nt) {
+        int r;
+
+        do {
+            if ((r = resizers) <= 0 || nextTable != nt) {
+                return;
+            }
+        } while (!RESIZERS.compareAndSet(this, r, r + 1));
+
+        if (nextTable == nt) { // The resize could have been completed and another one started between the check and joining
+            transfer(table, nt);
+        }
+
+        leaveResize();
+    }
+
+    /**
+     * Leaves the resize. The last thread to leave publishes the new table, since all the buckets have been claimed and moved by then.
+     */
+    private void leaveResize() {
+        if ((int) RESIZERS.getAndAdd(this, -1) != 1) {
+            return;
+        }
+
+        var nt = nextTable;
+        table = nt;
+        nextTable = null;
+        sizeCtl = nt.length >= MAXIMUM_CAPACITY ? Integer.MAX_VALUE : (int) (nt.length * DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Claims bucket ranges of the old table from the top, until there are no unclaimed buckets left, and moves the nodes of each bucket to the new table.
+     */
+    private void transfer(Node<K, V>[] tab, Node<K, V>[] nt) {
+        int n = tab.length;
+        int stride = Math.max(n / (NCPU * 8), MIN_TRANSFER_STRIDE);
+        var forwardingNode = new ForwardingNode<>(nt);
+
+        while (true) {
+            int upper = transferIndex;
+
+            if (upper <= 0) {
+                return;
+            }
+
+            int lower = Math.max(upper - stride, 0);
+
+            if (!TRANSFER_INDEX.compareAndSet(this, upper, lower)) {
+                continue;
+            }
+
+            for (int i = upper - 1; i >= lower; i--) {
+                transferBucket(tab, nt, i, forwardingNode);
+            }
+        }
+    }
+
+    /**
+     * Splits the bucket into the two buckets of the new table, i and i + n, and replaces it with the forwarding node.
+     * The old nodes are not modified, since threads running get may still be walking the old bucket. Only the longest tail of nodes that go to the same new bucket is reused, the other nodes are copied.
+     */
+    private void transferBucket(Node<K, V>[] tab, Node<K, V>[] nt, int i, ForwardingNode<K, V> forwardingNode) {
+        int n = tab.length;
+
+        while (true) {
+            var first = tabAt(tab, i);
+
+            if (first == null) {
+                if (casTabAt(tab, i, null, forwardingNode)) {
+                    return;
+                }
+                continue; // A put won the race for the empty bucket
+            }
+
+            synchronized (first) {
+                if (tabAt(tab, i) != first) {
+                    continue;
+                }
+
+                int runBit = first.hash & n;
+                var lastRun = first;
+
+                for (var node = first.next; node != null; node = node.next) {
+                    int bit = node.hash & n;
+                    if (bit != runBit) {
+                        runBit = bit;
+                        lastRun = node;
+                    }
+                }
+
+                Node<K, V> low = runBit == 0 ? lastRun : null;
+                Node<K, V> high = runBit == 0 ? null : lastRun;
+
+                for (var node = first; node != lastRun; node = node.next) {
+                    if ((node.hash & n) == 0) {
+                        low = new Node<>(node.hash, node.key, node.value, low);
+                    } else {
+                        high = new Node<>(node.hash, node.key, node.value, high);
+                    }
+                }
+
+                setTabAt(nt, i, low);
+                setTabAt(nt, i + n, high);
+                setTabAt(tab, i, forwardingNode);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new EntrySet();
+    }
+
+    final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return ConcurrentCustomHashMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry<?, ?> entry) || entry.getKey() == null) {
+                return false;
+            }
+
+            var value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return contains(o) && ConcurrentCustomHashMap.this.remove(((Map.Entry<?, ?>) o).getKey()) != null;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    /**
+     * Walks the buckets of the table as it was when the iterator was created.
+     * A moved bucket is replaced by the two buckets of the new table its nodes went to, which is followed recursively if those have been moved as well.
+     */
+    final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final Node<K, V>[] tab = table;
+        private final ArrayDeque<Node<K, V>> pending = new ArrayDeque<>();
+        private int index;
+        private Node<K, V> lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty() && tab != null && index < tab.length) {
+                collect(tab, index++);
+            }
+
+            return !pending.isEmpty();
+        }
+
+        private void collect(Node<K, V>[] nodes, int i) {
+            var node = tabAt(nodes, i);
+
+            if (node instanceof ForwardingNode<K, V> forwardingNode) {
+                collect(forwardingNode.nextTable, i);
+                collect(forwardingNode.nextTable, i + nodes.length);
+                return;
+            }
+
+            for (; node != null; node = node.next) {
+                pending.add(node);
+            }
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            lastReturned = pending.poll();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            ConcurrentCustomHashMap.this.remove(lastReturned.key);
+            lastReturned = null;
+        }
+    }
+
+    static class Node<K, V> implements Map.Entry<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Not supported, since the node might have been copied to a new table by a resize. Use put on the map instead.
+         */
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || o instanceof Map.Entry<?, ?> entry && Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Put into the old table in place of a bucket whose nodes have been moved to the new table.
+     */
+    static final class ForwardingNode<K, V> extends Node<K, V> {
+        final Node<K, V>[] nextTable;
+
+        ForwardingNode(Node<K, V>[] nextTable) {
+            super(MOVED, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+}
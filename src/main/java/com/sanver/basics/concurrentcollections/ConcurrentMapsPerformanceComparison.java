@@ -17,6 +17,7 @@ public class ConcurrentMapsPerformanceComparison {
         warmup();
         hashtable();
         concurrentHashMap();
+        concurrentCustomHashMap();
         concurrentSkipListMap();
         synchronizedMap();
     }
@@ -26,6 +27,11 @@ public class ConcurrentMapsPerformanceComparison {
         testPerformance(map, "ConcurrentHashMap");
     }
 
+    private static void concurrentCustomHashMap() {
+        var map = new ConcurrentCustomHashMap<Integer, String>();
+        testPerformance(map, "ConcurrentCustomHashMap");
+    }
+
     private static void concurrentSkipListMap() {
         var map = new ConcurrentSkipListMap<Integer, String>();
         testPerformance(map, "ConcurrentSkipListMap");
@@ -9,6 +9,9 @@ import java.security.Security;
 import java.util.Base64;
 
 // Documentation http://tutorials.jenkov.com/java-cryptography/index.html
+/**
+ * Encrypts short messages with shared {@link Cipher} instances, which are not thread safe. See {@link StreamingEncryptionService} for files, channels and many threads.
+ */
 public class JavaCryptographyArchitecture {
     public static final int KEY_LENGTH_FOR_256_BIT_KEY = 32;
     public static final String AES = "AES";
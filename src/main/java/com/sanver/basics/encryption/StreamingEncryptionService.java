@@ -0,0 +1,427 @@
+package com.sanver.basics.encryption;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Encrypts files and channels of any size with AES-GCM, a chunk at a time, unlike {@link JavaCryptographyArchitecture}, which encrypts a whole String with one shared {@link Cipher}.
+ * <ul>
+ *     <li>The plaintext is split into chunks of the same size, and each chunk is encrypted separately with its own nonce and authentication tag.
+ *     So the memory used doesn't depend on the size of the payload, and the chunks of a file can be encrypted and decrypted in parallel on a {@link ForkJoinPool},
+ *     since the position of every chunk in the output is known in advance.</li>
+ *     <li>Each thread reuses its own {@link Cipher} and a pair of direct {@link ByteBuffer}s, and reads and writes them with positional {@link FileChannel} calls,
+ *     so the bytes go from the file to the cipher and back without a copy through a byte[] in the heap.</li>
+ * </ul>
+ * The output starts with a header of the magic number, the chunk size, a random salt and a random nonce prefix, and is followed by the encrypted chunks, each {@value #TAG_LENGTH} bytes longer than the plaintext.
+ * Every file is encrypted with its own key, derived from the key of the service and the salt with HKDF, since a 7 byte nonce prefix is too short to be unique among many files under the same key,
+ * and a repeated GCM nonce leaks the keystream and the authentication key.
+ * The nonce of a chunk is the prefix, the index of the chunk and a flag that is set for the last chunk, and the header is authenticated with every chunk,
+ * so chunks that are reordered, dropped, appended or moved from another file fail the authentication, as in the STREAM construction.
+ */
+public class StreamingEncryptionService {
+    public static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    static final int MAX_CHUNK_SIZE = 64 << 20;
+    static final int TAG_LENGTH = 16;
+    static final int MAGIC = 0x47434D32; // "GCM2", since the files without a salt cannot be decrypted anymore
+    static final int SALT_LENGTH = 16;
+    static final int NONCE_PREFIX_LENGTH = 7;
+    static final int HEADER_LENGTH = Integer.BYTES + Integer.BYTES + SALT_LENGTH + NONCE_PREFIX_LENGTH;
+    private static final int SALT_OFFSET = Integer.BYTES + Integer.BYTES;
+    private static final int NONCE_PREFIX_OFFSET = SALT_OFFSET + SALT_LENGTH;
+    private static final int NONCE_LENGTH = NONCE_PREFIX_LENGTH + Integer.BYTES + 1;
+    private static final String KEY_DERIVATION = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private final SecretKey key;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Scratch> scratch;
+
+    public StreamingEncryptionService(SecretKey key) {
+        this(key, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param chunkSize The number of plaintext bytes encrypted with each nonce, which is also the size of the parallel tasks.
+     */
+    public StreamingEncryptionService(SecretKey key, int chunkSize, ForkJoinPool pool) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size should be between 1 and %,d: %,d".formatted(MAX_CHUNK_SIZE, chunkSize));
+        }
+
+        this.key = key;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+        scratch = ThreadLocal.withInitial(() -> new Scratch(chunkSize));
+    }
+
+    public static SecretKey generateKey() throws NoSuchAlgorithmException {
+        var keyGenerator = KeyGenerator.getInstance(JavaCryptographyArchitecture.AES);
+        keyGenerator.init(256);
+        return keyGenerator.generateKey();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = 32 << 20;
+        var random = new Random(42);
+        var plain = Files.createTempFile("plain", ".dat");
+        var encrypted = Files.createTempFile("encrypted", ".dat");
+        var decrypted = Files.createTempFile("decrypted", ".dat");
+        plain.toFile().deleteOnExit();
+        encrypted.toFile().deleteOnExit();
+        decrypted.toFile().deleteOnExit();
+        var bytes = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + random.nextInt(26));
+        }
+
+        Files.write(plain, bytes);
+        var message = new String(bytes);
+        var sample = new JavaCryptographyArchitecture();
+        var service = new StreamingEncryptionService(generateKey());
+        System.out.printf("Encrypting %,d MB on %d threads%n", size >> 20, ForkJoinPool.getCommonPoolParallelism());
+
+        long start = System.nanoTime();
+        sample.decrypt(sample.encrypt(message));
+        print(new CipherResult("JavaCryptographyArchitecture encrypt + decrypt", size, System.nanoTime() - start));
+
+        start = System.nanoTime();
+
+        try (var source = FileChannel.open(plain, StandardOpenOption.READ);
+             var target = FileChannel.open(encrypted, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            print(new CipherResult("Streaming encrypt", service.encrypt(source, target).bytes(), System.nanoTime() - start));
+        }
+
+        start = System.nanoTime();
+
+        try (var source = FileChannel.open(encrypted, StandardOpenOption.READ);
+             var target = FileChannel.open(decrypted, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            print(new CipherResult("Streaming decrypt", service.decrypt(source, target).bytes(), System.nanoTime() - start));
+        }
+
+        print(service.encrypt(plain, encrypted));
+        print(service.decrypt(encrypted, decrypted));
+        System.out.printf("Decrypted file is the same: %b%n", Files.mismatch(plain, decrypted) == -1);
+    }
+
+    private static void print(CipherResult result) {
+        System.out.printf("%-48s %,10.1f MB/s%n", result.operation(), result.megabytesPerSecond());
+    }
+
+    /**
+     * Encrypts the source file into the target file, with the chunks encrypted in parallel.
+     */
+    public CipherResult encrypt(Path source, Path target) throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+
+        try (var input = FileChannel.open(source, StandardOpenOption.READ);
+             var output = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = input.size();
+            var header = newHeader();
+            writeFully(output, header.duplicate(), 0);
+            run(new ChunkTask(input, output, header, deriveKey(header), Cipher.ENCRYPT_MODE, 0, chunkCount(size, chunkSize), size));
+            return new CipherResult("Parallel encrypt", size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Decrypts a file written by {@link #encrypt(Path, Path)} or {@link #encrypt(ReadableByteChannel, WritableByteChannel)} into the target file, with the chunks decrypted in parallel.
+     *
+     * @throws AEADBadTagException If the file was modified or truncated. The target may contain some decrypted chunks, which should not be used.
+     */
+    public CipherResult decrypt(Path source, Path target) throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+
+        try (var input = FileChannel.open(source, StandardOpenOption.READ);
+             var output = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(input, header, 0);
+            checkHeader(header.flip());
+            long encryptedSize = input.size() - HEADER_LENGTH;
+            long chunks = chunkCount(encryptedSize, chunkSize + TAG_LENGTH);
+            long size = encryptedSize - chunks * TAG_LENGTH;
+
+            if (encryptedSize - (chunks - 1) * (chunkSize + TAG_LENGTH) < TAG_LENGTH) {
+                throw new AEADBadTagException("The last chunk is shorter than a tag.");
+            }
+
+            run(new ChunkTask(input, output, header, deriveKey(header), Cipher.DECRYPT_MODE, 0, chunks, size));
+            return new CipherResult("Parallel decrypt", size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Encrypts the source channel into the target channel on the current thread, for sources whose size is not known, like sockets.
+     * A chunk is read ahead so that the last chunk can be marked when the source ends.
+     */
+    public CipherResult encrypt(ReadableByteChannel source, WritableByteChannel target) throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+        var header = newHeader();
+        writeFully(target, header.duplicate());
+        return transform(source, target, header, deriveKey(header), Cipher.ENCRYPT_MODE, chunkSize, "Streaming encrypt", start);
+    }
+
+    public CipherResult decrypt(ReadableByteChannel source, WritableByteChannel target) throws IOException, GeneralSecurityException {
+        long start = System.nanoTime();
+        var header = ByteBuffer.allocate(HEADER_LENGTH);
+
+        if (readFully(source, header) < HEADER_LENGTH) {
+            throw new IOException("The source is not encrypted by this service.");
+        }
+
+        checkHeader(header.flip());
+        return transform(source, target, header, deriveKey(header), Cipher.DECRYPT_MODE, chunkSize + TAG_LENGTH, "Streaming decrypt", start);
+    }
+
+    private CipherResult transform(ReadableByteChannel source, WritableByteChannel target, ByteBuffer header, SecretKey fileKey, int mode, int inputChunkSize, String operation, long start)
+            throws IOException, GeneralSecurityException {
+        var current = scratch.get();
+        var input = current.input.clear().limit(inputChunkSize);
+        var next = ByteBuffer.allocateDirect(inputChunkSize);
+        var output = current.output;
+        boolean encrypt = mode == Cipher.ENCRYPT_MODE;
+        long bytes = 0;
+        readFully(source, input);
+
+        for (long index = 0; ; index++) {
+            if (index >= 1L << Integer.SIZE) {
+                throw new IOException("Too many chunks: " + index);
+            }
+
+            boolean last = input.position() < inputChunkSize || readFully(source, next.clear().limit(inputChunkSize)) == 0;
+            input.flip();
+            bytes += encrypt ? input.remaining() : 0;
+            transform(current.cipher, fileKey, mode, header, index, last, input, output.clear());
+            output.flip();
+            bytes += encrypt ? 0 : output.remaining();
+            writeFully(target, output);
+
+            if (last) {
+                return new CipherResult(operation, bytes, System.nanoTime() - start);
+            }
+
+            var swap = input;
+            input = next;
+            next = swap;
+        }
+    }
+
+    private static void transform(Cipher cipher, SecretKey fileKey, int mode, ByteBuffer header, long index, boolean last, ByteBuffer input, ByteBuffer output)
+            throws GeneralSecurityException {
+        var nonce = new byte[NONCE_LENGTH];
+        header.get(NONCE_PREFIX_OFFSET, nonce, 0, NONCE_PREFIX_LENGTH);
+        ByteBuffer.wrap(nonce, NONCE_PREFIX_LENGTH, Integer.BYTES).putInt((int) index);
+        nonce[NONCE_LENGTH - 1] = (byte) (last ? 1 : 0);
+        cipher.init(mode, fileKey, new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, nonce));
+        cipher.updateAAD(header.duplicate().rewind());
+        cipher.doFinal(input, output);
+    }
+
+    private ByteBuffer newHeader() {
+        var saltAndPrefix = new byte[SALT_LENGTH + NONCE_PREFIX_LENGTH];
+        RANDOM.nextBytes(saltAndPrefix);
+        return ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).putInt(chunkSize).put(saltAndPrefix).flip();
+    }
+
+    /**
+     * Derives the AES key of a file from the key of the service and the salt in its header with HKDF-SHA256 (RFC 5869).
+     * The magic number and the chunk size are the info, so a header with other values derives another key.
+     */
+    SecretKey deriveKey(ByteBuffer header) throws GeneralSecurityException {
+        var masterKey = key.getEncoded();
+
+        if (masterKey == null) {
+            throw new InvalidKeyException("The key cannot be exported, so no key can be derived from it.");
+        }
+
+        var mac = Mac.getInstance(KEY_DERIVATION);
+        var salt = new byte[SALT_LENGTH];
+        header.get(SALT_OFFSET, salt);
+        mac.init(new SecretKeySpec(salt, KEY_DERIVATION));
+        var pseudoRandomKey = mac.doFinal(masterKey); // Extract
+        mac.init(new SecretKeySpec(pseudoRandomKey, KEY_DERIVATION));
+        mac.update(header.slice(0, SALT_OFFSET));
+        mac.update((byte) 1);
+        return new SecretKeySpec(mac.doFinal(), JavaCryptographyArchitecture.AES); // Expand, one 32 byte block for an AES-256 key
+    }
+
+    private void checkHeader(ByteBuffer header) throws IOException {
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("The source is not encrypted by this service.");
+        }
+
+        if (header.getInt(Integer.BYTES) != chunkSize) {
+            throw new IOException("The source is encrypted with chunks of %,d bytes, not %,d.".formatted(header.getInt(Integer.BYTES), chunkSize));
+        }
+    }
+
+    /**
+     * Returns the number of chunks, which is at least one, since an empty plaintext still has a last chunk with a tag.
+     */
+    private static long chunkCount(long size, int chunkSize) throws IOException {
+        long chunks = Math.max(1, (size + chunkSize - 1) / chunkSize);
+
+        if (chunks > 1L << Integer.SIZE) {
+            throw new IOException("Too many chunks: " + chunks);
+        }
+
+        return chunks;
+    }
+
+    private void run(ChunkTask task) throws IOException, GeneralSecurityException {
+        try {
+            pool.invoke(task);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (CipherFailure e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        }
+
+        return buffer.position() - start;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at " + position);
+            }
+
+            position += read;
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * @param bytes The number of plaintext bytes.
+     * @param nanos The time it took to encrypt or decrypt them.
+     */
+    public record CipherResult(String operation, long bytes, long nanos) {
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos / (1 << 20);
+        }
+    }
+
+    private static class Scratch {
+        private final Cipher cipher;
+        private final ByteBuffer input;
+        private final ByteBuffer output;
+
+        Scratch(int chunkSize) {
+            try {
+                cipher = Cipher.getInstance(TRANSFORMATION);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+
+            input = ByteBuffer.allocateDirect(chunkSize + TAG_LENGTH);
+            output = ByteBuffer.allocateDirect(chunkSize + TAG_LENGTH);
+        }
+    }
+
+    private static class CipherFailure extends RuntimeException {
+        CipherFailure(GeneralSecurityException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized GeneralSecurityException getCause() {
+            return (GeneralSecurityException) super.getCause();
+        }
+    }
+
+    /**
+     * Encrypts or decrypts the chunks [from, to) of the file by splitting the range in two, until a single chunk is left.
+     */
+    private class ChunkTask extends RecursiveAction {
+        private final FileChannel input;
+        private final FileChannel output;
+        private final ByteBuffer header;
+        private final SecretKey fileKey;
+        private final int mode;
+        private final long from;
+        private final long to;
+        private final long size;
+
+        /**
+         * @param size The number of plaintext bytes in the whole file.
+         */
+        ChunkTask(FileChannel input, FileChannel output, ByteBuffer header, SecretKey fileKey, int mode, long from, long to, long size) {
+            this.input = input;
+            this.output = output;
+            this.header = header;
+            this.fileKey = fileKey;
+            this.mode = mode;
+            this.from = from;
+            this.to = to;
+            this.size = size;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(input, output, header, fileKey, mode, from, middle, size), new ChunkTask(input, output, header, fileKey, mode, middle, to, size));
+                return;
+            }
+
+            var current = scratch.get();
+            long plainPosition = from * chunkSize;
+            long encryptedPosition = HEADER_LENGTH + from * (chunkSize + TAG_LENGTH);
+            int plainLength = (int) Math.min(chunkSize, size - plainPosition);
+            boolean encrypt = mode == Cipher.ENCRYPT_MODE;
+            var in = current.input.clear().limit(encrypt ? plainLength : plainLength + TAG_LENGTH);
+
+            try {
+                readFully(input, in, encrypt ? plainPosition : encryptedPosition);
+                transform(current.cipher, fileKey, mode, header, from, plainPosition + plainLength == size, in.flip(), current.output.clear());
+                writeFully(output, current.output.flip(), encrypt ? encryptedPosition : plainPosition);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (GeneralSecurityException e) {
+                throw new CipherFailure(e);
+            }
+        }
+    }
+}
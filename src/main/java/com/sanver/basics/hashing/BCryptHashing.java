@@ -4,6 +4,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.Scanner;
 
+/**
+ * Hashes on the caller thread, which is fine for a sample, but a server should use {@link BCryptHashingService} so that the request threads are not blocked while hashing.
+ */
 public class BCryptHashing {
     private static BCryptPasswordEncoder encoder;
 
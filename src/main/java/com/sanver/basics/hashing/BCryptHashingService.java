@@ -0,0 +1,236 @@
+package com.sanver.basics.hashing;
+
+import com.sanver.basics.utils.LatencyHistogram;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hashes and verifies passwords with BCrypt on its own pool of threads, so the threads that serve requests don't spend a hundred milliseconds on each login.
+ * <p>
+ * The pool has one thread per core, since BCrypt only uses the CPU, and a bounded queue in front of it.
+ * When the queue is full the request is either rejected with a {@link RejectedExecutionException} ({@link OverloadPolicy#REJECT}), so that a login storm fails fast instead of piling up,
+ * or the caller waits for a free slot ({@link OverloadPolicy#BLOCK}), which pushes the back pressure to the caller.
+ * </p>
+ * <p>
+ * The cost factor doubles the time of a hash with every step, so {@link #calibrateStrength(Duration)} picks the highest one that stays within a target latency on this machine.
+ * </p>
+ */
+public class BCryptHashingService implements AutoCloseable {
+    public static final int MIN_STRENGTH = 4;
+    public static final int MAX_STRENGTH = 31;
+    static final int QUEUE_CAPACITY_PER_THREAD = 4;
+    private static final int CALIBRATION_RUNS = 3;
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final LatencyHistogram hashLatencies = new LatencyHistogram();
+    private final LatencyHistogram verifyLatencies = new LatencyHistogram();
+    private final LatencyHistogram queueWaits = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+
+    public BCryptHashingService(int strength) {
+        this(strength, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * QUEUE_CAPACITY_PER_THREAD, OverloadPolicy.REJECT);
+    }
+
+    public BCryptHashingService(int strength, int threads, int queueCapacity, OverloadPolicy overloadPolicy) {
+        if (strength < MIN_STRENGTH || strength > MAX_STRENGTH) {
+            throw new IllegalArgumentException("Strength should be between %d and %d: %d".formatted(MIN_STRENGTH, MAX_STRENGTH, strength));
+        }
+
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Threads and queue capacity should be positive: %d, %d".formatted(threads, queueCapacity));
+        }
+
+        this.strength = strength;
+        encoder = new BCryptPasswordEncoder(strength);
+        var threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            var thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, overloadPolicy.handler);
+        executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Creates a service with the strength returned by {@link #calibrateStrength(Duration)} for the given target latency.
+     */
+    public static BCryptHashingService calibrated(Duration targetLatency) {
+        return new BCryptHashingService(calibrateStrength(targetLatency));
+    }
+
+    /**
+     * Returns the highest strength whose hash takes no longer than the target on this machine, or {@link #MIN_STRENGTH} if even that takes longer.
+     * Each strength is timed with the fastest of {@value #CALIBRATION_RUNS} runs, and since the next one takes twice as long, the search stops once twice the time exceeds the target,
+     * so the calibration takes about as long as a few hashes at the chosen strength.
+     */
+    public static int calibrateStrength(Duration targetLatency) {
+        long targetNanos = targetLatency.toNanos();
+        int strength = MIN_STRENGTH;
+
+        while (strength < MAX_STRENGTH) {
+            var encoder = new BCryptPasswordEncoder(strength);
+            long fastest = Long.MAX_VALUE;
+
+            for (int i = 0; i < CALIBRATION_RUNS; i++) {
+                long start = System.nanoTime();
+                encoder.encode("calibration");
+                fastest = Math.min(fastest, System.nanoTime() - start);
+            }
+
+            if (fastest * 2 > targetNanos) {
+                break;
+            }
+
+            strength++;
+        }
+
+        return strength;
+    }
+
+    public CompletableFuture<String> hash(CharSequence password) {
+        return submit(() -> encoder.encode(password), hashLatencies);
+    }
+
+    public CompletableFuture<Boolean> verify(CharSequence password, String hashed) {
+        return submit(() -> encoder.matches(password, hashed), verifyLatencies);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task, LatencyHistogram latencies) {
+        long submitted = System.nanoTime();
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                queueWaits.record(start - submitted);
+
+                try {
+                    return task.get();
+                } finally {
+                    latencies.record(System.nanoTime() - start);
+                }
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    public int strength() {
+        return strength;
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * The time the hashes took on the pool, without the time they waited in the queue.
+     */
+    public LatencyHistogram hashLatencies() {
+        return hashLatencies;
+    }
+
+    public LatencyHistogram verifyLatencies() {
+        return verifyLatencies;
+    }
+
+    /**
+     * The time the requests waited in the queue before a thread picked them up.
+     */
+    public LatencyHistogram queueWaits() {
+        return queueWaits;
+    }
+
+    /**
+     * Stops accepting new requests and waits for the queued ones to complete. The queue is bounded, so this takes at most as long as the hashes that fit in it.
+     * If the calling thread is interrupted, the requests that have not started are dropped instead, and their futures never complete.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    public enum OverloadPolicy {
+        REJECT(new ThreadPoolExecutor.AbortPolicy()),
+        BLOCK((runnable, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("The service is closed.");
+            }
+
+            try {
+                executor.getQueue().put(runnable);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for a free slot.", e);
+            }
+
+            // If the service was closed while waiting, the threads may have drained the queue and exited already, and the request would never run
+            if (executor.isShutdown() && executor.remove(runnable)) {
+                throw new RejectedExecutionException("The service is closed.");
+            }
+        });
+
+        private final RejectedExecutionHandler handler;
+
+        OverloadPolicy(RejectedExecutionHandler handler) {
+            this.handler = handler;
+        }
+    }
+
+    public static void main(String[] args) {
+        var targetLatency = Duration.ofMillis(50);
+        var strength = calibrateStrength(targetLatency);
+        var cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Calibrated strength for %d ms: %d%n", targetLatency.toMillis(), strength);
+
+        try (var service = new BCryptHashingService(strength)) {
+            // A login storm: far more requests than the threads and the queue can hold, so the rest are rejected immediately instead of waiting.
+            var futures = new ArrayList<CompletableFuture<Boolean>>();
+            var hashed = service.hash("password").join();
+
+            for (int i = 0; i < cores * 20; i++) {
+                futures.add(service.verify(i % 2 == 0 ? "password" : "wrong", hashed));
+            }
+
+            System.out.printf("Queue depth after submitting %,d requests: %d%n", futures.size(), service.queueDepth());
+            var completed = futures.stream().filter(future -> !future.handle((result, ex) -> ex != null).join()).count();
+            System.out.printf("Completed: %,d, rejected: %,d%n", completed, service.rejectedCount());
+            System.out.printf("Verify latency: %s%n", service.verifyLatencies());
+            System.out.printf("Queue wait    : %s%n", service.queueWaits());
+        }
+
+        try (var service = new BCryptHashingService(strength, cores, cores, OverloadPolicy.BLOCK)) {
+            // With back pressure every request completes, and the submitting thread is slowed down to the speed of the pool instead.
+            var futures = new ArrayList<CompletableFuture<String>>();
+
+            for (int i = 0; i < cores * 20; i++) {
+                futures.add(service.hash("password" + i));
+            }
+
+            futures.forEach(CompletableFuture::join);
+            System.out.printf("%nBlocking policy completed %,d hashes, rejected: %,d%n", futures.size(), service.rejectedCount());
+            System.out.printf("Hash latency: %s%n", service.hashLatencies());
+            System.out.printf("Queue wait  : %s%n", service.queueWaits());
+        }
+    }
+}
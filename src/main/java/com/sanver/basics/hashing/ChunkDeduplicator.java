@@ -0,0 +1,229 @@
+package com.sanver.basics.hashing;
+
+import com.sanver.basics.hashing.ChunkIndex.Fingerprint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32C;
+
+/**
+ * Finds the chunks of a file that are not in a {@link ChunkIndex} yet, which are the only ones a deduplicating backup or sync would have to store or send.
+ * <ul>
+ *     <li>The file is mapped a window at a time, as in {@link FileHashingService}, and split into chunks with a {@link GearChunker} on the calling thread.
+ *     A chunk cut short by the end of a window is chunked again at the start of the next window.</li>
+ *     <li>The chunks of a window are fingerprinted in parallel on a {@link ForkJoinPool}, each thread with its own {@link MessageDigest}, and reading the mapped file directly.</li>
+ *     <li>The fingerprints are then added to the index in file order, so the index file is the same for the same input regardless of the thread count.</li>
+ * </ul>
+ * After a few bytes of a large file change, only the one or two chunks around them get new fingerprints, so only they are added to the index and to the stored bytes.
+ */
+public class ChunkDeduplicator {
+    static final int DEFAULT_WINDOW_SIZE = 256 << 20;
+    static final int SEQUENTIAL_THRESHOLD = 16;
+    private final GearChunker chunker;
+    private final ChunkIndex index;
+    private final FingerprintAlgorithm algorithm;
+    private final ForkJoinPool pool;
+    private final int windowSize;
+    private final ThreadLocal<MessageDigest> sha512 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-512");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every Java platform has to support SHA-512
+        }
+    });
+
+    public ChunkDeduplicator(GearChunker chunker, ChunkIndex index, FingerprintAlgorithm algorithm, ForkJoinPool pool) {
+        this(chunker, index, algorithm, pool, DEFAULT_WINDOW_SIZE);
+    }
+
+    ChunkDeduplicator(GearChunker chunker, ChunkIndex index, FingerprintAlgorithm algorithm, ForkJoinPool pool, int windowSize) {
+        if (windowSize < chunker.maximumSize()) {
+            throw new IllegalArgumentException(String.format("The window size %d is less than the maximum chunk size %d.", windowSize, chunker.maximumSize()));
+        }
+
+        this.chunker = chunker;
+        this.index = index;
+        this.algorithm = algorithm;
+        this.pool = pool;
+        this.windowSize = windowSize;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var directory = Files.createTempDirectory("dedup");
+        var file = directory.resolve("file.dat");
+        var bytes = new byte[256 << 20];
+        new Random(42).nextBytes(bytes);
+        Files.write(file, bytes);
+
+        try (var index = ChunkIndex.open(directory.resolve("index.dat"))) {
+            var deduplicator = new ChunkDeduplicator(new GearChunker(), index, FingerprintAlgorithm.SHA_512, ForkJoinPool.commonPool());
+            System.out.printf("Deduplicating a %,d MB file with %d threads%n", bytes.length >> 20, ForkJoinPool.getCommonPoolParallelism());
+            System.out.println("First run:          " + deduplicator.deduplicate(file));
+            System.out.println("Same file again:    " + deduplicator.deduplicate(file));
+
+            var changed = new byte[bytes.length + 3]; // Insert 3 bytes in the middle and change a byte near the end
+            int middle = bytes.length / 2;
+            System.arraycopy(bytes, 0, changed, 0, middle);
+            changed[middle] = changed[middle + 1] = changed[middle + 2] = 7;
+            System.arraycopy(bytes, middle, changed, middle + 3, bytes.length - middle);
+            changed[changed.length - 100_000]++;
+            Files.write(file, changed);
+            System.out.println("After a few edits:  " + deduplicator.deduplicate(file));
+            System.out.printf("Index has %,d chunks of %,d bytes in total%n", index.size(), index.storedBytes());
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (var path : files.toList()) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Chunks and fingerprints the file, and adds the new fingerprints to the index.
+     */
+    public DedupReport deduplicate(Path file) throws IOException {
+        long start = System.nanoTime();
+        long chunkCount = 0, newChunkCount = 0, newBytes = 0;
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            var offsets = new int[1024];
+            var lengths = new int[1024];
+
+            for (long windowStart = 0; windowStart < size; ) {
+                int windowLength = (int) Math.min(windowSize, size - windowStart);
+                boolean lastWindow = windowStart + windowLength == size;
+                var window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+                int count = 0;
+                int position = 0;
+
+                while (position < windowLength && (lastWindow || windowLength - position >= chunker.maximumSize())) {
+                    if (count == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                        lengths = Arrays.copyOf(lengths, count * 2);
+                    }
+
+                    int length = chunker.nextChunkLength(window, position, windowLength);
+                    offsets[count] = position;
+                    lengths[count++] = length;
+                    position += length;
+                }
+
+                var fingerprints = new Fingerprint[count];
+                pool.invoke(new FingerprintTask(window, offsets, lengths, fingerprints, 0, count));
+
+                for (int i = 0; i < count; i++) {
+                    if (index.add(fingerprints[i], lengths[i])) {
+                        newChunkCount++;
+                        newBytes += lengths[i];
+                    }
+                }
+
+                chunkCount += count;
+                windowStart += position;
+            }
+
+            index.flush();
+            return new DedupReport(size, chunkCount, newChunkCount, newBytes, System.nanoTime() - start);
+        }
+    }
+
+    private Fingerprint fingerprint(MappedByteBuffer window, int offset, int length) {
+        var chunk = window.slice(offset, length);
+
+        return switch (algorithm) {
+            case SHA_512 -> {
+                var messageDigest = sha512.get();
+                messageDigest.update(chunk);
+                var digest = ByteBuffer.wrap(messageDigest.digest());
+                yield new Fingerprint(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+            }
+            case CRC32C -> {
+                var crc32c = new CRC32C();
+                crc32c.update(chunk);
+                yield new Fingerprint(crc32c.getValue(), length, 0, 0);
+            }
+        };
+    }
+
+    public enum FingerprintAlgorithm {
+        /**
+         * Practically collision-free, so a chunk with a known fingerprint can be skipped safely.
+         */
+        SHA_512,
+        /**
+         * Several times faster, but with 32 bits, chunks of the same length collide after about 2^16 of them, so it only suits detecting changed chunks,
+         * not skipping a chunk because another one had the same fingerprint.
+         */
+        CRC32C
+    }
+
+    /**
+     * @param bytes     The size of the file.
+     * @param chunks    The number of chunks of the file.
+     * @param newChunks The number of chunks that were not in the index.
+     * @param newBytes  The total length of the new chunks.
+     * @param nanos     The time it took to chunk, fingerprint and index the file.
+     */
+    public record DedupReport(long bytes, long chunks, long newChunks, long newBytes, long nanos) {
+        /**
+         * @return The size of the file divided by the bytes that had to be stored for it, e.g. 10 if only a tenth of it was new.
+         */
+        public double dedupRatio() {
+            return newBytes == 0 ? Double.POSITIVE_INFINITY : (double) bytes / newBytes;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e3 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d chunks, %,d new chunks of %,d bytes, dedup ratio %.1f, %.0f MB/s", chunks, newChunks, newBytes, dedupRatio(), megabytesPerSecond());
+        }
+    }
+
+    class FingerprintTask extends RecursiveAction {
+        private final MappedByteBuffer window;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final Fingerprint[] fingerprints;
+        private final int start;
+        private final int end;
+
+        FingerprintTask(MappedByteBuffer window, int[] offsets, int[] lengths, Fingerprint[] fingerprints, int start, int end) {
+            this.window = window;
+            this.offsets = offsets;
+            this.lengths = lengths;
+            this.fingerprints = fingerprints;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    fingerprints[i] = fingerprint(window, offsets[i], lengths[i]);
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new FingerprintTask(window, offsets, lengths, fingerprints, start, middle), new FingerprintTask(window, offsets, lengths, fingerprints, middle, end));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.sanver.basics.hashing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A set of chunk fingerprints kept in memory and appended to a file, so that the chunks seen before are known after a restart.
+ * <p>
+ * Each record is the 32 bytes of the fingerprint followed by the length of the chunk, so the file is read back with a single sequential read and no parsing.
+ * New records are collected in a buffer and written {@value #BUFFER_RECORDS} at a time. A record cut short by a crash is dropped when the file is opened.
+ * </p>
+ * This class is not thread-safe.
+ */
+public class ChunkIndex implements Closeable {
+    static final int RECORD_SIZE = 4 * Long.BYTES + Integer.BYTES;
+    static final int BUFFER_RECORDS = 1024;
+    private final FileChannel channel;
+    private final Set<Fingerprint> fingerprints = new HashSet<>();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFER_RECORDS);
+    private long storedBytes;
+
+    private ChunkIndex(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the index in the file, creating it if it doesn't exist.
+     */
+    public static ChunkIndex open(Path path) throws IOException {
+        var channel = FileChannel.open(path, CREATE, READ, WRITE);
+
+        try {
+            var index = new ChunkIndex(channel);
+            index.load();
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        long size = channel.size() / RECORD_SIZE * RECORD_SIZE;
+        var buffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFER_RECORDS);
+
+        for (long position = 0; position < size; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), size - position));
+
+            while (buffer.hasRemaining()) {
+                position += channel.read(buffer, position);
+            }
+
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                var fingerprint = new Fingerprint(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+                int length = buffer.getInt();
+
+                if (fingerprints.add(fingerprint)) {
+                    storedBytes += length;
+                }
+            }
+        }
+
+        channel.truncate(size).position(size);
+    }
+
+    public boolean contains(Fingerprint fingerprint) {
+        return fingerprints.contains(fingerprint);
+    }
+
+    /**
+     * @return Whether the fingerprint is new, in which case it is added.
+     */
+    public boolean add(Fingerprint fingerprint, int length) throws IOException {
+        if (!fingerprints.add(fingerprint)) {
+            return false;
+        }
+
+        if (!writeBuffer.hasRemaining()) {
+            flush();
+        }
+
+        writeBuffer.putLong(fingerprint.word0()).putLong(fingerprint.word1()).putLong(fingerprint.word2()).putLong(fingerprint.word3()).putInt(length);
+        storedBytes += length;
+        return true;
+    }
+
+    public int size() {
+        return fingerprints.size();
+    }
+
+    /**
+     * @return The total length of the distinct chunks, i.e. the bytes a deduplicating store would keep.
+     */
+    public long storedBytes() {
+        return storedBytes;
+    }
+
+    public void flush() throws IOException {
+        writeBuffer.flip();
+
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+
+        writeBuffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * The first 256 bits of a SHA-512 hash, or a CRC32C with the length of the chunk.
+     */
+    public record Fingerprint(long word0, long word1, long word2, long word3) {
+    }
+}
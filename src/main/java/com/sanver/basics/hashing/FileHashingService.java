@@ -0,0 +1,270 @@
+package com.sanver.basics.hashing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Hashes large files without copying them through a byte[] in the heap, unlike {@link FileHashingCRC32C} and {@link FileHashingMD5}.
+ * <ul>
+ *     <li>The file is mapped into memory with {@link FileChannel#map}, a segment at a time, and each {@link java.nio.MappedByteBuffer} is passed to {@link CRC32C#update(ByteBuffer)} or
+ *     {@link MessageDigest#update(ByteBuffer)}, which read the pages of the file directly, with intrinsics for CRC32C.</li>
+ *     <li>{@link #parallelCrc32c(Path)} computes the CRC32C of each segment on a {@link ForkJoinPool} and combines them with {@link #combine(int, int, long)}, so the whole file is hashed at the speed of
+ *     all the cores or of the disk, whichever is slower. Digests like SHA-256 and MD5 process the bytes in a chain, so they cannot be split like that.</li>
+ *     <li>Each hash is returned with its size and duration, so the GB/s can be compared.</li>
+ * </ul>
+ * A mapped segment takes address space but not heap, and its pages are the ones in the page cache of the OS, so nothing is copied.
+ */
+public class FileHashingService {
+    static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    private static final int CRC32C_POLYNOMIAL = 0x82F63B78; // Reversed, since CRC32C processes the least significant bit first
+    private static final int[] X_POWER_2N = new int[Long.SIZE + 3]; // x^(2^n) mod the polynomial, up to x^(8 * 2^63) for the longest length
+    private final int segmentSize;
+    private final ForkJoinPool pool;
+
+    static {
+        int power = 1 << 30; // x^1, bits are reversed so x^0 is 1 << 31
+
+        for (int n = 0; n < X_POWER_2N.length; n++) {
+            X_POWER_2N[n] = power;
+            power = multiplyModulo(power, power);
+        }
+    }
+
+    public FileHashingService() {
+        this(DEFAULT_SEGMENT_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param segmentSize The number of bytes mapped at a time, and the size of the parallel tasks of {@link #parallelCrc32c(Path)}.
+     */
+    public FileHashingService(int segmentSize, ForkJoinPool pool) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+
+        this.segmentSize = segmentSize;
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var file = Files.createTempFile("file for hashing", ".dat");
+        file.toFile().deleteOnExit();
+        var block = new byte[1 << 20];
+        new Random(42).nextBytes(block);
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < 512; i++) {
+                channel.write(ByteBuffer.wrap(block));
+            }
+        }
+
+        var service = new FileHashingService();
+        System.out.printf("Hashing a %,d MB file on %d threads%n", Files.size(file) >> 20, ForkJoinPool.getCommonPoolParallelism());
+
+        try (InputStream stream = Files.newInputStream(file);
+             var checkedInputStream = new CheckedInputStream(stream, new CRC32C())) {
+            long start = System.nanoTime();
+            var buffer = new byte[1024];
+            while (checkedInputStream.read(buffer, 0, buffer.length) >= 0) {
+            }
+            print(new FileHash("CRC32C with CheckedInputStream", String.format("%08x", checkedInputStream.getChecksum().getValue()), Files.size(file), System.nanoTime() - start));
+        }
+
+        print(service.crc32c(file));
+        print(service.parallelCrc32c(file));
+
+        try (InputStream stream = Files.newInputStream(file)) {
+            long start = System.nanoTime();
+            var md5 = org.apache.commons.codec.digest.DigestUtils.md5Hex(stream);
+            print(new FileHash("MD5 with DigestUtils", md5, Files.size(file), System.nanoTime() - start));
+        }
+
+        print(service.digest(file, "MD5"));
+        print(service.digest(file, "SHA-256"));
+    }
+
+    private static void print(FileHash hash) {
+        System.out.printf("%-32s %s %6.2f GB/s%n", hash.algorithm(), hash.value(), hash.gigabytesPerSecond());
+    }
+
+    /**
+     * Computes the CRC32C of the file on the current thread.
+     */
+    public FileHash crc32c(Path file) throws IOException {
+        long start = System.nanoTime();
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            var crc32c = new CRC32C();
+
+            for (long position = 0; position < size; position += segmentSize) {
+                crc32c.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position)));
+            }
+
+            return new FileHash("CRC32C", toHex((int) crc32c.getValue()), size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Computes the CRC32C of each segment of the file in parallel and combines them into the CRC32C of the file, which is the same as {@link #crc32c(Path)}.
+     */
+    public FileHash parallelCrc32c(Path file) throws IOException {
+        long start = System.nanoTime();
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int crc = size <= segmentSize ? crc32c(channel, 0, size) : pool.invoke(new Crc32cTask(channel, 0, size));
+            return new FileHash("CRC32C in parallel", toHex(crc), size, System.nanoTime() - start);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Computes a digest like MD5 or SHA-256 of the file on the current thread.
+     *
+     * @throws IllegalArgumentException If the algorithm is not available.
+     */
+    public FileHash digest(Path file, String algorithm) throws IOException {
+        MessageDigest messageDigest;
+
+        try {
+            messageDigest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        long start = System.nanoTime();
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            for (long position = 0; position < size; position += segmentSize) {
+                messageDigest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position)));
+            }
+
+            return new FileHash(algorithm, HexFormat.of().formatHex(messageDigest.digest()), size, System.nanoTime() - start);
+        }
+    }
+
+    private static int crc32c(FileChannel channel, long position, long length) {
+        var crc32c = new CRC32C();
+
+        try {
+            crc32c.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return (int) crc32c.getValue();
+    }
+
+    /**
+     * Returns the CRC32C of the concatenation of two byte sequences from their CRC32C values, without reading them again.
+     * <p>
+     * Before the final inversion, the CRC of a sequence is the remainder of the sequence as a polynomial over GF(2), and appending n bytes to the first sequence multiplies its polynomial by x^(8n).
+     * So the CRC of the concatenation is the CRC of the first sequence times x^(8n), plus the CRC of the second one. The inversions at the start and the end of each CRC cancel out.
+     * x^(8n) is computed from the table of x^(2^k) in O(log n) multiplications, like {@code crc32_combine} of zlib. Unlike zlib, the table is not wrapped around after 32 entries,
+     * since x^(2^32) is not x modulo the CRC32C polynomial, so the table has an entry for every bit of the length.
+     * </p>
+     *
+     * @param secondLength The number of bytes of the second sequence.
+     */
+    public static int combine(int firstCrc, int secondCrc, long secondLength) {
+        return multiplyModulo(xPower8n(secondLength), firstCrc) ^ secondCrc;
+    }
+
+    /**
+     * @return a * b modulo the CRC32C polynomial, with the bits of both in reverse order.
+     */
+    private static int multiplyModulo(int a, int b) {
+        int product = 0;
+
+        for (int bit = 1 << 31; bit != 0; bit >>>= 1) {
+            if ((a & bit) != 0) {
+                product ^= b;
+            }
+
+            b = (b & 1) != 0 ? (b >>> 1) ^ CRC32C_POLYNOMIAL : b >>> 1;
+        }
+
+        return product;
+    }
+
+    /**
+     * @return x^(8n) modulo the CRC32C polynomial.
+     */
+    private static int xPower8n(long n) {
+        int power = 1 << 31; // x^0
+        int k = 3; // x^(8n) = x^(n * 2^3)
+
+        for (; n != 0; n >>>= 1, k++) {
+            if ((n & 1) != 0) {
+                power = multiplyModulo(X_POWER_2N[k], power);
+            }
+        }
+
+        return power;
+    }
+
+    private static String toHex(int crc) {
+        return String.format("%08x", crc);
+    }
+
+    /**
+     * @param value The hash in hexadecimal.
+     * @param size  The number of bytes hashed.
+     * @param nanos The time it took to hash them.
+     */
+    public record FileHash(String algorithm, String value, long size, long nanos) {
+        /**
+         * @return The decimal gigabytes hashed per second, which is the same as bytes per nanosecond.
+         */
+        public double gigabytesPerSecond() {
+            return nanos == 0 ? 0 : (double) size / nanos;
+        }
+    }
+
+    /**
+     * Computes the CRC32C of the range [from, to) of the file by splitting it in two at a segment boundary, until a range fits in a segment.
+     */
+    class Crc32cTask extends RecursiveTask<Integer> {
+        private final FileChannel channel;
+        private final long from;
+        private final long to;
+
+        Crc32cTask(FileChannel channel, long from, long to) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= segmentSize) {
+                return crc32c(channel, from, to - from);
+            }
+
+            long segments = (to - from + segmentSize - 1) / segmentSize;
+            long middle = from + segments / 2 * segmentSize;
+            var right = new Crc32cTask(channel, middle, to);
+            right.fork();
+            int left = new Crc32cTask(channel, from, middle).compute();
+            return combine(left, right.join(), to - middle);
+        }
+    }
+}
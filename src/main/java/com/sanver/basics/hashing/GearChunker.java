@@ -0,0 +1,104 @@
+package com.sanver.basics.hashing;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Splits bytes into chunks at content-defined boundaries with the Gear rolling hash of FastCDC.
+ * <p>
+ * Cutting a file every n bytes would move every boundary after an inserted byte, so no chunk after it would be found again.
+ * Here a boundary is put where the hash of the last bytes has its top bits zero, so a boundary depends only on the bytes just before it,
+ * and after an edit the boundaries come back to the same places within a chunk or two.
+ * </p>
+ * <ul>
+ *     <li>The Gear hash is one shift and one add per byte, {@code hash = (hash << 1) + GEAR[byte]}, and a byte falls out of the top of the hash after 64 more bytes, so it needs no window to remove bytes from.</li>
+ *     <li>The first minimumSize bytes of a chunk are skipped without hashing, since no boundary can be there.</li>
+ *     <li>Before averageSize bytes, a boundary needs one more zero bit than after it (normalized chunking), which makes the chunk sizes gather around the average instead of spreading out exponentially.</li>
+ * </ul>
+ */
+public class GearChunker {
+    private static final long[] GEAR = new long[256];
+    private final int minimumSize;
+    private final int averageSize;
+    private final int maximumSize;
+    private final long smallMask;
+    private final long largeMask;
+
+    static {
+        var random = new SplittableRandom(0x6765617243444CL); // A fixed seed, so that the boundaries of the same bytes are the same in every run
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    public GearChunker() {
+        this(2 << 10, 8 << 10, 64 << 10);
+    }
+
+    /**
+     * @param averageSize Must be a power of 2.
+     */
+    public GearChunker(int minimumSize, int averageSize, int maximumSize) {
+        if (minimumSize < 1 || minimumSize > averageSize || averageSize > maximumSize || Integer.bitCount(averageSize) != 1) {
+            throw new IllegalArgumentException(String.format("Expected 0 < minimum <= average <= maximum and the average to be a power of 2, but found %d, %d, %d.", minimumSize, averageSize, maximumSize));
+        }
+
+        int bits = Integer.numberOfTrailingZeros(averageSize);
+        this.minimumSize = minimumSize;
+        this.averageSize = averageSize;
+        this.maximumSize = maximumSize;
+        this.smallMask = -1L << (64 - Math.min(bits + 1, 63));
+        this.largeMask = -1L << (64 - Math.max(bits - 1, 1));
+    }
+
+    public int minimumSize() {
+        return minimumSize;
+    }
+
+    public int averageSize() {
+        return averageSize;
+    }
+
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Finds the end of the chunk starting at from. If the buffer ends before maximumSize bytes and no boundary is found, the rest is a chunk,
+     * so pass at least maximumSize bytes unless they are the last bytes of the data.
+     *
+     * @param from The index of the first byte of the chunk.
+     * @param to   The index after the last byte that can be in the chunk.
+     * @return The length of the chunk.
+     */
+    public int nextChunkLength(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+
+        if (length <= minimumSize) {
+            return length;
+        }
+
+        length = Math.min(length, maximumSize);
+        int normalSize = Math.min(averageSize, length);
+        long hash = 0;
+        int i = minimumSize;
+
+        for (; i < normalSize; i++) {
+            hash = (hash << 1) + GEAR[buffer.get(from + i) & 0xFF];
+
+            if ((hash & smallMask) == 0) {
+                return i + 1;
+            }
+        }
+
+        for (; i < length; i++) {
+            hash = (hash << 1) + GEAR[buffer.get(from + i) & 0xFF];
+
+            if ((hash & largeMask) == 0) {
+                return i + 1;
+            }
+        }
+
+        return length;
+    }
+}
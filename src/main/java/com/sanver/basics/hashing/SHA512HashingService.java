@@ -0,0 +1,149 @@
+package com.sanver.basics.hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+import static com.sanver.basics.utils.PerformanceComparer.measure;
+
+/**
+ * Salted SHA-512 hashing that can be called from any number of threads at the same time, unlike {@link SHA512HashingWithSalt#hash(String)}, which is synchronized because it shares one {@link MessageDigest}.
+ * <ul>
+ *     <li>Each thread has its own {@link MessageDigest} in a {@link ThreadLocal}, so hashing needs no lock, and a digest is created once per thread instead of once per call.</li>
+ *     <li>The salts come from a {@link SaltSource} with a DRBG {@link SecureRandom} per thread, each seeded once, so threads don't wait for each other or for the entropy of the OS to get a salt.</li>
+ *     <li>The salt is returned with the hash, so that {@link #verify(String, String)} can hash a message with the same salt to compare it.</li>
+ *     <li>{@link #hashAll(List)} splits a list into tasks on a {@link ForkJoinPool}, so a batch is hashed on all the cores.</li>
+ * </ul>
+ * SHA-512 is fast, which suits data integrity but not passwords. See {@link BCryptHashing} for passwords.
+ */
+public class SHA512HashingService {
+    public static final int SALT_LENGTH = 16;
+    static final int BATCH_THRESHOLD = 64;
+    private static final HexFormat HEX = HexFormat.of();
+    private final ThreadLocal<MessageDigest> messageDigest = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(SHA512HashingWithSalt.SHA_512);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every Java platform has to support SHA-512
+        }
+    });
+    private final SaltSource saltSource;
+    private final ForkJoinPool pool;
+
+    public SHA512HashingService() {
+        this(new SaltSource(), ForkJoinPool.commonPool());
+    }
+
+    public SHA512HashingService(SaltSource saltSource, ForkJoinPool pool) {
+        this.saltSource = saltSource;
+        this.pool = pool;
+    }
+
+    public static void main(String[] args) {
+        var messages = IntStream.range(0, 200_000).mapToObj(i -> "message " + i).toList();
+        var service = new SHA512HashingService();
+        System.out.printf("Hashing %,d messages on %d threads%n", messages.size(), ForkJoinPool.getCommonPoolParallelism());
+        measure(() -> messages.parallelStream().forEach(SHA512HashingWithSalt::hash), "Synchronized SHA512HashingWithSalt.hash");
+        measure(() -> messages.parallelStream().forEach(service::hash), "SHA512HashingService.hash");
+        measure(() -> service.hashAll(messages), "SHA512HashingService.hashAll");
+
+        var hashed = service.hash("password");
+        System.out.printf("%nHashed form: %s%nVerifies: %b, with another message: %b%n", hashed, service.verify("password", hashed), service.verify("Password", hashed));
+    }
+
+    /**
+     * @return The salt and the hash in hexadecimal, separated by a colon.
+     */
+    public String hash(String message) {
+        var salt = saltSource.nextSalt();
+        return HEX.formatHex(salt) + ':' + HEX.formatHex(digest(salt, message));
+    }
+
+    /**
+     * @param hashed A value returned by {@link #hash(String)}.
+     * @return Whether the message has the hash, compared in constant time so that the time does not tell how many bytes match.
+     * @throws IllegalArgumentException If hashed is not in the format of {@link #hash(String)}.
+     */
+    public boolean verify(String message, String hashed) {
+        int separator = hashed.indexOf(':');
+
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected the salt and the hash separated by a colon.");
+        }
+
+        var salt = HEX.parseHex(hashed, 0, separator);
+        var hash = HEX.parseHex(hashed, separator + 1, hashed.length());
+        return MessageDigest.isEqual(hash, digest(salt, message));
+    }
+
+    /**
+     * Hashes the messages in parallel on the pool of the service, in tasks of up to {@value #BATCH_THRESHOLD} messages.
+     *
+     * @return The result of {@link #hash(String)} for each message, in the same order.
+     */
+    public List<String> hashAll(List<String> messages) {
+        var result = new String[messages.size()];
+        pool.invoke(new HashTask(messages, result, 0, result.length));
+        return List.of(result);
+    }
+
+    private byte[] digest(byte[] salt, String message) {
+        var digest = messageDigest.get();
+        digest.reset(); // In case a previous call on this thread failed in the middle
+        digest.update(salt);
+        return digest.digest(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Generates salts from a {@link SecureRandom} per thread. The default {@code new SecureRandom()} on Linux reads /dev/urandom behind a lock shared by all its instances,
+     * while a DRBG instance only takes entropy from the OS when it is seeded, and here each one is used by a single thread.
+     */
+    public static class SaltSource {
+        private final ThreadLocal<SecureRandom> random = ThreadLocal.withInitial(() -> {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        });
+
+        public byte[] nextSalt() {
+            var salt = new byte[SALT_LENGTH];
+            random.get().nextBytes(salt);
+            return salt;
+        }
+    }
+
+    class HashTask extends RecursiveAction {
+        private final List<String> messages;
+        private final String[] result;
+        private final int start;
+        private final int end;
+
+        HashTask(List<String> messages, String[] result, int start, int end) {
+            this.messages = messages;
+            this.result = result;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= BATCH_THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    result[i] = hash(messages.get(i));
+                }
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(new HashTask(messages, result, start, middle), new HashTask(messages, result, middle, end));
+        }
+    }
+}
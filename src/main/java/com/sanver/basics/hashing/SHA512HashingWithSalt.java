@@ -7,6 +7,9 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Scanner;
 
+/**
+ * Hashes a message with a random salt. The method is synchronized since it shares one {@link MessageDigest}, so see {@link SHA512HashingService} for hashing from many threads.
+ */
 public class SHA512HashingWithSalt {
     public static final String SHA_512 = "SHA-512";
     private static MessageDigest messageDigest;
@@ -25,7 +28,7 @@ public class SHA512HashingWithSalt {
         }
         messageDigest.update(salt);
         var hashedBytes = messageDigest.digest(message.getBytes(StandardCharsets.UTF_8));
-        return String.format("%064x", new BigInteger(1, hashedBytes));
+        return String.format("%0128x", new BigInteger(1, hashedBytes)); // 512 bits are 128 hexadecimal digits
     }
 
     public static void main(String... args) {
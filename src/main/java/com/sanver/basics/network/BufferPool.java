@@ -0,0 +1,84 @@
+package com.sanver.basics.network;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe pool of buffers of the same size, so that a connection can borrow a buffer while it needs one instead of allocating it.
+ * <p>
+ * Allocating a direct buffer is much slower than allocating an object, since it reserves native memory and registers a cleaner, and it is only freed by a garbage collection,
+ * so a server that allocates one per message runs out of direct memory long before it runs out of heap. Heap buffers are pooled to save the garbage instead.
+ * At most {@code maxPooled} buffers are kept, and the ones released beyond that are left to the garbage collector.
+ * </p>
+ */
+public class BufferPool {
+    public static final int DEFAULT_BUFFER_SIZE = 64 << 10;
+    private final int bufferSize;
+    private final boolean direct;
+    private final int maxPooled;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final LongAdder allocated = new LongAdder();
+
+    public BufferPool(boolean direct, int maxPooled) {
+        this(DEFAULT_BUFFER_SIZE, direct, maxPooled);
+    }
+
+    public BufferPool(int bufferSize, boolean direct, int maxPooled) {
+        if (bufferSize < 1 || maxPooled < 0) {
+            throw new IllegalArgumentException("Buffer size should be positive and max pooled should not be negative: %d, %d".formatted(bufferSize, maxPooled));
+        }
+
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Returns a cleared buffer from the pool, or a new one if the pool is empty.
+     */
+    public ByteBuffer acquire() {
+        var buffer = buffers.poll();
+
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            return buffer.clear();
+        }
+
+        allocated.increment();
+        return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Returns the buffer to the pool. The buffer, and any slice of it, must not be used after it is released.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || buffer.isDirect() != direct) {
+            throw new IllegalArgumentException("The buffer is not from this pool: " + buffer);
+        }
+
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.add(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * The number of buffers allocated, as opposed to reused from the pool.
+     */
+    public long allocated() {
+        return allocated.sum();
+    }
+
+    public int pooled() {
+        return pooled.get();
+    }
+}
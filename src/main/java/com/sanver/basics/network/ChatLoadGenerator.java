@@ -0,0 +1,311 @@
+package com.sanver.basics.network;
+
+import com.sanver.basics.utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opens thousands of connections to a {@link SelectorChatServer} in {@link SelectorChatServer.Mode#ECHO} mode, and reports the messages per second and the round trip latency percentiles.
+ * <p>
+ * Each connection sends the {@link System#nanoTime()} as a line, waits for it to come back, records the difference and sends the next one, so there is one message in flight per connection.
+ * The connections are spread over a few threads with a {@link Selector} each, like the server, since a thread per connection would measure the scheduler rather than the server.
+ * Both ends of every connection take a file descriptor when the server runs in the same process, so 10,000 connections need a limit of more than 20,000 open files ({@code ulimit -n}).
+ * </p>
+ */
+public class ChatLoadGenerator {
+    private final InetSocketAddress address;
+    private final int connections;
+    private final int threads;
+
+    public ChatLoadGenerator(InetSocketAddress address, int connections, int threads) {
+        if (connections < 1 || threads < 1) {
+            throw new IllegalArgumentException("Connections and threads should be positive: %d, %d".formatted(connections, threads));
+        }
+
+        this.address = address;
+        this.connections = connections;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Without host and port, an echo server is started in this process. Pass them to load a server that is started separately with SelectorChatServer <port> ECHO.
+        int connections = args.length == 1 || args.length == 3 ? Integer.parseInt(args[args.length - 1]) : 10_000;
+        var duration = Duration.ofSeconds(10);
+        var threads = Runtime.getRuntime().availableProcessors();
+
+        if (args.length >= 2) {
+            print(new ChatLoadGenerator(new InetSocketAddress(args[0], Integer.parseInt(args[1])), connections, threads).run(duration));
+            return;
+        }
+
+        try (var server = new SelectorChatServer.Builder().setPort(0).setMode(SelectorChatServer.Mode.ECHO).build()) {
+            print(new ChatLoadGenerator(new InetSocketAddress("localhost", server.port()), connections, threads).run(duration));
+        }
+    }
+
+    private static void print(Report report) {
+        var latencies = report.latencies();
+        System.out.printf("Connections: %,d, served: %,d, messages: %,d, %,.0f messages/s%n", report.connections(), report.servedConnections(), report.messages(), report.messagesPerSecond());
+        System.out.printf("Round trip latency p50: %,d us, p99: %,d us, p99.9: %,d us, max: %,d us%n",
+                latencies.percentile(50) / 1_000, latencies.percentile(99) / 1_000, latencies.percentile(99.9) / 1_000, latencies.max() / 1_000);
+    }
+
+    /**
+     * Connects all the connections, then sends messages for the given duration, and closes the connections.
+     */
+    public Report run(Duration duration) throws IOException, InterruptedException {
+        var connected = new CountDownLatch(connections);
+        var latencies = new LatencyHistogram();
+        var messages = new LongAdder();
+        var servedConnections = new LongAdder();
+        var loops = new ArrayList<ClientLoop>();
+
+        for (int i = 0; i < threads; i++) {
+            int from = (int) ((long) connections * i / threads);
+            int to = (int) ((long) connections * (i + 1) / threads);
+            loops.add(new ClientLoop(i, from, to, connected, latencies, messages, servedConnections));
+        }
+
+        loops.forEach(Thread::start);
+
+        if (!connected.await(1, TimeUnit.MINUTES)) {
+            stop(loops);
+            throw new IOException("Could only connect %,d of %,d connections.".formatted(connections - connected.getCount(), connections));
+        }
+
+        checkFailures(loops);
+
+        // Only the messages sent after all the connections are up are measured
+        long start = System.nanoTime();
+        loops.forEach(loop -> loop.measureFrom = start);
+        Thread.sleep(duration.toMillis());
+        stop(loops);
+        checkFailures(loops);
+        return new Report(connections, (int) servedConnections.sum(), messages.sum(), System.nanoTime() - start, latencies);
+    }
+
+    private static void stop(List<ClientLoop> loops) throws InterruptedException {
+        loops.forEach(ClientLoop::stopSending);
+
+        for (var loop : loops) {
+            loop.join();
+        }
+    }
+
+    private static void checkFailures(List<ClientLoop> loops) throws IOException, InterruptedException {
+        for (var loop : loops) {
+            if (loop.failed) {
+                stop(loops);
+                throw new IOException("A client thread failed. Check the limit of open files for many connections.", loop.failure);
+            }
+        }
+    }
+
+    /**
+     * @param servedConnections The number of connections that got at least one response, which is less than the connections when the server cannot serve them all at once.
+     * @param messages          The number of round trips completed in the measured time.
+     */
+    public record Report(int connections, int servedConnections, long messages, long nanos, LatencyHistogram latencies) {
+        public double messagesPerSecond() {
+            return nanos == 0 ? 0 : messages * 1e9 / nanos;
+        }
+    }
+
+    private class ClientLoop extends Thread {
+        private final int from;
+        private final int to;
+        private final CountDownLatch connected;
+        private final LatencyHistogram latencies;
+        private final LongAdder messages;
+        private final LongAdder servedConnections;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 << 10);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64);
+        private volatile long measureFrom = Long.MAX_VALUE;
+        private volatile boolean running = true;
+        private volatile boolean failed;
+        private volatile IOException failure;
+        private final Selector selector;
+
+        ClientLoop(int index, int from, int to, CountDownLatch connected, LatencyHistogram latencies, LongAdder messages, LongAdder servedConnections) throws IOException {
+            super("chat-load-generator-" + index);
+            selector = Selector.open();
+            this.from = from;
+            this.to = to;
+            this.connected = connected;
+            this.latencies = latencies;
+            this.messages = messages;
+            this.servedConnections = servedConnections;
+        }
+
+        void stopSending() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            List<SocketChannel> channels = new ArrayList<>();
+
+            try {
+                for (int i = from; i < to; i++) {
+                    var channel = SocketChannel.open();
+                    channels.add(channel);
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    var client = new Client("load-" + i);
+
+                    if (channel.connect(address)) {
+                        channel.register(selector, SelectionKey.OP_READ, client);
+                        onConnected(channel, client);
+                    } else {
+                        channel.register(selector, SelectionKey.OP_CONNECT, client);
+                    }
+                }
+
+                while (running) {
+                    selector.select(100);
+
+                    for (var key : selector.selectedKeys()) {
+                        var channel = (SocketChannel) key.channel();
+                        var client = (Client) key.attachment();
+
+                        if (key.isConnectable()) {
+                            channel.finishConnect();
+                            key.interestOps(SelectionKey.OP_READ);
+                            onConnected(channel, client);
+                        } else if (key.isWritable()) {
+                            channel.write(client.pending);
+
+                            if (!client.pending.hasRemaining()) {
+                                client.pending = null;
+                                key.interestOps(SelectionKey.OP_READ);
+                            }
+                        } else if (key.isReadable()) {
+                            read(channel, key, client);
+                        }
+                    }
+
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                if (running) { // Stopped before being told to, so the main thread is released to check the failure
+                    failed = true;
+
+                    while (connected.getCount() > 0) {
+                        connected.countDown();
+                    }
+                }
+
+                closeQuietly(selector);
+
+                for (var channel : channels) {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        private void onConnected(SocketChannel channel, Client client) throws IOException {
+            writeBuffer.clear().put(client.name);
+            send(channel, null, client);
+            connected.countDown();
+        }
+
+        /**
+         * Parses the echoed timestamps digit by digit as they arrive, so a timestamp split over two reads needs no buffer, and sends the next message for each one.
+         */
+        private void read(SocketChannel channel, SelectionKey key, Client client) throws IOException {
+            readBuffer.clear();
+
+            if (channel.read(readBuffer) < 0) {
+                throw new IOException("The server closed the connection " + client);
+            }
+
+            readBuffer.flip();
+
+            while (readBuffer.hasRemaining()) {
+                byte next = readBuffer.get();
+
+                if (next != '\n') {
+                    client.value = client.value * 10 + (next - '0');
+                    continue;
+                }
+
+                long now = System.nanoTime();
+
+                if (!client.served) {
+                    client.served = true;
+                    servedConnections.increment();
+                }
+
+                if (client.value >= measureFrom) {
+                    latencies.record(now - client.value);
+                    messages.increment();
+                }
+
+                client.value = 0;
+                writeBuffer.clear();
+                send(channel, key, client);
+            }
+        }
+
+        /**
+         * Sends what is in the write buffer, followed by the current time as a line.
+         */
+        private void send(SocketChannel channel, SelectionKey key, Client client) throws IOException {
+            writeBuffer.put(Long.toString(System.nanoTime()).getBytes(StandardCharsets.US_ASCII)).put((byte) '\n').flip();
+            channel.write(writeBuffer);
+
+            if (writeBuffer.hasRemaining()) {
+                client.pending = ByteBuffer.allocate(writeBuffer.remaining()).put(writeBuffer).flip();
+                (key == null ? channel.keyFor(selector) : key).interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private static void closeQuietly(Selector selector) {
+        if (selector == null) {
+            return;
+        }
+
+        try {
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class Client {
+        private final byte[] name;
+        private ByteBuffer pending;
+        private long value;
+        private boolean served;
+
+        Client(String name) {
+            this.name = (name + "\n").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String toString() {
+            return new String(name, StandardCharsets.US_ASCII).strip();
+        }
+    }
+}
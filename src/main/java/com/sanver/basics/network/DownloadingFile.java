@@ -1,30 +1,27 @@
 package com.sanver.basics.network;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLConnection;
-import java.nio.file.Files;
+import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 
+/**
+ * Downloads a file with {@link ParallelDownloader}, which fetches ranges of it over several connections into their places in the file, and continues from where it left off if it is run again after a failure.
+ * The file used to be copied from a single {@code URLConnection} stream with {@code Files.copy}, which is still what the downloader falls back to for servers that don't accept ranges.
+ */
 public class DownloadingFile {
 
 	public static void main(String[] args) {
 		String urlAddress = "https://cdn.pixabay.com/photo/2016/09/03/23/18/rose-1642970_1280.jpg";
 		Path path = Paths.get("src/main/java/com/sanver/basics/network/rose.jpg");
 
-		try {
-			URL url = new URL(urlAddress);
-			URLConnection connection = url.openConnection();
-			Files.copy(new BufferedInputStream(connection.getInputStream()), path, StandardCopyOption.REPLACE_EXISTING);
-			System.out.println("Copy operation is done.");
-		} catch (MalformedURLException e) {
-			e.printStackTrace();
+		try (var downloader = new ParallelDownloader.Builder().setSegments(4).build()) {
+			var download = downloader.download(URI.create(urlAddress), path);
+			System.out.printf("Downloaded %,d bytes in %d segments at %.2f MB/s, CRC32C: %s%n", download.bytes(), download.segments(), download.megabytesPerSecond(), download.crc32c());
 		} catch (IOException e) {
 			e.printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
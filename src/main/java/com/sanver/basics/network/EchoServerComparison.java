@@ -0,0 +1,45 @@
+package com.sanver.basics.network;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the same echo protocol served in three ways with {@link ChatLoadGenerator}, at 1,000, 10,000 and 50,000 concurrent clients, and prints the messages per second, the number of clients
+ * that got any response, and the round trip latency percentiles:
+ * <ul>
+ *     <li>{@link VirtualThreadServer} with a virtual thread per client.</li>
+ *     <li>{@link VirtualThreadServer} with a pool of {@value #PLATFORM_THREADS} platform threads, a common size for servlet containers. Each client keeps its connection, so only the first
+ *     {@value #PLATFORM_THREADS} clients are served and the rest wait in the queue of the pool.</li>
+ *     <li>{@link SelectorChatServer} in {@link SelectorChatServer.Mode#ECHO} mode with an event loop per core.</li>
+ * </ul>
+ * The clients run in the same process as the servers, so each connection takes two file descriptors, and 50,000 clients from one address to one port also need more than the 28,000 ephemeral ports Linux has by default.
+ * Raise {@code ulimit -n} and {@code net.ipv4.ip_local_port_range} first, or the larger runs fail with a message and the comparison moves on.
+ */
+public class EchoServerComparison {
+    static final int PLATFORM_THREADS = 200;
+    private static final Duration DURATION = Duration.ofSeconds(10);
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int clients : new int[]{1_000, 10_000, 50_000}) {
+            System.out.printf("%n%,d clients%n", clients);
+            compare("Virtual threads", clients, threads, () -> new VirtualThreadServer.Builder().setPort(0).build());
+            compare("Platform thread pool", clients, threads, () -> new VirtualThreadServer.Builder().setPort(0)
+                    .setExecutor(Executors.newFixedThreadPool(PLATFORM_THREADS)).setShutdownTimeout(Duration.ofSeconds(1)).build());
+            compare("NIO selector", clients, threads, () -> new SelectorChatServer.Builder().setPort(0).setMode(SelectorChatServer.Mode.ECHO).build());
+        }
+    }
+
+    private static void compare(String name, int clients, int threads, SocketServer.Factory factory) {
+        try (var server = factory.start()) {
+            var report = new ChatLoadGenerator(new InetSocketAddress("localhost", server.port()), clients, threads).run(DURATION);
+            var latencies = report.latencies();
+            System.out.printf("%-20s served: %,7d, %,10.0f messages/s, p50: %,8d us, p99: %,8d us, max: %,8d us%n", name, report.servedConnections(), report.messagesPerSecond(),
+                    latencies.percentile(50) / 1_000, latencies.percentile(99) / 1_000, latencies.max() / 1_000);
+        } catch (Exception e) {
+            System.out.printf("%-20s failed: %s%n", name, e.getMessage());
+        }
+    }
+}
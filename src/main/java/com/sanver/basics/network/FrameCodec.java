@@ -0,0 +1,81 @@
+package com.sanver.basics.network;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length prefixed frames: a 4 byte big endian length followed by the payload.
+ * <p>
+ * Unlike lines, the receiver knows where a message ends from its first 4 bytes, so it neither decodes characters nor scans every byte for \n,
+ * and a payload can contain any bytes. {@link #nextFrame(ByteBuffer)} returns the payload as a slice of the buffer it was read into, so nothing is copied,
+ * and any number of frames can be encoded into the same buffer with {@link #encode(ByteBuffer, ByteBuffer)} and sent with a single write.
+ * </p>
+ */
+public class FrameCodec {
+    public static final int HEADER_LENGTH = Integer.BYTES;
+    public static final int MAX_FRAME_LENGTH = BufferPool.DEFAULT_BUFFER_SIZE - HEADER_LENGTH;
+
+    private FrameCodec() {
+    }
+
+    /**
+     * Returns the payload of the frame at the position of the buffer and moves the position after the frame, or returns null without moving it if the frame is not complete yet.
+     * The payload is a slice that shares the content of the buffer, so it is only valid until the buffer is reused.
+     *
+     * @throws ProtocolException If the length is negative or longer than {@link #MAX_FRAME_LENGTH}, which means the stream is not framed or is corrupt.
+     */
+    public static ByteBuffer nextFrame(ByteBuffer buffer) throws ProtocolException {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            return null;
+        }
+
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new ProtocolException("Invalid frame length: " + length);
+        }
+
+        if (buffer.remaining() < HEADER_LENGTH + length) {
+            return null;
+        }
+
+        buffer.position(start + HEADER_LENGTH + length);
+        return buffer.slice(start + HEADER_LENGTH, length);
+    }
+
+    /**
+     * Appends the payload as a frame to the target, if there is room for the whole frame.
+     *
+     * @return false if the target doesn't have room for the frame, in which case neither buffer is changed.
+     */
+    public static boolean encode(ByteBuffer payload, ByteBuffer target) {
+        int length = payload.remaining();
+
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Payload is longer than %,d bytes: %,d".formatted(MAX_FRAME_LENGTH, length));
+        }
+
+        if (target.remaining() < HEADER_LENGTH + length) {
+            return false;
+        }
+
+        target.putInt(length).put(payload);
+        return true;
+    }
+
+    /**
+     * Returns the text as a frame in a new direct buffer, ready to be written.
+     */
+    public static ByteBuffer encode(String text) {
+        var payload = text.getBytes(StandardCharsets.UTF_8);
+        var frame = ByteBuffer.allocateDirect(HEADER_LENGTH + payload.length);
+        encode(ByteBuffer.wrap(payload), frame);
+        return frame.flip();
+    }
+
+    public static String decodeText(ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload.duplicate()).toString();
+    }
+}
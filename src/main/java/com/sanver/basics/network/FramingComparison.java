@@ -0,0 +1,135 @@
+package com.sanver.basics.network;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the throughput of {@link Protocol#LINES} and {@link Protocol#FRAMES} on {@link VirtualThreadServer} and {@link SelectorChatServer} in {@link SelectorChatServer.Mode#ECHO} mode.
+ * <p>
+ * Each client thread writes a batch of {@value #MESSAGE_LENGTH} byte messages with one write, reads all of them back, and repeats. With a batch of 1 there is a round trip per message,
+ * so the system calls dominate and the protocols are close. With larger batches the frames are sent back with one write per read instead of one per line,
+ * and are not scanned byte by byte, so the difference shows.
+ * </p>
+ */
+public class FramingComparison {
+    static final int MESSAGE_LENGTH = 100;
+    private static final int CLIENTS = 64;
+    private static final Duration DURATION = Duration.ofSeconds(5);
+
+    public static void main(String[] args) {
+        for (int batch : new int[]{1, 32}) {
+            System.out.printf("%nBatches of %d messages%n", batch);
+
+            for (var protocol : Protocol.values()) {
+                compare("Virtual threads", protocol, batch, () -> new VirtualThreadServer.Builder().setPort(0).setProtocol(protocol).build());
+                compare("NIO selector", protocol, batch, () -> new SelectorChatServer.Builder().setPort(0).setMode(SelectorChatServer.Mode.ECHO).setProtocol(protocol).build());
+            }
+        }
+    }
+
+    private static void compare(String name, Protocol protocol, int batch, SocketServer.Factory factory) {
+        try (var server = factory.start()) {
+            double messagesPerSecond = run(server.port(), protocol, batch);
+            System.out.printf("%-16s %-7s %,12.0f messages/s%n", name, protocol, messagesPerSecond);
+        } catch (Exception e) {
+            System.out.printf("%-16s %-7s failed: %s%n", name, protocol, e.getMessage());
+        }
+    }
+
+    private static double run(int port, Protocol protocol, int batch) throws InterruptedException {
+        var messages = new LongAdder();
+        var failures = new LongAdder();
+        var clients = new ArrayList<Thread>();
+        long end = System.nanoTime() + DURATION.toNanos();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            var clientName = "client-" + i;
+            clients.add(Thread.ofPlatform().start(() -> {
+                try (var socket = new Socket("localhost", port)) {
+                    socket.setTcpNoDelay(true);
+                    var output = socket.getOutputStream();
+                    var input = new BufferedInputStream(socket.getInputStream(), BufferPool.DEFAULT_BUFFER_SIZE);
+                    output.write(encode(clientName.getBytes(StandardCharsets.UTF_8), protocol, 1));
+                    var message = new byte[MESSAGE_LENGTH];
+                    Arrays.fill(message, (byte) 'x');
+                    var request = encode(message, protocol, batch);
+
+                    while (System.nanoTime() < end) {
+                        output.write(request);
+                        readMessages(input, protocol, batch);
+                        messages.add(batch);
+                    }
+                } catch (IOException e) {
+                    failures.increment();
+                }
+            }));
+        }
+
+        for (var client : clients) {
+            client.join();
+        }
+
+        if (failures.sum() > 0) {
+            throw new IllegalStateException("%d clients failed".formatted(failures.sum()));
+        }
+
+        return messages.sum() * 1e9 / (System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the message repeated count times as lines or frames, to be sent with a single write.
+     */
+    static byte[] encode(byte[] message, Protocol protocol, int count) {
+        if (protocol == Protocol.LINES) {
+            var buffer = ByteBuffer.allocate((message.length + 1) * count);
+
+            for (int i = 0; i < count; i++) {
+                buffer.put(message).put((byte) '\n');
+            }
+
+            return buffer.array();
+        }
+
+        var buffer = ByteBuffer.allocate((FrameCodec.HEADER_LENGTH + message.length) * count);
+
+        for (int i = 0; i < count; i++) {
+            FrameCodec.encode(ByteBuffer.wrap(message), buffer);
+        }
+
+        return buffer.array();
+    }
+
+    private static void readMessages(InputStream input, Protocol protocol, int count) throws IOException {
+        if (protocol == Protocol.LINES) {
+            for (int lines = 0; lines < count; ) {
+                int next = input.read();
+
+                if (next < 0) {
+                    throw new IOException("The server closed the connection");
+                }
+
+                if (next == '\n') {
+                    lines++;
+                }
+            }
+
+            return;
+        }
+
+        var data = new DataInputStream(input);
+
+        for (int i = 0; i < count; i++) {
+            data.skipNBytes(data.readInt());
+        }
+    }
+}
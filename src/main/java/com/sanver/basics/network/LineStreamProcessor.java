@@ -0,0 +1,400 @@
+package com.sanver.basics.network;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads a feed of lines, like NDJSON or CSV, and parses them into records on a pool of worker threads, which {@link ReadingDataFromUrlWithStreamAPI} does on a single thread.
+ * <ul>
+ *     <li>The bytes are decoded a buffer at a time with a {@link CharsetDecoder} and split into lines as they arrive, so a character that is split between two reads is decoded correctly,
+ *     and the feed is never held in memory as a whole.</li>
+ *     <li>The lines are handed to the workers in batches of {@link Builder#setBatchSize(int)}, so the cost of the hand-off is shared by many lines.</li>
+ *     <li>At most {@link Builder#setMaxBatchesInFlight(int)} batches wait or are parsed at a time. When the workers fall behind, the reading thread waits for a batch to finish
+ *     before it reads more, so the socket buffer fills up and TCP slows the sender down. The memory used is bounded by the batches in flight, whatever the size of the feed.</li>
+ * </ul>
+ * The records are passed to the sink on the worker threads as they are parsed, so the sink has to be thread safe, and the records are not in the order of the lines.
+ *
+ * @param <R> The type of the records.
+ */
+public class LineStreamProcessor<R> implements AutoCloseable {
+    static final int MAX_LINE_LENGTH = 1 << 20;
+    private static final int BUFFER_SIZE = 64 << 10;
+    private final Function<String, R> parser;
+    private final Charset charset;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private final ExecutorService workers;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private LineStreamProcessor(Builder<R> builder) {
+        parser = builder.parser;
+        charset = builder.charset;
+        batchSize = builder.batchSize;
+        maxBatchesInFlight = builder.maxBatchesInFlight;
+        var threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(builder.workers, runnable -> {
+            var thread = new Thread(runnable, "line-parser-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Serves a CSV feed of 10 million lines that is generated as it is sent, so neither side holds it in memory
+        int lines = 10_000_000;
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/feed", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+
+            try (var body = exchange.getResponseBody()) {
+                writeFeed(body, lines);
+            }
+        });
+        server.start();
+        var uri = URI.create("http://localhost:%d/feed".formatted(server.getAddress().getPort()));
+        var total = new LongAdder();
+
+        try (var processor = new Builder<>(LineStreamProcessor::parsePrice).build()) {
+            var report = processor.process(uri, total::add);
+            var runtime = Runtime.getRuntime();
+            System.out.printf("Lines: %,d, records: %,d, malformed: %,d, %,.0f records/s, %.1f MB/s, total: %,d%n", report.lines(), report.records(), report.malformed(),
+                    report.recordsPerSecond(), report.megabytesPerSecond(), total.sum());
+            System.out.printf("Heap used: %,d MB%n", (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void writeFeed(OutputStream body, int lines) throws IOException {
+        var buffer = new StringBuilder(BUFFER_SIZE + 100);
+        buffer.append("id,name,price\n");
+
+        for (int i = 1; i <= lines; i++) {
+            buffer.append(i).append(",product-").append(i).append(',').append(i % 1000).append('\n');
+
+            if (buffer.length() >= BUFFER_SIZE) {
+                body.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+                buffer.setLength(0);
+            }
+        }
+
+        body.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the last column of a CSV line as a long, or null for the header.
+     */
+    private static Long parsePrice(String line) {
+        return line.startsWith("id,") ? null : Long.parseLong(line.substring(line.lastIndexOf(',') + 1));
+    }
+
+    /**
+     * Streams the body of a GET request to the uri through the pipeline. The body is read as fast as the records are parsed, which is what pushes back on the server.
+     */
+    public Report process(URI uri, Consumer<? super R> sink) throws IOException, InterruptedException {
+        var response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        try (var body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("%s returned %d".formatted(uri, response.statusCode()));
+            }
+
+            return process(body, sink);
+        }
+    }
+
+    /**
+     * Reads the input to its end, and returns once every line has been parsed and passed to the sink. The input is not closed.
+     * <p>
+     * A line that the parser throws a {@link RuntimeException} for is counted as malformed and skipped, and a line it returns null for, like a CSV header, is skipped without being counted.
+     * Empty lines are skipped, and a \r before the \n is removed.
+     * </p>
+     *
+     * @throws IOException If the input cannot be read, is not valid in the charset, or has a line longer than {@value #MAX_LINE_LENGTH} characters. An exception thrown by the sink is rethrown.
+     */
+    public Report process(InputStream input, Consumer<? super R> sink) throws IOException, InterruptedException {
+        var run = new Run(sink);
+        long start = System.nanoTime();
+
+        try {
+            read(input, run);
+        } finally {
+            run.inFlight.acquire(maxBatchesInFlight); // Waits for the batches in flight, so that none is parsed after the method returns
+            run.inFlight.release(maxBatchesInFlight);
+        }
+
+        run.checkFailure();
+        return new Report(run.lines, run.records.sum(), run.malformed.sum(), run.bytes, System.nanoTime() - start);
+    }
+
+    private void read(InputStream input, Run run) throws IOException, InterruptedException {
+        var decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+        var bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        var chars = CharBuffer.allocate(BUFFER_SIZE);
+        var line = new StringBuilder();
+        var batch = new ArrayList<String>(batchSize);
+        boolean endOfInput = false;
+
+        while (!endOfInput) {
+            int read = input.read(bytes.array(), bytes.position(), bytes.remaining());
+
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                bytes.position(bytes.position() + read);
+                run.bytes += read;
+            }
+
+            bytes.flip();
+            var result = decoder.decode(bytes, chars, endOfInput);
+
+            if (result.isError()) {
+                result.throwException();
+            }
+
+            bytes.compact();
+
+            if (endOfInput) {
+                decoder.flush(chars);
+            }
+
+            batch = split(chars.flip(), line, batch, run);
+            chars.clear();
+            run.checkFailure();
+        }
+
+        if (!line.isEmpty()) {
+            batch = add(line.toString(), batch, run);
+        }
+
+        if (!batch.isEmpty()) {
+            submit(batch, run);
+        }
+    }
+
+    /**
+     * Appends the decoded characters to the current line, and adds each complete line to the batch.
+     *
+     * @return The batch to add the next lines to, which is a new one if the batch was submitted.
+     */
+    private ArrayList<String> split(CharBuffer chars, StringBuilder line, ArrayList<String> batch, Run run) throws IOException, InterruptedException {
+        int lineStart = 0;
+
+        for (int i = 0; i < chars.limit(); i++) {
+            if (chars.get(i) != '\n') {
+                continue;
+            }
+
+            String complete;
+
+            if (line.isEmpty()) { // The whole line is in this buffer, so it is not copied to the builder first
+                complete = chars.subSequence(lineStart, i).toString();
+            } else {
+                complete = line.append(chars, lineStart, i).toString();
+                line.setLength(0);
+            }
+
+            batch = add(complete, batch, run);
+            lineStart = i + 1;
+        }
+
+        if (line.length() + chars.limit() - lineStart > MAX_LINE_LENGTH) {
+            throw new IOException("A line is longer than %,d characters".formatted(MAX_LINE_LENGTH));
+        }
+
+        line.append(chars, lineStart, chars.limit());
+        return batch;
+    }
+
+    private ArrayList<String> add(String line, ArrayList<String> batch, Run run) throws InterruptedException {
+        run.lines++;
+
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+
+        if (!line.isEmpty()) {
+            batch.add(line);
+        }
+
+        if (batch.size() < batchSize) {
+            return batch;
+        }
+
+        submit(batch, run);
+        return new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Waits for a free slot if {@link Builder#setMaxBatchesInFlight(int)} batches are already in flight, which is where the back pressure comes from.
+     */
+    private void submit(List<String> batch, Run run) throws InterruptedException {
+        run.inFlight.acquire();
+
+        try {
+            workers.execute(() -> {
+                try {
+                    parse(batch, run);
+                } catch (RuntimeException | Error e) {
+                    run.failure.compareAndSet(null, e);
+                } finally {
+                    run.inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            run.inFlight.release();
+            throw e;
+        }
+    }
+
+    private void parse(List<String> batch, Run run) {
+        for (var line : batch) {
+            R record;
+
+            try {
+                record = parser.apply(line);
+            } catch (RuntimeException e) {
+                run.malformed.increment();
+                continue;
+            }
+
+            if (record != null) {
+                run.sink.accept(record);
+                run.records.increment();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+        client.close();
+    }
+
+    /**
+     * @param lines     The number of lines read, including the empty and skipped ones.
+     * @param records   The number of records passed to the sink.
+     * @param malformed The number of lines the parser threw an exception for.
+     * @param bytes     The number of bytes read.
+     */
+    public record Report(long lines, long records, long malformed, long bytes, long nanos) {
+        public double recordsPerSecond() {
+            return nanos == 0 ? 0 : records * 1e9 / nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos / (1 << 20);
+        }
+    }
+
+    /**
+     * The state of a call to {@link #process(InputStream, Consumer)}, so that several feeds can be processed at the same time on the same workers.
+     * The lines and bytes are only counted by the reading thread.
+     */
+    private class Run {
+        private final Consumer<? super R> sink;
+        private final Semaphore inFlight = new Semaphore(maxBatchesInFlight);
+        private final LongAdder records = new LongAdder();
+        private final LongAdder malformed = new LongAdder();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private long lines;
+        private long bytes;
+
+        Run(Consumer<? super R> sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Rethrows the first exception of the sink on the reading thread, so that the feed stops being read.
+         */
+        void checkFailure() {
+            var exception = failure.get();
+
+            if (exception instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            if (exception instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    public static class Builder<R> {
+        private final Function<String, R> parser;
+        private Charset charset = StandardCharsets.UTF_8;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int batchSize = 1024;
+        private int maxBatchesInFlight = 2 * Runtime.getRuntime().availableProcessors();
+
+        /**
+         * @param parser Parses a line into a record. It is called on the worker threads, so it has to be thread safe.
+         */
+        public Builder(Function<String, R> parser) {
+            this.parser = parser;
+        }
+
+        public Builder<R> setCharset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
+        public Builder<R> setWorkers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("Workers should be positive: " + workers);
+            }
+
+            this.workers = workers;
+            return this;
+        }
+
+        public Builder<R> setBatchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Batch size should be positive: " + batchSize);
+            }
+
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param maxBatchesInFlight The number of batches that can wait for or be on a worker at a time. Twice the workers keeps them busy while the next batches are read.
+         */
+        public Builder<R> setMaxBatchesInFlight(int maxBatchesInFlight) {
+            if (maxBatchesInFlight < 1) {
+                throw new IllegalArgumentException("Max batches in flight should be positive: " + maxBatchesInFlight);
+            }
+
+            this.maxBatchesInFlight = maxBatchesInFlight;
+            return this;
+        }
+
+        public LineStreamProcessor<R> build() {
+            return new LineStreamProcessor<>(this);
+        }
+    }
+}
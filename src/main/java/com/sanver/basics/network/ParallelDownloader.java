@@ -0,0 +1,398 @@
+package com.sanver.basics.network;
+
+import com.sanver.basics.hashing.FileHashingService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Downloads a file over several connections at once with HTTP range requests, which is faster than the single stream of {@link DownloadingFile} when a connection is limited by its latency or by the server rather than by the network.
+ * <ul>
+ *     <li>A HEAD request finds the length and whether the server accepts ranges. The file is then split into {@link Builder#setSegments(int)} ranges, and each range is downloaded on its own virtual thread
+ *     straight into its place in a preallocated file with positional {@link FileChannel#write(ByteBuffer, long)}, so the segments don't need to be joined afterwards.</li>
+ *     <li>The file is downloaded to "name.part", and how far each segment got is kept in "name.part.progress". If a download fails, the next download of the same file continues each segment from there,
+ *     Every range request has an If-Range header, so that the server sends the whole file instead of the range if it has changed since the HEAD or since the failed download,
+ *     and the download fails instead of mixing two versions. The validator is a strong ETag, or Last-Modified if the ETag is weak or missing,
+ *     and a file without either is downloaded again from the start.</li>
+ *     <li>The CRC32C of the complete file is computed in parallel with {@link FileHashingService#parallelCrc32c(Path)}, and compared to the expected one if it is given, before the file is moved to its name.
+ *     The segments cannot compute it as they download, since a resumed segment doesn't see the bytes downloaded before.</li>
+ * </ul>
+ * A server that doesn't accept ranges or doesn't send the length is downloaded with a single request, and cannot be resumed.
+ */
+public class ParallelDownloader implements AutoCloseable {
+    static final String PART_SUFFIX = ".part";
+    static final String PROGRESS_SUFFIX = ".progress";
+    private static final String WEAK_ETAG_PREFIX = "W/"; // Not allowed in If-Range, since a weakly equal file can have different bytes
+    private static final int BUFFER_SIZE = 64 << 10;
+    private final HttpClient client;
+    private final int segments;
+    private final Duration requestTimeout;
+    private final FileHashingService hashing = new FileHashingService();
+
+    private ParallelDownloader(Builder builder) {
+        client = builder.client == null ? HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // HTTP/2 would multiplex the segments over one connection, which is what the segments are meant to avoid
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(builder.requestTimeout)
+                .build() : builder.client;
+        segments = builder.segments;
+        requestTimeout = builder.requestTimeout;
+    }
+
+    /**
+     * Downloads the file at the uri to the target, replacing it if it exists.
+     */
+    public Download download(URI uri, Path target) throws IOException, InterruptedException {
+        return download(uri, target, Optional.empty());
+    }
+
+    /**
+     * Downloads the file, and checks its CRC32C before moving it to the target.
+     *
+     * @param expectedCrc32c The CRC32C in hexadecimal, as in {@link FileHashingService.FileHash#value()}.
+     * @throws IOException If the checksum doesn't match. The partial file is deleted, so the next download starts over.
+     */
+    public Download download(URI uri, Path target, String expectedCrc32c) throws IOException, InterruptedException {
+        return download(uri, target, Optional.of(expectedCrc32c));
+    }
+
+    private Download download(URI uri, Path target, Optional<String> expectedCrc32c) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        var part = Path.of(target + PART_SUFFIX);
+        var progressPath = Path.of(part + PROGRESS_SUFFIX);
+        var head = client.send(request(uri).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        var headers = head.headers();
+        long length = head.statusCode() == 200 ? headers.firstValueAsLong("Content-Length").orElse(-1) : -1;
+        boolean ranges = headers.allValues("Accept-Ranges").contains("bytes");
+        var validator = headers.firstValue("ETag").filter(etag -> !etag.startsWith(WEAK_ETAG_PREFIX)).or(() -> headers.firstValue("Last-Modified")).orElse("");
+        long resumed;
+        int segmentCount;
+
+        if (length < 0 || !ranges) {
+            resumed = 0;
+            segmentCount = 1;
+            downloadWhole(uri, part);
+        } else {
+            try (var channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+                 var progress = Progress.open(progressPath, length, segments, validator, channel.size())) {
+                if (!progress.resumed()) {
+                    channel.truncate(0);
+                }
+
+                if (channel.size() < length) {
+                    channel.write(ByteBuffer.allocate(1), length - 1); // Preallocates the file, sparse where the file system allows it
+                }
+
+                resumed = progress.downloadedBytes();
+                segmentCount = progress.segments();
+                downloadSegments(uri, channel, progress);
+            }
+        }
+
+        var crc = hashing.parallelCrc32c(part).value();
+        Files.deleteIfExists(progressPath);
+
+        if (expectedCrc32c.isPresent() && !crc.equalsIgnoreCase(expectedCrc32c.get())) {
+            Files.delete(part);
+            throw new IOException("CRC32C of %s is %s instead of %s".formatted(uri, crc, expectedCrc32c.get()));
+        }
+
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        return new Download(Files.size(target), resumed, segmentCount, System.nanoTime() - start, crc);
+    }
+
+    private HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(requestTimeout);
+    }
+
+    private void downloadWhole(URI uri, Path part) throws IOException, InterruptedException {
+        var response = client.send(request(uri).build(), HttpResponse.BodyHandlers.ofFile(part));
+        check(response, 200);
+    }
+
+    private void downloadSegments(URI uri, FileChannel channel, Progress progress) throws IOException, InterruptedException {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<?>>();
+
+            for (int i = 0; i < progress.segments(); i++) {
+                int segment = i;
+
+                if (progress.position(segment) < progress.end(segment)) {
+                    futures.add(executor.submit(() -> {
+                        downloadSegment(uri, channel, progress, segment);
+                        return null;
+                    }));
+                }
+            }
+
+            for (var future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(other -> other.cancel(true));
+                    throw e.getCause() instanceof IOException ioException ? ioException : new IOException(e.getCause());
+                }
+            }
+        }
+    }
+
+    private void downloadSegment(URI uri, FileChannel channel, Progress progress, int segment) throws IOException, InterruptedException {
+        long position = progress.position(segment);
+        long end = progress.end(segment);
+        var request = request(uri).header("Range", "bytes=%d-%d".formatted(position, end - 1));
+
+        if (!progress.validator().isEmpty()) { // Without it, a file that changed after the HEAD would be stitched together from two versions
+            request.header("If-Range", progress.validator());
+        }
+
+        var response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        try (var body = response.body()) {
+            check(response, 206);
+            var buffer = new byte[BUFFER_SIZE];
+
+            while (position < end) {
+                int read = body.read(buffer, 0, (int) Math.min(buffer.length, end - position));
+
+                if (read < 0) {
+                    throw new IOException("Segment %d of %s ended at %,d instead of %,d".formatted(segment, uri, position, end));
+                }
+
+                var data = ByteBuffer.wrap(buffer, 0, read);
+
+                while (data.hasRemaining()) {
+                    position += channel.write(data, position);
+                }
+
+                progress.update(segment, position);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException If the status is not the expected one. A 200 instead of a 206 means the file has changed since the download started, so the progress is of no use anymore.
+     */
+    private static void check(HttpResponse<?> response, int expectedStatus) throws IOException {
+        if (response.statusCode() == expectedStatus) {
+            return;
+        }
+
+        if (response.body() instanceof InputStream body) {
+            body.close();
+        }
+
+        throw new IOException("%s returned %d instead of %d".formatted(response.uri(), response.statusCode(), expectedStatus));
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    /**
+     * @param resumedBytes The bytes that were already downloaded by an earlier attempt.
+     * @param crc32c       The CRC32C of the whole file in hexadecimal.
+     */
+    public record Download(long bytes, long resumedBytes, int segments, long nanos, String crc32c) {
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : (bytes - resumedBytes) * 1e9 / nanos / (1 << 20);
+        }
+    }
+
+    /**
+     * The progress file: the length, the number of segments, the next position of each segment, and the validator of the file.
+     * The positions have fixed places, so each segment updates its own with a positional write without locking.
+     * A position is written after its data, so a process that dies loses at most the last buffer of each segment, which is downloaded again.
+     */
+    private static class Progress implements AutoCloseable {
+        private static final int POSITIONS_OFFSET = Long.BYTES + Integer.BYTES;
+        private final FileChannel channel;
+        private final long length;
+        private final int segments;
+        private final String validator;
+        private final long[] positions;
+        private final boolean resumed;
+        private final LongAdder downloaded = new LongAdder();
+
+        private Progress(FileChannel channel, long length, int segments, String validator, long[] positions, boolean resumed) {
+            this.channel = channel;
+            this.length = length;
+            this.segments = segments;
+            this.validator = validator;
+            this.positions = positions;
+            this.resumed = resumed;
+        }
+
+        /**
+         * Opens the progress of an earlier download of the same file, or starts a new one if there is none, if the partial file is missing,
+         * or if the file has changed or has no validator to check that it hasn't.
+         */
+        static Progress open(Path path, long length, int segments, String validator, long partSize) throws IOException {
+            var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            try {
+                var earlier = partSize == length ? read(channel, length, validator) : null;
+
+                if (earlier != null) {
+                    return earlier;
+                }
+
+                int count = (int) Math.max(1, Math.min(segments, length));
+                var positions = new long[count];
+                var validatorBytes = validator.getBytes(StandardCharsets.UTF_8);
+                var header = ByteBuffer.allocate(POSITIONS_OFFSET + count * Long.BYTES + Integer.BYTES + validatorBytes.length);
+                header.putLong(length).putInt(count);
+
+                for (int i = 0; i < count; i++) {
+                    positions[i] = length * i / count;
+                    header.putLong(positions[i]);
+                }
+
+                header.putInt(validatorBytes.length).put(validatorBytes).flip();
+                channel.truncate(0);
+
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+
+                return new Progress(channel, length, count, validator, positions, false);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private static Progress read(FileChannel channel, long length, String validator) throws IOException {
+            if (validator.isEmpty() || channel.size() < POSITIONS_OFFSET) {
+                return null;
+            }
+
+            var content = ByteBuffer.allocate((int) channel.size());
+            while (content.hasRemaining() && channel.read(content, content.position()) >= 0) {
+            }
+
+            content.flip();
+            int count = content.getLong() == length ? content.getInt() : -1;
+
+            if (count < 1 || content.remaining() < count * Long.BYTES + Integer.BYTES) {
+                return null;
+            }
+
+            var positions = new long[count];
+
+            for (int i = 0; i < count; i++) {
+                positions[i] = content.getLong();
+
+                if (positions[i] < length * i / count || positions[i] > length * (i + 1) / count) {
+                    return null;
+                }
+            }
+
+            if (content.getInt() != content.remaining()) {
+                return null;
+            }
+
+            var validatorBytes = new byte[content.remaining()];
+            content.get(validatorBytes);
+
+            if (!validator.equals(new String(validatorBytes, StandardCharsets.UTF_8))) {
+                return null;
+            }
+
+            var progress = new Progress(channel, length, count, validator, positions, true);
+
+            for (int i = 0; i < count; i++) {
+                progress.downloaded.add(positions[i] - length * i / count);
+            }
+
+            return progress;
+        }
+
+        int segments() {
+            return segments;
+        }
+
+        boolean resumed() {
+            return resumed;
+        }
+
+        String validator() {
+            return validator;
+        }
+
+        long downloadedBytes() {
+            return downloaded.sum();
+        }
+
+        long position(int segment) {
+            return positions[segment];
+        }
+
+        long end(int segment) {
+            return length * (segment + 1) / segments;
+        }
+
+        void update(int segment, long position) throws IOException {
+            positions[segment] = position;
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, position), POSITIONS_OFFSET + (long) segment * Long.BYTES);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static class Builder {
+        private int segments = 4;
+        private Duration requestTimeout = Duration.ofSeconds(30);
+        private HttpClient client;
+
+        public Builder setSegments(int segments) {
+            if (segments < 1) {
+                throw new IllegalArgumentException("Segments should be positive: " + segments);
+            }
+
+            this.segments = segments;
+            return this;
+        }
+
+        /**
+         * @param requestTimeout The time to connect and to receive the response headers of each request. The body has no timeout, since a large segment can take long.
+         */
+        public Builder setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * @param client The client to send the requests with, which is closed with the downloader. By default an HTTP/1.1 client that follows redirects is created.
+         */
+        public Builder setHttpClient(HttpClient client) {
+            this.client = client;
+            return this;
+        }
+
+        public ParallelDownloader build() {
+            return new ParallelDownloader(this);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sanver.basics.network;
+
+/**
+ * How the messages are delimited on the wire.
+ */
+public enum Protocol {
+    /**
+     * Each message is a line that ends with \n, as in {@link ServerSocketSample}. The receiver has to decode the characters and scan them for the end of the line.
+     */
+    LINES,
+    /**
+     * Each message is a frame of a 4 byte big endian length followed by that many bytes, encoded and decoded by {@link FrameCodec}.
+     */
+    FRAMES
+}
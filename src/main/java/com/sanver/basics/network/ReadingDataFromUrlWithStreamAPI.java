@@ -8,6 +8,9 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Prints the lines of a page on one thread. {@link LineStreamProcessor} parses large feeds on a pool of threads, with back pressure on the connection.
+ */
 public class ReadingDataFromUrlWithStreamAPI {
 
 	public static void main(String[] args) {
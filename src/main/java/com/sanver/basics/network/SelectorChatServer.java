@@ -0,0 +1,614 @@
+package com.sanver.basics.network;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A chat and echo server for any number of clients on a few threads, unlike {@link com.sanver.basics.threads.ServerSocketSampleWithMultipleClients},
+ * which has a thread per client and writes every message to every client with a blocking write, so a single client that doesn't read stops everybody.
+ * <ul>
+ *     <li>An acceptor thread accepts the connections and hands them to {@link Builder#setEventLoops(int) N} event loops in turn. Each event loop has its own {@link Selector}
+ *     and is the only thread that touches its connections, so they need no locks. Other threads pass work to an event loop through a queue and wake up its selector.</li>
+ *     <li>Each event loop reads into one direct {@link ByteBuffer} for all its connections, so the bytes are copied from the socket to native memory once, and only a partial line is copied to the connection.</li>
+ *     <li>A message is written immediately if the socket can take it. Whatever is left goes to the outbound queue of the connection, and {@link SelectionKey#OP_WRITE} is only set while the queue is not empty,
+ *     so the selector doesn't wake up for sockets that are always writable.</li>
+ *     <li>A broadcast is encoded once into a direct buffer, which every recipient writes through its own {@link ByteBuffer#duplicate() duplicate}, and it is passed to each of the other event loops once, not once per connection.</li>
+ *     <li>When the outbound queue of a connection exceeds {@link Builder#setMaxQueuedBytes(int)}, the client is not reading fast enough, and the new messages are dropped or the client is disconnected,
+ *     depending on the {@link SlowConsumerPolicy}, so a slow client only slows itself down.</li>
+ * </ul>
+ * By default the protocol is the one of {@link com.sanver.basics.threads.SocketSample}: lines that end with \n, the first of which is the name of the client.
+ * In {@link Mode#BROADCAST}, each line is sent to the other clients as "name: line", and in {@link Mode#ECHO} it is sent back to the client as it is.
+ * With {@link Protocol#FRAMES}, the messages are frames of {@link FrameCodec} instead of lines. A read that ends in the middle of a frame keeps the rest in a buffer from a {@link BufferPool},
+ * and the next read continues into that buffer, so the frame is not copied again. In {@link Mode#ECHO}, all the complete frames of a read are sent back with one write, straight from the buffer they were read into.
+ */
+public class SelectorChatServer implements SocketServer {
+    static final int READ_BUFFER_SIZE = 64 << 10;
+    static final int MAX_LINE_LENGTH = 8 << 10;
+    static final int MAX_POOLED_PARTIAL_FRAMES = 256;
+    private static final long ACCEPT_RETRY_NANOS = 100_000_000;
+    private final Mode mode;
+    private final Protocol protocol;
+    private final BufferPool partialFrames;
+    private final int maxQueuedBytes;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final ServerSocketChannel serverChannel;
+    private final Selector acceptSelector;
+    private final EventLoop[] eventLoops;
+    private final Thread acceptor;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder messagesDropped = new LongAdder();
+    private final LongAdder slowConsumersDisconnected = new LongAdder();
+    private int nextEventLoop;
+
+    private SelectorChatServer(Builder builder) throws IOException {
+        mode = builder.mode;
+        protocol = builder.protocol;
+        partialFrames = new BufferPool(true, MAX_POOLED_PARTIAL_FRAMES);
+        maxQueuedBytes = builder.maxQueuedBytes;
+        slowConsumerPolicy = builder.slowConsumerPolicy;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(builder.port), builder.backlog);
+        serverChannel.configureBlocking(false);
+        acceptSelector = Selector.open();
+        serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+        eventLoops = new EventLoop[builder.eventLoops];
+
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop(i);
+            eventLoops[i].start();
+        }
+
+        acceptor = new Thread(this::accept, "selector-chat-acceptor");
+        acceptor.start();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Run com.sanver.basics.threads.SocketSample for clients, or ChatLoadGenerator for many clients in ECHO mode.
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        var mode = args.length > 1 ? Mode.valueOf(args[1]) : Mode.BROADCAST;
+
+        try (var server = new Builder().setPort(port).setMode(mode).build()) {
+            System.out.printf("Server started at port %d in %s mode with %d event loops%n", server.port(), mode, server.eventLoops.length);
+
+            while (true) {
+                Thread.sleep(10_000);
+                System.out.printf("Connections: %,d, messages received: %,d, dropped: %,d, slow consumers disconnected: %,d%n",
+                        server.connectionCount(), server.messagesReceived(), server.messagesDropped(), server.slowConsumersDisconnected());
+            }
+        }
+    }
+
+    @Override
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int connectionCount() {
+        int count = 0;
+
+        for (var eventLoop : eventLoops) {
+            count += eventLoop.connectionCount;
+        }
+
+        return count;
+    }
+
+    public long messagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    public long messagesDropped() {
+        return messagesDropped.sum();
+    }
+
+    public long slowConsumersDisconnected() {
+        return slowConsumersDisconnected.sum();
+    }
+
+    private void accept() {
+        while (running.get()) {
+            try {
+                acceptSelector.select();
+                acceptSelector.selectedKeys().clear();
+                SocketChannel channel;
+
+                while ((channel = serverChannel.accept()) != null) {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    var eventLoop = eventLoops[nextEventLoop];
+                    nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+                    var accepted = channel;
+                    eventLoop.execute(() -> eventLoop.register(accepted));
+                }
+            } catch (ClosedSelectorException | ClosedChannelException e) {
+                return; // The server is closed
+            } catch (IOException e) {
+                // Most likely the limit of open files is reached, so the connections wait in the backlog until some are closed
+                System.out.println("Cannot accept connections: " + e.getMessage());
+                LockSupport.parkNanos(ACCEPT_RETRY_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections, closes all the connections and waits for the threads to stop.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+
+        for (var eventLoop : eventLoops) {
+            eventLoop.selector.wakeup();
+        }
+
+        acceptSelector.close();
+        serverChannel.close();
+
+        try {
+            acceptor.join();
+
+            for (var eventLoop : eventLoops) {
+                eventLoop.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public enum Mode {
+        ECHO,
+        BROADCAST
+    }
+
+    public enum SlowConsumerPolicy {
+        /**
+         * Drops the messages that don't fit in the outbound queue, and keeps the connection.
+         */
+        DROP_MESSAGES,
+        /**
+         * Closes the connection, so the client has to reconnect.
+         */
+        DISCONNECT
+    }
+
+    private class EventLoop extends Thread {
+        private final Selector selector;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean wakeupPending = new AtomicBoolean();
+        private final Set<Connection> connections = new HashSet<>();
+        private volatile int connectionCount;
+
+        EventLoop(int index) throws IOException {
+            super("selector-chat-event-loop-" + index);
+            selector = Selector.open();
+        }
+
+        /**
+         * Runs the task on this event loop, which is the only thread that may touch its connections.
+         */
+        void execute(Runnable task) {
+            tasks.add(task);
+
+            if (wakeupPending.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running.get()) {
+                    selector.select();
+                    wakeupPending.set(false);
+                    Runnable task;
+
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+
+                    for (var key : selector.selectedKeys()) {
+                        var connection = (Connection) key.attachment();
+
+                        try {
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+
+                            if (key.isValid() && key.isWritable()) {
+                                connection.flush();
+                            }
+                        } catch (IOException | CancelledKeyException e) {
+                            connection.close();
+                        }
+                    }
+
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                for (var connection : new ArrayList<>(connections)) {
+                    connection.close();
+                }
+
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        void register(SocketChannel channel) {
+            try {
+                var connection = new Connection(this, channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections.add(connection);
+                connectionCount = connections.size();
+            } catch (IOException e) {
+                closeQuietly(channel);
+            }
+        }
+
+        void remove(Connection connection) {
+            connections.remove(connection);
+            connectionCount = connections.size();
+        }
+
+        /**
+         * Sends the message to all the connections of this event loop except the sender. The message is shared, so each connection writes its own duplicate.
+         */
+        void deliver(ByteBuffer message, Connection sender) {
+            for (var connection : new ArrayList<>(connections)) {
+                if (connection != sender) {
+                    connection.send(message.duplicate());
+                }
+            }
+        }
+    }
+
+    private class Connection {
+        private final EventLoop eventLoop;
+        private final SocketChannel channel;
+        private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+        private SelectionKey key;
+        private ByteBuffer partialLine;
+        private ByteBuffer partialFrame;
+        private String name;
+        private int queuedBytes;
+
+        Connection(EventLoop eventLoop, SocketChannel channel) {
+            this.eventLoop = eventLoop;
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            if (protocol == Protocol.FRAMES) {
+                readFrames();
+            } else {
+                readLines();
+            }
+        }
+
+        private void readLines() throws IOException {
+            var buffer = eventLoop.readBuffer;
+
+            if (partialLine != null) {
+                buffer.clear().put(partialLine.flip());
+                partialLine = null;
+            } else {
+                buffer.clear();
+            }
+
+            int read = channel.read(buffer);
+
+            if (read < 0) {
+                close();
+                return;
+            }
+
+            buffer.flip();
+            int lineStart = buffer.position();
+
+            for (int i = lineStart; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    onLine(buffer.slice(lineStart, i + 1 - lineStart));
+
+                    if (!channel.isOpen()) {
+                        return;
+                    }
+
+                    lineStart = i + 1;
+                }
+            }
+
+            int remaining = buffer.limit() - lineStart;
+
+            if (remaining > MAX_LINE_LENGTH) {
+                close();
+            } else if (remaining > 0) {
+                partialLine = ByteBuffer.allocate(remaining).put(buffer.slice(lineStart, remaining));
+            }
+        }
+
+        /**
+         * Reads into the pooled buffer of a partial frame if there is one, or into the read buffer of the event loop, which is copied to a pooled buffer only if it ends in the middle of a frame.
+         */
+        private void readFrames() throws IOException {
+            var buffer = partialFrame != null ? partialFrame : eventLoop.readBuffer.clear();
+            int read = channel.read(buffer);
+
+            if (read < 0) {
+                close();
+                return;
+            }
+
+            buffer.flip();
+            int echoStart = buffer.position();
+            ByteBuffer payload;
+
+            while ((payload = FrameCodec.nextFrame(buffer)) != null) {
+                if (name == null) {
+                    name = FrameCodec.decodeText(payload).strip();
+                    echoStart = buffer.position();
+
+                    if (mode == Mode.BROADCAST) {
+                        broadcast(message(name + " joined the conversation"));
+                    }
+
+                    continue;
+                }
+
+                messagesReceived.increment();
+
+                if (mode == Mode.BROADCAST) {
+                    var prefix = (name + ": ").getBytes(StandardCharsets.UTF_8);
+                    var frame = ByteBuffer.allocateDirect(FrameCodec.HEADER_LENGTH + prefix.length + payload.remaining());
+                    broadcast(frame.putInt(prefix.length + payload.remaining()).put(prefix).put(payload).flip());
+
+                    if (!channel.isOpen()) {
+                        return;
+                    }
+                }
+            }
+
+            if (mode == Mode.ECHO && buffer.position() > echoStart) {
+                send(buffer.slice(echoStart, buffer.position() - echoStart));
+            }
+
+            if (!buffer.hasRemaining()) {
+                releasePartialFrame();
+            } else if (buffer == partialFrame) {
+                buffer.compact();
+            } else {
+                partialFrame = partialFrames.acquire().put(buffer);
+            }
+        }
+
+        private void releasePartialFrame() {
+            if (partialFrame != null) {
+                partialFrames.release(partialFrame);
+                partialFrame = null;
+            }
+        }
+
+        /**
+         * @param line The line with its \n, in the read buffer of the event loop, so it has to be written or copied before the next read.
+         */
+        private void onLine(ByteBuffer line) {
+            if (name == null) {
+                name = StandardCharsets.UTF_8.decode(line.slice(0, line.remaining() - 1)).toString().strip();
+
+                if (mode == Mode.BROADCAST) {
+                    broadcast(message(name + " joined the conversation"));
+                }
+
+                return;
+            }
+
+            messagesReceived.increment();
+
+            if (mode == Mode.ECHO) {
+                send(line);
+            } else {
+                var prefix = (name + ": ").getBytes(StandardCharsets.UTF_8);
+                broadcast(ByteBuffer.allocateDirect(prefix.length + line.remaining()).put(prefix).put(line).flip());
+            }
+        }
+
+        private void broadcast(ByteBuffer message) {
+            var readOnly = message.asReadOnlyBuffer();
+
+            for (var other : eventLoops) {
+                if (other == eventLoop) {
+                    eventLoop.deliver(readOnly, this);
+                } else {
+                    other.execute(() -> other.deliver(readOnly, this));
+                }
+            }
+        }
+
+        /**
+         * Writes the message if nothing is queued before it, and queues what the socket doesn't take.
+         * A message that is in a buffer that will be reused, like the read buffer, is copied when it is queued.
+         */
+        void send(ByteBuffer message) {
+            if (!channel.isOpen()) {
+                return;
+            }
+
+            try {
+                if (outbound.isEmpty()) {
+                    channel.write(message);
+
+                    if (!message.hasRemaining()) {
+                        return;
+                    }
+                }
+
+                if (queuedBytes + message.remaining() > maxQueuedBytes) {
+                    if (slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT) {
+                        slowConsumersDisconnected.increment();
+                        close();
+                    } else {
+                        messagesDropped.increment();
+                    }
+
+                    return;
+                }
+
+                var queued = message.isDirect() && !message.isReadOnly() ? ByteBuffer.allocate(message.remaining()).put(message).flip() : message;
+                outbound.add(queued);
+                queuedBytes += queued.remaining();
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } catch (IOException | CancelledKeyException e) {
+                close();
+            }
+        }
+
+        /**
+         * Writes the queued messages until the socket doesn't take more, and stops waiting for the socket to be writable once the queue is empty.
+         */
+        void flush() throws IOException {
+            ByteBuffer message;
+
+            while ((message = outbound.peek()) != null) {
+                int written = channel.write(message);
+                queuedBytes -= written;
+
+                if (message.hasRemaining()) {
+                    return;
+                }
+
+                outbound.poll();
+            }
+
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        void close() {
+            if (!channel.isOpen()) {
+                return;
+            }
+
+            closeQuietly(channel);
+            eventLoop.remove(this);
+            outbound.clear();
+            releasePartialFrame();
+
+            if (mode == Mode.BROADCAST && name != null && running.get()) {
+                broadcast(message(name + " left the conversation"));
+            }
+        }
+    }
+
+    /**
+     * Returns the text as a line or a frame, depending on the protocol.
+     */
+    private ByteBuffer message(String text) {
+        if (protocol == Protocol.FRAMES) {
+            return FrameCodec.encode(text);
+        }
+
+        var bytes = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing to do, the connection is gone anyway
+        }
+    }
+
+    public static class Builder {
+        private int port = 3000;
+        private int backlog = 4096;
+        private int eventLoops = Runtime.getRuntime().availableProcessors();
+        private Mode mode = Mode.BROADCAST;
+        private Protocol protocol = Protocol.LINES;
+        private int maxQueuedBytes = 1 << 20;
+        private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DISCONNECT;
+
+        /**
+         * @param port The port to listen to, or 0 for any free port, which is returned by {@link #port()}.
+         */
+        public Builder setPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param backlog The number of connections that may wait to be accepted, which has to be large when thousands of clients connect at once.
+         */
+        public Builder setBacklog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        public Builder setEventLoops(int eventLoops) {
+            if (eventLoops < 1) {
+                throw new IllegalArgumentException("There should be at least one event loop: " + eventLoops);
+            }
+
+            this.eventLoops = eventLoops;
+            return this;
+        }
+
+        public Builder setMode(Mode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        public Builder setProtocol(Protocol protocol) {
+            this.protocol = protocol;
+            return this;
+        }
+
+        /**
+         * @param maxQueuedBytes The number of bytes that may wait in the outbound queue of a connection before the {@link SlowConsumerPolicy} applies.
+         */
+        public Builder setMaxQueuedBytes(int maxQueuedBytes) {
+            if (maxQueuedBytes < 1) {
+                throw new IllegalArgumentException("Max queued bytes should be positive: " + maxQueuedBytes);
+            }
+
+            this.maxQueuedBytes = maxQueuedBytes;
+            return this;
+        }
+
+        public Builder setSlowConsumerPolicy(SlowConsumerPolicy slowConsumerPolicy) {
+            this.slowConsumerPolicy = slowConsumerPolicy;
+            return this;
+        }
+
+        public SelectorChatServer build() throws IOException {
+            return new SelectorChatServer(this);
+        }
+    }
+}
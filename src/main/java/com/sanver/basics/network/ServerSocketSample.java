@@ -5,6 +5,9 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 
+/**
+ * Serves one client at a time. See {@link VirtualThreadServer} for the same blocking code serving many clients at once.
+ */
 public class ServerSocketSample {
 
     public static void main(String[] args) {
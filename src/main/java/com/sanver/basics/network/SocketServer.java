@@ -0,0 +1,21 @@
+package com.sanver.basics.network;
+
+import java.io.IOException;
+
+/**
+ * A server that listens on a port until it is closed, so that {@link EchoServerComparison} and {@link FramingComparison} can start, load and close each one the same way.
+ */
+public interface SocketServer extends AutoCloseable {
+    /**
+     * @return The port the server listens on, which is the one picked by the system if it was started on port 0.
+     */
+    int port();
+
+    @Override
+    void close() throws IOException;
+
+    @FunctionalInterface
+    interface Factory {
+        SocketServer start() throws IOException;
+    }
+}
@@ -0,0 +1,311 @@
+package com.sanver.basics.network;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Serves every client on its own thread with the blocking readLine code of {@link ServerSocketSample}, which serves one client at a time.
+ * <ul>
+ *     <li>By default the threads are virtual, so a thread that waits for the next line of its client only takes a few hundred bytes of heap, and tens of thousands of clients don't need tens of thousands of OS threads.
+ *     A platform thread pool can be set with {@link Builder#setExecutor(ExecutorService)} for comparison, where the clients beyond the size of the pool wait until a thread is free.</li>
+ *     <li>At most {@link Builder#setMaxConnections(int)} clients are served at a time. Any more are told that the server is busy and disconnected, instead of waiting without an answer.</li>
+ *     <li>A client that doesn't send a line for {@link Builder#setIdleTimeout(Duration)} is disconnected, so clients that are gone without closing don't keep their slots forever.</li>
+ *     <li>{@link #close()} stops accepting new clients, closes each connection after the response to the line it is processing, and closes the rest after {@link Builder#setShutdownTimeout(Duration)}.</li>
+ * </ul>
+ * The first line of a client is its name, and every other line is sent back as it is, which is the {@link SelectorChatServer.Mode#ECHO} protocol, so {@link ChatLoadGenerator} can load both.
+ * With {@link Protocol#FRAMES}, the messages are frames of {@link FrameCodec} instead. Each connection reads into a buffer borrowed from a {@link BufferPool}, and sends back all the complete frames
+ * of a read with a single write, so a client that sends many frames at once gets them back with one system call rather than one per frame.
+ */
+public class VirtualThreadServer implements SocketServer {
+    static final String BUSY = "Server is busy";
+    static final int MAX_POOLED_BUFFERS = 1024;
+    private static final long ACCEPT_RETRY_NANOS = 100_000_000;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Semaphore connectionPermits;
+    private final int idleTimeoutMillis;
+    private final Duration shutdownTimeout;
+    private final Protocol protocol;
+    private final BufferPool buffers = new BufferPool(false, MAX_POOLED_BUFFERS);
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder rejectedConnections = new LongAdder();
+    private final LongAdder idleTimeouts = new LongAdder();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    private VirtualThreadServer(Builder builder) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(builder.port), builder.backlog);
+        executor = builder.executor == null ? Executors.newVirtualThreadPerTaskExecutor() : builder.executor;
+        connectionPermits = new Semaphore(builder.maxConnections);
+        idleTimeoutMillis = (int) builder.idleTimeout.toMillis();
+        shutdownTimeout = builder.shutdownTimeout;
+        protocol = builder.protocol;
+        acceptor = Thread.ofPlatform().name("virtual-thread-server-acceptor").start(this::accept);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // Run com.sanver.basics.network.SocketSample or ChatLoadGenerator <host> <port> for clients.
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+
+        try (var server = new Builder().setPort(port).build()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close)); // Ctrl+C closes the server gracefully
+            System.out.printf("Server started at port %d%n", server.port());
+
+            while (true) {
+                Thread.sleep(10_000);
+                System.out.printf("Connections: %,d, messages received: %,d, rejected: %,d, idle timeouts: %,d%n",
+                        server.connectionCount(), server.messagesReceived(), server.rejectedConnections(), server.idleTimeouts());
+            }
+        }
+    }
+
+    @Override
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    public long messagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    public long rejectedConnections() {
+        return rejectedConnections.sum();
+    }
+
+    public long idleTimeouts() {
+        return idleTimeouts.sum();
+    }
+
+    private void accept() {
+        while (running.get()) {
+            try {
+                var client = serverSocket.accept();
+
+                if (!connectionPermits.tryAcquire()) {
+                    rejectedConnections.increment();
+                    reject(client);
+                    continue;
+                }
+
+                connections.add(client);
+                executor.execute(() -> serve(client));
+            } catch (SocketException e) {
+                return; // The server socket is closed
+            } catch (IOException e) {
+                // Most likely the limit of open files is reached, so the connections wait in the backlog until some are closed
+                System.out.println("Cannot accept connections: " + e.getMessage());
+                LockSupport.parkNanos(ACCEPT_RETRY_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Tells the client that the server is busy on the acceptor thread, which doesn't block, since the message fits in the send buffer of the new socket.
+     */
+    private void reject(Socket client) {
+        try (client) {
+            var busy = BUSY.getBytes(StandardCharsets.UTF_8);
+            var message = protocol == Protocol.FRAMES ? ByteBuffer.allocate(FrameCodec.HEADER_LENGTH + busy.length).putInt(busy.length).put(busy).array() : (BUSY + "\n").getBytes(StandardCharsets.UTF_8);
+            client.getOutputStream().write(message);
+        } catch (IOException e) {
+            // The client is gone anyway
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client) {
+            client.setSoTimeout(idleTimeoutMillis);
+            client.setTcpNoDelay(true);
+
+            if (protocol == Protocol.FRAMES) {
+                serveFrames(client);
+            } else {
+                serveLines(client);
+            }
+        } catch (SocketTimeoutException e) {
+            idleTimeouts.increment();
+        } catch (IOException e) {
+            // The client disconnected, or the connection is closed by close()
+        } finally {
+            connections.remove(client);
+            connectionPermits.release();
+        }
+    }
+
+    private void serveLines(Socket client) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             var writer = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            if (reader.readLine() == null) { // The name of the client
+                return;
+            }
+
+            String line;
+
+            while (running.get() && (line = reader.readLine()) != null) {
+                messagesReceived.increment();
+                writer.write(line);
+                writer.write('\n');
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * Reads as many bytes as are available into the pooled buffer, and writes the complete frames back from the same array with one write. The rest of a frame is moved to the start of the buffer for the next read.
+     */
+    private void serveFrames(Socket client) throws IOException {
+        var input = client.getInputStream();
+        var output = client.getOutputStream();
+        var buffer = buffers.acquire();
+        boolean named = false;
+
+        try {
+            while (running.get()) {
+                int read = input.read(buffer.array(), buffer.position(), buffer.remaining());
+
+                if (read < 0) {
+                    return;
+                }
+
+                buffer.position(buffer.position() + read).flip();
+                int echoStart = buffer.position();
+
+                while (FrameCodec.nextFrame(buffer) != null) {
+                    if (!named) { // The name of the client
+                        named = true;
+                        echoStart = buffer.position();
+                    } else {
+                        messagesReceived.increment();
+                    }
+                }
+
+                if (buffer.position() > echoStart) {
+                    output.write(buffer.array(), echoStart, buffer.position() - echoStart);
+                }
+
+                buffer.compact();
+            }
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    /**
+     * Stops accepting clients, and waits up to the shutdown timeout for the connections to end.
+     * A connection ends after the response to its next line, or when its client disconnects or idles out. The connections left after the timeout are closed.
+     */
+    @Override
+    public void close() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+
+        try {
+            serverSocket.close();
+            acceptor.join();
+            executor.shutdown();
+
+            if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                for (var connection : connections) {
+                    connection.close(); // Wakes up the threads blocked in readLine with a SocketException
+                }
+
+                executor.shutdownNow();
+                executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Builder {
+        private int port = 3000;
+        private int backlog = 4096;
+        private int maxConnections = 100_000;
+        private Duration idleTimeout = Duration.ofMinutes(5);
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+        private ExecutorService executor;
+        private Protocol protocol = Protocol.LINES;
+
+        /**
+         * @param port The port to listen to, or 0 for any free port, which is returned by {@link #port()}.
+         */
+        public Builder setPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder setBacklog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        public Builder setMaxConnections(int maxConnections) {
+            if (maxConnections < 1) {
+                throw new IllegalArgumentException("Max connections should be positive: " + maxConnections);
+            }
+
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder setIdleTimeout(Duration idleTimeout) {
+            if (idleTimeout.isNegative() || idleTimeout.isZero() || idleTimeout.toMillis() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Idle timeout should be between 1 ms and %,d ms: %s".formatted(Integer.MAX_VALUE, idleTimeout));
+            }
+
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        public Builder setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+            return this;
+        }
+
+        /**
+         * @param executor The executor that runs a task per connection, {@link Executors#newVirtualThreadPerTaskExecutor()} by default. It is shut down when the server is closed.
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder setProtocol(Protocol protocol) {
+            this.protocol = protocol;
+            return this;
+        }
+
+        public VirtualThreadServer build() throws IOException {
+            return new VirtualThreadServer(this);
+        }
+    }
+}
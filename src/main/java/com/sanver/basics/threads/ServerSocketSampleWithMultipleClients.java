@@ -10,6 +10,9 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.util.Vector;
 
+/**
+ * A thread per client, with blocking writes to every client. See {@link com.sanver.basics.network.SelectorChatServer} for a server whose clients don't wait for each other.
+ */
 public class ServerSocketSampleWithMultipleClients {
 	private ServerSocket server;
 	private Vector<OutputStream> clients = new Vector<>();
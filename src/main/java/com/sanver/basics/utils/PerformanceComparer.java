@@ -7,6 +7,11 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 
+/**
+ * Quick, single run timings for the samples.
+ * {@link #compare()} starts all tasks at the same time, so they compete for the same cores, and every task is measured once without warmup.
+ * Use the JMH benchmarks under src/jmh/java (run with {@code mvn -P jmh compile exec:exec}) for numbers that tuning decisions are based on.
+ */
 public class PerformanceComparer {
     private final Map<Runnable, String> taskMap;
 
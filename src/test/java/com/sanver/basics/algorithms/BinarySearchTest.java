@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -240,4 +243,75 @@ class BinarySearchTest {
             assertEquals(expected, actual);
         }
     }
+
+    @Nested
+    class LowerBound {
+        @Test
+        void shouldReturnTheIndexOfTheFirstInstance_whenMultipleInstancesExist() {
+            // Given
+            int[] array = {2, 3, 4, 4, 4, 6};
+            int key = 4;
+            int expected = 2;
+
+            // When
+            int actual = binarySearch.lowerBound(array, key);
+
+            // Then
+            assertEquals(expected, actual);
+        }
+
+        @Test
+        void shouldReturnTheIndexOfTheNextLargerElement_whenNotExists() {
+            // Given
+            int[] array = {2, 3, 4, 4, 4, 6};
+            int key = 5;
+            int expected = 5;
+
+            // When
+            int actual = binarySearch.lowerBound(array, key);
+
+            // Then
+            assertEquals(expected, actual);
+        }
+
+        @Test
+        void shouldReturnToIndex_whenGreaterThanAllTheElementsInTheSubArray() {
+            // Given
+            int[] array = {0, 3, 3, 4, 4, 5};
+            int key = 5;
+            int expected = 3;
+
+            // When
+            int actual = binarySearch.lowerBound(array, 1, 3, key);
+
+            // Then
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Nested
+    class SearchAll {
+        @Test
+        void shouldReturnTheSameAsSearchFirst_whenSearchingManyKeys() {
+            // Given
+            var random = new Random(42);
+            int[] array = random.ints(1_000, -500, 500).sorted().toArray();
+            int[] keys = random.ints(1_003, -600, 600).toArray();
+
+            // When
+            int[] actual = binarySearch.searchAll(array, keys);
+
+            // Then
+            for (int i = 0; i < keys.length; i++) {
+                int expected = binarySearch.searchFirst(array, keys[i]);
+                assertEquals(expected, actual[i]);
+                assertEquals(expected < 0 ? ~expected : expected, binarySearch.lowerBound(array, keys[i]));
+            }
+        }
+
+        @Test
+        void shouldReturnMinusOne_whenEmpty() {
+            assertArrayEquals(new int[]{-1, -1}, binarySearch.searchAll(new int[0], new int[]{1, 2}));
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsrDijkstraTest {
+
+    static int[][] randomMatrix(int nodeCount, int edgesPerNode, long seed) {
+        var random = new Random(seed);
+        int[][] matrix = new int[nodeCount][nodeCount];
+
+        for (int i = 0; i < nodeCount; i++) {
+            for (int k = 0; k < edgesPerNode; k++) {
+                matrix[i][random.nextInt(nodeCount)] = random.nextInt(1, 20);
+            }
+            matrix[i][i] = 0;
+        }
+
+        return matrix;
+    }
+
+    static int pathDistance(int[][] matrix, List<Integer> path) {
+        int distance = 0;
+
+        for (int i = 1; i < path.size(); i++) {
+            assertThat(matrix[path.get(i - 1)][path.get(i)]).isPositive();
+            distance += matrix[path.get(i - 1)][path.get(i)];
+        }
+
+        return distance;
+    }
+
+    @Nested
+    class FindShortestPath {
+        @Test
+        void givenSampleGraph_findShortestPath_shouldReturnTheSamePathAsTheMatrixVersion() {
+            // Given
+            int[][] matrix = {
+                    {0, 2, 0, 7},
+                    {2, 0, 3, 0},
+                    {0, 3, 0, 1},
+                    {7, 0, 1, 0}
+            };
+
+            // When
+            var result = CsrDijkstra.findShortestPath(CsrGraph.fromMatrix(matrix), 0, 3);
+
+            // Then
+            assertThat(result).isEqualTo(DijkstrasAlgorithm.findShortestPath(matrix, 0, 3));
+            assertThat(result.distance()).isEqualTo(6);
+            assertThat(result.path()).containsExactly(0, 1, 2, 3);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {1, 2, 3, 4, 5})
+        void givenRandomDirectedGraph_findShortestPath_shouldReturnTheDistanceOfTheMatrixVersion(int seed) {
+            // Given
+            var matrix = randomMatrix(300, 3, seed);
+            var graph = CsrGraph.fromMatrix(matrix);
+
+            for (int end = 0; end < matrix.length; end++) {
+                // When
+                var expected = DijkstrasAlgorithm.findShortestPath(matrix, 0, end);
+                var result = CsrDijkstra.findShortestPath(graph, 0, end);
+
+                // Then
+                if (expected == null) {
+                    assertThat(result).isNull();
+                } else {
+                    assertThat(result.distance()).isEqualTo(expected.distance());
+                    assertThat(result.path()).startsWith(0).endsWith(end);
+                    assertThat(pathDistance(matrix, result.path())).isEqualTo(result.distance());
+                }
+            }
+        }
+
+        @Test
+        void givenUnreachableOrInvalidNodes_findShortestPath_shouldReturnNull() {
+            // Given
+            var graph = new CsrGraph.Builder().setNodeCount(3).addEdge(0, 1, 1).build();
+
+            // When & Then
+            assertThat(CsrDijkstra.findShortestPath(graph, 0, 2)).isNull();
+            assertThat(CsrDijkstra.findShortestPath(graph, 0, 3)).isNull();
+            assertThat(CsrDijkstra.findShortestPath(graph, -1, 1)).isNull();
+        }
+    }
+
+    @Nested
+    class FindDistances {
+        @Test
+        void givenRandomGraph_findDistances_shouldMatchTheShortestPathOfEachNode() {
+            // Given
+            var matrix = randomMatrix(200, 2, 42);
+            var graph = CsrGraph.fromMatrix(matrix);
+
+            // When
+            var distances = CsrDijkstra.findDistances(graph, 5);
+
+            // Then
+            for (int node = 0; node < matrix.length; node++) {
+                var path = CsrDijkstra.findShortestPath(graph, 5, node);
+                assertThat(distances[node]).isEqualTo(path == null ? Integer.MAX_VALUE : path.distance());
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsrGraphTest {
+
+    @Nested
+    class Build {
+        @Test
+        void givenEdgesInAnyOrder_build_shouldGroupThemBySourceInInsertionOrder() {
+            // Given
+            var builder = new CsrGraph.Builder().setNodeCount(5);
+            builder.addEdge(2, 0, 7).addEdge(0, 1, 3).addEdge(2, 1, 4).addEdge(0, 3, 1);
+
+            // When
+            var graph = builder.build();
+
+            // Then
+            assertThat(graph.nodeCount()).isEqualTo(5);
+            assertThat(graph.edgeCount()).isEqualTo(4);
+            assertThat(graph.outDegree(0)).isEqualTo(2);
+            assertThat(graph.outDegree(1)).isZero();
+            assertThat(graph.outDegree(4)).isZero();
+            assertThat(graph.target(graph.firstEdge(0))).isEqualTo(1);
+            assertThat(graph.weight(graph.firstEdge(0) + 1)).isEqualTo(1);
+            assertThat(graph.target(graph.firstEdge(2))).isEqualTo(0);
+            assertThat(graph.weight(graph.endEdge(2) - 1)).isEqualTo(4);
+        }
+
+        @Test
+        void givenNegativeWeight_addEdge_shouldThrowIllegalArgumentException() {
+            assertThatThrownBy(() -> new CsrGraph.Builder().addEdge(0, 1, -1)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class ReadEdgeList {
+        @Test
+        void givenUndirectedEdgeList_readEdgeList_shouldAddEdgesInBothDirections(@TempDir Path directory) throws IOException {
+            // Given
+            var file = directory.resolve("edges.txt");
+            Files.writeString(file, """
+                    # source target weight
+                    0 1 2
+                    1  2 3
+
+                    2 3 1
+                    """);
+
+            // When
+            var graph = CsrGraph.readEdgeList(file, true);
+
+            // Then
+            assertThat(graph.nodeCount()).isEqualTo(4);
+            assertThat(graph.edgeCount()).isEqualTo(6);
+            assertThat(graph.outDegree(1)).isEqualTo(2);
+            assertThat(CsrDijkstra.findShortestPath(graph, 3, 0).distance()).isEqualTo(6);
+        }
+
+        @Test
+        void givenMalformedLine_readEdgeList_shouldThrowIllegalArgumentException(@TempDir Path directory) throws IOException {
+            // Given
+            var file = directory.resolve("edges.txt");
+            Files.writeString(file, "0 1\n");
+
+            // When & Then
+            assertThatThrownBy(() -> CsrGraph.readEdgeList(file, false)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EytzingerLayoutTest {
+    private final BinarySearch binarySearch = new BinarySearch();
+
+    @Nested
+    class Search {
+        @ParameterizedTest
+        @ValueSource(ints = {0, 1, 2, 3, 7, 8, 100, 1_000, 4_095, 4_096})
+        void shouldReturnTheSameAsSearchFirst_whenArrayHasDuplicates(int length) {
+            // Given
+            var random = new Random(length);
+            int[] array = random.ints(length, -50, 50).sorted().toArray();
+            var layout = new EytzingerLayout(array);
+            int[] keys = random.ints(1_000, -60, 60).toArray();
+            keys[0] = Integer.MIN_VALUE;
+            keys[1] = Integer.MAX_VALUE;
+
+            // When
+            int[] actual = layout.searchAll(keys);
+
+            // Then
+            for (int i = 0; i < keys.length; i++) {
+                int expected = binarySearch.searchFirst(array, keys[i]);
+                assertEquals(expected, layout.search(keys[i]));
+                assertEquals(expected, actual[i]);
+                assertEquals(binarySearch.lowerBound(array, keys[i]), layout.lowerBound(keys[i]));
+            }
+        }
+
+        @Test
+        void shouldFindMaxValue_whenArrayEndsWithMaxValue() {
+            // Given
+            int[] array = {1, Integer.MAX_VALUE, Integer.MAX_VALUE};
+            var layout = new EytzingerLayout(array);
+
+            // When
+            int actual = layout.search(Integer.MAX_VALUE);
+
+            // Then
+            assertEquals(1, actual);
+            assertArrayEquals(new int[]{1, -1, ~1}, layout.searchAll(new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE, 2}));
+        }
+
+        @Test
+        void shouldThrowIllegalArgumentException_whenArrayIsNotSorted() {
+            assertThrows(IllegalArgumentException.class, () -> new EytzingerLayout(new int[]{1, 3, 2}));
+        }
+
+        @Test
+        void shouldCopyTheArray_whenArrayChangesAfterConstruction() {
+            // Given
+            int[] array = {1, 2, 3};
+            var layout = new EytzingerLayout(array);
+
+            // When
+            Arrays.fill(array, 0);
+
+            // Then
+            assertEquals(2, layout.search(3));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GridPathFinderTest {
+
+    static Stream<Arguments> getSeedsAndExpectedDistances() {
+        return Stream.of(
+                Arguments.of(new int[]{5, 1, 2, 2, 3, 8, 1, 7, 2}, 12),
+                Arguments.of(new int[]{8, 1, 3, 5, 4, 3, 2, 6, 5, 2, 7, 3, 1, 8, 6, 2}, 17),
+                Arguments.of(new int[]{2, 1, 4, 2, 7, 6, 2, 3, 5, 3, 6, 5, 7, 3, 4, 1, 8, 5, 5, 4, 6, 7, 2, 3, 2, 3, 1, 2, 4, 8, 5, 5, 3, 4, 5, 6, 2, 3, 5, 3, 9, 5, 3, 7, 8, 1, 1, 7, 2, 2, 1, 8, 3, 6, 2, 1, 1, 3, 6, 4, 2, 1, 3, 6}, 35)
+        );
+    }
+
+    private static int[][] toMatrix(int[] seed, int n) {
+        int[][] matrix = new int[n][n];
+
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(seed, i * n, matrix[i], 0, n);
+        }
+
+        return matrix;
+    }
+
+    /**
+     * @return The distance of the path, following the moves from (0, 0) and adding the value of each cell moved to.
+     */
+    private static int pathDistance(int[][] matrix, String path, int xEnd, int yEnd) {
+        int x = 0, y = 0, distance = 0;
+
+        for (var move : path.isEmpty() ? new String[0] : path.split(", ")) {
+            switch (move) {
+                case "d" -> x++;
+                case "r" -> y++;
+                case "u" -> x--;
+                case "l" -> y--;
+                default -> throw new IllegalArgumentException(move);
+            }
+            distance += matrix[x][y];
+        }
+
+        assertThat(x).isEqualTo(xEnd);
+        assertThat(y).isEqualTo(yEnd);
+        return distance;
+    }
+
+    @Nested
+    class FindMinPath {
+        @ParameterizedTest
+        @MethodSource("com.sanver.basics.algorithms.GridPathFinderTest#getSeedsAndExpectedDistances")
+        void givenSampleGrid_findMinPath_shouldReturnTheMinimumDistanceOfDijkstrasAlgorithmExample2(int[] seed, int expectedDistance) {
+            // Given
+            int n = (int) Math.sqrt(seed.length);
+            var matrix = toMatrix(seed, n);
+            var finder = GridPathFinder.fromMatrix(matrix);
+
+            // When
+            var aStar = finder.findMinPath(n - 1, n - 1);
+            var bidirectional = finder.findMinPathBidirectional(n - 1, n - 1);
+
+            // Then
+            var expected = DijkstrasAlgorithmExample2.findMinPath(matrix, n - 1, n - 1);
+            assertThat(expected.distance()).isEqualTo(expectedDistance);
+            assertThat(aStar.distance()).isEqualTo(expectedDistance);
+            assertThat(bidirectional.distance()).isEqualTo(expectedDistance);
+            assertThat(pathDistance(matrix, aStar.path(), n - 1, n - 1)).isEqualTo(expectedDistance);
+            assertThat(pathDistance(matrix, bidirectional.path(), n - 1, n - 1)).isEqualTo(expectedDistance);
+        }
+
+        @Test
+        void givenFirstSampleGrid_findMinPath_shouldReturnThePathInTheFormatOfBuildPath() {
+            // Given
+            var matrix = toMatrix(new int[]{5, 1, 2, 2, 3, 8, 1, 7, 2}, 3);
+            var finder = GridPathFinder.fromMatrix(matrix);
+
+            // When
+            var aStar = finder.findMinPath(2, 2);
+            var bidirectional = finder.findMinPathBidirectional(2, 2);
+
+            // Then
+            assertThat(aStar.path()).isEqualTo("d, d, r, r");
+            assertThat(bidirectional.path()).isEqualTo("d, d, r, r");
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {1, 2, 3, 4, 5})
+        void givenRandomGridAndEnd_findMinPath_shouldReturnTheMinimumDistanceOfDijkstrasAlgorithmExample2(int seed) {
+            // Given
+            var random = new Random(seed);
+            int n = 60;
+            var matrix = toMatrix(random.ints(n * n, seed, 20).toArray(), n);
+            var finder = GridPathFinder.fromMatrix(matrix);
+
+            for (int i = 0; i < 20; i++) {
+                int xEnd = random.nextInt(n), yEnd = random.nextInt(n);
+
+                // When
+                var aStar = finder.findMinPath(xEnd, yEnd);
+                var bidirectional = finder.findMinPathBidirectional(xEnd, yEnd);
+
+                // Then
+                var expectedDistance = DijkstrasAlgorithmExample2.findMinPath(matrix, xEnd, yEnd).distance();
+                assertThat(aStar.distance()).isEqualTo(expectedDistance);
+                assertThat(bidirectional.distance()).isEqualTo(expectedDistance);
+                assertThat(pathDistance(matrix, aStar.path(), xEnd, yEnd)).isEqualTo(expectedDistance);
+                assertThat(pathDistance(matrix, bidirectional.path(), xEnd, yEnd)).isEqualTo(expectedDistance);
+            }
+        }
+
+        @Test
+        void givenEndOutsideTheGrid_findMinPath_shouldThrowIllegalArgumentException() {
+            var finder = new GridPathFinder(2, 3, new int[6]);
+
+            assertThatThrownBy(() -> finder.findMinPath(2, 0)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(finder.findMinPathBidirectional(0, 0).path()).isEmpty();
+        }
+    }
+}
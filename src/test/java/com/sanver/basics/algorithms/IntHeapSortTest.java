@@ -0,0 +1,69 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntHeapSortTest {
+
+    @Nested
+    class Sort {
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("com.sanver.basics.algorithms.MergeSortTest#getArrays")
+        void givenArray_sort_shouldSortLikeArraysSort(String name, int[] array) {
+            // Given
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            IntHeapSort.sort(array);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {2, 3, 4, 8, 16})
+        void givenArity_sort_shouldSortTheRangeOnly(int arity) {
+            // Given
+            var array = new Random(arity).ints(10_000, -100, 100).toArray();
+            var expected = array.clone();
+            Arrays.sort(expected, 100, 9_900);
+
+            // When
+            IntHeapSort.sort(array, 100, 9_900, arity);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+
+        @Test
+        void givenLongArray_sort_shouldSortLikeArraysSort() {
+            // Given
+            var array = new Random(42).longs(10_000).toArray();
+            array[0] = Long.MIN_VALUE;
+            array[1] = Long.MAX_VALUE;
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            LongHeapSort.sort(array, 3);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+
+        @Test
+        void givenArityLessThanTwo_sort_shouldThrowIllegalArgumentException() {
+            assertThatThrownBy(() -> IntHeapSort.sort(new int[]{2, 1}, 1)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
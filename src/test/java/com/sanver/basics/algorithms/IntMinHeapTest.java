@@ -0,0 +1,108 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IntMinHeapTest {
+
+    @Nested
+    class Poll {
+        @Test
+        void givenEmptyHeap_pollAndPeek_shouldThrowNoSuchElementException() {
+            // Given
+            var minHeap = new IntMinHeap();
+
+            // When & Then
+            assertThatThrownBy(minHeap::poll).isInstanceOf(NoSuchElementException.class);
+            assertThatThrownBy(minHeap::peek).isInstanceOf(NoSuchElementException.class);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {2, 3, 4, 8})
+        void givenRandomAddsAndPolls_heap_shouldBehaveLikePriorityQueue(int arity) {
+            // Given
+            var random = new Random(arity);
+            var expected = new PriorityQueue<Integer>();
+            var minHeap = new IntMinHeap(0, arity);
+
+            // When & Then
+            for (int i = 0; i < 100_000; i++) {
+                if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                    assertThat(minHeap.peek()).isEqualTo(expected.peek());
+                    assertThat(minHeap.poll()).isEqualTo(expected.poll());
+                } else {
+                    var value = random.nextInt(1_000);
+                    minHeap.add(value);
+                    expected.add(value);
+                }
+                assertThat(minHeap.size()).isEqualTo(expected.size());
+            }
+        }
+    }
+
+    @Nested
+    class Heapify {
+        @Test
+        void givenArray_heapify_shouldPollTheValuesInAscendingOrder() {
+            // Given
+            var values = new Random(42).ints(10_000).toArray();
+
+            // When
+            var minHeap = IntMinHeap.heapify(values);
+
+            // Then
+            var polled = new int[values.length];
+            for (int i = 0; i < polled.length; i++) {
+                polled[i] = minHeap.poll();
+            }
+            assertThat(polled).isSorted().containsExactlyInAnyOrder(values);
+            assertThat(minHeap.isEmpty()).isTrue();
+        }
+
+        @Test
+        void givenSmallAndLargeBatches_addAll_shouldKeepTheHeapOrder() {
+            // Given
+            var random = new Random(42);
+            var minHeap = new IntMinHeap();
+            minHeap.addAll(random.ints(1_000).toArray());
+
+            // When
+            minHeap.addAll(random.ints(10).toArray());
+            minHeap.addAll(random.ints(5_000).toArray());
+
+            // Then
+            assertThat(minHeap.size()).isEqualTo(6_010);
+            var previous = Integer.MIN_VALUE;
+            while (!minHeap.isEmpty()) {
+                var value = minHeap.poll();
+                assertThat(value).isGreaterThanOrEqualTo(previous);
+                previous = value;
+            }
+        }
+
+        @Test
+        void givenLongValues_heapify_shouldPollTheValuesInAscendingOrder() {
+            // Given
+            var values = new Random(42).longs(10_000).toArray();
+
+            // When
+            var minHeap = LongMinHeap.heapify(values, 2);
+
+            // Then
+            var polled = new long[values.length];
+            for (int i = 0; i < polled.length; i++) {
+                polled[i] = minHeap.poll();
+            }
+            assertThat(polled).isSorted().containsExactlyInAnyOrder(values);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MergeSortTest {
+
+    static Stream<Arguments> getArrays() {
+        var random = new Random(42);
+        var size = 200_000;
+        return Stream.of(
+                Arguments.of("empty", new int[0]),
+                Arguments.of("single", new int[]{5}),
+                Arguments.of("small", new int[]{7, 2, 1, 6, 8, 5, 3, 4}),
+                Arguments.of("random", random.ints(size).toArray()),
+                Arguments.of("sorted", IntStream.range(0, size).toArray()),
+                Arguments.of("reversed", IntStream.range(0, size).map(i -> size - i).toArray()),
+                Arguments.of("fewDistinct", random.ints(size, 0, 4).toArray()),
+                Arguments.of("sawtooth", IntStream.range(0, size).map(i -> i % 1_000).toArray()),
+                Arguments.of("insertionSortThresholdPlusOne", random.ints(MergeSort.INSERTION_SORT_THRESHOLD + 1).toArray()),
+                Arguments.of("sequentialThresholdPlusOne", random.ints(MergeSort.SEQUENTIAL_THRESHOLD + 1).toArray()));
+    }
+
+    @Nested
+    class ParallelMergeSort {
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("com.sanver.basics.algorithms.MergeSortTest#getArrays")
+        void givenIntArray_parallelMergeSort_shouldSortLikeArraysSort(String name, int[] array) {
+            // Given
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            MergeSort.parallelMergeSort(array);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("com.sanver.basics.algorithms.MergeSortTest#getArrays")
+        void givenLongArray_parallelMergeSort_shouldSortLikeArraysSort(String name, int[] ints) {
+            // Given
+            var array = Arrays.stream(ints).mapToLong(i -> (long) i * Integer.MAX_VALUE).toArray();
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            MergeSort.parallelMergeSort(array);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+
+        @Test
+        void givenDoubleArrayWithNaNAndSignedZeros_parallelMergeSort_shouldSortLikeArraysSort() {
+            // Given
+            var random = new Random(7);
+            var array = random.doubles(100_000, -1, 1).toArray();
+            for (int i = 0; i < array.length; i += 100) {
+                array[i] = switch (i % 3) {
+                    case 0 -> Double.NaN;
+                    case 1 -> -0.0;
+                    default -> 0.0;
+                };
+            }
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            MergeSort.parallelMergeSort(array);
+
+            // Then
+            assertThat(Arrays.equals(array, expected)).isTrue();
+        }
+    }
+
+    @Nested
+    class Sort {
+        @Test
+        void givenArray_mergeSort_shouldSortIt() {
+            // Given
+            var array = new Random(1).ints(10_000).toArray();
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            MergeSort.mergeSort(array);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+    }
+}
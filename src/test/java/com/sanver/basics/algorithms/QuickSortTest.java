@@ -0,0 +1,96 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuickSortTest {
+
+    @Nested
+    class IntroSort {
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("com.sanver.basics.algorithms.MergeSortTest#getArrays")
+        void givenArray_introSort_shouldSortLikeArraysSort(String name, int[] array) {
+            // Given
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            QuickSort.introSort(array);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("com.sanver.basics.algorithms.MergeSortTest#getArrays")
+        void givenArray_parallelIntroSort_shouldSortLikeArraysSort(String name, int[] array) {
+            // Given
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            QuickSort.parallelIntroSort(array);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+
+        @Test
+        void givenLargeSortedAndEqualArrays_introSort_shouldNotOverflowTheStack() {
+            // Given
+            var sorted = IntStream.range(0, 2_000_000).toArray();
+            var equal = new int[2_000_000];
+
+            // When
+            QuickSort.introSort(sorted);
+            QuickSort.introSort(equal);
+
+            // Then
+            assertThat(sorted).isSorted();
+            assertThat(equal).containsOnly(0);
+        }
+
+        @Test
+        void givenZeroDepthLimit_introSort_shouldSortWithHeapSort() {
+            // Given
+            var array = new Random(42).ints(10_000, -100, 100).toArray();
+            var expected = array.clone();
+            Arrays.sort(expected);
+
+            // When
+            QuickSort.introSort(array, 0, array.length, 0);
+
+            // Then
+            assertThat(array).containsExactly(expected);
+        }
+    }
+
+    @Nested
+    class Partition3Way {
+        @Test
+        void givenDuplicates_partition3Way_shouldGroupTheElementsEqualToThePivot() {
+            // Given
+            int[] array = {5, 1, 5, 9, 3, 5, 7, 5};
+
+            // When
+            var bounds = QuickSort.partition3Way(array, 0, array.length, 5);
+            var lessEnd = (int) (bounds >>> 32);
+            var greaterStart = (int) bounds;
+
+            // Then
+            assertThat(lessEnd).isEqualTo(2);
+            assertThat(greaterStart).isEqualTo(6);
+            assertThat(Arrays.copyOfRange(array, 0, lessEnd)).containsExactlyInAnyOrder(1, 3);
+            assertThat(Arrays.copyOfRange(array, lessEnd, greaterStart)).containsOnly(5);
+            assertThat(Arrays.copyOfRange(array, greaterStart, array.length)).containsExactlyInAnyOrder(9, 7);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.sanver.basics.algorithms;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShortestPathEngineTest {
+    private static final int NODE_COUNT = 2_000;
+
+    private static CsrGraph randomGraph(long seed) {
+        var random = new Random(seed);
+        var builder = new CsrGraph.Builder().setNodeCount(NODE_COUNT);
+
+        for (int i = 0; i < NODE_COUNT * 3; i++) {
+            builder.addEdge(random.nextInt(NODE_COUNT), random.nextInt(NODE_COUNT), random.nextInt(1, 50));
+        }
+
+        return builder.build();
+    }
+
+    private static int expectedDistance(CsrGraph graph, int begin, int end) {
+        var path = CsrDijkstra.findShortestPath(graph, begin, end);
+        return path == null ? Integer.MAX_VALUE : path.distance();
+    }
+
+    @Nested
+    class SingleQuery {
+        @Test
+        void givenManyQueriesOnTheSameThread_findShortestPath_shouldReturnTheSameAsCsrDijkstra() {
+            // Given
+            var graph = randomGraph(42);
+            var engine = new ShortestPathEngine(graph);
+            var random = new Random(7);
+
+            for (int i = 0; i < 500; i++) {
+                var begin = random.nextInt(NODE_COUNT);
+                var end = random.nextInt(NODE_COUNT);
+
+                // When
+                var result = engine.findShortestPath(begin, end);
+
+                // Then
+                var expected = CsrDijkstra.findShortestPath(graph, begin, end);
+                if (expected == null) {
+                    assertThat(result).isNull();
+                } else {
+                    assertThat(result.distance()).isEqualTo(expected.distance());
+                    assertThat(result.path()).startsWith(begin).endsWith(end);
+                }
+                assertThat(engine.findDistance(begin, end)).isEqualTo(expectedDistance(graph, begin, end));
+            }
+        }
+
+        @Test
+        void givenGenerationWrappingAround_findDistance_shouldNotUseTheStampsOfOldQueries() {
+            // Given
+            var graph = new CsrGraph.Builder().setNodeCount(3).addEdge(0, 1, 5).addEdge(1, 2, 5).build();
+            var engine = new ShortestPathEngine(graph);
+            engine.findDistance(0, 2);
+            engine.scratch().generation = -1;
+
+            // When
+            var unreachable = engine.findDistance(2, 0);
+            var reachable = engine.findDistance(0, 2);
+
+            // Then
+            assertThat(unreachable).isEqualTo(Integer.MAX_VALUE);
+            assertThat(reachable).isEqualTo(10);
+            assertThat(engine.scratch().generation).isEqualTo(2);
+        }
+
+        @Test
+        void givenNodeOutOfRange_findDistance_shouldThrowIllegalArgumentException() {
+            var engine = new ShortestPathEngine(randomGraph(42));
+
+            assertThatThrownBy(() -> engine.findDistance(0, NODE_COUNT)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> engine.findShortestPath(-1, 0)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> engine.findShortestPath(0, NODE_COUNT)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class OneToMany {
+        @Test
+        void givenTargets_findDistances_shouldReturnTheDistanceOfEachTarget() {
+            // Given
+            var graph = randomGraph(42);
+            var engine = new ShortestPathEngine(graph);
+            var targets = new Random(7).ints(100, 0, NODE_COUNT).toArray();
+            targets[1] = targets[0];
+            targets[2] = 3;
+
+            // When
+            var distances = engine.findDistances(3, targets);
+
+            // Then
+            assertThat(distances).containsExactly(IntStream.of(targets).map(target -> expectedDistance(graph, 3, target)).toArray());
+        }
+    }
+
+    @Nested
+    class Parallel {
+        @Test
+        void givenBatchOfQueries_findDistancesInParallel_shouldReturnTheSameAsSequentialQueries() {
+            // Given
+            var graph = randomGraph(42);
+            var random = new Random(7);
+            var sources = random.ints(1_000, 0, NODE_COUNT).toArray();
+            var targets = random.ints(1_000, 0, NODE_COUNT).toArray();
+
+            try (var pool = new ForkJoinPool(4)) {
+                var engine = new ShortestPathEngine(graph, pool);
+
+                // When
+                var distances = engine.findDistancesInParallel(sources, targets);
+
+                // Then
+                assertThat(distances).containsExactly(IntStream.range(0, sources.length).map(i -> expectedDistance(graph, sources[i], targets[i])).toArray());
+            }
+        }
+    }
+}
@@ -6,7 +6,9 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -319,7 +321,7 @@ class CustomHashMapTest {
         }
 
         @Test
-        void keyset_isImmutable() {
+        void keySet_doesNotSupportAdd_andRemoveRemovesFromTheMap() {
             // Given
             var entries = IntStream.range(0, 100).mapToObj(x -> new Object[]{new Object(), new Object()}).collect(Collectors.toList());
             var hashMap = new CustomHashMap<>();
@@ -327,11 +329,65 @@ class CustomHashMapTest {
 
             // When
             var result = hashMap.keySet();
+            var removed = result.remove(entries.get(0)[0]);
 
             // Then
             assertThat(result).isNotNull();
             assertThatThrownBy(() -> result.add(new Object())).isInstanceOf(UnsupportedOperationException.class);
-            assertThatThrownBy(() -> result.remove(entries.get(0)[0])).isInstanceOf(UnsupportedOperationException.class);
+            assertThat(removed).isTrue();
+            assertThat(hashMap.get(entries.get(0)[0])).isNull();
+            assertThat(hashMap.size()).isEqualTo(99);
+        }
+
+        @Test
+        void keySet_shouldReflectLaterChangesOfTheMap() {
+            // Given
+            var hashMap = new CustomHashMap<Integer, Integer>();
+            var keySet = hashMap.keySet();
+
+            // When
+            IntStream.range(0, 20).forEach(i -> hashMap.put(i, i));
+            hashMap.remove(5);
+
+            // Then
+            assertThat(keySet).hasSize(19);
+            assertThat(keySet).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 20).filter(i -> i != 5).boxed().collect(Collectors.toList()));
+        }
+
+        @Test
+        void keySetIterator_remove_shouldRemoveFromTheMap() {
+            // Given
+            var hashMap = new CustomHashMap<Object, Integer>();
+            IntStream.range(0, 100).forEach(i -> hashMap.put(i, i));
+            IntStream.range(0, 20).forEach(i -> hashMap.put(new CollidingKey(i), i)); // Puts a tree bucket into the table as well
+
+            // When
+            var iterator = hashMap.keySet().iterator();
+            while (iterator.hasNext()) {
+                var key = iterator.next();
+                if (hashMap.get(key) % 2 == 0) {
+                    iterator.remove();
+                }
+            }
+
+            // Then
+            assertThat(hashMap.size()).isEqualTo(60);
+            assertThat(hashMap.values()).allMatch(value -> value % 2 == 1);
+        }
+
+        @Test
+        void keySetIterator_givenMapModifiedDuringIteration_shouldThrowConcurrentModificationException() {
+            // Given
+            var hashMap = new CustomHashMap<Integer, Integer>();
+            IntStream.range(0, 10).forEach(i -> hashMap.put(i, i));
+            var iterator = hashMap.keySet().iterator();
+            iterator.next();
+
+            // When
+            hashMap.put(10, 10);
+
+            // Then
+            assertThatThrownBy(iterator::next).isInstanceOf(ConcurrentModificationException.class);
         }
     }
 
@@ -367,7 +423,7 @@ class CustomHashMapTest {
         }
 
         @Test
-        void entrySet_isImmutable() {
+        void entrySet_doesNotSupportAdd_andRemoveRemovesFromTheMap() {
             // Given
             var entries = IntStream.range(0, 100).mapToObj(x -> new Object[]{new Object(), new Object()}).collect(Collectors.toList());
             var hashMap = new CustomHashMap<>();
@@ -375,13 +431,165 @@ class CustomHashMapTest {
 
             // When
             var result = hashMap.entrySet();
+            var entryToRemove = result.iterator().next();
+            var removed = result.remove(entryToRemove);
 
             // Then
             assertThat(result).isNotNull();
             var exception = catchThrowable(() ->
                     result.add(new CustomHashMap.Node<>(new Object(), new Object(), 0, null)));
             assertThat(exception).isInstanceOf(UnsupportedOperationException.class);
-            assertThatThrownBy(() -> result.remove(result.toArray()[0])).isInstanceOf(UnsupportedOperationException.class);
+            assertThat(removed).isTrue();
+            assertThat(hashMap.get(entryToRemove.getKey())).isNull();
+            assertThat(result).hasSize(99);
+        }
+
+        @Test
+        void entrySet_setValue_shouldChangeTheValueInTheMap() {
+            // Given
+            var hashMap = new CustomHashMap<Integer, String>();
+            hashMap.put(1, "one");
+
+            // When
+            var oldValue = hashMap.entrySet().iterator().next().setValue("uno");
+
+            // Then
+            assertThat(oldValue).isEqualTo("one");
+            assertThat(hashMap.get(1)).isEqualTo("uno");
+        }
+
+        @Test
+        void entrySet_parallelStream_shouldVisitEveryEntryOnce() {
+            // Given
+            var hashMap = new CustomHashMap<Integer, Integer>(true);
+            IntStream.range(0, 100_000).forEach(i -> hashMap.put(i, i));
+
+            // When
+            var keys = hashMap.entrySet().parallelStream().map(Map.Entry::getKey).collect(Collectors.toList());
+
+            // Then
+            assertThat(keys).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 100_000).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    @Nested
+    class IncrementalResize {
+        @ParameterizedTest
+        @MethodSource("com.sanver.basics.collections.CustomHashMapTest#getSizeAndExpectedCapacity")
+        void givenIncrementalResize_capacity_shouldReturnAsExpected(int size, int expectedCapacity) {
+            // Given
+            var hashMap = new CustomHashMap<>(true);
+            IntStream.range(0, size).forEach(i -> hashMap.put(new Object(), new Object()));
+
+            // When
+            var capacity = hashMap.capacity();
+
+            // Then
+            assertThat(capacity).isEqualTo(expectedCapacity);
+        }
+
+        @Test
+        void givenResizeInProgress_get_shouldFindEntriesInBothTables() {
+            // Given
+            var hashMap = new CustomHashMap<Integer, Integer>(true);
+            IntStream.range(0, 13).forEach(i -> hashMap.put(i, i * 10));
+
+            // When
+            var isResizing = hashMap.isResizing();
+            var results = IntStream.range(0, 13).mapToObj(hashMap::get).collect(Collectors.toList());
+
+            // Then
+            assertThat(isResizing).isTrue();
+            assertThat(results).containsExactlyElementsOf(IntStream.range(0, 13).mapToObj(i -> i * 10).collect(Collectors.toList()));
+            assertThat(hashMap.isResizing()).isFalse();
+        }
+
+        @Test
+        void givenResizeInProgress_putAndRemove_shouldUpdateEntriesInTheOldTable() {
+            // Given
+            var hashMap = new CustomHashMap<Integer, Integer>(true);
+            IntStream.range(0, 13).forEach(i -> hashMap.put(i, i));
+
+            // When
+            var oldValue = hashMap.put(12, 120);
+            var removedValue = hashMap.remove(11);
+
+            // Then
+            assertThat(oldValue).isEqualTo(12);
+            assertThat(removedValue).isEqualTo(11);
+            assertThat(hashMap.size()).isEqualTo(12);
+            assertThat(hashMap.get(12)).isEqualTo(120);
+            assertThat(hashMap.get(11)).isNull();
+            assertThat(hashMap.keySet()).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 13).filter(i -> i != 11).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    @Nested
+    class Treeify {
+        @Test
+        void givenManyKeysWithSameHash_put_shouldTreeifyTheBucketAndKeepAllEntries() {
+            // Given
+            var hashMap = new CustomHashMap<CollidingKey, Integer>();
+
+            // When
+            IntStream.range(0, 100).forEach(i -> hashMap.put(new CollidingKey(i), i));
+
+            // Then
+            var bucket = hashMap.table[CustomHashMap.hash(new CollidingKey(0)) & (hashMap.capacity() - 1)];
+            assertThat(bucket).isInstanceOf(CustomHashMap.TreeNode.class);
+            assertThat(hashMap.size()).isEqualTo(100);
+            IntStream.range(0, 100).forEach(i -> assertThat(hashMap.get(new CollidingKey(i))).isEqualTo(i));
+            assertThat(hashMap.get(new CollidingKey(100))).isNull();
+        }
+
+        @Test
+        void givenNonComparableKeysWithSameHash_getAndRemove_shouldFindTheKeys() {
+            // Given
+            var hashMap = new CustomHashMap<Object, Integer>();
+            var keys = IntStream.range(0, 50).mapToObj(NonComparableCollidingKey::new).collect(Collectors.toList());
+            IntStream.range(0, 50).forEach(i -> hashMap.put(keys.get(i), i));
+
+            // When
+            var removed = IntStream.range(0, 50).filter(i -> i % 2 == 0).mapToObj(i -> hashMap.remove(keys.get(i))).collect(Collectors.toList());
+
+            // Then
+            assertThat(removed).containsExactlyElementsOf(IntStream.range(0, 50).filter(i -> i % 2 == 0).boxed().collect(Collectors.toList()));
+            IntStream.range(0, 50).forEach(i -> assertThat(hashMap.get(keys.get(i))).isEqualTo(i % 2 == 0 ? null : i));
+            assertThat(hashMap.size()).isEqualTo(25);
+        }
+
+        @Test
+        void givenTreeBucket_remove_shouldUntreeifyWhenTheBucketShrinks() {
+            // Given
+            var hashMap = new CustomHashMap<CollidingKey, Integer>();
+            IntStream.range(0, 20).forEach(i -> hashMap.put(new CollidingKey(i), i));
+            var index = CustomHashMap.hash(new CollidingKey(0)) & (hashMap.capacity() - 1);
+
+            // When
+            IntStream.range(0, 14).forEach(i -> hashMap.remove(new CollidingKey(i)));
+
+            // Then
+            assertThat(hashMap.table[index]).isNotInstanceOf(CustomHashMap.TreeNode.class);
+            assertThat(hashMap.keySet()).containsExactlyInAnyOrderElementsOf(IntStream.range(14, 20).mapToObj(CollidingKey::new).collect(Collectors.toList()));
+        }
+    }
+
+    record CollidingKey(int id) implements Comparable<CollidingKey> {
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+
+        @Override
+        public int compareTo(CollidingKey other) {
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    record NonComparableCollidingKey(int id) {
+        @Override
+        public int hashCode() {
+            return 7;
         }
     }
 }
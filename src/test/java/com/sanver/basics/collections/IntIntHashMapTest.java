@@ -0,0 +1,172 @@
+package com.sanver.basics.collections;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.sanver.basics.collections.IntObjectHashMapTest.keysWithSameHomeSlot;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntIntHashMapTest {
+
+    @Nested
+    class Size {
+        @Test
+        void givenEmptyHashMap_size_shouldReturnZero() {
+            // Given
+            var hashMap = new IntIntHashMap();
+
+            // When
+            var size = hashMap.size();
+
+            // Then
+            assertThat(size).isEqualTo(0);
+        }
+
+        @Test
+        void given100ElementHashMap_size_shouldReturn100() {
+            // Given
+            var hashMap = new IntIntHashMap();
+            IntStream.range(0, 100).forEach(i -> hashMap.put(i, i));
+
+            // When
+            var size = hashMap.size();
+
+            // Then
+            assertThat(size).isEqualTo(100);
+        }
+    }
+
+    @Nested
+    class Capacity {
+        @Test
+        void givenEmptyHashMap_capacity_shouldReturnZero() {
+            // Given
+            var hashMap = new IntIntHashMap();
+
+            // When
+            var capacity = hashMap.capacity();
+
+            // Then
+            assertThat(capacity).isEqualTo(0);
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.sanver.basics.collections.CustomHashMapTest#getSizeAndExpectedCapacity")
+        void givenNonEmptyHashMap_capacity_shouldReturnAsExpected(int size, int expectedCapacity) {
+            // Given
+            var hashMap = new IntIntHashMap();
+            IntStream.range(0, size).forEach(i -> hashMap.put(i, i));
+
+            // When
+            var capacity = hashMap.capacity();
+
+            // Then
+            assertThat(capacity).isEqualTo(expectedCapacity);
+        }
+    }
+
+    @Nested
+    class Put {
+        @Test
+        void givenNonExistingKey_put_shouldPutEntryAndReturnNoEntryValue() {
+            // Given
+            var hashMap = new IntIntHashMap(-1);
+
+            // When
+            var result = hashMap.put(42, 7);
+
+            // Then
+            assertThat(result).isEqualTo(-1);
+            assertThat(hashMap.get(42)).isEqualTo(7);
+        }
+
+        @Test
+        void givenExistingKey_put_shouldPutEntryAndReturnOldValue() {
+            // Given
+            var hashMap = new IntIntHashMap(-1);
+            hashMap.put(0, 3);
+            hashMap.put(42, 5);
+
+            // When
+            var zeroResult = hashMap.put(0, 4);
+            var result = hashMap.put(42, 6);
+
+            // Then
+            assertThat(zeroResult).isEqualTo(3);
+            assertThat(result).isEqualTo(5);
+            assertThat(hashMap.get(0)).isEqualTo(4);
+            assertThat(hashMap.get(42)).isEqualTo(6);
+            assertThat(hashMap.size()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class Get {
+        @Test
+        void givenNonExistingKey_get_shouldReturnNoEntryValue() {
+            // Given
+            var hashMap = new IntIntHashMap(-1);
+            IntStream.range(1, 12).forEach(i -> hashMap.put(i, i));
+
+            // When
+            var result = hashMap.get(100);
+
+            // Then
+            assertThat(result).isEqualTo(-1);
+            assertThat(hashMap.getOrDefault(100, 9)).isEqualTo(9);
+            assertThat(hashMap.containsKey(100)).isFalse();
+        }
+    }
+
+    @Nested
+    class Remove {
+        @Test
+        void givenCollidingKeys_remove_shouldKeepTheRestOfTheProbeSequenceReachable() {
+            // Given
+            var hashMap = new IntIntHashMap(-1);
+            var keys = keysWithSameHomeSlot(16, 5);
+            for (var key : keys) {
+                hashMap.put(key, key);
+            }
+
+            // When
+            var result = hashMap.remove(keys[0]);
+
+            // Then
+            assertThat(result).isEqualTo(keys[0]);
+            for (int i = 0; i < keys.length; i++) {
+                assertThat(hashMap.get(keys[i])).isEqualTo(i == 0 ? -1 : keys[i]);
+            }
+        }
+
+        @Test
+        void givenRandomOperations_map_shouldBehaveLikeHashMap() {
+            // Given
+            var random = new Random(7);
+            var expected = new HashMap<Integer, Integer>();
+            var hashMap = new IntIntHashMap(-1);
+
+            // When
+            for (int i = 0; i < 200_000; i++) {
+                var key = random.nextInt(2_000) - 1_000;
+                if (random.nextInt(3) == 0) {
+                    assertThat(hashMap.remove(key)).isEqualTo(expected.getOrDefault(key, -1));
+                    expected.remove(key);
+                } else {
+                    assertThat(hashMap.put(key, i)).isEqualTo(expected.getOrDefault(key, -1));
+                    expected.put(key, i);
+                }
+            }
+
+            // Then
+            assertThat(hashMap.size()).isEqualTo(expected.size());
+            hashMap.forEach((key, value) -> assertThat(expected.get(key)).isEqualTo(value));
+        }
+    }
+}
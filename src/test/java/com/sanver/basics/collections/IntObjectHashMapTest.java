@@ -0,0 +1,303 @@
+package com.sanver.basics.collections;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntObjectHashMapTest {
+
+    @Nested
+    class Size {
+        @Test
+        void givenEmptyHashMap_size_shouldReturnZero() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+
+            // When
+            var size = hashMap.size();
+
+            // Then
+            assertThat(size).isEqualTo(0);
+        }
+
+        @Test
+        void givenOneElementHashMap_size_shouldReturnOne() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+            hashMap.put(7, new Object());
+
+            // When
+            var size = hashMap.size();
+
+            // Then
+            assertThat(size).isEqualTo(1);
+        }
+
+        @Test
+        void given100ElementHashMap_size_shouldReturn100() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+            IntStream.range(0, 100).forEach(i -> hashMap.put(i, new Object()));
+
+            // When
+            var size = hashMap.size();
+
+            // Then
+            assertThat(size).isEqualTo(100);
+        }
+
+        @Test
+        void givenRemovedKeys_size_shouldDecrease() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+            IntStream.range(0, 100).forEach(i -> hashMap.put(i, new Object()));
+
+            // When
+            IntStream.range(0, 40).forEach(hashMap::remove);
+
+            // Then
+            assertThat(hashMap.size()).isEqualTo(60);
+        }
+    }
+
+    @Nested
+    class Capacity {
+        @Test
+        void givenEmptyHashMap_capacity_shouldReturnZero() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+
+            // When
+            var capacity = hashMap.capacity();
+
+            // Then
+            assertThat(capacity).isEqualTo(0);
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.sanver.basics.collections.CustomHashMapTest#getSizeAndExpectedCapacity")
+        void givenNonEmptyHashMap_capacity_shouldReturnAsExpected(int size, int expectedCapacity) {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+            IntStream.range(0, size).forEach(i -> hashMap.put(i, new Object()));
+
+            // When
+            var capacity = hashMap.capacity();
+
+            // Then
+            assertThat(capacity).isEqualTo(expectedCapacity);
+        }
+    }
+
+    @Nested
+    class Put {
+        @Test
+        void givenNonExistingKey_put_shouldPutEntryAndReturnNull() {
+            // Given
+            var value = new Object();
+            var hashMap = new IntObjectHashMap<>();
+
+            // When
+            var result = hashMap.put(42, value);
+
+            // Then
+            assertThat(result).isNull();
+            assertThat(hashMap.get(42)).isSameAs(value);
+        }
+
+        @Test
+        void givenExistingKey_put_shouldPutEntryAndReturnOldValue() {
+            // Given
+            var oldValue = new Object();
+            var newValue = new Object();
+            var hashMap = new IntObjectHashMap<>();
+            hashMap.put(42, oldValue);
+
+            // When
+            var result = hashMap.put(42, newValue);
+
+            // Then
+            assertThat(result).isSameAs(oldValue);
+            assertThat(hashMap.get(42)).isSameAs(newValue);
+            assertThat(hashMap.size()).isEqualTo(1);
+        }
+
+        @Test
+        void givenZeroKey_put_shouldPutEntry() {
+            // Given
+            var hashMap = new IntObjectHashMap<String>();
+
+            // When
+            var first = hashMap.put(0, "zero");
+            var second = hashMap.put(0, "nil");
+
+            // Then
+            assertThat(first).isNull();
+            assertThat(second).isEqualTo("zero");
+            assertThat(hashMap.get(0)).isEqualTo("nil");
+            assertThat(hashMap.size()).isEqualTo(1);
+        }
+
+        @Test
+        void givenKeysWithSameIndex_put_shouldPutEntries() {
+            // Given
+            var map = new IntObjectHashMap<Integer>();
+            var keysWithSameIndex = keysWithSameHomeSlot(16, 5);
+
+            // When
+            for (var key : keysWithSameIndex) {
+                map.put(key, key * 10);
+            }
+
+            // Then
+            for (var key : keysWithSameIndex) {
+                assertThat(map.get(key)).isEqualTo(key * 10);
+            }
+            assertThat(map.size()).isEqualTo(keysWithSameIndex.length);
+        }
+    }
+
+    @Nested
+    class Get {
+        @Test
+        void givenEmptyMap_get_shouldReturnNull() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+
+            // When
+            var result = hashMap.get(1);
+
+            // Then
+            assertThat(result).isNull();
+        }
+
+        @Test
+        void givenNonExistingKey_get_shouldReturnNull() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+            IntStream.range(1, 12).forEach(i -> hashMap.put(i, new Object()));
+
+            // When
+            var result = hashMap.get(100);
+
+            // Then
+            assertThat(result).isNull();
+            assertThat(hashMap.getOrDefault(100, "default")).isEqualTo("default");
+        }
+
+        @Test
+        void givenExistingKeys_get_shouldReturnValues() {
+            // Given
+            var hashMap = new IntObjectHashMap<Object>();
+            var values = IntStream.range(0, 100).mapToObj(i -> new Object()).toArray();
+            IntStream.range(0, 100).forEach(i -> hashMap.put(i * 31, values[i]));
+
+            // When
+            var results = IntStream.range(0, 100).mapToObj(i -> hashMap.get(i * 31)).toArray();
+
+            // Then
+            assertThat(results).containsExactly(values);
+        }
+    }
+
+    @Nested
+    class Remove {
+        @Test
+        void givenEmptyHashMap_remove_doesNothingAndReturnsNull() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+
+            // When
+            var result = hashMap.remove(1);
+
+            // Then
+            assertThat(result).isNull();
+            assertThat(hashMap.keys()).isEmpty();
+        }
+
+        @Test
+        void givenNonExistingKey_remove_doesNothingAndReturnsNull() {
+            // Given
+            var hashMap = new IntObjectHashMap<>();
+            IntStream.range(0, 13).forEach(i -> hashMap.put(i, new Object()));
+
+            // When
+            var result = hashMap.remove(100);
+
+            // Then
+            assertThat(result).isNull();
+            assertThat(hashMap.keys()).containsExactlyInAnyOrder(IntStream.range(0, 13).toArray());
+        }
+
+        @Test
+        void givenExistingKey_remove_removesTheEntryAndReturnsTheValue() {
+            // Given
+            var hashMap = new IntObjectHashMap<String>();
+            IntStream.range(0, 13).forEach(i -> hashMap.put(i, "v" + i));
+
+            // When
+            var result = hashMap.remove(3);
+
+            // Then
+            assertThat(result).isEqualTo("v3");
+            assertThat(hashMap.containsKey(3)).isFalse();
+            assertThat(hashMap.keys()).containsExactlyInAnyOrder(IntStream.range(0, 13).filter(i -> i != 3).toArray());
+        }
+
+        @Test
+        void givenCollidingKeys_remove_shouldKeepTheRestOfTheProbeSequenceReachable() {
+            // Given
+            var hashMap = new IntObjectHashMap<Integer>();
+            var keys = keysWithSameHomeSlot(16, 5);
+            for (var key : keys) {
+                hashMap.put(key, key);
+            }
+
+            // When
+            hashMap.remove(keys[1]);
+
+            // Then
+            for (int i = 0; i < keys.length; i++) {
+                assertThat(hashMap.get(keys[i])).isEqualTo(i == 1 ? null : keys[i]);
+            }
+        }
+
+        @Test
+        void givenRandomOperations_map_shouldBehaveLikeHashMap() {
+            // Given
+            var random = new Random(42);
+            var expected = new HashMap<Integer, Integer>();
+            var hashMap = new IntObjectHashMap<Integer>();
+
+            // When
+            for (int i = 0; i < 200_000; i++) {
+                var key = random.nextInt(2_000) - 1_000;
+                if (random.nextInt(3) == 0) {
+                    assertThat(hashMap.remove(key)).isEqualTo(expected.remove(key));
+                } else {
+                    assertThat(hashMap.put(key, i)).isEqualTo(expected.put(key, i));
+                }
+            }
+
+            // Then
+            assertThat(hashMap.size()).isEqualTo(expected.size());
+            expected.forEach((key, value) -> assertThat(hashMap.get(key)).isEqualTo(value));
+        }
+    }
+
+    /**
+     * Finds keys that {@link IntObjectHashMap#mix(int)} maps to the same slot of a table with the given capacity.
+     */
+    static int[] keysWithSameHomeSlot(int capacity, int count) {
+        var mask = capacity - 1;
+        var home = IntObjectHashMap.mix(1) & mask;
+        return IntStream.iterate(1, i -> i + 1).filter(i -> (IntObjectHashMap.mix(i) & mask) == home).limit(count).toArray();
+    }
+}
@@ -0,0 +1,327 @@
+package com.sanver.basics.collections.cache;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static com.sanver.basics.utils.Utils.sleep;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedCacheTest {
+
+    @Nested
+    class Get {
+        @Test
+        void givenPutValue_get_shouldReturnItAndRecordAHit() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).build();
+            cache.put(1, "one");
+
+            // When
+            var result = cache.get(1);
+            var missing = cache.get(2);
+
+            // Then
+            assertThat(result).isEqualTo("one");
+            assertThat(missing).isNull();
+            assertThat(cache.stats().hitCount()).isEqualTo(1);
+            assertThat(cache.stats().missCount()).isEqualTo(1);
+            assertThat(cache.stats().hitRate()).isEqualTo(0.5);
+        }
+
+        @Test
+        void givenLoader_get_shouldLoadOnlyOnMiss() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).build();
+            var loadCount = new AtomicInteger();
+
+            // When
+            var first = cache.get(1, key -> "v" + key + "-" + loadCount.incrementAndGet());
+            var second = cache.get(1, key -> "v" + key + "-" + loadCount.incrementAndGet());
+
+            // Then
+            assertThat(first).isEqualTo("v1-1");
+            assertThat(second).isEqualTo("v1-1");
+            assertThat(cache.stats().loadSuccessCount()).isEqualTo(1);
+        }
+
+        @Test
+        void givenLoaderReturningNullOrThrowing_get_shouldNotCacheAndRecordAFailure() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).build();
+
+            // When
+            var result = cache.get(1, key -> null);
+
+            // Then
+            assertThat(result).isNull();
+            assertThatThrownBy(() -> cache.get(1, key -> {
+                throw new IllegalStateException("Failed");
+            })).isInstanceOf(IllegalStateException.class);
+            assertThat(cache.estimatedSize()).isZero();
+            assertThat(cache.stats().loadFailureCount()).isEqualTo(2);
+        }
+
+        @Test
+        void givenConcurrentMissesOfTheSameKey_get_shouldLoadOnce() throws InterruptedException {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).build();
+            var loadCount = new AtomicInteger();
+            var start = new CountDownLatch(1);
+            var threads = 8;
+            var done = new CountDownLatch(threads);
+
+            // When
+            try (var executor = Executors.newFixedThreadPool(threads)) {
+                for (int i = 0; i < threads; i++) {
+                    executor.execute(() -> {
+                        try {
+                            start.await();
+                            cache.get(1, key -> {
+                                loadCount.incrementAndGet();
+                                sleep(100);
+                                return "one";
+                            });
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                start.countDown();
+                done.await();
+            }
+
+            // Then
+            assertThat(loadCount.get()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Eviction {
+        @Test
+        void givenLruPolicy_put_shouldEvictTheLeastRecentlyUsedEntry() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(3).setEvictionPolicy(EvictionPolicy.LRU).build();
+            cache.put(1, "Adam");
+            cache.put(2, "James");
+            cache.put(3, "Mary");
+            cache.get(1);
+
+            // When
+            cache.put(4, "Roy");
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.get(2)).isNull();
+            assertThat(cache.get(1)).isEqualTo("Adam");
+            assertThat(cache.get(3)).isEqualTo("Mary");
+            assertThat(cache.get(4)).isEqualTo("Roy");
+            assertThat(cache.stats().evictionCount()).isEqualTo(1);
+        }
+
+        @Test
+        void givenMaximumWeight_put_shouldKeepTheTotalWeightWithinTheMaximum() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumWeight(100, (key, value) -> value.length()).setEvictionPolicy(EvictionPolicy.LRU).build();
+
+            // When
+            IntStream.range(0, 50).forEach(i -> cache.put(i, "x".repeat(i % 10 + 1)));
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.weightedSize()).isLessThanOrEqualTo(100);
+            assertThat(cache.stats().evictionWeight()).isEqualTo(IntStream.range(0, 50).map(i -> i % 10 + 1).sum() - cache.weightedSize());
+        }
+
+        @Test
+        void givenWindowTinyLfuPolicy_scan_shouldNotEvictTheFrequentlyUsedEntries() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, Integer>().setMaximumSize(100).build();
+            for (int round = 0; round < 5; round++) {
+                IntStream.range(0, 50).forEach(i -> cache.get(i, key -> key));
+            }
+            cache.cleanUp();
+
+            // When
+            IntStream.range(1_000, 2_000).forEach(i -> cache.get(i, key -> key));
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.estimatedSize()).isLessThanOrEqualTo(100);
+            assertThat(IntStream.range(0, 50).filter(i -> cache.get(i) != null).count()).isEqualTo(50);
+        }
+
+        @Test
+        void givenLruPolicy_scan_shouldEvictTheFrequentlyUsedEntries() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, Integer>().setMaximumSize(100).setEvictionPolicy(EvictionPolicy.LRU).build();
+            for (int round = 0; round < 5; round++) {
+                IntStream.range(0, 50).forEach(i -> cache.get(i, key -> key));
+            }
+
+            // When
+            IntStream.range(1_000, 2_000).forEach(i -> cache.get(i, key -> key));
+            cache.cleanUp();
+
+            // Then
+            assertThat(IntStream.range(0, 50).filter(i -> cache.get(i) != null).count()).isZero();
+        }
+
+        @Test
+        void givenConcurrentWrites_cache_shouldStayWithinTheMaximumSize() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, Integer>().setMaximumSize(1_000).build();
+
+            // When
+            IntStream.range(0, 8).parallel().forEach(i -> IntStream.range(0, 100_000).forEach(j -> {
+                var key = (i * 7919 + j) % 20_000;
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }));
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.estimatedSize()).isLessThanOrEqualTo(1_000);
+            assertThat(cache.weightedSize()).isEqualTo(cache.estimatedSize());
+        }
+    }
+
+    @Nested
+    class Expiration {
+        private final AtomicLong ticker = new AtomicLong();
+
+        private void advance(Duration duration) {
+            ticker.addAndGet(duration.toNanos());
+        }
+
+        @Test
+        void givenExpireAfterWrite_get_shouldNotReturnTheEntryAfterTheDuration() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).setExpireAfterWrite(Duration.ofMinutes(5)).setTicker(ticker::get).build();
+            cache.put(1, "one");
+            advance(Duration.ofMinutes(4));
+            assertThat(cache.get(1)).isEqualTo("one");
+
+            // When
+            advance(Duration.ofMinutes(1));
+
+            // Then
+            assertThat(cache.get(1)).isNull();
+        }
+
+        @Test
+        void givenExpireAfterAccess_get_shouldExtendTheLifetimeOfTheEntry() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).setExpireAfterAccess(Duration.ofMinutes(1)).setTicker(ticker::get).build();
+            cache.put(1, "one");
+
+            // When
+            for (int i = 0; i < 5; i++) {
+                advance(Duration.ofSeconds(50));
+                assertThat(cache.get(1)).isEqualTo("one");
+            }
+            advance(Duration.ofMinutes(1));
+
+            // Then
+            assertThat(cache.get(1)).isNull();
+        }
+
+        @Test
+        void givenManyEntriesExpiringAtDifferentTimes_cleanUp_shouldRemoveOnlyTheExpiredOnes() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, Integer>().setExpireAfterWrite(Duration.ofHours(2)).setTicker(ticker::get).build();
+            for (int i = 0; i < 1_000; i++) {
+                cache.put(i, i);
+                advance(Duration.ofSeconds(10));
+            }
+
+            // When
+            advance(Duration.ofHours(2).minusSeconds(10_000 - 10 * 600));
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.estimatedSize()).isBetween(399L, 400L); // An entry may be removed up to a timer wheel bucket (about a second) late
+            assertThat(cache.stats().evictionCount()).isEqualTo(1_000 - cache.estimatedSize());
+            assertThat(cache.weightedSize()).isEqualTo(cache.estimatedSize());
+        }
+
+        @Test
+        void givenExpiredEntry_getWithLoader_shouldLoadItAgain() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).setExpireAfterWrite(Duration.ofMinutes(5)).setTicker(ticker::get).build();
+            var loadCount = new AtomicInteger();
+            cache.get(1, key -> "v" + loadCount.incrementAndGet());
+
+            // When
+            advance(Duration.ofMinutes(5));
+            var result = cache.get(1, key -> "v" + loadCount.incrementAndGet());
+            cache.cleanUp();
+
+            // Then
+            assertThat(result).isEqualTo("v2");
+            assertThat(cache.weightedSize()).isEqualTo(1);
+            assertThat(cache.stats().evictionCount()).isEqualTo(1);
+        }
+
+        @Test
+        void givenRefreshAfterWrite_get_shouldReturnTheOldValueAndReloadItOnce() {
+            // Given
+            var refreshTasks = new ArrayList<Runnable>();
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10)
+                    .setRefreshAfterWrite(Duration.ofMinutes(1)).setExpireAfterWrite(Duration.ofMinutes(5))
+                    .setTicker(ticker::get).setExecutor(refreshTasks::add).build();
+            var loadCount = new AtomicInteger();
+            cache.get(1, key -> "v" + loadCount.incrementAndGet());
+            advance(Duration.ofMinutes(1));
+
+            // When
+            var results = IntStream.range(0, 3).mapToObj(i -> cache.get(1, key -> "v" + loadCount.incrementAndGet())).toList();
+            refreshTasks.forEach(Runnable::run);
+
+            // Then
+            assertThat(results).containsOnly("v1");
+            assertThat(refreshTasks).hasSize(1);
+            assertThat(cache.get(1)).isEqualTo("v2");
+            assertThat(loadCount.get()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class Invalidate {
+        @Test
+        void givenCachedKeys_invalidate_shouldRemoveThem() {
+            // Given
+            var cache = new BoundedCache.Builder<Integer, String>().setMaximumSize(10).build();
+            IntStream.range(0, 5).forEach(i -> cache.put(i, "v" + i));
+
+            // When
+            cache.invalidate(1);
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.get(1)).isNull();
+            assertThat(cache.estimatedSize()).isEqualTo(4);
+            assertThat(cache.weightedSize()).isEqualTo(4);
+
+            // When
+            cache.invalidateAll();
+            cache.cleanUp();
+
+            // Then
+            assertThat(cache.estimatedSize()).isZero();
+            assertThat(cache.weightedSize()).isZero();
+            assertThat(cache.stats().evictionCount()).isZero();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.sanver.basics.concurrentcollections;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentCustomHashMapTest {
+
+    @Nested
+    class Capacity {
+        @Test
+        void givenEmptyHashMap_capacity_shouldReturnZero() {
+            // Given
+            var hashMap = new ConcurrentCustomHashMap<Integer, Integer>();
+
+            // When
+            var capacity = hashMap.capacity();
+
+            // Then
+            assertThat(capacity).isEqualTo(0);
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.sanver.basics.collections.CustomHashMapTest#getSizeAndExpectedCapacity")
+        void givenNonEmptyHashMap_capacity_shouldReturnAsExpected(int size, int expectedCapacity) {
+            // Given
+            var hashMap = new ConcurrentCustomHashMap<Integer, Integer>();
+            IntStream.range(0, size).forEach(i -> hashMap.put(i, i));
+
+            // When
+            var capacity = hashMap.capacity();
+
+            // Then
+            assertThat(capacity).isEqualTo(expectedCapacity);
+        }
+    }
+
+    @Nested
+    class SingleThreaded {
+        @Test
+        void givenNullKeyOrValue_put_shouldThrowNullPointerException() {
+            // Given
+            var hashMap = new ConcurrentCustomHashMap<String, String>();
+
+            // When & Then
+            assertThatThrownBy(() -> hashMap.put(null, "value")).isInstanceOf(NullPointerException.class);
+            assertThatThrownBy(() -> hashMap.put("key", null)).isInstanceOf(NullPointerException.class);
+        }
+
+        @Test
+        void givenExistingKey_putIfAbsent_shouldKeepTheOldValue() {
+            // Given
+            var hashMap = new ConcurrentCustomHashMap<String, String>();
+            hashMap.put("key", "old");
+
+            // When
+            var result = hashMap.putIfAbsent("key", "new");
+
+            // Then
+            assertThat(result).isEqualTo("old");
+            assertThat(hashMap.get("key")).isEqualTo("old");
+        }
+
+        @Test
+        void givenRandomOperations_map_shouldBehaveLikeHashMap() {
+            // Given
+            var random = new Random(42);
+            var expected = new HashMap<Integer, Integer>();
+            var hashMap = new ConcurrentCustomHashMap<Integer, Integer>();
+
+            // When
+            for (int i = 0; i < 200_000; i++) {
+                var key = random.nextInt(5_000);
+                if (random.nextInt(3) == 0) {
+                    assertThat(hashMap.remove(key)).isEqualTo(expected.remove(key));
+                } else {
+                    assertThat(hashMap.put(key, i)).isEqualTo(expected.put(key, i));
+                }
+            }
+
+            // Then
+            assertThat(hashMap).hasSize(expected.size()).isEqualTo(expected);
+        }
+
+        @Test
+        void givenIterator_remove_shouldRemoveTheEntryFromTheMap() {
+            // Given
+            var hashMap = new ConcurrentCustomHashMap<Integer, Integer>();
+            IntStream.range(0, 100).forEach(i -> hashMap.put(i, i));
+
+            // When
+            hashMap.keySet().removeIf(key -> key % 2 == 0);
+
+            // Then
+            assertThat(hashMap.keySet()).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 100).filter(i -> i % 2 == 1).boxed().toList());
+        }
+    }
+
+    @Nested
+    class MultiThreaded {
+        @Test
+        void givenConcurrentPuts_map_shouldContainAllEntriesAfterResizing() {
+            // Given
+            var hashMap = new ConcurrentCustomHashMap<Integer, Integer>();
+            int threads = 8, block = 50_000;
+
+            // When
+            IntStream.range(0, threads).parallel().forEach(i -> IntStream.range(i * block, (i + 1) * block).forEach(key -> hashMap.put(key, -key)));
+
+            // Then
+            assertThat(hashMap.size()).isEqualTo(threads * block);
+            IntStream.range(0, threads * block).forEach(key -> assertThat(hashMap.get(key)).isEqualTo(-key));
+        }
+
+        @Test
+        void givenConcurrentPutsAndRemoves_map_shouldContainTheRemainingEntries() {
+            // Given
+            var hashMap = new ConcurrentCustomHashMap<Integer, Integer>();
+            var expected = ConcurrentHashMap.<Integer>newKeySet();
+            int threads = 8, block = 50_000;
+
+            // When
+            IntStream.range(0, threads).parallel().forEach(i -> IntStream.range(i * block, (i + 1) * block).forEach(key -> {
+                hashMap.put(key, key);
+                if (key % 3 == 0) {
+                    hashMap.remove(key);
+                } else {
+                    expected.add(key);
+                }
+            }));
+
+            // Then
+            assertThat(hashMap.size()).isEqualTo(expected.size());
+            assertThat(hashMap.keySet()).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.sanver.basics.encryption;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.AEADBadTagException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingEncryptionServiceTest {
+    private static final int CHUNK_SIZE = 64;
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @TempDir
+    Path directory;
+    private StreamingEncryptionService service;
+    private Path plain;
+    private Path encrypted;
+    private Path decrypted;
+
+    @BeforeEach
+    void setUp() throws GeneralSecurityException {
+        service = new StreamingEncryptionService(StreamingEncryptionService.generateKey(), CHUNK_SIZE, POOL);
+        plain = directory.resolve("plain");
+        encrypted = directory.resolve("encrypted");
+        decrypted = directory.resolve("decrypted");
+    }
+
+    private void writePlain(int size) throws IOException {
+        var bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        Files.write(plain, bytes);
+    }
+
+    private void encryptStreaming() throws IOException, GeneralSecurityException {
+        try (var source = FileChannel.open(plain, StandardOpenOption.READ);
+             var target = FileChannel.open(encrypted, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            service.encrypt(source, target);
+        }
+    }
+
+    private void decryptStreaming() throws IOException, GeneralSecurityException {
+        try (var source = FileChannel.open(encrypted, StandardOpenOption.READ);
+             var target = FileChannel.open(decrypted, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            service.decrypt(source, target);
+        }
+    }
+
+    @Nested
+    class RoundTrip {
+        @ParameterizedTest
+        @ValueSource(ints = {0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 37 * CHUNK_SIZE + 5})
+        void givenFile_parallelEncryptAndDecrypt_shouldReturnTheSameBytes(int size) throws Exception {
+            // Given
+            writePlain(size);
+
+            // When
+            var encryptResult = service.encrypt(plain, encrypted);
+            var decryptResult = service.decrypt(encrypted, decrypted);
+
+            // Then
+            long chunks = Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            assertThat(Files.size(encrypted)).isEqualTo(StreamingEncryptionService.HEADER_LENGTH + size + chunks * StreamingEncryptionService.TAG_LENGTH);
+            assertThat(encryptResult.bytes()).isEqualTo(size);
+            assertThat(decryptResult.bytes()).isEqualTo(size);
+            assertThat(Files.mismatch(plain, decrypted)).isEqualTo(-1);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, CHUNK_SIZE, 5 * CHUNK_SIZE + 3})
+        void givenChannels_streamingEncrypt_shouldBeReadableByParallelDecryptAndViceVersa(int size) throws Exception {
+            // Given
+            writePlain(size);
+
+            // When
+            encryptStreaming();
+            service.decrypt(encrypted, decrypted);
+
+            // Then
+            assertThat(Files.mismatch(plain, decrypted)).isEqualTo(-1);
+
+            // When
+            Files.delete(decrypted);
+            service.encrypt(plain, encrypted);
+            decryptStreaming();
+
+            // Then
+            assertThat(Files.mismatch(plain, decrypted)).isEqualTo(-1);
+        }
+
+        @Test
+        void givenSameFileTwice_encrypt_shouldUseDifferentNonces() throws Exception {
+            // Given
+            writePlain(CHUNK_SIZE);
+            var other = directory.resolve("other");
+
+            // When
+            service.encrypt(plain, encrypted);
+            service.encrypt(plain, other);
+
+            // Then
+            assertThat(Files.mismatch(encrypted, other)).isNotEqualTo(-1);
+        }
+
+        @Test
+        void givenSameFileTwice_encrypt_shouldDeriveADifferentKeyForEachFile() throws Exception {
+            // Given
+            writePlain(CHUNK_SIZE);
+            var other = directory.resolve("other");
+
+            // When
+            service.encrypt(plain, encrypted);
+            service.encrypt(plain, other);
+
+            // Then
+            var key = service.deriveKey(header(encrypted));
+            var otherKey = service.deriveKey(header(other));
+            assertThat(key.getEncoded()).hasSize(32);
+            assertThat(key.getEncoded()).isNotEqualTo(otherKey.getEncoded());
+            assertThat(service.deriveKey(header(encrypted)).getEncoded()).isEqualTo(key.getEncoded());
+        }
+
+        private ByteBuffer header(Path file) throws IOException {
+            return ByteBuffer.wrap(Files.readAllBytes(file), 0, StreamingEncryptionService.HEADER_LENGTH).slice();
+        }
+    }
+
+    @Nested
+    class Tampering {
+        @Test
+        void givenModifiedByte_decrypt_shouldThrowAEADBadTagException() throws Exception {
+            // Given
+            writePlain(10 * CHUNK_SIZE);
+            service.encrypt(plain, encrypted);
+            var bytes = Files.readAllBytes(encrypted);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(encrypted, bytes);
+
+            // When & Then
+            assertThatThrownBy(() -> service.decrypt(encrypted, decrypted)).isInstanceOf(AEADBadTagException.class);
+            assertThatThrownBy(this::decryptStreamingAgain).isInstanceOf(AEADBadTagException.class);
+        }
+
+        @Test
+        void givenFileTruncatedAtAChunkBoundary_decrypt_shouldThrowAEADBadTagException() throws Exception {
+            // Given
+            writePlain(10 * CHUNK_SIZE);
+            service.encrypt(plain, encrypted);
+
+            try (var channel = FileChannel.open(encrypted, StandardOpenOption.WRITE)) {
+                channel.truncate(StreamingEncryptionService.HEADER_LENGTH + 9 * (CHUNK_SIZE + StreamingEncryptionService.TAG_LENGTH));
+            }
+
+            // When & Then
+            assertThatThrownBy(() -> service.decrypt(encrypted, decrypted)).isInstanceOf(AEADBadTagException.class);
+            assertThatThrownBy(this::decryptStreamingAgain).isInstanceOf(AEADBadTagException.class);
+        }
+
+        @Test
+        void givenDifferentChunkSize_decrypt_shouldThrowIOException() throws Exception {
+            // Given
+            writePlain(CHUNK_SIZE);
+            service.encrypt(plain, encrypted);
+            var other = new StreamingEncryptionService(StreamingEncryptionService.generateKey(), CHUNK_SIZE * 2, POOL);
+
+            // When & Then
+            assertThatThrownBy(() -> other.decrypt(encrypted, decrypted)).isInstanceOf(IOException.class);
+        }
+
+        private void decryptStreamingAgain() throws Exception {
+            Files.deleteIfExists(decrypted);
+            decryptStreaming();
+        }
+    }
+}
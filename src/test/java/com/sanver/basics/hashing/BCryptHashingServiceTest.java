@@ -0,0 +1,117 @@
+package com.sanver.basics.hashing;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BCryptHashingServiceTest {
+
+    @Nested
+    class HashAndVerify {
+        @Test
+        void givenHashedPassword_verify_shouldOnlyAcceptTheSamePassword() {
+            try (var service = new BCryptHashingService(BCryptHashingService.MIN_STRENGTH)) {
+                // Given
+                var hashed = service.hash("password").join();
+
+                // When & Then
+                assertThat(service.verify("password", hashed).join()).isTrue();
+                assertThat(service.verify("Password", hashed).join()).isFalse();
+                assertThat(service.hashLatencies().count()).isEqualTo(1);
+                assertThat(service.verifyLatencies().count()).isEqualTo(2);
+            }
+        }
+
+        @Test
+        void givenInvalidStrength_constructor_shouldThrowIllegalArgumentException() {
+            assertThatThrownBy(() -> new BCryptHashingService(BCryptHashingService.MIN_STRENGTH - 1)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class Overload {
+        @Test
+        void givenRejectPolicyAndFullQueue_hash_shouldFailTheRequestsThatDoNotFit() {
+            // Given
+            var futures = new ArrayList<CompletableFuture<String>>();
+
+            try (var service = new BCryptHashingService(10, 1, 1, BCryptHashingService.OverloadPolicy.REJECT)) {
+                // When
+                for (int i = 0; i < 10; i++) {
+                    futures.add(service.hash("password" + i));
+                }
+
+                // Then
+                assertThat(service.rejectedCount()).isPositive();
+                var rejected = futures.stream().filter(CompletableFuture::isCompletedExceptionally).toList();
+                assertThat(rejected).hasSize((int) service.rejectedCount());
+                assertThatThrownBy(() -> rejected.get(0).join()).isInstanceOf(CompletionException.class).hasCauseInstanceOf(RejectedExecutionException.class);
+            }
+        }
+
+        @Test
+        void givenBlockPolicyAndFullQueue_hash_shouldCompleteEveryRequest() {
+            // Given
+            var futures = new ArrayList<CompletableFuture<String>>();
+
+            try (var service = new BCryptHashingService(BCryptHashingService.MIN_STRENGTH, 1, 1, BCryptHashingService.OverloadPolicy.BLOCK)) {
+                // When
+                for (int i = 0; i < 20; i++) {
+                    futures.add(service.hash("password" + i));
+                }
+
+                // Then
+                futures.forEach(CompletableFuture::join);
+                assertThat(service.rejectedCount()).isZero();
+                assertThat(service.queueWaits().count()).isEqualTo(20);
+            }
+        }
+
+        @Test
+        void givenBlockPolicyAndCloseWhileWaitingForASlot_hash_shouldCompleteOrRejectEveryRequest() throws Exception {
+            // Given
+            var futures = new ArrayList<CompletableFuture<String>>();
+            var service = new BCryptHashingService(10, 1, 1, BCryptHashingService.OverloadPolicy.BLOCK);
+            var submitter = Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10; i++) {
+                    futures.add(service.hash("password" + i));
+                }
+            });
+
+            // When
+            Thread.sleep(50);
+            service.close();
+            submitter.join();
+
+            // Then
+            for (var future : futures) {
+                var failure = future.handle((hash, ex) -> ex).get(1, TimeUnit.MINUTES);
+                assertThat(failure == null || failure instanceof RejectedExecutionException).isTrue();
+            }
+        }
+    }
+
+    @Nested
+    class Calibration {
+        @Test
+        void givenTinyTarget_calibrateStrength_shouldReturnMinimumStrength() {
+            assertThat(BCryptHashingService.calibrateStrength(Duration.ofNanos(1))).isEqualTo(BCryptHashingService.MIN_STRENGTH);
+        }
+
+        @Test
+        void givenLargerTarget_calibrateStrength_shouldReturnAValidStrength() {
+            var strength = BCryptHashingService.calibrateStrength(Duration.ofMillis(20));
+
+            assertThat(strength).isBetween(BCryptHashingService.MIN_STRENGTH, BCryptHashingService.MAX_STRENGTH);
+        }
+    }
+}
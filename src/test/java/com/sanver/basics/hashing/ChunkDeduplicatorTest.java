@@ -0,0 +1,130 @@
+package com.sanver.basics.hashing;
+
+import com.sanver.basics.hashing.ChunkDeduplicator.FingerprintAlgorithm;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkDeduplicatorTest {
+    private static final int WINDOW_SIZE = 256 << 10;
+
+    @TempDir
+    Path directory;
+
+    private static byte[] randomBytes(int length) {
+        var bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] insert(byte[] bytes, int position, byte... inserted) {
+        var result = new byte[bytes.length + inserted.length];
+        System.arraycopy(bytes, 0, result, 0, position);
+        System.arraycopy(inserted, 0, result, position, inserted.length);
+        System.arraycopy(bytes, position, result, position + inserted.length, bytes.length - position);
+        return result;
+    }
+
+    @Nested
+    class Chunking {
+        @Test
+        void givenRandomBytes_nextChunkLength_shouldReturnChunksWithinTheLimits() {
+            // Given
+            var chunker = new GearChunker(1 << 10, 4 << 10, 16 << 10);
+            var buffer = ByteBuffer.wrap(randomBytes(1 << 20));
+            long chunkCount = 0;
+
+            // When & Then
+            for (int position = 0; position < buffer.capacity(); chunkCount++) {
+                int length = chunker.nextChunkLength(buffer, position, buffer.capacity());
+                if (position + length < buffer.capacity()) {
+                    assertThat(length).isBetween(chunker.minimumSize() + 1, chunker.maximumSize());
+                }
+                position += length;
+            }
+            assertThat(buffer.capacity() / chunkCount).isBetween(2L << 10, 8L << 10);
+        }
+    }
+
+    @Nested
+    class Deduplicate {
+        @ParameterizedTest
+        @EnumSource(FingerprintAlgorithm.class)
+        void givenSameFileTwice_deduplicate_shouldFindNoNewChunksTheSecondTime(FingerprintAlgorithm algorithm) throws IOException {
+            // Given
+            var file = Files.write(directory.resolve("file.dat"), randomBytes(1 << 20));
+
+            try (var index = ChunkIndex.open(directory.resolve("index.dat"))) {
+                var deduplicator = new ChunkDeduplicator(new GearChunker(), index, algorithm, ForkJoinPool.commonPool(), WINDOW_SIZE);
+
+                // When
+                var first = deduplicator.deduplicate(file);
+                var second = deduplicator.deduplicate(file);
+
+                // Then
+                assertThat(first.newBytes()).isEqualTo(1 << 20);
+                assertThat(first.newChunks()).isEqualTo(first.chunks());
+                assertThat(second.chunks()).isEqualTo(first.chunks());
+                assertThat(second.newChunks()).isZero();
+                assertThat(second.dedupRatio()).isInfinite();
+                assertThat(index.storedBytes()).isEqualTo(1 << 20);
+            }
+        }
+
+        @Test
+        void givenInsertedBytes_deduplicate_shouldOnlyFindTheChunksAroundThemNew() throws IOException {
+            // Given
+            var bytes = randomBytes(4 << 20);
+            var file = Files.write(directory.resolve("file.dat"), bytes);
+
+            try (var index = ChunkIndex.open(directory.resolve("index.dat"))) {
+                var deduplicator = new ChunkDeduplicator(new GearChunker(), index, FingerprintAlgorithm.SHA_512, ForkJoinPool.commonPool(), WINDOW_SIZE);
+                deduplicator.deduplicate(file);
+                Files.write(file, insert(bytes, bytes.length / 3, (byte) 1, (byte) 2, (byte) 3));
+
+                // When
+                var report = deduplicator.deduplicate(file);
+
+                // Then
+                assertThat(report.newChunks()).isBetween(1L, 3L);
+                assertThat(report.newBytes()).isLessThanOrEqualTo(3L * new GearChunker().maximumSize());
+                assertThat(report.dedupRatio()).isGreaterThan(20);
+            }
+        }
+
+        @Test
+        void givenReopenedIndex_deduplicate_shouldRememberTheChunksOfThePreviousRun() throws IOException {
+            // Given
+            var file = Files.write(directory.resolve("file.dat"), randomBytes(1 << 20));
+            var indexFile = directory.resolve("index.dat");
+
+            try (var index = ChunkIndex.open(indexFile)) {
+                new ChunkDeduplicator(new GearChunker(), index, FingerprintAlgorithm.SHA_512, ForkJoinPool.commonPool()).deduplicate(file);
+            }
+
+            Files.write(indexFile, new byte[]{1, 2, 3}, StandardOpenOption.APPEND); // A record cut short
+
+            try (var index = ChunkIndex.open(indexFile)) {
+                // When
+                var report = new ChunkDeduplicator(new GearChunker(), index, FingerprintAlgorithm.SHA_512, ForkJoinPool.commonPool()).deduplicate(file);
+
+                // Then
+                assertThat(report.newChunks()).isZero();
+                assertThat(index.storedBytes()).isEqualTo(1 << 20);
+                assertThat(Files.size(indexFile)).isEqualTo((long) index.size() * ChunkIndex.RECORD_SIZE);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.sanver.basics.hashing;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileHashingServiceTest {
+    private static final int SEGMENT_SIZE = 1 << 12;
+
+    @TempDir
+    Path directory;
+
+    private Path writeFile(int size) throws IOException {
+        var bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return Files.write(directory.resolve("file" + size + ".dat"), bytes);
+    }
+
+    private static String expectedCrc32c(Path file) throws IOException {
+        var crc32c = new CRC32C();
+        crc32c.update(Files.readAllBytes(file));
+        return String.format("%08x", crc32c.getValue());
+    }
+
+    @Nested
+    class Crc32c {
+        @ParameterizedTest
+        @ValueSource(ints = {0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 7 * SEGMENT_SIZE + 123, 64 * SEGMENT_SIZE})
+        void givenFileOfAnySize_crc32cAndParallelCrc32c_shouldReturnTheCrc32cOfTheWholeFile(int size) throws IOException {
+            // Given
+            var file = writeFile(size);
+
+            try (var pool = new ForkJoinPool(4)) {
+                var service = new FileHashingService(SEGMENT_SIZE, pool);
+
+                // When
+                var sequential = service.crc32c(file);
+                var parallel = service.parallelCrc32c(file);
+
+                // Then
+                assertThat(sequential.value()).isEqualTo(expectedCrc32c(file));
+                assertThat(parallel.value()).isEqualTo(expectedCrc32c(file));
+                assertThat(parallel.size()).isEqualTo(size);
+            }
+        }
+
+        @Test
+        void givenCrcsOfTwoParts_combine_shouldReturnTheCrcOfTheConcatenation() {
+            // Given
+            var random = new Random(42);
+            var first = new byte[1_000];
+            var second = new byte[12_345];
+            random.nextBytes(first);
+            random.nextBytes(second);
+            var crc32c = new CRC32C();
+            crc32c.update(first);
+            var firstCrc = (int) crc32c.getValue();
+            crc32c.update(second);
+            var expected = (int) crc32c.getValue();
+            crc32c.reset();
+            crc32c.update(second);
+
+            // When
+            var result = FileHashingService.combine(firstCrc, (int) crc32c.getValue(), second.length);
+
+            // Then
+            assertThat(result).isEqualTo(expected);
+            assertThat(FileHashingService.combine(firstCrc, 0, 0)).isEqualTo(firstCrc);
+        }
+
+        @Test
+        void givenSecondPartOfMoreThan512MiB_combine_shouldReturnTheCrcOfTheConcatenation() {
+            // Given
+            long secondLength = (1L << 29) + 12_345; // Past 2^32 bits, where a table of 32 powers would wrap around
+            var first = new byte[1_000];
+            new Random(42).nextBytes(first);
+            var zeros = ByteBuffer.allocateDirect(1 << 20);
+            var crc32c = new CRC32C();
+            crc32c.update(first);
+            var firstCrc = (int) crc32c.getValue();
+            var secondCrc32c = new CRC32C();
+
+            for (long remaining = secondLength; remaining > 0; remaining -= zeros.limit()) {
+                zeros.clear().limit((int) Math.min(zeros.capacity(), remaining));
+                crc32c.update(zeros.duplicate());
+                secondCrc32c.update(zeros);
+            }
+
+            // When
+            var result = FileHashingService.combine(firstCrc, (int) secondCrc32c.getValue(), secondLength);
+
+            // Then
+            assertThat(result).isEqualTo((int) crc32c.getValue());
+        }
+    }
+
+    @Nested
+    class Digest {
+        @ParameterizedTest
+        @ValueSource(strings = {"MD5", "SHA-256", "SHA-512"})
+        void givenAlgorithm_digest_shouldReturnTheDigestOfTheWholeFile(String algorithm) throws IOException, NoSuchAlgorithmException {
+            // Given
+            var file = writeFile(5 * SEGMENT_SIZE + 17);
+            var service = new FileHashingService(SEGMENT_SIZE, ForkJoinPool.commonPool());
+
+            // When
+            var result = service.digest(file, algorithm);
+
+            // Then
+            var expected = HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(Files.readAllBytes(file)));
+            assertThat(result.value()).isEqualTo(expected);
+            assertThat(result.algorithm()).isEqualTo(algorithm);
+        }
+
+        @Test
+        void givenUnknownAlgorithm_digest_shouldThrowIllegalArgumentException() throws IOException {
+            var file = writeFile(10);
+            var service = new FileHashingService();
+
+            assertThatThrownBy(() -> service.digest(file, "SHA-0")).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.sanver.basics.hashing;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SHA512HashingServiceTest {
+    private final SHA512HashingService service = new SHA512HashingService();
+
+    @Nested
+    class Hash {
+        @Test
+        void givenMessage_hash_shouldReturnTheSaltAndTheSHA512OfTheSaltAndTheMessage() throws NoSuchAlgorithmException {
+            // Given
+            var message = "message";
+
+            // When
+            var hashed = service.hash(message);
+
+            // Then
+            var parts = hashed.split(":");
+            var salt = HexFormat.of().parseHex(parts[0]);
+            var digest = MessageDigest.getInstance("SHA-512");
+            digest.update(salt);
+            assertThat(salt).hasSize(SHA512HashingService.SALT_LENGTH);
+            assertThat(parts[1]).isEqualTo(HexFormat.of().formatHex(digest.digest(message.getBytes(StandardCharsets.UTF_8))));
+        }
+
+        @Test
+        void givenSameMessageTwice_hash_shouldUseDifferentSalts() {
+            assertThat(service.hash("message")).isNotEqualTo(service.hash("message"));
+        }
+
+        @Test
+        void givenHashedMessage_verify_shouldOnlyAcceptTheSameMessage() {
+            // Given
+            var hashed = service.hash("password");
+
+            // When & Then
+            assertThat(service.verify("password", hashed)).isTrue();
+            assertThat(service.verify("Password", hashed)).isFalse();
+            assertThatThrownBy(() -> service.verify("password", "no separator")).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class HashAll {
+        @Test
+        void givenManyMessages_hashAll_shouldHashEachInOrderOnManyThreads() {
+            // Given
+            var messages = IntStream.range(0, 10_000).mapToObj(i -> "message " + i).toList();
+
+            try (var pool = new ForkJoinPool(8)) {
+                var parallelService = new SHA512HashingService(new SHA512HashingService.SaltSource(), pool);
+
+                // When
+                var hashes = parallelService.hashAll(messages);
+
+                // Then
+                assertThat(hashes).hasSize(messages.size()).doesNotHaveDuplicates();
+                IntStream.range(0, messages.size()).forEach(i -> assertThat(service.verify(messages.get(i), hashes.get(i))).isTrue());
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.sanver.basics.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BufferPoolTest {
+
+    @Test
+    void givenReleasedBuffer_acquire_shouldReuseItCleared() {
+        // Given
+        var pool = new BufferPool(16, true, 1);
+        var buffer = pool.acquire().put((byte) 1);
+        pool.release(buffer);
+
+        // When
+        var reused = pool.acquire();
+
+        // Then
+        assertThat(reused).isSameAs(buffer);
+        assertThat(reused.position()).isZero();
+        assertThat(reused.isDirect()).isTrue();
+        assertThat(pool.allocated()).isEqualTo(1);
+        assertThat(pool.pooled()).isZero();
+    }
+
+    @Test
+    void givenFullPool_release_shouldDropTheBuffer() {
+        // Given
+        var pool = new BufferPool(16, false, 1);
+        var first = pool.acquire();
+        var second = pool.acquire();
+
+        // When
+        pool.release(first);
+        pool.release(second);
+
+        // Then
+        assertThat(pool.pooled()).isEqualTo(1);
+        assertThat(pool.acquire()).isSameAs(first);
+        assertThat(pool.acquire()).isNotSameAs(second);
+    }
+
+    @Test
+    void givenForeignBuffer_release_shouldThrowIllegalArgumentException() {
+        // Given
+        var pool = new BufferPool(16, false, 1);
+
+        // When, Then
+        assertThatThrownBy(() -> pool.release(ByteBuffer.allocate(8))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pool.release(ByteBuffer.allocateDirect(16))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sanver.basics.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FrameCodecTest {
+
+    @Test
+    void givenSeveralFrames_nextFrame_shouldReturnEachPayloadAsASliceOfTheBuffer() throws Exception {
+        // Given
+        var buffer = ByteBuffer.allocate(64);
+        FrameCodec.encode(ByteBuffer.wrap(new byte[]{1, 2, 3}), buffer);
+        FrameCodec.encode(ByteBuffer.allocate(0), buffer);
+        FrameCodec.encode(ByteBuffer.wrap(new byte[]{4}), buffer);
+        buffer.flip();
+
+        // When
+        var first = FrameCodec.nextFrame(buffer);
+        var empty = FrameCodec.nextFrame(buffer);
+        var last = FrameCodec.nextFrame(buffer);
+
+        // Then
+        assertThat(first.remaining()).isEqualTo(3);
+        assertThat(first.get(2)).isEqualTo((byte) 3);
+        assertThat(empty.hasRemaining()).isFalse();
+        assertThat(last.get(0)).isEqualTo((byte) 4);
+        buffer.put(buffer.position() - 1, (byte) 5);
+        assertThat(last.get(0)).isEqualTo((byte) 5); // Shares the content
+        assertThat(buffer.hasRemaining()).isFalse();
+        assertThat(FrameCodec.nextFrame(buffer)).isNull();
+    }
+
+    @Test
+    void givenIncompleteFrame_nextFrame_shouldReturnNullWithoutMovingThePosition() throws Exception {
+        // Given
+        var frame = FrameCodec.encode("hello");
+        var partialHeader = frame.duplicate().limit(3);
+        var partialPayload = frame.duplicate().limit(frame.limit() - 1);
+
+        // When
+        var fromPartialHeader = FrameCodec.nextFrame(partialHeader);
+        var fromPartialPayload = FrameCodec.nextFrame(partialPayload);
+
+        // Then
+        assertThat(fromPartialHeader).isNull();
+        assertThat(partialHeader.position()).isZero();
+        assertThat(fromPartialPayload).isNull();
+        assertThat(partialPayload.position()).isZero();
+        assertThat(FrameCodec.decodeText(FrameCodec.nextFrame(frame))).isEqualTo("hello");
+    }
+
+    @Test
+    void givenInvalidLength_nextFrame_shouldThrowProtocolException() {
+        // Given
+        var negative = ByteBuffer.allocate(8).putInt(-1).flip();
+        var tooLong = ByteBuffer.allocate(8).putInt(FrameCodec.MAX_FRAME_LENGTH + 1).flip();
+
+        // When, Then
+        assertThatThrownBy(() -> FrameCodec.nextFrame(negative)).isInstanceOf(ProtocolException.class);
+        assertThatThrownBy(() -> FrameCodec.nextFrame(tooLong)).isInstanceOf(ProtocolException.class);
+    }
+
+    @Test
+    void givenTargetWithoutRoom_encode_shouldLeaveBothBuffersUnchanged() {
+        // Given
+        var payload = ByteBuffer.wrap(new byte[10]);
+        var target = ByteBuffer.allocate(FrameCodec.HEADER_LENGTH + 9);
+
+        // When
+        var encoded = FrameCodec.encode(payload, target);
+
+        // Then
+        assertThat(encoded).isFalse();
+        assertThat(payload.position()).isZero();
+        assertThat(target.position()).isZero();
+    }
+}
@@ -0,0 +1,192 @@
+package com.sanver.basics.network;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LineStreamProcessorTest {
+
+    /**
+     * Returns the bytes one at a time, so every character and line is split between reads.
+     */
+    private static InputStream trickle(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] bytes, int offset, int length) {
+                return super.read(bytes, offset, Math.min(length, 1));
+            }
+        };
+    }
+
+    /**
+     * Generates the given number of "n\n" lines as they are read, and counts the bytes read so far.
+     */
+    private static class GeneratedFeed extends InputStream {
+        private final int lines;
+        private int line;
+        private byte[] current = new byte[0];
+        private int index;
+        private volatile long bytesRead;
+
+        GeneratedFeed(int lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read() {
+            if (index == current.length) {
+                if (line == lines) {
+                    return -1;
+                }
+
+                current = (++line + "\n").getBytes(StandardCharsets.US_ASCII);
+                index = 0;
+            }
+
+            bytesRead++;
+            return current[index++];
+        }
+    }
+
+    @Test
+    void givenLinesSplitBetweenReads_process_shouldDecodeAndParseEachLine() throws Exception {
+        try (var processor = new LineStreamProcessor.Builder<>(String::toUpperCase).setWorkers(2).setBatchSize(2).build()) {
+            // Given
+            var input = trickle("{\"name\":\"caf\u00e9\"}\r\n\n{\"name\":\"na\u00efve\"}\n{\"name\":\"\u65e5\u672c\"}");
+            Queue<String> records = new ConcurrentLinkedQueue<>();
+
+            // When
+            var report = processor.process(input, records::add);
+
+            // Then
+            assertThat(records).containsExactlyInAnyOrder("{\"NAME\":\"CAF\u00c9\"}", "{\"NAME\":\"NA\u00cfVE\"}", "{\"NAME\":\"\u65e5\u672c\"}");
+            assertThat(report.lines()).isEqualTo(4);
+            assertThat(report.records()).isEqualTo(3);
+            assertThat(report.bytes()).isEqualTo("{\"name\":\"caf\u00e9\"}\r\n\n{\"name\":\"na\u00efve\"}\n{\"name\":\"\u65e5\u672c\"}".getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Test
+    void givenHeaderAndMalformedLines_process_shouldSkipThemAndCountTheMalformedOnes() throws Exception {
+        try (var processor = new LineStreamProcessor.Builder<>((String line) -> line.startsWith("id") ? null : Integer.parseInt(line.split(",")[1])).build()) {
+            // Given
+            var input = new ByteArrayInputStream("id,value\n1,10\n2,x\n3,30\n4\n".getBytes(StandardCharsets.UTF_8));
+            Queue<Integer> records = new ConcurrentLinkedQueue<>();
+
+            // When
+            var report = processor.process(input, records::add);
+
+            // Then
+            assertThat(records).containsExactlyInAnyOrder(10, 30);
+            assertThat(report.records()).isEqualTo(2);
+            assertThat(report.malformed()).isEqualTo(2);
+            assertThat(report.recordsPerSecond()).isPositive();
+        }
+    }
+
+    @Test
+    void givenSlowSink_process_shouldStopReadingUntilTheBatchesInFlightAreDone() throws Exception {
+        try (var processor = new LineStreamProcessor.Builder<>(Integer::parseInt).setWorkers(1).setBatchSize(10).setMaxBatchesInFlight(2).build()) {
+            // Given
+            var feed = new GeneratedFeed(1_000_000);
+            var blocked = new CountDownLatch(1);
+            var processed = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return processor.process(feed, number -> {
+                        try {
+                            blocked.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // When
+            Thread.sleep(500);
+            long bytesReadWhileBlocked = feed.bytesRead;
+            blocked.countDown();
+            var report = processed.get(1, TimeUnit.MINUTES);
+
+            // Then
+            assertThat(bytesReadWhileBlocked).isLessThan(200_000); // The batches in flight and the read buffer, out of about 6.9 MB
+            assertThat(report.records()).isEqualTo(1_000_000);
+            assertThat(report.bytes()).isEqualTo(feed.bytesRead);
+        }
+    }
+
+    @Test
+    void givenFailingSink_process_shouldRethrowTheException() throws Exception {
+        try (var processor = new LineStreamProcessor.Builder<>(Integer::parseInt).setBatchSize(1).build()) {
+            // Given
+            var input = new GeneratedFeed(100_000);
+
+            // When, Then
+            assertThatThrownBy(() -> processor.process(input, number -> {
+                throw new IllegalStateException("Sink failed");
+            })).isInstanceOf(IllegalStateException.class).hasMessageContaining("Sink failed");
+            assertThat(input.bytesRead).isLessThan(600_000);
+        }
+    }
+
+    @Test
+    void givenInvalidUtf8_process_shouldThrowCharacterCodingException() throws Exception {
+        try (var processor = new LineStreamProcessor.Builder<>(String::length).build()) {
+            // Given
+            var input = new ByteArrayInputStream(new byte[]{'a', '\n', (byte) 0xC3, '\n'});
+
+            // When, Then
+            assertThatThrownBy(() -> processor.process(input, length -> {
+            })).isInstanceOf(CharacterCodingException.class);
+        }
+    }
+
+    @Test
+    void givenHttpFeed_process_shouldParseTheStreamedBody() throws Exception {
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/feed", exchange -> {
+            exchange.sendResponseHeaders(200, 0); // Chunked, as a feed of unknown length
+
+            try (var body = exchange.getResponseBody()) {
+                for (int i = 1; i <= 10_000; i++) {
+                    body.write("{\"id\":%d}\n".formatted(i).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+        server.start();
+
+        try (var processor = new LineStreamProcessor.Builder<>((String line) -> Long.parseLong(line.replaceAll("\\D", ""))).build()) {
+            // Given
+            var uri = URI.create("http://localhost:%d/feed".formatted(server.getAddress().getPort()));
+            Queue<Long> ids = new ConcurrentLinkedQueue<>();
+
+            // When
+            var report = processor.process(uri, ids::add);
+
+            // Then
+            assertThat(report.records()).isEqualTo(10_000);
+            assertThat(ids.stream().mapToLong(Long::longValue).sum()).isEqualTo(10_000L * 10_001 / 2);
+            assertThat(List.copyOf(ids)).doesNotHaveDuplicates();
+        } finally {
+            server.stop(0);
+        }
+    }
+}
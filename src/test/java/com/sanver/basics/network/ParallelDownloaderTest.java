@@ -0,0 +1,284 @@
+package com.sanver.basics.network;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelDownloaderTest {
+    private static final int SIZE = 1 << 20;
+    private static final String ETAG = "\"v1\"";
+    private static final String WEAK_ETAG = "W/\"v1\"";
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Serves the content with ranges if they are accepted, and cuts the first failures range responses off in the middle.
+     * Like a server that follows RFC 9110, it ignores the range and sends the whole content if the If-Range doesn't match its ETag or is weak.
+     * If changeAfterHead is set, the ETag changes right after the first HEAD request, as if the file was replaced.
+     */
+    private static class FileServer implements AutoCloseable {
+        private final HttpServer server;
+        private final byte[] content;
+        private final boolean acceptRanges;
+        private volatile String etag;
+        private volatile boolean changeAfterHead;
+        private final AtomicInteger failures;
+        private final Queue<String> ranges = new ConcurrentLinkedQueue<>();
+        private final Queue<String> ifRanges = new ConcurrentLinkedQueue<>();
+
+        FileServer(byte[] content, boolean acceptRanges, int failures) throws IOException {
+            this(content, acceptRanges, failures, ETAG);
+        }
+
+        FileServer(byte[] content, boolean acceptRanges, int failures, String etag) throws IOException {
+            this.content = content;
+            this.etag = etag;
+            this.acceptRanges = acceptRanges;
+            this.failures = new AtomicInteger(failures);
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/file", this::handle);
+            server.start();
+        }
+
+        URI uri() {
+            return URI.create("http://localhost:%d/file".formatted(server.getAddress().getPort()));
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                var headers = exchange.getResponseHeaders();
+                headers.set("ETag", etag);
+
+                if (acceptRanges) {
+                    headers.set("Accept-Ranges", "bytes");
+                }
+
+                if (exchange.getRequestMethod().equals("HEAD")) {
+                    headers.set("Content-Length", Integer.toString(content.length));
+                    exchange.sendResponseHeaders(200, -1);
+
+                    if (changeAfterHead) {
+                        etag = "\"v2\"";
+                    }
+
+                    return;
+                }
+
+                var range = exchange.getRequestHeaders().getFirst("Range");
+                var ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+
+                if (ifRange != null) {
+                    ifRanges.add(ifRange);
+                }
+
+                if (!acceptRanges || range == null || ifRange != null && (ifRange.startsWith("W/") || !ifRange.equals(etag))) {
+                    exchange.sendResponseHeaders(200, content.length);
+                    exchange.getResponseBody().write(content);
+                    return;
+                }
+
+                ranges.add(range);
+                var bounds = range.substring("bytes=".length()).split("-");
+                int from = Integer.parseInt(bounds[0]);
+                int to = Integer.parseInt(bounds[1]) + 1;
+                headers.set("Content-Range", "bytes %d-%d/%d".formatted(from, to - 1, content.length));
+                exchange.sendResponseHeaders(206, to - from);
+
+                if (failures.getAndDecrement() > 0) {
+                    exchange.getResponseBody().write(content, from, (to - from) / 2);
+                    exchange.getResponseBody().flush();
+                    throw new IOException("Cut off"); // Closes the connection before the rest of the range
+                }
+
+                exchange.getResponseBody().write(content, from, to - from);
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
+
+    private static byte[] content() {
+        var content = new byte[SIZE];
+        new Random(SIZE).nextBytes(content);
+        return content;
+    }
+
+    private static String crc32c(byte[] content) {
+        var crc32c = new CRC32C();
+        crc32c.update(content);
+        return String.format("%08x", crc32c.getValue());
+    }
+
+    @Test
+    void givenServerThatAcceptsRanges_download_shouldFetchEachSegmentInParallel() throws Exception {
+        var content = content();
+
+        try (var server = new FileServer(content, true, 0);
+             var downloader = new ParallelDownloader.Builder().setSegments(4).build()) {
+            // Given
+            var target = directory.resolve("file.dat");
+
+            // When
+            var download = downloader.download(server.uri(), target, crc32c(content));
+
+            // Then
+            assertThat(Files.readAllBytes(target)).isEqualTo(content);
+            assertThat(download.segments()).isEqualTo(4);
+            assertThat(download.bytes()).isEqualTo(SIZE);
+            assertThat(download.resumedBytes()).isZero();
+            assertThat(download.crc32c()).isEqualTo(crc32c(content));
+            assertThat(server.ranges).containsExactlyInAnyOrder("bytes=0-262143", "bytes=262144-524287", "bytes=524288-786431", "bytes=786432-1048575");
+            assertThat(Files.exists(directory.resolve("file.dat" + ParallelDownloader.PART_SUFFIX))).isFalse();
+        }
+    }
+
+    @Test
+    void givenFailedDownload_download_shouldResumeEachSegmentFromWhereItStopped() throws Exception {
+        var content = content();
+
+        try (var server = new FileServer(content, true, 4);
+             var downloader = new ParallelDownloader.Builder().setSegments(4).build()) {
+            // Given
+            var target = directory.resolve("file.dat");
+            var part = directory.resolve("file.dat" + ParallelDownloader.PART_SUFFIX);
+            assertThatThrownBy(() -> downloader.download(server.uri(), target)).isInstanceOf(IOException.class);
+            assertThat(Files.exists(part)).isTrue();
+            assertThat(Files.exists(Path.of(part + ParallelDownloader.PROGRESS_SUFFIX))).isTrue();
+            server.ranges.clear();
+            server.ifRanges.clear();
+
+            // When
+            var download = downloader.download(server.uri(), target);
+
+            // Then
+            assertThat(Files.readAllBytes(target)).isEqualTo(content);
+            assertThat(download.resumedBytes()).isPositive();
+            assertThat(server.ranges).hasSize(4).noneMatch(range -> range.startsWith("bytes=0-"));
+            assertThat(server.ifRanges).hasSize(4).containsOnly(ETAG);
+            assertThat(download.crc32c()).isEqualTo(crc32c(content));
+            assertThat(Files.exists(part)).isFalse();
+        }
+    }
+
+    @Test
+    void givenServerThatDoesNotAcceptRanges_download_shouldFetchTheWholeFileWithOneRequest() throws Exception {
+        var content = content();
+
+        try (var server = new FileServer(content, false, 0);
+             var downloader = new ParallelDownloader.Builder().setSegments(4).build()) {
+            // Given
+            var target = directory.resolve("file.dat");
+
+            // When
+            var download = downloader.download(server.uri(), target);
+
+            // Then
+            assertThat(Files.readAllBytes(target)).isEqualTo(content);
+            assertThat(download.segments()).isEqualTo(1);
+            assertThat(server.ranges).isEmpty();
+        }
+    }
+
+    @Test
+    void givenWrongChecksum_download_shouldThrowAndDeleteThePartialFile() throws Exception {
+        try (var server = new FileServer(content(), true, 0);
+             var downloader = new ParallelDownloader.Builder().build()) {
+            // Given
+            var target = directory.resolve("file.dat");
+
+            // When, Then
+            assertThatThrownBy(() -> downloader.download(server.uri(), target, "00000000"))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("CRC32C");
+            assertThat(Files.exists(target)).isFalse();
+            assertThat(Files.exists(directory.resolve("file.dat" + ParallelDownloader.PART_SUFFIX))).isFalse();
+        }
+    }
+
+    @Test
+    void givenWeakETag_download_shouldFetchTheSegmentsWithoutIfRange() throws Exception {
+        var content = content();
+
+        try (var server = new FileServer(content, true, 0, WEAK_ETAG);
+             var downloader = new ParallelDownloader.Builder().setSegments(4).build()) {
+            // Given
+            var target = directory.resolve("file.dat");
+
+            // When
+            var download = downloader.download(server.uri(), target, crc32c(content));
+
+            // Then
+            assertThat(Files.readAllBytes(target)).isEqualTo(content);
+            assertThat(download.segments()).isEqualTo(4);
+            assertThat(server.ranges).hasSize(4);
+            assertThat(server.ifRanges).isEmpty();
+        }
+    }
+
+    @Test
+    void givenWeakETagAndFailedDownload_download_shouldStartOverInsteadOfResuming() throws Exception {
+        var content = content();
+
+        try (var server = new FileServer(content, true, 4, WEAK_ETAG);
+             var downloader = new ParallelDownloader.Builder().setSegments(4).build()) {
+            // Given
+            var target = directory.resolve("file.dat");
+            assertThatThrownBy(() -> downloader.download(server.uri(), target)).isInstanceOf(IOException.class);
+            server.ranges.clear();
+
+            // When
+            var download = downloader.download(server.uri(), target);
+
+            // Then
+            assertThat(Files.readAllBytes(target)).isEqualTo(content);
+            assertThat(download.resumedBytes()).isZero();
+            assertThat(server.ranges).contains("bytes=0-262143");
+            assertThat(server.ifRanges).isEmpty();
+        }
+    }
+
+    @Test
+    void givenETagChangedAfterHead_download_shouldThrowInsteadOfMixingTwoVersions() throws Exception {
+        try (var server = new FileServer(content(), true, 0);
+             var downloader = new ParallelDownloader.Builder().setSegments(4).build()) {
+            // Given
+            var target = directory.resolve("file.dat");
+            server.changeAfterHead = true;
+
+            // When, Then
+            assertThatThrownBy(() -> downloader.download(server.uri(), target))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("returned 200 instead of 206");
+            assertThat(server.ifRanges).isNotEmpty().containsOnly(ETAG);
+            assertThat(server.ranges).isEmpty();
+            assertThat(Files.exists(target)).isFalse();
+        }
+    }
+
+    @Test
+    void givenZeroSegments_setSegments_shouldThrowIllegalArgumentException() {
+        // When, Then
+        assertThatThrownBy(() -> new ParallelDownloader.Builder().setSegments(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,253 @@
+package com.sanver.basics.network;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelectorChatServerTest {
+
+    private static Socket connect(SelectorChatServer server, String name) throws IOException {
+        var socket = new Socket("localhost", server.port());
+        socket.setSoTimeout(5_000);
+        send(socket, name);
+        return socket;
+    }
+
+    private static void send(Socket socket, String line) throws IOException {
+        socket.getOutputStream().write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static String readUntil(BufferedReader reader, String expected) throws IOException {
+        String line;
+
+        while ((line = reader.readLine()) != null && !line.equals(expected)) {
+        }
+
+        return line;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Nested
+    class Echo {
+        @Test
+        void givenEchoMode_send_shouldReturnTheSameLines() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setMode(SelectorChatServer.Mode.ECHO).build();
+                 var client = connect(server, "client")) {
+                // Given
+                var reader = reader(client);
+
+                // When
+                send(client, "hello");
+                send(client, "x".repeat(SelectorChatServer.MAX_LINE_LENGTH - 1));
+
+                // Then
+                assertThat(reader.readLine()).isEqualTo("hello");
+                assertThat(reader.readLine()).hasSize(SelectorChatServer.MAX_LINE_LENGTH - 1);
+                assertThat(server.messagesReceived()).isEqualTo(2);
+            }
+        }
+    }
+
+    @Nested
+    class Broadcast {
+        @Test
+        void givenClientsOnDifferentEventLoops_send_shouldReachAllTheOtherClients() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setEventLoops(2).build();
+                 var alice = connect(server, "alice");
+                 var bob = connect(server, "bob");
+                 var carol = connect(server, "carol")) {
+                // Given
+                var aliceReader = reader(alice);
+                var bobReader = reader(bob);
+                var carolReader = reader(carol);
+                await(() -> server.connectionCount() == 3);
+                readUntil(aliceReader, "carol joined the conversation");
+                readUntil(bobReader, "carol joined the conversation");
+
+                // When
+                send(alice, "hi");
+
+                // Then
+                assertThat(readUntil(bobReader, "alice: hi")).isNotNull();
+                assertThat(readUntil(carolReader, "alice: hi")).isNotNull();
+            }
+        }
+    }
+
+    @Nested
+    class Frames {
+        private static Socket connect(SelectorChatServer server, String name) throws IOException {
+            var socket = new Socket("localhost", server.port());
+            socket.setSoTimeout(5_000);
+            socket.getOutputStream().write(frame(name));
+            return socket;
+        }
+
+        private static byte[] frame(String text) {
+            var payload = text.getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(FrameCodec.HEADER_LENGTH + payload.length).putInt(payload.length).put(payload).array();
+        }
+
+        private static String readFrame(DataInputStream input) throws IOException {
+            return new String(input.readNBytes(input.readInt()), StandardCharsets.UTF_8);
+        }
+
+        @Test
+        void givenFramesSplitAcrossWrites_send_shouldReturnTheSameFrames() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setMode(SelectorChatServer.Mode.ECHO).setProtocol(Protocol.FRAMES).build();
+                 var client = connect(server, "client")) {
+                // Given
+                var input = new DataInputStream(client.getInputStream());
+                var large = "x".repeat(FrameCodec.MAX_FRAME_LENGTH);
+                var bytes = ByteBuffer.allocate(3 * FrameCodec.HEADER_LENGTH + 5 + large.length() + 5)
+                        .put(frame("hello")).put(frame(large)).put(frame("world")).array();
+                var output = client.getOutputStream();
+
+                // When
+                output.write(bytes, 0, 11); // The first frame and half of the header of the second
+                output.flush();
+                Thread.sleep(50);
+                output.write(bytes, 11, bytes.length - 11);
+
+                // Then
+                assertThat(readFrame(input)).isEqualTo("hello");
+                assertThat(readFrame(input)).isEqualTo(large);
+                assertThat(readFrame(input)).isEqualTo("world");
+                assertThat(server.messagesReceived()).isEqualTo(3);
+            }
+        }
+
+        @Test
+        void givenBroadcastMode_send_shouldSendPrefixedFramesToTheOtherClients() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setProtocol(Protocol.FRAMES).build();
+                 var alice = connect(server, "alice");
+                 var bob = connect(server, "bob")) {
+                // Given
+                var bobInput = new DataInputStream(bob.getInputStream());
+                await(() -> server.connectionCount() == 2);
+
+                // When
+                alice.getOutputStream().write(frame("hi\nthere"));
+
+                // Then
+                String received;
+
+                do {
+                    received = readFrame(bobInput);
+                } while (!received.startsWith("alice: "));
+
+                assertThat(received).isEqualTo("alice: hi\nthere");
+            }
+        }
+
+        @Test
+        void givenInvalidFrameLength_send_shouldCloseTheConnection() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setMode(SelectorChatServer.Mode.ECHO).setProtocol(Protocol.FRAMES).build();
+                 var client = connect(server, "client")) {
+                // When
+                client.getOutputStream().write(ByteBuffer.allocate(FrameCodec.HEADER_LENGTH).putInt(-1).array());
+
+                // Then
+                assertThat(client.getInputStream().read()).isEqualTo(-1);
+                await(() -> server.connectionCount() == 0);
+                assertThat(server.connectionCount()).isZero();
+            }
+        }
+    }
+
+    @Nested
+    class SlowConsumer {
+        private Socket connectWithoutReading(SelectorChatServer server) throws IOException {
+            var socket = new Socket();
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", server.port()));
+            send(socket, "slow");
+            return socket;
+        }
+
+        private void flood(Socket sender) throws IOException {
+            OutputStream output = sender.getOutputStream();
+            var line = ("x".repeat(999) + "\n").getBytes(StandardCharsets.UTF_8);
+
+            for (int i = 0; i < 20_000; i++) {
+                output.write(line);
+            }
+        }
+
+        @Test
+        void givenDisconnectPolicy_clientThatDoesNotRead_shouldBeDisconnected() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setEventLoops(1).setMaxQueuedBytes(64 << 10)
+                    .setSlowConsumerPolicy(SelectorChatServer.SlowConsumerPolicy.DISCONNECT).build();
+                 var slow = connectWithoutReading(server);
+                 var sender = connect(server, "sender")) {
+                // When
+                flood(sender);
+                await(() -> server.slowConsumersDisconnected() == 1);
+
+                // Then
+                assertThat(server.slowConsumersDisconnected()).isEqualTo(1);
+                await(() -> server.connectionCount() == 1);
+                assertThat(server.connectionCount()).isEqualTo(1);
+            }
+        }
+
+        @Test
+        void givenDropPolicy_clientThatDoesNotRead_shouldMissMessagesButStayConnected() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setEventLoops(1).setMaxQueuedBytes(64 << 10)
+                    .setSlowConsumerPolicy(SelectorChatServer.SlowConsumerPolicy.DROP_MESSAGES).build();
+                 var slow = connectWithoutReading(server);
+                 var sender = connect(server, "sender")) {
+                // When
+                flood(sender);
+                await(() -> server.messagesReceived() == 20_000);
+
+                // Then
+                assertThat(server.messagesDropped()).isPositive();
+                assertThat(server.slowConsumersDisconnected()).isZero();
+                assertThat(server.connectionCount()).isEqualTo(2);
+            }
+        }
+    }
+
+    @Nested
+    class LoadGenerator {
+        @Test
+        void givenEchoServer_run_shouldReportRoundTrips() throws Exception {
+            try (var server = new SelectorChatServer.Builder().setPort(0).setMode(SelectorChatServer.Mode.ECHO).setEventLoops(2).build()) {
+                // When
+                var report = new ChatLoadGenerator(new InetSocketAddress("localhost", server.port()), 100, 2).run(Duration.ofMillis(500));
+
+                // Then
+                assertThat(report.servedConnections()).isEqualTo(100);
+                assertThat(report.messages()).isPositive();
+                assertThat(report.messagesPerSecond()).isPositive();
+                assertThat(report.latencies().count()).isEqualTo(report.messages());
+                assertThat(report.latencies().percentile(99)).isPositive();
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.sanver.basics.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadServerTest {
+
+    private static Socket connect(VirtualThreadServer server, String name) throws IOException {
+        var socket = new Socket("localhost", server.port());
+        socket.setSoTimeout(5_000);
+        send(socket, name);
+        return socket;
+    }
+
+    private static void send(Socket socket, String line) throws IOException {
+        socket.getOutputStream().write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void await(VirtualThreadServer server, int connections) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+
+        while (server.connectionCount() != connections && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void givenClients_send_shouldReturnTheSameLinesToEachClient() throws Exception {
+        try (var server = new VirtualThreadServer.Builder().setPort(0).build();
+             var first = connect(server, "first");
+             var second = connect(server, "second")) {
+            // When
+            send(first, "hello");
+            send(second, "world");
+
+            // Then
+            assertThat(reader(first).readLine()).isEqualTo("hello");
+            assertThat(reader(second).readLine()).isEqualTo("world");
+            assertThat(server.messagesReceived()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void givenMaxConnectionsReached_connect_shouldTellTheClientThatTheServerIsBusy() throws Exception {
+        try (var server = new VirtualThreadServer.Builder().setPort(0).setMaxConnections(1).build();
+             var first = connect(server, "first")) {
+            await(server, 1);
+
+            try (var second = connect(server, "second")) {
+                // When
+                var response = reader(second).readLine();
+
+                // Then
+                assertThat(response).isEqualTo(VirtualThreadServer.BUSY);
+                assertThat(server.rejectedConnections()).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void givenIdleClient_server_shouldCloseTheConnectionAfterTheIdleTimeout() throws Exception {
+        try (var server = new VirtualThreadServer.Builder().setPort(0).setIdleTimeout(Duration.ofMillis(100)).build();
+             var client = connect(server, "idle")) {
+            // When
+            var line = reader(client).readLine();
+
+            // Then
+            assertThat(line).isNull();
+            await(server, 0);
+            assertThat(server.idleTimeouts()).isEqualTo(1);
+            assertThat(server.connectionCount()).isZero();
+        }
+    }
+
+    @Test
+    void givenConnectedClient_close_shouldAnswerTheNextLineAndThenCloseTheConnection() throws Exception {
+        var server = new VirtualThreadServer.Builder().setPort(0).setShutdownTimeout(Duration.ofSeconds(5)).build();
+
+        try (var client = connect(server, "client")) {
+            // Given
+            var reader = reader(client);
+            await(server, 1);
+            var closed = CompletableFuture.runAsync(server::close);
+
+            // When
+            Thread.sleep(100);
+            send(client, "last");
+
+            // Then
+            assertThat(reader.readLine()).isEqualTo("last");
+            assertThat(reader.readLine()).isNull();
+            closed.join();
+            assertThat(server.connectionCount()).isZero();
+        }
+    }
+
+    @Test
+    void givenFramesProtocol_send_shouldReturnEachFrameAsItIs() throws Exception {
+        try (var server = new VirtualThreadServer.Builder().setPort(0).setProtocol(Protocol.FRAMES).build();
+             var client = new Socket("localhost", server.port())) {
+            // Given
+            client.setSoTimeout(5_000);
+            var frames = ByteBuffer.allocate(256);
+            FrameCodec.encode(ByteBuffer.wrap("client".getBytes(StandardCharsets.UTF_8)), frames);
+            FrameCodec.encode(ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8)), frames);
+            FrameCodec.encode(ByteBuffer.wrap(new byte[]{'\n', 0, -1}), frames);
+            var bytes = Arrays.copyOf(frames.array(), frames.position());
+            var output = client.getOutputStream();
+
+            // When
+            output.write(bytes, 0, 7); // The name split in the middle of its payload
+            output.flush();
+            Thread.sleep(50);
+            output.write(bytes, 7, bytes.length - 7);
+
+            // Then
+            var input = new DataInputStream(client.getInputStream());
+            assertThat(input.readInt()).isEqualTo(5);
+            assertThat(input.readNBytes(5)).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+            assertThat(input.readInt()).isEqualTo(3);
+            assertThat(input.readNBytes(3)).isEqualTo(new byte[]{'\n', 0, -1});
+            assertThat(server.messagesReceived()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.sanver.basics.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void givenEveryBucket_highestValueOf_shouldBeJustBelowTheNextBucket() {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKET_COUNT - 1; bucket++) {
+            var highest = LatencyHistogram.highestValueOf(bucket);
+
+            assertThat(LatencyHistogram.bucketOf(highest)).isEqualTo(bucket);
+            assertThat(LatencyHistogram.bucketOf(highest + 1)).isEqualTo(bucket + 1);
+        }
+
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    }
+
+    @Test
+    void givenUniformValues_percentile_shouldBeWithinTheBucketPrecision() {
+        // Given
+        var histogram = new LatencyHistogram();
+
+        // When
+        IntStream.rangeClosed(1, 100_000).parallel().forEach(histogram::record);
+
+        // Then
+        assertThat(histogram.count()).isEqualTo(100_000);
+        assertThat(histogram.max()).isEqualTo(100_000);
+        assertThat(histogram.mean()).isCloseTo(50_000.5, within(0.001));
+        assertThat(histogram.percentile(50)).isBetween(50_000L, 50_000L + 50_000 / LatencyHistogram.SUB_BUCKETS);
+        assertThat(histogram.percentile(99)).isBetween(99_000L, 100_000L);
+        assertThat(histogram.percentile(100)).isEqualTo(100_000);
+    }
+
+    @Test
+    void givenNegativeValue_record_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> new LatencyHistogram().record(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}